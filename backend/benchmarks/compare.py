@@ -0,0 +1,62 @@
+#!/usr/bin/env python3
+"""
+Compares a JMH JSON result file with the committed baseline and flags regressions.
+
+  ./compare.py results.json [--baseline baseline/results.json] [--threshold 10]
+
+A benchmark regresses when its score is more than --threshold percent slower than the
+baseline AND the difference is larger than the two error margins combined (so noise on a
+shared machine does not fail the comparison). Exits 1 if anything regressed.
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        params = ",".join("%s=%s" % item for item in sorted((result.get("params") or {}).items()))
+        name = result["benchmark"].rsplit(".", 2)
+        key = ".".join(name[-2:]) + ("(" + params + ")" if params else "")
+        metric = result["primaryMetric"]
+        error = metric.get("scoreError")
+        scores[key] = (metric["score"], error if isinstance(error, (int, float)) else 0.0, metric["scoreUnit"])
+    return scores
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[1])
+    parser.add_argument("results")
+    parser.add_argument("--baseline", default="baseline/results.json")
+    parser.add_argument("--threshold", type=float, default=10.0, help="percent")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.results)
+    regressed = 0
+    print("%-70s %12s %12s %8s" % ("benchmark", "baseline", "current", "change"))
+    for key in sorted(set(baseline) | set(current)):
+        if key not in baseline or key not in current:
+            print("%-70s %s" % (key, "only in " + ("results" if key in current else "baseline")))
+            continue
+        base, base_error, unit = baseline[key]
+        score, error, _ = current[key]
+        change = (score - base) / base * 100
+        # Average-time scores: higher is slower
+        flag = ""
+        if change > args.threshold and score - base > base_error + error:
+            flag = "  REGRESSION"
+            regressed += 1
+        elif change < -args.threshold and base - score > base_error + error:
+            flag = "  improved"
+        print("%-70s %9.3f %s %9.3f %s %+7.1f%%%s" % (key, base, unit, score, unit, change, flag))
+    if regressed:
+        print("\n%d benchmark(s) regressed by more than %.0f%%" % (regressed, args.threshold))
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
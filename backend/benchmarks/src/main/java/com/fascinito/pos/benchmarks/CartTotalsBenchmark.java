@@ -0,0 +1,59 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.dto.cart.CartResponse;
+import com.fascinito.pos.entity.CartItem;
+import com.fascinito.pos.entity.User;
+import com.fascinito.pos.repository.CartItemRepository;
+import com.fascinito.pos.repository.UserRepository;
+import com.fascinito.pos.service.CartService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartService.getCart: line pricing (plain, option, combination), per-product tax and the
+ * shipping rule, with the repositories answering from memory
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartTotalsBenchmark {
+
+    @Param({"3", "10", "40"})
+    public int lines;
+
+    private CartService cartService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures(42);
+        User user = fixtures.user(1001);
+        List<CartItem> cart = fixtures.cart(user, lines);
+        userId = user.getId();
+        cartService = Internals.construct(CartService.class, Map.of(
+                UserRepository.class, Internals.stub(UserRepository.class, Map.of("findById", args -> Optional.of(user))),
+                CartItemRepository.class, Internals.stub(CartItemRepository.class, Map.of("findByUser", args -> cart))));
+    }
+
+    @Benchmark
+    public CartResponse getCart() {
+        return cartService.getCart(userId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.service.EmailTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmailTemplateService.processTemplate: placeholder substitution for an order status email
+ * (subject and HTML body), run on every status change
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplateService emailTemplateService;
+    private Order order;
+    private String subject;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures(42);
+        emailTemplateService = Internals.construct(EmailTemplateService.class);
+        order = fixtures.order(1001, 4);
+        subject = "Your {{companyName}} order {{orderId}} is {{orderStatus}}";
+        body = fixtures.emailTemplate();
+    }
+
+    @Benchmark
+    public String processSubject() {
+        return emailTemplateService.processTemplate(subject, order);
+    }
+
+    @Benchmark
+    public String processBody() {
+        return emailTemplateService.processTemplate(body, order);
+    }
+}
@@ -0,0 +1,246 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.entity.CartItem;
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.entity.OrderItem;
+import com.fascinito.pos.entity.OrderStatusHistory;
+import com.fascinito.pos.entity.Payment;
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductImage;
+import com.fascinito.pos.entity.ProductVariantCombination;
+import com.fascinito.pos.entity.ProductVariation;
+import com.fascinito.pos.entity.User;
+import com.fascinito.pos.entity.VariationOption;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic (seeded) fixtures shaped like production data: Indian-rupee prices with paise,
+ * 1-5 images per product, GST-style tax rates, a mix of plain, single-option and variant
+ * combination cart lines, and orders with a full status history and payment.
+ */
+final class Fixtures {
+
+    private static final String[] TITLES = {
+            "Handloom Cotton Saree", "Silver Jhumka Earrings", "Kundan Necklace Set", "Silk Dupatta",
+            "Embroidered Kurti", "Oxidised Bangles", "Leather Juttis", "Block Print Bedsheet"};
+    private static final BigDecimal[] TAX_RATES = {
+            BigDecimal.ZERO, new BigDecimal("5"), new BigDecimal("12"), new BigDecimal("18")};
+    private static final String[] VARIATION_TYPES = {"Color", "Size", "Material", "Finish", "Pattern"};
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 11, 15, 14, 30);
+
+    private final Random random;
+
+    Fixtures(long seed) {
+        this.random = new Random(seed);
+    }
+
+    User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("customer" + id + "@example.com");
+        user.setFirstName("Ananya");
+        user.setLastName("Sharma");
+        user.setPhone("+91 98" + String.format("%08d", id));
+        user.setCreatedAt(NOW.minusDays(90));
+        user.setUpdatedAt(NOW.minusDays(1));
+        return user;
+    }
+
+    Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(TITLES[(int) (id % TITLES.length)] + " #" + id);
+        product.setRegularPrice(price(199, 4999));
+        product.setSalePrice(random.nextBoolean() ? product.getRegularPrice().multiply(new BigDecimal("0.85"))
+                .setScale(2, RoundingMode.HALF_UP) : null);
+        product.setTaxRate(TAX_RATES[random.nextInt(TAX_RATES.length)]);
+        product.setTaxExempt(random.nextInt(10) == 0);
+        product.setStockQuantity(random.nextInt(200));
+        int images = 1 + random.nextInt(5);
+        for (int i = 0; i < images; i++) {
+            ProductImage image = new ProductImage();
+            image.setId(id * 10 + i);
+            image.setProduct(product);
+            image.setImageUrl("/uploads/products/" + id + "-" + i + ".jpg");
+            image.setDisplayOrder(i);
+            product.getImages().add(image);
+        }
+        return product;
+    }
+
+    /**
+     * Product with variations x optionsPerVariation active options
+     */
+    Product productWithVariations(long id, int variations, int optionsPerVariation) {
+        Product product = product(id);
+        for (int v = 0; v < variations; v++) {
+            ProductVariation variation = new ProductVariation();
+            variation.setId(id * 100 + v);
+            variation.setProduct(product);
+            variation.setType(VARIATION_TYPES[v % VARIATION_TYPES.length]);
+            variation.setName(variation.getType());
+            for (int o = 0; o < optionsPerVariation; o++) {
+                VariationOption option = new VariationOption();
+                option.setId(id * 10_000 + v * 100L + o);
+                option.setVariation(variation);
+                option.setName(variation.getType() + "-" + o);
+                option.setPriceAdjustment(price(0, 250));
+                option.setStockQuantity(random.nextInt(50));
+                variation.getOptions().add(option);
+            }
+            product.getVariations().add(variation);
+        }
+        product.setStockQuantity(0);
+        return product;
+    }
+
+    Order order(long id, int itemCount) {
+        User user = user(id);
+        Order order = Order.builder()
+                .id(id)
+                .orderNumber("ORD-" + Long.toString(id * 7919, 32).toUpperCase())
+                .user(user)
+                .status(Order.OrderStatus.SHIPPED)
+                .shippingAddress("12, MG Road, Indiranagar, Bengaluru, Karnataka 560038")
+                .billingAddress("12, MG Road, Indiranagar, Bengaluru, Karnataka 560038")
+                .notes("Please gift wrap")
+                .items(new ArrayList<>())
+                .statusHistory(new ArrayList<>())
+                .refunds(new ArrayList<>())
+                .refundRequests(new ArrayList<>())
+                .cancellations(new ArrayList<>())
+                .refundStatus("NOT_REQUIRED")
+                .createdAt(NOW.minusDays(3))
+                .updatedAt(NOW)
+                .build();
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            Product product = product(id * 100 + i);
+            int quantity = 1 + random.nextInt(3);
+            BigDecimal lineSubtotal = product.getRegularPrice().multiply(BigDecimal.valueOf(quantity));
+            BigDecimal lineTax = lineSubtotal.multiply(product.getTaxRate()).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+            order.getItems().add(OrderItem.builder()
+                    .id(id * 100 + i)
+                    .order(order)
+                    .product(product)
+                    .quantity(quantity)
+                    .unitPrice(product.getRegularPrice())
+                    .subtotal(lineSubtotal)
+                    .taxAmount(lineTax)
+                    .totalPrice(lineSubtotal.add(lineTax))
+                    .createdAt(order.getCreatedAt())
+                    .build());
+            subtotal = subtotal.add(lineSubtotal);
+            tax = tax.add(lineTax);
+        }
+        order.setSubtotal(subtotal);
+        order.setTaxAmount(tax);
+        order.setShippingCost(BigDecimal.ZERO);
+        order.setDiscount(BigDecimal.ZERO);
+        order.setTotalAmount(subtotal.add(tax));
+
+        Order.OrderStatus[] history = {Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PROCESSING, Order.OrderStatus.SHIPPED};
+        for (int i = 0; i < history.length; i++) {
+            order.getStatusHistory().add(OrderStatusHistory.builder()
+                    .id(id * 10 + i)
+                    .order(order)
+                    .status(history[i])
+                    .notes("Status updated to " + history[i])
+                    .updatedBy("admin@fascinito.com")
+                    .createdAt(order.getCreatedAt().plusHours(i * 6L))
+                    .build());
+        }
+        order.setPayment(Payment.builder()
+                .id(id)
+                .order(order)
+                .transactionId("pay_" + Long.toHexString(id * 104729))
+                .razorpayOrderId("order_" + Long.toHexString(id * 15485863))
+                .razorpayPaymentId("pay_" + Long.toHexString(id * 104729))
+                .paymentMethod(Payment.PaymentMethod.RAZORPAY)
+                .status(Payment.PaymentStatus.COMPLETED)
+                .amount(order.getTotalAmount())
+                .currency("INR")
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getCreatedAt().plusMinutes(2))
+                .build());
+        return order;
+    }
+
+    /**
+     * Cart lines: roughly half plain products, a quarter single options, a quarter combinations
+     */
+    List<CartItem> cart(User user, int lines) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = product(1000 + i);
+            CartItem item = CartItem.builder()
+                    .id((long) i + 1)
+                    .user(user)
+                    .product(product)
+                    .quantity(1 + random.nextInt(4))
+                    .createdAt(NOW.minusHours(lines - i))
+                    .updatedAt(NOW.minusHours(lines - i))
+                    .build();
+            int kind = random.nextInt(4);
+            if (kind == 0) {
+                VariationOption option = new VariationOption();
+                option.setId(5000L + i);
+                option.setName("Size-" + (i % 5));
+                option.setPriceAdjustment(price(0, 150));
+                item.setVariationOption(option);
+            } else if (kind == 1) {
+                ProductVariantCombination combination = new ProductVariantCombination();
+                combination.setId(7000L + i);
+                combination.setProduct(product);
+                combination.setPrice(product.getRegularPrice().add(price(0, 300)));
+                combination.setStock(10);
+                item.setVariantCombination(combination);
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Order email body in the style of the stored templates: every placeholder, some twice
+     */
+    String emailTemplate() {
+        return """
+                <!DOCTYPE html>
+                <html><head><meta charset="UTF-8"><title>{{companyName}} order {{orderId}}</title>
+                <style>body{font-family:Arial,sans-serif;color:#333}table{width:100%;border-collapse:collapse}
+                td{padding:8px;border-bottom:1px solid #eee}.total{font-weight:bold}</style></head>
+                <body><div class="container">
+                <h1>Hi {{customerName}},</h1>
+                <p>Your order <strong>{{orderId}}</strong> placed on {{orderDate}} is now <strong>{{orderStatus}}</strong>.</p>
+                <p>Tracking ID: {{trackingId}} &middot; Invoice: {{invoiceNumber}}</p>
+                <table>
+                <tr><td>Subtotal</td><td>&#8377;{{subtotal}}</td></tr>
+                <tr><td>Tax</td><td>&#8377;{{taxAmount}}</td></tr>
+                <tr><td>Shipping</td><td>&#8377;{{shippingCost}}</td></tr>
+                <tr><td>Discount</td><td>-&#8377;{{discount}}</td></tr>
+                <tr class="total"><td>Total</td><td>&#8377;{{totalAmount}}</td></tr>
+                </table>
+                <h3>Shipping to</h3><p>{{shippingAddress}}</p>
+                <h3>Billing address</h3><p>{{billingAddress}}</p>
+                <p>Notes: {{notes}}</p>
+                <p>We will keep you posted at {{customerEmail}} / {{customerPhone}}.</p>
+                <p>Questions? Write to {{supportEmail}}.</p>
+                <p>Thank you for shopping with {{companyName}}!<br>Team {{companyName}}</p>
+                </div></body></html>
+                """;
+    }
+
+    private BigDecimal price(int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100 + 1), 2);
+    }
+}
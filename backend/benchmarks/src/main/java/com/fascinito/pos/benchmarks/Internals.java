@@ -0,0 +1,84 @@
+package com.fascinito.pos.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Access to the application's services outside Spring: services are constructed with only the
+ * collaborators a benchmark needs (others null), @Value fields are set directly, and private
+ * hot paths are called through method handles so the benchmarks measure the production code
+ * rather than copies of it.
+ */
+final class Internals {
+
+    private Internals() {
+    }
+
+    /**
+     * Instantiate a service through its injection constructor
+     * @param dependencies Collaborators by type; other parameters are null
+     */
+    static <T> T construct(Class<T> type, Map<Class<?>, Object> dependencies) {
+        Constructor<?> constructor = type.getDeclaredConstructors()[0];
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            args[i] = dependencies.get(parameterTypes[i]);
+        }
+        try {
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot construct " + type.getSimpleName(), e);
+        }
+    }
+
+    static <T> T construct(Class<T> type) {
+        return construct(type, Map.of());
+    }
+
+    /**
+     * Set a (typically @Value) field
+     */
+    static void set(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName, e);
+        }
+    }
+
+    /**
+     * Handle for a private method, with the receiver as first argument
+     */
+    static MethodHandle method(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            var method = type.getDeclaredMethod(name, parameterTypes);
+            return lookup.unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access " + type.getSimpleName() + "." + name, e);
+        }
+    }
+
+    /**
+     * Repository stand-in answering calls by method name
+     */
+    static <T> T stub(Class<T> repository, Map<String, Function<Object[], Object>> answers) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+                }));
+    }
+}
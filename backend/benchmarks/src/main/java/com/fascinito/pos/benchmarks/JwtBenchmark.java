@@ -0,0 +1,65 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtTokenProvider on the authentication path: JwtAuthenticationFilter parses the token
+ * (extractUsername) and validates it (validateToken parses it twice more) on every request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    // Default jwt.secret from application.yml
+    private static final String SECRET = "yourSecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = Internals.construct(JwtTokenProvider.class);
+        Internals.set(jwtTokenProvider, "secret", SECRET);
+        Internals.set(jwtTokenProvider, "accessTokenExpiration", 3_600_000L);
+        Internals.set(jwtTokenProvider, "refreshTokenExpiration", 604_800_000L);
+        userDetails = new User("customer1001@example.com", "", List.of());
+        token = jwtTokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtTokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtTokenProvider.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean authenticateRequest() {
+        // What JwtAuthenticationFilter does per request, minus the user lookup
+        String username = jwtTokenProvider.extractUsername(token);
+        return username != null && jwtTokenProvider.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.dto.order.OrderResponse;
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.mapToResponse(order, items): OrderResponse assembly with items, payment and
+ * status history, done for every order in list and detail responses. Loading is excluded
+ * (the overload taking pre-loaded items is measured).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    private static final MethodHandle MAP_TO_RESPONSE =
+            Internals.method(OrderService.class, "mapToResponse", Order.class, List.class);
+
+    @Param({"1", "5", "20"})
+    public int items;
+
+    private OrderService orderService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        orderService = Internals.construct(OrderService.class);
+        order = new Fixtures(42).order(1001, items);
+    }
+
+    @Benchmark
+    public OrderResponse mapToResponse() throws Throwable {
+        return (OrderResponse) MAP_TO_RESPONSE.invoke(orderService, order, order.getItems());
+    }
+}
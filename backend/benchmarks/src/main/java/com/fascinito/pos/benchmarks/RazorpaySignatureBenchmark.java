@@ -0,0 +1,53 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.service.RazorpayService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RazorpayService.verifySignature: HMAC-SHA256 of "order_id|payment_id" with the key secret,
+ * hex encoded and compared, done on every payment verification
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RazorpaySignatureBenchmark {
+
+    private static final MethodHandle VERIFY_SIGNATURE =
+            Internals.method(RazorpayService.class, "verifySignature", String.class, String.class, String.class);
+    private static final MethodHandle CALCULATE_HMAC =
+            Internals.method(RazorpayService.class, "calculateHMAC", String.class, String.class);
+
+    private static final String KEY_SECRET = "Xy7pQ2mN9vR4tL8kJ3hG6fD1";
+    private static final String ORDER_ID = "order_NAvLzE2Wq9k8Jd";
+    private static final String PAYMENT_ID = "pay_NAvM4s7Yc1bXpT";
+
+    private RazorpayService razorpayService;
+    private String validSignature;
+
+    @Setup
+    public void setUp() throws Throwable {
+        razorpayService = Internals.construct(RazorpayService.class);
+        Internals.set(razorpayService, "keySecret", KEY_SECRET);
+        validSignature = (String) CALCULATE_HMAC.invoke(razorpayService, ORDER_ID + "|" + PAYMENT_ID, KEY_SECRET);
+    }
+
+    @Benchmark
+    public boolean verifyValidSignature() throws Throwable {
+        return (boolean) VERIFY_SIGNATURE.invoke(razorpayService, ORDER_ID, PAYMENT_ID, validSignature);
+    }
+}
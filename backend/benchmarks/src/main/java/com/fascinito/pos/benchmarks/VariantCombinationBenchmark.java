@@ -0,0 +1,72 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductVariation;
+import com.fascinito.pos.entity.VariationOption;
+import com.fascinito.pos.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService variant generation: the cartesian product of variation options alone, and the
+ * full generateVariantCombinations pass (prices, stock, option links) done on product save.
+ * shape = variations x options per variation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VariantCombinationBenchmark {
+
+    private static final MethodHandle CARTESIAN_PRODUCT =
+            Internals.method(ProductService.class, "cartesianProduct", List.class);
+    private static final MethodHandle GENERATE_COMBINATIONS =
+            Internals.method(ProductService.class, "generateVariantCombinations", Product.class);
+
+    @Param({"2x3", "3x4", "4x5"})
+    public String shape;
+
+    private ProductService productService;
+    private Product product;
+    private List<List<VariationOption>> options;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = shape.split("x");
+        productService = Internals.construct(ProductService.class);
+        product = new Fixtures(42).productWithVariations(1, Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        options = new ArrayList<>();
+        for (ProductVariation variation : product.getVariations()) {
+            options.add(variation.getOptions());
+        }
+    }
+
+    @Benchmark
+    public Object cartesianProduct() throws Throwable {
+        return (List<?>) CARTESIAN_PRODUCT.invoke(productService, options);
+    }
+
+    @Benchmark
+    public Object generateVariantCombinations() throws Throwable {
+        // The method appends to the product; start from an empty list each time
+        product.getVariantCombinations().clear();
+        GENERATE_COMBINATIONS.invoke(productService, product);
+        return product.getVariantCombinations();
+    }
+}
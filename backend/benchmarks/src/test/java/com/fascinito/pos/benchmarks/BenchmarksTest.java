@@ -0,0 +1,87 @@
+package com.fascinito.pos.benchmarks;
+
+import com.fascinito.pos.dto.cart.CartResponse;
+import com.fascinito.pos.dto.order.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One invocation of every benchmark, outside JMH: the benchmarks reach private production
+ * methods by name, so a refactor that breaks them fails the build here instead of in a
+ * ten-minute benchmark run, and each benchmark is checked to measure a real result
+ */
+class BenchmarksTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 10, 40})
+    void cartTotals(int lines) {
+        CartTotalsBenchmark benchmark = new CartTotalsBenchmark();
+        benchmark.lines = lines;
+        benchmark.setUp();
+
+        CartResponse cart = benchmark.getCart();
+
+        assertThat(cart.getItems()).hasSize(lines);
+        assertThat(cart.getTotalAmount()).isGreaterThan(BigDecimal.ZERO);
+    }
+
+    @Test
+    void emailTemplate() {
+        EmailTemplateBenchmark benchmark = new EmailTemplateBenchmark();
+        benchmark.setUp();
+
+        assertThat(benchmark.processSubject()).doesNotContain("{{");
+        assertThat(benchmark.processBody()).doesNotContain("{{").hasSizeGreaterThan(1000);
+    }
+
+    @Test
+    void jwt() {
+        JwtBenchmark benchmark = new JwtBenchmark();
+        benchmark.setUp();
+
+        assertThat(benchmark.generateAccessToken()).isNotBlank();
+        assertThat(benchmark.extractUsername()).isEqualTo("customer1001@example.com");
+        assertThat(benchmark.authenticateRequest()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void orderMapping(int items) throws Throwable {
+        OrderMappingBenchmark benchmark = new OrderMappingBenchmark();
+        benchmark.items = items;
+        benchmark.setUp();
+
+        OrderResponse response = benchmark.mapToResponse();
+
+        assertThat(response.getOrderNumber()).isNotBlank();
+        assertThat(response.getItems()).hasSize(items);
+    }
+
+    @Test
+    void razorpaySignature() throws Throwable {
+        RazorpaySignatureBenchmark benchmark = new RazorpaySignatureBenchmark();
+        benchmark.setUp();
+
+        assertThat(benchmark.verifyValidSignature()).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2x3, 9", "3x4, 64", "4x5, 625"})
+    void variantCombinations(String shape, int combinations) throws Throwable {
+        VariantCombinationBenchmark benchmark = new VariantCombinationBenchmark();
+        benchmark.shape = shape;
+        benchmark.setUp();
+
+        assertThat((List<?>) benchmark.cartesianProduct()).hasSize(combinations);
+        // Repeated invocations start from an empty list, as JMH calls it many times
+        benchmark.generateVariantCombinations();
+        assertThat((List<?>) benchmark.generateVariantCombinations()).hasSize(combinations);
+    }
+}
@@ -0,0 +1,288 @@
+package com.fascinito.pos.loadtest;
+
+import com.fascinito.pos.dto.category.CategoryRequest;
+import com.fascinito.pos.dto.product.ProductRequest;
+import com.fascinito.pos.dto.product.ProductResponse;
+import com.fascinito.pos.dto.product.ProductVariationRequest;
+import com.fascinito.pos.dto.product.VariantCombinationResponse;
+import com.fascinito.pos.dto.product.VariationOptionRequest;
+import com.fascinito.pos.entity.EmailTemplate;
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.entity.OrderItem;
+import com.fascinito.pos.entity.OrderStatusHistory;
+import com.fascinito.pos.entity.Payment;
+import com.fascinito.pos.entity.Role;
+import com.fascinito.pos.entity.User;
+import com.fascinito.pos.repository.EmailTemplateRepository;
+import com.fascinito.pos.repository.OrderRepository;
+import com.fascinito.pos.repository.ProductRepository;
+import com.fascinito.pos.repository.ProductVariantCombinationRepository;
+import com.fascinito.pos.repository.RoleRepository;
+import com.fascinito.pos.repository.UserRepository;
+import com.fascinito.pos.service.CategoryService;
+import com.fascinito.pos.service.ProductService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeds a fresh database through the application's own services and repositories, so
+ * products, variant combinations and orders have exactly the shape the app would create
+ */
+final class CatalogSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+    static final String ADMIN_EMAIL = "loadtest-admin@example.com";
+
+    // Product titles are built from these, so search terms always match a slice of the catalog
+    static final String[] ADJECTIVES = {"Classic", "Modern", "Vintage", "Handmade", "Premium", "Organic", "Silk", "Cotton"};
+    static final String[] NOUNS = {"Saree", "Kurta", "Scarf", "Shawl", "Dupatta", "Stole", "Blouse", "Lehenga", "Tunic", "Jacket"};
+
+    private static final String[] OPTION_NAMES = {"Red", "Blue", "Green", "Black", "White", "Gold", "S", "M", "L", "XL"};
+    private static final int ORDER_BATCH_SIZE = 200;
+
+    /** A seeded product and its sellable combinations */
+    record SeededProduct(long id, BigDecimal price, List<Long> combinationIds, List<BigDecimal> combinationPrices) {
+    }
+
+    record Catalog(List<SeededProduct> products, List<String> customerEmails) {
+    }
+
+    private final LoadTestOptions options;
+    private final Random random;
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductVariantCombinationRepository variantCombinationRepository;
+    private final OrderRepository orderRepository;
+    private final EmailTemplateRepository emailTemplateRepository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+
+    CatalogSeeder(ApplicationContext context, LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.roleRepository = context.getBean(RoleRepository.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.categoryService = context.getBean(CategoryService.class);
+        this.productService = context.getBean(ProductService.class);
+        this.productRepository = context.getBean(ProductRepository.class);
+        this.variantCombinationRepository = context.getBean(ProductVariantCombinationRepository.class);
+        this.orderRepository = context.getBean(OrderRepository.class);
+        this.emailTemplateRepository = context.getBean(EmailTemplateRepository.class);
+        this.jdbc = context.getBean(JdbcTemplate.class);
+        this.transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    Catalog seed() {
+        Map<Role.RoleType, Role> roles = seedRoles();
+        seedEmailTemplates();
+        List<User> customers = seedUsers(roles);
+        List<SeededProduct> products = seedProducts();
+        seedOrders(customers, products);
+        jdbc.execute("ANALYZE");
+        return new Catalog(products, customers.stream().map(User::getEmail).toList());
+    }
+
+    private Map<Role.RoleType, Role> seedRoles() {
+        Map<Role.RoleType, Role> roles = new EnumMap<>(Role.RoleType.class);
+        for (Role.RoleType type : Role.RoleType.values()) {
+            roles.put(type, roleRepository.findByName(type)
+                    .orElseGet(() -> roleRepository.save(new Role(null, type, type.name()))));
+        }
+        return roles;
+    }
+
+    /**
+     * Order status changes only send email when an active template exists for the status
+     */
+    private void seedEmailTemplates() {
+        for (EmailTemplate.TemplateKey key : EmailTemplate.TemplateKey.values()) {
+            if (emailTemplateRepository.findByTemplateKey(key.getKey()).isEmpty()) {
+                EmailTemplate template = new EmailTemplate();
+                template.setTemplateKey(key.getKey());
+                template.setTemplateName(key.getDisplayName());
+                template.setSubject(key.getDisplayName() + " - {{orderNumber}}");
+                template.setBodyHtml("<p>Hi {{customerName}}, your order {{orderNumber}} is now {{orderStatus}}.</p>");
+                template.setIsActive(true);
+                emailTemplateRepository.save(template);
+            }
+        }
+    }
+
+    private List<User> seedUsers(Map<Role.RoleType, Role> roles) {
+        // One BCrypt hash for everyone: hashing per user would dominate seeding time
+        String hash = passwordEncoder.encode(PASSWORD);
+        userRepository.save(user(ADMIN_EMAIL, "9000000000", hash, roles.get(Role.RoleType.ROLE_ADMIN)));
+
+        List<User> customers = new ArrayList<>(options.users);
+        for (int i = 0; i < options.users; i++) {
+            customers.add(user("loadtest-user-" + i + "@example.com", String.valueOf(9100000000L + i), hash,
+                    roles.get(Role.RoleType.ROLE_CUSTOMER)));
+        }
+        return transaction.execute(status -> userRepository.saveAll(customers));
+    }
+
+    private static User user(String email, String phone, String passwordHash, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setPassword(passwordHash);
+        user.setFirstName("Load");
+        user.setLastName("Test");
+        user.setEmailVerified(true);
+        user.setRoles(new HashSet<>(Set.of(role)));
+        return user;
+    }
+
+    private List<SeededProduct> seedProducts() {
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 0; i < options.categories; i++) {
+            CategoryRequest category = new CategoryRequest();
+            category.setName("Category " + i);
+            category.setSlug("category-" + i);
+            categoryIds.add(categoryService.createCategory(category).getId());
+        }
+
+        List<SeededProduct> products = new ArrayList<>(options.products);
+        for (int i = 0; i < options.products; i++) {
+            String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            ProductRequest request = new ProductRequest();
+            request.setTitle(title);
+            request.setSlug("loadtest-product-" + i);
+            request.setSku("LT-" + i);
+            request.setDescription("Seeded for load testing: " + title);
+            request.setCategoryId(categoryIds.get(i % categoryIds.size()));
+            request.setRegularPrice(BigDecimal.valueOf(200 + random.nextInt(4800)));
+            request.setTaxRate(BigDecimal.valueOf(5));
+            // Enough stock that checkouts never run out during a run
+            request.setTrackInventory(true);
+            request.setStockQuantity(10_000_000);
+            request.setVariations(variations());
+
+            ProductResponse created = productService.createProduct(request);
+            List<Long> combinationIds = new ArrayList<>();
+            List<BigDecimal> combinationPrices = new ArrayList<>();
+            if (created.getVariantCombinations() != null) {
+                for (VariantCombinationResponse combination : created.getVariantCombinations()) {
+                    combinationIds.add(combination.getId());
+                    combinationPrices.add(combination.getPrice());
+                }
+            }
+            products.add(new SeededProduct(created.getId(), created.getRegularPrice(), combinationIds, combinationPrices));
+        }
+        return products;
+    }
+
+    private List<ProductVariationRequest> variations() {
+        List<ProductVariationRequest> variations = new ArrayList<>();
+        for (int v = 0; v < options.variationsPerProduct; v++) {
+            List<VariationOptionRequest> variationOptions = new ArrayList<>();
+            for (int o = 0; o < options.optionsPerVariation; o++) {
+                VariationOptionRequest option = new VariationOptionRequest();
+                option.setName(OPTION_NAMES[(v * options.optionsPerVariation + o) % OPTION_NAMES.length] + " " + o);
+                option.setPriceAdjustment(BigDecimal.valueOf(o * 50L));
+                variationOptions.add(option);
+            }
+            ProductVariationRequest variation = new ProductVariationRequest();
+            variation.setType("Variation " + v);
+            variation.setOptions(variationOptions);
+            variations.add(variation);
+        }
+        return variations;
+    }
+
+    /**
+     * Delivered, paid orders; created_at is spread over the last year afterwards, since
+     * auditing stamps every row with the current time
+     */
+    private void seedOrders(List<User> customers, List<SeededProduct> products) {
+        for (int from = 0; from < options.historicalOrders; from += ORDER_BATCH_SIZE) {
+            int to = Math.min(from + ORDER_BATCH_SIZE, options.historicalOrders);
+            int batchStart = from;
+            transaction.executeWithoutResult(status -> {
+                List<Order> orders = new ArrayList<>(to - batchStart);
+                for (int i = batchStart; i < to; i++) {
+                    orders.add(order(i, customers.get(random.nextInt(customers.size())), products));
+                }
+                orderRepository.saveAll(orders);
+            });
+        }
+        jdbc.update("UPDATE orders SET created_at = created_at - random() * interval '365 days'"
+                + " WHERE order_number LIKE 'LT-%'");
+    }
+
+    private Order order(int index, User customer, List<SeededProduct> products) {
+        Order order = new Order();
+        order.setOrderNumber("LT-" + index);
+        order.setUser(customer);
+        order.setStatus(Order.OrderStatus.DELIVERED);
+        order.setShippingAddress("1 Load Test Road, Chennai");
+        order.setBillingAddress("1 Load Test Road, Chennai");
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        int lines = 1 + random.nextInt(3);
+        for (int l = 0; l < lines; l++) {
+            SeededProduct product = products.get(random.nextInt(products.size()));
+            int quantity = 1 + random.nextInt(2);
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(productRepository.getReferenceById(product.id()));
+            BigDecimal unitPrice = product.price();
+            if (!product.combinationIds().isEmpty()) {
+                int c = random.nextInt(product.combinationIds().size());
+                item.setVariantCombination(variantCombinationRepository.getReferenceById(product.combinationIds().get(c)));
+                unitPrice = product.combinationPrices().get(c);
+            }
+            BigDecimal lineSubtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal lineTax = lineSubtotal.multiply(BigDecimal.valueOf(5)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            item.setQuantity(quantity);
+            item.setUnitPrice(unitPrice);
+            item.setSubtotal(lineSubtotal);
+            item.setTaxAmount(lineTax);
+            item.setTotalPrice(lineSubtotal.add(lineTax));
+            order.getItems().add(item);
+            subtotal = subtotal.add(lineSubtotal);
+            tax = tax.add(lineTax);
+        }
+        order.setSubtotal(subtotal);
+        order.setTaxAmount(tax);
+        order.setTotalAmount(subtotal.add(tax));
+
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setPaymentMethod(Payment.PaymentMethod.RAZORPAY);
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency("INR");
+        payment.setRazorpayOrderId("order_lt" + index);
+        payment.setRazorpayPaymentId("pay_lt" + index);
+        order.setPayment(payment);
+
+        for (Order.OrderStatus status : List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.DELIVERED)) {
+            OrderStatusHistory history = new OrderStatusHistory();
+            history.setOrder(order);
+            history.setStatus(status);
+            history.setUpdatedBy(ADMIN_EMAIL);
+            order.getStatusHistory().add(history);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,261 @@
+package com.fascinito.pos.loadtest;
+
+import com.fascinito.pos.PosApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: starts an embedded PostgreSQL, stub Razorpay and SMTP servers and the
+ * backend itself, seeds a catalog, customers and order history, then runs the storefront funnel
+ * from concurrent virtual users and reports throughput and latency percentiles per step.
+ *
+ * Usage: java -jar target/pos-loadtest-1.0.0.jar [--products=500] [--users=200] [--orders=5000]
+ *        [--concurrency=50] [--warmup-seconds=15] [--duration-seconds=60] [--report=results.json]
+ * See README.md for every option.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // initdb refuses to run as root
+            System.err.println("PostgreSQL cannot run as root; run the load test as an unprivileged user");
+            System.exit(2);
+        }
+
+        Path uploads = Files.createTempDirectory("pos-loadtest-uploads");
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             SmtpStub smtp = new SmtpStub(options.smtpLatencyMs);
+             RazorpayStub razorpay = new RazorpayStub(options.razorpayLatencyMs);
+             ConfigurableApplicationContext app = startApplication(options, postgres, smtp, razorpay, uploads)) {
+
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/api";
+            System.out.printf("Backend started at %s (PostgreSQL %s)%n", baseUrl, postgres.getJdbcUrl("postgres", "postgres"));
+
+            long seedStart = System.nanoTime();
+            CatalogSeeder.Catalog catalog = new CatalogSeeder(app, options).seed();
+            System.out.printf("Seeded %d products, %d customers and %d orders in %d s%n",
+                    catalog.products().size(), catalog.customerEmails().size(), options.historicalOrders,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart));
+
+            ExecutorService executor = executor(options);
+            try {
+                StorefrontScenario scenario = new StorefrontScenario(baseUrl, options, executor);
+                List<StepStats.Result> results = run(scenario, catalog, options, executor);
+                print(results, options);
+                System.out.printf("Stub traffic: %d emails, %d Razorpay API calls%n", smtp.messages(), razorpay.requests());
+                if (options.readReplica) {
+                    printRouting(app);
+                }
+                if (options.reportFile != null) {
+                    write(results, options, new File(options.reportFile));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options,
+                                                                   EmbeddedPostgres postgres,
+                                                                   SmtpStub smtp,
+                                                                   RazorpayStub razorpay,
+                                                                   Path uploads) {
+        // Command line arguments override application.yml, like the deployed environment variables do
+        List<String> properties = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.mail.host=localhost",
+                "--spring.mail.port=" + smtp.port(),
+                "--spring.mail.username=",
+                "--spring.mail.password=",
+                "--spring.mail.ssl.enabled=false",
+                "--razorpay.api.base-url=" + razorpay.baseUrl(),
+                "--UPLOAD_BASE_PATH=" + uploads,
+                "--logging.level.root=WARN",
+                "--logging.level.com.fascinito=WARN",
+                // Seeding trips the N+1 warnings on every insert loop; counting itself stays on
+                "--logging.level.com.fascinito.pos.jdbc=ERROR",
+                "--logging.level.org.springframework.security=WARN"));
+        if (options.readReplica) {
+            properties.add("--db.read-replicas.urls=" + postgres.getJdbcUrl("postgres", "postgres"));
+            properties.add("--db.read-replicas.username=postgres");
+            properties.add("--db.read-replicas.password=");
+        }
+        SpringApplication application = new SpringApplication(PosApplication.class);
+        return application.run(properties.toArray(String[]::new));
+    }
+
+    /**
+     * Log every virtual user in, warm up, then measure for the configured duration.
+     * Each virtual user is bound to one customer and runs sessions back to back (closed loop).
+     */
+    private static List<StepStats.Result> run(StorefrontScenario scenario,
+                                              CatalogSeeder.Catalog catalog,
+                                              LoadTestOptions options,
+                                              ExecutorService executor) throws Exception {
+        scenario.loginAdmin();
+        Map<String, String> tokens = new ConcurrentHashMap<>();
+        List<Future<?>> logins = new ArrayList<>();
+        for (int i = 0; i < Math.min(options.concurrency, catalog.customerEmails().size()); i++) {
+            String email = catalog.customerEmails().get(i);
+            logins.add(executor.submit(() -> {
+                String token = scenario.login(email);
+                if (token != null) {
+                    tokens.put(email, token);
+                }
+            }));
+        }
+        for (Future<?> login : logins) {
+            login.get();
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("No customer could log in");
+        }
+        if (tokens.size() < logins.size()) {
+            System.out.printf("%d of %d customer logins failed%n", logins.size() - tokens.size(), logins.size());
+        }
+        List<String> sessionTokens = new ArrayList<>(tokens.values());
+
+        long warmupEnd = System.nanoTime() + options.warmup.toNanos();
+        long end = warmupEnd + options.duration.toNanos();
+        AtomicLong sessions = new AtomicLong();
+        List<Future<?>> users = new ArrayList<>();
+        for (int i = 0; i < options.concurrency; i++) {
+            String token = sessionTokens.get(i % sessionTokens.size());
+            users.add(executor.submit(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    scenario.session(token);
+                    sessions.incrementAndGet();
+                }
+            }));
+        }
+
+        System.out.printf("Warming up for %d s with %d virtual users on %s threads%n",
+                options.warmup.toSeconds(), options.concurrency, isVirtual(executor) ? "virtual" : "platform");
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        scenario.steps().forEach(StepStats::startMeasuring);
+        long measuredSessionsStart = sessions.get();
+        System.out.printf("Measuring for %d s%n", options.duration.toSeconds());
+
+        for (Future<?> user : users) {
+            user.get();
+        }
+        List<StepStats.Result> results = new ArrayList<>();
+        scenario.steps().forEach(step -> results.add(step.finish()));
+        System.out.printf("%d sessions completed while measuring%n", sessions.get() - measuredSessionsStart);
+        return results;
+    }
+
+    /**
+     * Virtual threads when running on Java 21+ (and not disabled), so thousands of virtual users
+     * cost no more than the requests they make; a fixed platform pool otherwise
+     */
+    private static ExecutorService executor(LoadTestOptions options) {
+        if (options.virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads need Java 21+; using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(options.concurrency + 1, SmtpStub.daemon("virtual-user-"));
+    }
+
+    private static boolean isVirtual(ExecutorService executor) {
+        return !executor.getClass().getName().contains("ThreadPoolExecutor");
+    }
+
+    private static void print(List<StepStats.Result> results, LoadTestOptions options) {
+        double seconds = options.duration.toMillis() / 1000.0;
+        System.out.println();
+        System.out.printf("%-16s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "step", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (StepStats.Result result : results) {
+            Histogram h = result.histogram();
+            System.out.printf("%-16s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    result.step(), h.getTotalCount(), result.errors(), h.getTotalCount() / seconds,
+                    millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+        for (StepStats.Result result : results) {
+            for (String sample : result.errorSamples()) {
+                System.out.printf("  %s error: %s%n", result.step(), sample);
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Connections handed out per pool and reason by the read/write router, since startup
+     */
+    private static void printRouting(ConfigurableApplicationContext app) {
+        StringBuilder line = new StringBuilder("Connections routed:");
+        for (Counter counter : app.getBean(MeterRegistry.class).find("db.routing.connections").counters()) {
+            line.append(String.format(" %s/%s=%d", counter.getId().getTag("target"), counter.getId().getTag("reason"),
+                    (long) counter.count()));
+        }
+        System.out.println(line);
+    }
+
+    private static void write(List<StepStats.Result> results, LoadTestOptions options, File file) throws Exception {
+        double seconds = options.duration.toMillis() / 1000.0;
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (StepStats.Result result : results) {
+            Histogram h = result.histogram();
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("step", result.step());
+            step.put("requests", h.getTotalCount());
+            step.put("errors", result.errors());
+            step.put("throughputPerSecond", h.getTotalCount() / seconds);
+            step.put("p50Ms", millis(h, 50));
+            step.put("p90Ms", millis(h, 90));
+            step.put("p99Ms", millis(h, 99));
+            step.put("p999Ms", millis(h, 99.9));
+            step.put("maxMs", h.getMaxValue() / 1000.0);
+            steps.add(step);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("products", options.products);
+        report.put("users", options.users);
+        report.put("historicalOrders", options.historicalOrders);
+        report.put("concurrency", options.concurrency);
+        report.put("durationSeconds", options.duration.toSeconds());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("steps", steps);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Report written to " + file);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fascinito.pos.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, all in --name=value form
+ */
+final class LoadTestOptions {
+
+    // Catalog and history
+    final int products;
+    final int categories;
+    final int variationsPerProduct;
+    final int optionsPerVariation;
+    final int users;
+    final int historicalOrders;
+
+    // Load
+    final int concurrency;
+    final Duration warmup;
+    final Duration duration;
+    final boolean virtualThreads;
+
+    // Funnel: probability that a session continues to the next step
+    final double searchRate;
+    final double detailRate;
+    final double addToCartRate;
+    final double checkoutRate;
+    final double statusUpdateRate;
+
+    // Stubs
+    final long smtpLatencyMs;
+    final long razorpayLatencyMs;
+
+    // Route read-only transactions through a read-only replica pool on the same instance
+    final boolean readReplica;
+
+    final long seed;
+    final String reportFile;
+
+    private LoadTestOptions(Map<String, String> args) {
+        products = intArg(args, "products", 500);
+        categories = intArg(args, "categories", 10);
+        variationsPerProduct = intArg(args, "variations", 2);
+        optionsPerVariation = intArg(args, "options", 3);
+        users = intArg(args, "users", 200);
+        historicalOrders = intArg(args, "orders", 5000);
+        concurrency = intArg(args, "concurrency", 50);
+        warmup = Duration.ofSeconds(intArg(args, "warmup-seconds", 15));
+        duration = Duration.ofSeconds(intArg(args, "duration-seconds", 60));
+        virtualThreads = Boolean.parseBoolean(args.getOrDefault("virtual-threads", "true"));
+        searchRate = doubleArg(args, "search-rate", 0.5);
+        detailRate = doubleArg(args, "detail-rate", 0.8);
+        addToCartRate = doubleArg(args, "add-to-cart-rate", 0.3);
+        checkoutRate = doubleArg(args, "checkout-rate", 0.5);
+        statusUpdateRate = doubleArg(args, "status-update-rate", 1.0);
+        smtpLatencyMs = intArg(args, "smtp-latency-ms", 50);
+        razorpayLatencyMs = intArg(args, "razorpay-latency-ms", 100);
+        readReplica = Boolean.parseBoolean(args.getOrDefault("read-replica", "false"));
+        seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        reportFile = args.get("report");
+
+        if (users < 1 || products < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("--users, --products and --concurrency must be at least 1");
+        }
+    }
+
+    static LoadTestOptions parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                args.put(arg.substring(2), "true");
+            } else {
+                args.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new LoadTestOptions(args);
+    }
+
+    private static int intArg(Map<String, String> args, String name, int defaultValue) {
+        String value = args.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static double doubleArg(Map<String, String> args, String name, double defaultValue) {
+        String value = args.get(name);
+        double rate = value != null ? Double.parseDouble(value) : defaultValue;
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("--" + name + " must be between 0 and 1");
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,76 @@
+package com.fascinito.pos.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal Razorpay REST API for the endpoints RazorpayApiClient calls (razorpay.api.base-url):
+ * payment listings are always empty and every refund is processed, after a fixed delay
+ */
+final class RazorpayStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool(SmtpStub.daemon("razorpay-stub-"));
+    private final long latencyMs;
+    private final AtomicLong requests = new AtomicLong();
+
+    RazorpayStub(long latencyMs) {
+        this.latencyMs = latencyMs;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start Razorpay stub", e);
+        }
+        server.createContext("/v1/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1";
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        SmtpStub.sleep(latencyMs);
+
+        String path = exchange.getRequestURI().getPath();
+        int status = 200;
+        String body;
+        if (path.equals("/v1/payments")) {
+            body = "{\"entity\":\"collection\",\"count\":0,\"items\":[]}";
+        } else if (path.startsWith("/v1/refunds/")) {
+            String id = path.substring("/v1/refunds/".length());
+            body = "{\"id\":\"" + id + "\",\"entity\":\"refund\",\"status\":\"processed\"}";
+        } else {
+            status = 404;
+            body = "{\"error\":{\"code\":\"BAD_REQUEST_ERROR\",\"description\":\"Not stubbed: " + path + "\"}}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
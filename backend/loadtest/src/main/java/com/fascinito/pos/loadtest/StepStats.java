@@ -0,0 +1,62 @@
+package com.fascinito.pos.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds, 3 significant digits) and error count for one funnel step.
+ * Nothing is recorded until the warmup is over.
+ */
+final class StepStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    // First few distinct failures, to explain an error count in the report
+    private final Map<String, Boolean> errorSamples = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    StepStats(String name) {
+        this.name = name;
+    }
+
+    void startMeasuring() {
+        recorder.reset();
+        errors.reset();
+        errorSamples.clear();
+        measuring = true;
+    }
+
+    void success(long elapsedNanos) {
+        if (measuring) {
+            recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_TRACKABLE_MICROS));
+        }
+    }
+
+    void error(String description) {
+        if (measuring) {
+            errors.increment();
+            if (errorSamples.size() < 5) {
+                errorSamples.putIfAbsent(description, Boolean.TRUE);
+            }
+        }
+    }
+
+    /** Stop measuring and return everything recorded since startMeasuring */
+    Result finish() {
+        measuring = false;
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(name, histogram, errors.sum(), errorSamples.keySet().stream().toList());
+    }
+
+    record Result(String step, Histogram histogram, long errors, List<String> errorSamples) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.fascinito.pos.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The storefront funnel, one session at a time per virtual user:
+ * browse a catalog page, maybe search, maybe open a product, maybe add one of its variant
+ * combinations to the cart, maybe check out, and maybe have an admin confirm the order.
+ * Each step only runs if the previous one ran and succeeded; the rates come from the options.
+ */
+final class StorefrontScenario {
+
+    static final String LOGIN = "login";
+    static final String BROWSE = "browse";
+    static final String SEARCH = "search";
+    static final String DETAIL = "product_detail";
+    static final String ADD_TO_CART = "add_to_cart";
+    static final String CHECKOUT = "checkout";
+    static final String STATUS_UPDATE = "status_update";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 12;
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, StepStats> steps = new LinkedHashMap<>();
+    // Logins happen before the run and are not part of the report
+    private final StepStats logins = new StepStats(LOGIN);
+    private final int catalogPages;
+    private volatile String adminToken;
+
+    StorefrontScenario(String baseUrl, LoadTestOptions options, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.catalogPages = Math.max(1, (options.products + PAGE_SIZE - 1) / PAGE_SIZE);
+        for (String step : List.of(BROWSE, SEARCH, DETAIL, ADD_TO_CART, CHECKOUT, STATUS_UPDATE)) {
+            steps.put(step, new StepStats(step));
+        }
+    }
+
+    Iterable<StepStats> steps() {
+        return steps.values();
+    }
+
+    void loginAdmin() {
+        adminToken = login(CatalogSeeder.ADMIN_EMAIL);
+        if (adminToken == null) {
+            throw new IllegalStateException("Admin login failed");
+        }
+    }
+
+    /** @return Access token, or null if the login failed */
+    String login(String email) {
+        JsonNode body = call(LOGIN, HttpRequest.newBuilder(uri("/auth/login"))
+                .POST(json(Map.of("email", email, "password", CatalogSeeder.PASSWORD))), null);
+        return body != null ? body.path("data").path("accessToken").asText(null) : null;
+    }
+
+    /** One pass through the funnel as the given customer */
+    void session(String token) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode page = call(BROWSE, get("/products?page=" + random.nextInt(catalogPages) + "&size=" + PAGE_SIZE), token);
+        if (page == null) {
+            return;
+        }
+        List<Long> productIds = ids(page.path("content"));
+
+        if (random.nextDouble() < options.searchRate) {
+            String term = CatalogSeeder.NOUNS[random.nextInt(CatalogSeeder.NOUNS.length)];
+            JsonNode results = call(SEARCH, get("/products?size=" + PAGE_SIZE + "&search="
+                    + URLEncoder.encode(term, StandardCharsets.UTF_8)), token);
+            if (results == null) {
+                return;
+            }
+            List<Long> found = ids(results.path("content"));
+            if (!found.isEmpty()) {
+                productIds = found;
+            }
+        }
+        if (productIds.isEmpty() || random.nextDouble() >= options.detailRate) {
+            return;
+        }
+
+        long productId = productIds.get(random.nextInt(productIds.size()));
+        JsonNode product = call(DETAIL, get("/products/" + productId), token);
+        if (product == null || random.nextDouble() >= options.addToCartRate) {
+            return;
+        }
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("productId", productId);
+        item.put("quantity", 1 + random.nextInt(2));
+        List<Long> combinationIds = ids(product.path("data").path("variantCombinations"));
+        if (!combinationIds.isEmpty()) {
+            item.put("variantCombinationId", combinationIds.get(random.nextInt(combinationIds.size())));
+        }
+        if (call(ADD_TO_CART, HttpRequest.newBuilder(uri("/cart/items")).POST(json(item)), token) == null
+                || random.nextDouble() >= options.checkoutRate) {
+            return;
+        }
+
+        JsonNode order = call(CHECKOUT, HttpRequest.newBuilder(uri("/orders/checkout"))
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(json(Map.of(
+                        "shippingAddress", "1 Load Test Road, Chennai",
+                        "billingAddress", "1 Load Test Road, Chennai",
+                        "paymentMethod", "RAZORPAY"))), token);
+        if (order == null || random.nextDouble() >= options.statusUpdateRate) {
+            return;
+        }
+
+        long orderId = order.path("data").path("id").asLong();
+        call(STATUS_UPDATE, HttpRequest.newBuilder(uri("/orders/" + orderId + "/status"))
+                .PUT(json(Map.of("status", "CONFIRMED"))), adminToken);
+    }
+
+    /**
+     * Send the request, timing it under the given step
+     * @return Parsed body, or null if the call failed (counted as an error)
+     */
+    private JsonNode call(String step, HttpRequest.Builder builder, String token) {
+        StepStats stats = steps.getOrDefault(step, logins);
+        builder.timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            stats.error(e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (response.statusCode() / 100 != 2) {
+            stats.error("HTTP " + response.statusCode() + " " + request.method() + " " + request.uri().getPath());
+            return null;
+        }
+        stats.success(elapsed);
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            stats.error("Unparseable response from " + request.uri().getPath());
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unserializable request body", e);
+        }
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode node : array) {
+            ids.add(node.path("id").asLong());
+        }
+        return ids;
+    }
+}
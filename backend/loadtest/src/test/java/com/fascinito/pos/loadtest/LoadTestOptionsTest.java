@@ -0,0 +1,47 @@
+package com.fascinito.pos.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadTestOptionsTest {
+
+    @Test
+    void defaults() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[0]);
+
+        assertThat(options.products).isEqualTo(500);
+        assertThat(options.concurrency).isEqualTo(50);
+        assertThat(options.duration).isEqualTo(Duration.ofSeconds(60));
+        assertThat(options.virtualThreads).isTrue();
+        assertThat(options.readReplica).isFalse();
+        assertThat(options.reportFile).isNull();
+    }
+
+    @Test
+    void valuesAndBareFlags() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{
+                "--products=60", "--duration-seconds=20", "--checkout-rate=1", "--read-replica",
+                "--virtual-threads=false", "--report=target/report.json"});
+
+        assertThat(options.products).isEqualTo(60);
+        assertThat(options.duration).isEqualTo(Duration.ofSeconds(20));
+        assertThat(options.checkoutRate).isEqualTo(1.0);
+        assertThat(options.readReplica).isTrue();
+        assertThat(options.virtualThreads).isFalse();
+        assertThat(options.reportFile).isEqualTo("target/report.json");
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"products=60"}))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("products=60");
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--search-rate=1.5"}))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("--search-rate");
+        assertThatThrownBy(() -> LoadTestOptions.parse(new String[]{"--concurrency=0"}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.fascinito.pos.loadtest;
+
+import com.fascinito.pos.config.MailConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The application's mail sender, configured as the load test configures it (plain SMTP, no
+ * credentials), delivers to the stub
+ */
+class SmtpStubTest {
+
+    @Test
+    void applicationMailSenderDeliversToTheStub() throws Exception {
+        try (SmtpStub smtp = new SmtpStub(0)) {
+            MailConfig config = new MailConfig();
+            ReflectionTestUtils.setField(config, "host", "localhost");
+            ReflectionTestUtils.setField(config, "portStr", String.valueOf(smtp.port()));
+            ReflectionTestUtils.setField(config, "username", "");
+            ReflectionTestUtils.setField(config, "password", "");
+            ReflectionTestUtils.setField(config, "ssl", false);
+            JavaMailSender mailSender = config.javaMailSender();
+
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("support@fascinito.in");
+            message.setTo("customer1@example.com");
+            message.setSubject("Order ORD-1 shipped");
+            message.setText("On its way");
+            mailSender.send(message);
+            mailSender.send(message);
+
+            assertThat(smtp.messages()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+#!/usr/bin/env python3
+"""
+Summarises virtual-thread pinning and monitor contention from a JFR recording.
+
+Record with the virtual-threads profile on Java 21, e.g.
+  JAVA_OPTS="-XX:StartFlightRecording=filename=app.jfr,settings=profile"
+then, after a load test (loadtest-blocking.py):
+
+  ./jfr-pinning-report.py app.jfr [--top 20] [--package com.fascinito]
+
+Events read (via `jfr print --json`, JDK 21+ on the PATH or JFR_BIN):
+  jdk.VirtualThreadPinned  a virtual thread blocked while pinned to its carrier
+                           (synchronized block or native frame on the stack)
+  jdk.JavaMonitorEnter     a thread waited to enter a contended monitor
+
+Events are grouped by the first application frame (--package prefix) on the stack, with
+count, total and max duration, so each line points at the code to change.
+"""
+import argparse
+import json
+import os
+import subprocess
+import sys
+from collections import defaultdict
+
+EVENTS = ("jdk.VirtualThreadPinned", "jdk.JavaMonitorEnter")
+
+
+def read_events(recording):
+    jfr = os.environ.get("JFR_BIN", "jfr")
+    try:
+        output = subprocess.run([jfr, "print", "--json", "--events", ",".join(EVENTS), recording],
+                                check=True, capture_output=True, text=True).stdout
+    except FileNotFoundError:
+        sys.exit("jfr not found: put a JDK 21 bin directory on the PATH or set JFR_BIN")
+    except subprocess.CalledProcessError as e:
+        sys.exit("jfr print failed: " + e.stderr.strip())
+    return json.loads(output)["recording"]["events"]
+
+
+def duration_ms(value):
+    # JFR JSON durations are ISO-8601, e.g. "PT0.020482S"
+    if not value or not value.startswith("PT"):
+        return 0.0
+    total = 0.0
+    number = ""
+    for ch in value[2:]:
+        if ch.isdigit() or ch == ".":
+            number += ch
+            continue
+        amount = float(number or 0)
+        total += amount * {"H": 3600_000, "M": 60_000, "S": 1000}.get(ch, 0)
+        number = ""
+    return total
+
+
+def frame_name(frame):
+    method = frame.get("method", {})
+    type_name = method.get("type", {}).get("name", "?").replace("/", ".")
+    return "%s.%s:%s" % (type_name, method.get("name", "?"), frame.get("lineNumber", "?"))
+
+
+def site(event, package):
+    frames = (event["values"].get("stackTrace") or {}).get("frames") or []
+    for frame in frames:
+        name = frame_name(frame)
+        if name.startswith(package):
+            return name
+    return frame_name(frames[0]) if frames else "<no stack>"
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[1])
+    parser.add_argument("recording")
+    parser.add_argument("--top", type=int, default=20)
+    parser.add_argument("--package", default="com.fascinito")
+    args = parser.parse_args()
+
+    stats = defaultdict(lambda: [0, 0.0, 0.0])
+    for event in read_events(args.recording):
+        key = (event["type"], site(event, args.package))
+        ms = duration_ms(event["values"].get("duration"))
+        entry = stats[key]
+        entry[0] += 1
+        entry[1] += ms
+        entry[2] = max(entry[2], ms)
+
+    for event_type in EVENTS:
+        rows = sorted(((site, s) for (t, site), s in stats.items() if t == event_type),
+                      key=lambda row: row[1][1], reverse=True)
+        print("%s: %d sites, %d events" % (event_type, len(rows), sum(s[0] for _, s in rows)))
+        if rows:
+            print("  %8s %12s %10s  %s" % ("count", "total ms", "max ms", "site"))
+        for name, (count, total, longest) in rows[:args.top]:
+            print("  %8d %12.1f %10.1f  %s" % (count, total, longest, name))
+        print()
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,135 @@
+#!/usr/bin/env python3
+"""
+Concurrent load test for the endpoints that block on I/O, to compare platform-thread and
+virtual-thread request execution (start the backend with and without the virtual-threads
+Spring profile, same DB_POOL_SIZE, and run the same scenario against each).
+
+  PUT  /orders/{id}/status     status update, sends the status email over SMTP
+  POST /orders/{id}/refund     refund initiation, calls Razorpay (point it at razorpay-api-stub.py)
+  POST /products/upload-image  multipart upload plus rendition hand-off
+
+Usage:
+  TOKEN=<admin JWT> ./loadtest-blocking.py --scenario status --orders 101-150 \\
+      --concurrency 200 --duration 60 --label platform
+
+  --scenario   status | refund | upload
+  --orders     order id range to spread requests over (status, refund)
+  --image      file to upload (upload scenario)
+  --label      name printed with the results, e.g. platform / virtual
+
+Prints throughput, error count and p50/p95/p99/max latency. Refunds are not idempotent
+across runs: use fresh PAID orders for each refund run.
+"""
+import argparse
+import itertools
+import json
+import os
+import threading
+import time
+import urllib.error
+import urllib.request
+import uuid
+
+STATUSES = ("PROCESSING", "SHIPPED")
+
+
+def build_request(args, order_ids, counter):
+    n = next(counter)
+    headers = {"Authorization": "Bearer " + args.token}
+    if args.scenario == "status":
+        order_id = order_ids[n % len(order_ids)]
+        body = json.dumps({"status": STATUSES[n % len(STATUSES)]}).encode()
+        headers["Content-Type"] = "application/json"
+        return urllib.request.Request("%s/orders/%d/status" % (args.base_url, order_id),
+                                      data=body, headers=headers, method="PUT")
+    if args.scenario == "refund":
+        order_id = order_ids[n % len(order_ids)]
+        body = json.dumps({"refundType": "FULL"}).encode()
+        headers["Content-Type"] = "application/json"
+        headers["Idempotency-Key"] = str(uuid.uuid4())
+        return urllib.request.Request("%s/orders/%d/refund" % (args.base_url, order_id),
+                                      data=body, headers=headers, method="POST")
+    boundary = uuid.uuid4().hex
+    body = (("--%s\r\nContent-Disposition: form-data; name=\"file\"; filename=\"%s\"\r\n"
+             "Content-Type: image/jpeg\r\n\r\n") % (boundary, os.path.basename(args.image))).encode() \
+        + args.image_bytes + ("\r\n--%s--\r\n" % boundary).encode()
+    headers["Content-Type"] = "multipart/form-data; boundary=" + boundary
+    return urllib.request.Request(args.base_url + "/products/upload-image",
+                                  data=body, headers=headers, method="POST")
+
+
+def worker(args, order_ids, counter, deadline, latencies, errors, lock):
+    while time.monotonic() < deadline:
+        request = build_request(args, order_ids, counter)
+        started = time.monotonic()
+        ok = True
+        try:
+            with urllib.request.urlopen(request, timeout=args.timeout) as response:
+                response.read()
+        except urllib.error.HTTPError as e:
+            # Business rejections (e.g. invalid transition, already refunded) still measure the path
+            ok = e.code < 500
+        except (urllib.error.URLError, TimeoutError, ConnectionError):
+            ok = False
+        elapsed = (time.monotonic() - started) * 1000
+        with lock:
+            latencies.append(elapsed)
+            if not ok:
+                errors[0] += 1
+
+
+def percentile(values, p):
+    if not values:
+        return 0.0
+    return values[min(len(values) - 1, int(len(values) * p / 100))]
+
+
+def parse_range(value):
+    first, _, last = value.partition("-")
+    return list(range(int(first), int(last or first) + 1))
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[1])
+    parser.add_argument("--base-url", default=os.environ.get("BASE_URL", "http://localhost:8080/api"))
+    parser.add_argument("--token", default=os.environ.get("TOKEN"))
+    parser.add_argument("--scenario", choices=("status", "refund", "upload"), required=True)
+    parser.add_argument("--orders", default="1-10")
+    parser.add_argument("--image")
+    parser.add_argument("--concurrency", type=int, default=100)
+    parser.add_argument("--duration", type=int, default=30, help="seconds")
+    parser.add_argument("--timeout", type=float, default=30, help="per-request seconds")
+    parser.add_argument("--label", default="run")
+    args = parser.parse_args()
+    if not args.token:
+        parser.error("TOKEN (admin JWT) is required")
+    if args.scenario == "upload":
+        if not args.image:
+            parser.error("--image is required for the upload scenario")
+        with open(args.image, "rb") as f:
+            args.image_bytes = f.read()
+
+    order_ids = parse_range(args.orders)
+    counter = itertools.count()
+    latencies, errors, lock = [], [0], threading.Lock()
+    deadline = time.monotonic() + args.duration
+    threads = [threading.Thread(target=worker, daemon=True,
+                                args=(args, order_ids, counter, deadline, latencies, errors, lock))
+               for _ in range(args.concurrency)]
+    started = time.monotonic()
+    for thread in threads:
+        thread.start()
+    for thread in threads:
+        thread.join()
+    elapsed = time.monotonic() - started
+
+    latencies.sort()
+    print("%s %s: %d requests in %.1fs (%.1f req/s), %d errors" % (
+        args.label, args.scenario, len(latencies), elapsed, len(latencies) / elapsed, errors[0]))
+    print("  latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f" % (
+        percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+        latencies[-1] if latencies else 0.0))
+
+
+if __name__ == "__main__":
+    main()
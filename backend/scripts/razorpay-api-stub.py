@@ -0,0 +1,82 @@
+#!/usr/bin/env python3
+"""
+Local stub of the Razorpay REST API for the refund status poller.
+
+Run it and start the backend with RAZORPAY_API_BASE_URL=http://localhost:9090/v1.
+
+  GET /v1/refunds/{id}  -> {"id": id, "status": STUB_REFUND_STATUS}
+  GET /v1/payments      -> payments from STUB_PAYMENTS_FILE, filtered by from/to and paged
+                           by count/skip like the real API (newest first)
+
+Environment:
+  STUB_PORT            listen port (default 9090)
+  STUB_REFUND_STATUS   status to report: processed | pending | failed (default processed)
+  STUB_DELAY_MS        delay before answering, to exercise request timeouts (default 0)
+  STUB_HTTP_STATUS     force an HTTP status, e.g. 503 to trip the circuit breaker (default 200)
+  STUB_PAYMENTS_FILE   JSON array of payment entities (id, order_id, status, created_at, ...)
+"""
+import json
+import os
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+PORT = int(os.environ.get("STUB_PORT", "9090"))
+REFUND_STATUS = os.environ.get("STUB_REFUND_STATUS", "processed")
+DELAY_MS = int(os.environ.get("STUB_DELAY_MS", "0"))
+HTTP_STATUS = int(os.environ.get("STUB_HTTP_STATUS", "200"))
+PAYMENTS_FILE = os.environ.get("STUB_PAYMENTS_FILE")
+
+
+def load_payments():
+    if not PAYMENTS_FILE:
+        return []
+    with open(PAYMENTS_FILE) as f:
+        return json.load(f)
+
+
+class Handler(BaseHTTPRequestHandler):
+
+    def do_GET(self):
+        if DELAY_MS:
+            time.sleep(DELAY_MS / 1000)
+
+        url = urlparse(self.path)
+        parts = url.path.strip("/").split("/")
+        if HTTP_STATUS != 200:
+            self.reply(HTTP_STATUS, {"error": {"code": "SERVER_ERROR", "description": "stubbed failure"}})
+            return
+
+        if parts == ["v1", "payments"]:
+            query = {key: values[0] for key, values in parse_qs(url.query).items()}
+            start = int(query.get("from", 0))
+            end = int(query.get("to", 2 ** 62))
+            count = min(int(query.get("count", 10)), 100)
+            skip = int(query.get("skip", 0))
+            matching = [p for p in load_payments() if start <= p.get("created_at", 0) <= end]
+            matching.sort(key=lambda p: p.get("created_at", 0), reverse=True)
+            page = matching[skip:skip + count]
+            self.reply(200, {"entity": "collection", "count": len(page), "items": page})
+            return
+
+        if len(parts) == 3 and parts[0] == "v1" and parts[1] == "refunds":
+            body = {"id": parts[2], "entity": "refund", "status": REFUND_STATUS}
+            if REFUND_STATUS == "failed":
+                body["failure_reason"] = "stubbed refund failure"
+            self.reply(200, body)
+            return
+
+        self.reply(404, {"error": {"code": "BAD_REQUEST_ERROR", "description": "The requested URL was not found"}})
+
+    def reply(self, status, body):
+        data = json.dumps(body).encode("utf-8")
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        self.wfile.write(data)
+
+
+if __name__ == "__main__":
+    print(f"Razorpay API stub on http://localhost:{PORT}/v1 (refund status: {REFUND_STATUS})")
+    ThreadingHTTPServer(("", PORT), Handler).serve_forever()
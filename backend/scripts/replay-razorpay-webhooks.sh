@@ -0,0 +1,37 @@
+#!/bin/bash
+
+# Replays recorded Razorpay webhook payloads against a running backend, signed the way
+# Razorpay signs them (HMAC-SHA256 of the raw body with the webhook secret).
+#
+# Usage: RAZORPAY_WEBHOOK_SECRET=secret ./replay-razorpay-webhooks.sh [payload.json ...]
+#   With no arguments every payload in razorpay-webhooks/ is sent.
+#   WEBHOOK_URL  target endpoint (default http://localhost:8080/api/payment/razorpay/webhook)
+#   EVENT_ID     fixed X-Razorpay-Event-Id, to exercise redelivery deduplication
+#
+# Edit order_id / refund ids in the payloads to match rows in the local database.
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+URL="${WEBHOOK_URL:-http://localhost:8080/api/payment/razorpay/webhook}"
+
+if [ -z "$RAZORPAY_WEBHOOK_SECRET" ]; then
+    echo "RAZORPAY_WEBHOOK_SECRET must be set (same value as the backend)" >&2
+    exit 1
+fi
+
+if [ $# -eq 0 ]; then
+    set -- "$SCRIPT_DIR"/razorpay-webhooks/*.json
+fi
+
+for file in "$@"; do
+    signature=$(openssl dgst -sha256 -hmac "$RAZORPAY_WEBHOOK_SECRET" -hex < "$file" | sed 's/^.*= //')
+    event_id="${EVENT_ID:-evt_replay_$(date +%s%N)}"
+    echo "POST $(basename "$file") as $event_id"
+    curl -sS -X POST "$URL" \
+        -H "Content-Type: application/json" \
+        -H "X-Razorpay-Signature: $signature" \
+        -H "X-Razorpay-Event-Id: $event_id" \
+        --data-binary "@$file"
+    echo
+done
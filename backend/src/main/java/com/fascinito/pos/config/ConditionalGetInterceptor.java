@@ -0,0 +1,51 @@
+package com.fascinito.pos.config;
+
+import com.fascinito.pos.event.CatalogChangedEvent;
+import com.fascinito.pos.service.CatalogVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Answers conditional GETs for catalog endpoints before the controller runs.
+ *
+ * The validators are derived from {@link CatalogVersions} for the catalog types the
+ * endpoint renders, so an unchanged If-None-Match / If-Modified-Since poll is a 304
+ * with no service or database work. The versions are shared by all instances, so any
+ * node stops answering 304 once another node's change reaches it (the refresh interval).
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersions catalogVersions;
+    private final Set<CatalogChangedEvent.Type> dependsOn;
+    private final CacheControl cacheControl;
+
+    public ConditionalGetInterceptor(CatalogVersions catalogVersions,
+                                     Set<CatalogChangedEvent.Type> dependsOn,
+                                     CacheControl cacheControl) {
+        this.catalogVersions = catalogVersions;
+        this.dependsOn = EnumSet.copyOf(dependsOn);
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+
+        // Headers must be set before the body is written; set on 304 as well
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+
+        String etag = catalogVersions.etag(dependsOn);
+        long lastModified = catalogVersions.lastModified(dependsOn);
+        return !new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+}
@@ -0,0 +1,34 @@
+package com.fascinito.pos.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for upload post-processing (image renditions).
+ * Decoding a full-size upload needs tens of MB of heap, so the pool is kept small; when the
+ * queue is full the uploading thread does the work itself instead of dropping the job.
+ * Stays on platform threads with virtual threads enabled: the work is CPU- and heap-bound.
+ */
+@Configuration
+public class ImageProcessingConfig {
+
+    @Value("${images.renditions.executor-threads:2}")
+    private int executorThreads;
+
+    @Bean(name = "imageRenditionExecutor")
+    public ThreadPoolTaskExecutor imageRenditionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(executorThreads);
+        executor.setMaxPoolSize(executorThreads);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -26,6 +26,10 @@ public class MailConfig {
     @Value("${spring.mail.password:}")
     private String password;
 
+    // Implicit TLS (SMTPS, port 465); false for plain SMTP relays and local stubs
+    @Value("${spring.mail.ssl.enabled:true}")
+    private boolean ssl;
+
     @Bean
     public JavaMailSender javaMailSender() {
         // Only create bean if mail host is configured
@@ -45,10 +49,12 @@ public class MailConfig {
             mailSender.setPassword(password);
 
             Properties props = mailSender.getJavaMailProperties();
-            props.put("mail.smtp.auth", "true");
-            props.put("mail.smtp.socketFactory.port", port);
-            props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
-            props.put("mail.smtp.socketFactory.fallback", "false");
+            props.put("mail.smtp.auth", String.valueOf(username != null && !username.isEmpty()));
+            if (ssl) {
+                props.put("mail.smtp.socketFactory.port", port);
+                props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
+                props.put("mail.smtp.socketFactory.fallback", "false");
+            }
             props.put("mail.smtp.starttls.enable", "false");
 
             log.info("JavaMailSender configured successfully for: {}", host);
@@ -0,0 +1,41 @@
+package com.fascinito.pos.config;
+
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Request metrics: http.server.requests is tagged with the handling controller method
+ * (handler=OrderController.checkout), on top of the default method/uri/status tags, so
+ * latency histograms can be read per endpoint implementation.
+ * Percentile histograms and SLO buckets are configured under management.metrics.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public DefaultServerRequestObservationConvention handlerTaggingObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and("handler", handlerName(context.getCarrier()));
+            }
+        };
+    }
+
+    /**
+     * Simple class and method name of the controller method that handled the request
+     */
+    public static String handlerName(HttpServletRequest request) {
+        Object handler = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) : null;
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "none";
+    }
+}
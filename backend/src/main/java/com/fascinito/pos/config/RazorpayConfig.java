@@ -6,6 +6,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @Slf4j
@@ -22,4 +24,26 @@ public class RazorpayConfig {
         log.info("Initializing Razorpay client with key: {}", keyId);
         return new RazorpayClient(keyId, keySecret);
     }
+
+    /**
+     * Executor the refund status poller fans out on: bounded, so a large backlog of
+     * PROCESSING refunds never opens more than this many concurrent calls to Razorpay.
+     * Virtual threads when spring.threads.virtual.enabled is set on Java 21+.
+     */
+    @Bean(name = "refundStatusExecutor")
+    public AsyncTaskExecutor refundStatusExecutor(
+            @Value("${razorpay.refunds.poll-threads:8}") int pollThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (VirtualThreads.isEnabled(virtualThreads)) {
+            return VirtualThreads.boundedExecutor("refund-status-", pollThreads);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pollThreads);
+        executor.setMaxPoolSize(pollThreads);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("refund-status-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
 }
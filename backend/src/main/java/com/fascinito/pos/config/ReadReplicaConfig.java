@@ -0,0 +1,133 @@
+package com.fascinito.pos.config;
+
+import com.fascinito.pos.jdbc.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in db.read-replicas.urls (DB_REPLICA_URLS).
+ *
+ * Replaces Boot's single pool with a primary pool (spring.datasource.*) and one read-only pool
+ * per replica, each with its own hikaricp.* metrics (pool=primary, replica-1, ...), behind a
+ * ReadWriteRoutingDataSource. Hibernate releases its connection after every transaction instead
+ * of holding it for the whole request (open-in-view), so each transaction is routed on its own.
+ *
+ * Locally a single PostgreSQL can pose as both: DB_REPLICA_URLS=<the primary URL>. The replica
+ * pool is read-only, so a write routed to it fails instead of passing silently.
+ */
+@Configuration
+@ConditionalOnExpression("!'${db.read-replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${db.read-replicas.urls}") List<String> urls,
+            @Value("${db.read-replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${db.read-replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${db.read-replicas.pool-size:10}") int poolSize,
+            @Value("${db.read-replicas.max-lag-ms:5000}") long maxLagMs,
+            @Value("${db.read-replicas.lag-check-interval-ms:2000}") long lagCheckIntervalMs,
+            @Value("${db.read-replicas.sticky-after-write-ms:5000}") long stickyAfterWriteMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, ReadWriteRoutingDataSource.PRIMARY, environment, meterRegistry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            String name = "replica-" + (replicas.size() + 1);
+            configure(replica, name, environment, meterRegistry);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // A replica that is down at startup is only left out of routing until it answers
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(name, replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, Duration.ofMillis(maxLagMs),
+                Duration.ofMillis(lagCheckIntervalMs), Duration.ofMillis(stickyAfterWriteMs), meterRegistry);
+    }
+
+    /**
+     * The application DataSource: a connection is only taken from a pool at the first statement,
+     * once the transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * No query cache: a cached result is valid when it was stored after the last write to its
+     * tables, but a lagging replica can return pre-write rows after that write, which would then
+     * be served until the region expires. Entity regions stay on, as a load never replaces a
+     * cached entity.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer noQueryCacheWithReplicas() {
+        return properties -> properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+
+    /**
+     * Read-your-writes: after a user's read-write transaction commits, their reads go to the
+     * primary until the replicas have caught up
+     */
+    @Bean
+    public TransactionExecutionListener readYourWritesListener(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && transaction.isNewTransaction() && !transaction.isReadOnly()) {
+                    readWriteRoutingDataSource.recordWrite();
+                }
+            }
+        };
+    }
+
+    private static void configure(HikariDataSource pool, String name, Environment environment, MeterRegistry meterRegistry) {
+        // Same pool settings as Boot's own pool would get
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
@@ -53,8 +53,10 @@ public class SecurityConfig {
                 .requestMatchers("/public/**").permitAll()
                 // Allow public access to uploaded images (static resources)
                 .requestMatchers("/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/blobs/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/blobs/**").permitAll()
                 // Allow GET requests for products, categories, and banners (customer browsing)
-                .requestMatchers(HttpMethod.GET, "/products/**", "/categories/**", "/banners/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/products/**", "/categories/**", "/banners/**", "/storefront/**").permitAll()
                 // Allow public access to cancellation reasons
                 .requestMatchers(HttpMethod.GET, "/cancellation-reasons", "/cancellation-reasons/**").permitAll()
                 // Allow cart and wishlist for guest users (they manage via localStorage, authenticated users use DB)
@@ -63,6 +65,12 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.POST, "/wishlist/**").permitAll()
                 .requestMatchers(HttpMethod.DELETE, "/wishlist/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/wishlist/check/**", "/wishlist/count").permitAll()
+                // Razorpay webhooks authenticate with their HMAC signature
+                .requestMatchers(HttpMethod.POST, "/payment/razorpay/webhook").permitAll()
+                // Health checks and the Prometheus scrape, reachable only on the management port
+                // (management.server.address, loopback by default); other actuator endpoints are admin-only
+                .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Admin endpoints - requires ADMIN role
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 // All other requests require authentication
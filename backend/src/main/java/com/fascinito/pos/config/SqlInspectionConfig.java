@@ -0,0 +1,69 @@
+package com.fascinito.pos.config;
+
+import com.fascinito.pos.jdbc.ReadWriteRoutingDataSource;
+import com.fascinito.pos.jdbc.SlowQueryMonitor;
+import com.fascinito.pos.jdbc.StatementCountingDataSource;
+import com.fascinito.pos.jdbc.TransactionQueryCountListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * SQL statement counting (see SqlStatementCounter): the application DataSource is wrapped so
+ * every executed statement is counted, and each transaction opens its own counting scope.
+ * Request scopes come from QueryCountFilter. Switched off with sql.inspection.enabled=false.
+ *
+ * Statements slower than sql.inspection.slow-query.threshold-ms are also captured, with a
+ * sampled EXPLAIN plan, by a SlowQueryMonitor attached to the wrapper.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectionConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            @Value("${sql.inspection.slow-query.enabled:true}") boolean slowQueryEnabled,
+            @Value("${sql.inspection.slow-query.threshold-ms:200}") long thresholdMs,
+            @Value("${sql.inspection.slow-query.buffer-size:200}") int bufferSize,
+            @Value("${sql.inspection.slow-query.explain-sample-rate:0.2}") double explainSampleRate,
+            @Value("${sql.inspection.slow-query.explain-interval-seconds:300}") long explainIntervalSeconds) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                // The router's pools are reached through the application DataSource, which is wrapped
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)) {
+                    SlowQueryMonitor monitor = slowQueryEnabled
+                            ? new SlowQueryMonitor(dataSource, Duration.ofMillis(thresholdMs), bufferSize,
+                                    explainSampleRate, Duration.ofSeconds(explainIntervalSeconds))
+                            : null;
+                    return new StatementCountingDataSource(dataSource, monitor);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * The monitor attached to the application DataSource, for the admin endpoint; closed on shutdown
+     */
+    @Bean
+    @ConditionalOnProperty(name = "sql.inspection.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryMonitor slowQueryMonitor(DataSource dataSource) throws SQLException {
+        return dataSource.unwrap(StatementCountingDataSource.class).getSlowQueryMonitor();
+    }
+
+    @Bean
+    public TransactionExecutionListener transactionQueryCountListener(
+            @Value("${sql.inspection.repeat-threshold:5}") int repeatThreshold) {
+        return new TransactionQueryCountListener(repeatThreshold);
+    }
+}
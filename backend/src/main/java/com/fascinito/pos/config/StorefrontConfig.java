@@ -0,0 +1,58 @@
+package com.fascinito.pos.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used to assemble the storefront home page snapshot.
+ * Small and bounded: the section executor only runs one fan-out (four section loads) per
+ * rebuild, and background rebuilds wait on it from their own single-thread executor.
+ * Virtual threads when spring.threads.virtual.enabled is set on Java 21+.
+ */
+@Configuration
+public class StorefrontConfig {
+
+    @Value("${storefront.home.executor-threads:4}")
+    private int executorThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = "storefrontExecutor")
+    public AsyncTaskExecutor storefrontExecutor() {
+        if (VirtualThreads.isEnabled(virtualThreads)) {
+            return VirtualThreads.boundedExecutor("storefront-", executorThreads);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(executorThreads);
+        executor.setMaxPoolSize(executorThreads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("storefront-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Background rebuilds after catalog writes. StorefrontService keeps at most one queued or
+     * running, so the committing thread never blocks on this executor.
+     */
+    @Bean(name = "storefrontWarmExecutor")
+    public AsyncTaskExecutor storefrontWarmExecutor() {
+        if (VirtualThreads.isEnabled(virtualThreads)) {
+            // One running plus one being handed over as the previous one finishes
+            return VirtualThreads.boundedExecutor("storefront-warm-", 2);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("storefront-warm-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fascinito.pos.config;
+
+import com.fascinito.pos.tracing.FileSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Tracing: Spring Boot's Micrometer Tracing / OpenTelemetry setup creates the HTTP server spans,
+ * samples traces (management.tracing.sampling.probability), puts traceId / spanId in the MDC and
+ * exports over OTLP when management.otlp.tracing.endpoint is set. TracingAspect adds controller,
+ * service, repository and mail spans. Spans can also be written to a local file instead of, or
+ * next to, a collector.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.file.path")
+    public SpanExporter fileSpanExporter(@Value("${tracing.file.path}") String path) throws IOException {
+        return new FileSpanExporter(Path.of(path));
+    }
+}
@@ -0,0 +1,30 @@
+package com.fascinito.pos.config;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Virtual-thread variants of the application's own I/O executors.
+ *
+ * Switched by spring.threads.virtual.enabled, the same property Spring Boot uses for Tomcat
+ * request threads, @Async and @Scheduled, and only honoured on a Java 21+ runtime (on 17 the
+ * platform-thread pools are used unchanged). A concurrency limit replaces the pool size, so
+ * downstream systems still see a bounded number of concurrent calls.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isEnabled(boolean configured) {
+        return configured && Runtime.version().feature() >= 21;
+    }
+
+    static AsyncTaskExecutor boundedExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskTerminationTimeout(10_000);
+        return executor;
+    }
+}
@@ -1,18 +1,68 @@
 package com.fascinito.pos.config;
 
+import com.fascinito.pos.service.CatalogVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 
+import java.util.EnumSet;
 import java.util.concurrent.TimeUnit;
 
+import static com.fascinito.pos.event.CatalogChangedEvent.Type.LOCATION;
+import static com.fascinito.pos.event.CatalogChangedEvent.Type.PRODUCT;
+import static com.fascinito.pos.event.CatalogChangedEvent.Type.VENDOR;
+
 /**
  * Web configuration for caching and performance optimization
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final CatalogVersions catalogVersions;
+
+    @Value("${catalog.http-cache.public-max-age-seconds:60}")
+    private long publicMaxAgeSeconds;
+
+    /**
+     * Conditional GET (ETag / Last-Modified) for catalog reads.
+     * Storefront-facing "active" lists and the home page may be cached briefly by clients;
+     * everything else must be revalidated on every use (cheap: a 304 costs no DB work).
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CacheControl publicShort = CacheControl.maxAge(publicMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+        CacheControl revalidate = CacheControl.noCache().cachePublic();
+        CacheControl revalidatePrivate = CacheControl.noCache().cachePrivate();
+
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.ALL, publicShort))
+                .addPathPatterns("/storefront/home");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.BANNERS, publicShort))
+                .addPathPatterns("/banners/active");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.BANNERS, revalidate))
+                .addPathPatterns("/banners", "/banners/*")
+                .excludePathPatterns("/banners/active");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.CATEGORIES, publicShort))
+                .addPathPatterns("/categories/active");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.CATEGORIES, revalidate))
+                .addPathPatterns("/categories", "/categories/*")
+                .excludePathPatterns("/categories/active");
+        // Reviews change without catalog events; images are served by the resource handler
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions, CatalogVersions.PRODUCTS, revalidate))
+                .addPathPatterns("/products", "/products/*", "/products/slug/*", "/products/*/related");
+        // Admin-only lists (authenticated): private, always revalidated
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions,
+                        EnumSet.of(VENDOR, PRODUCT), revalidatePrivate))
+                .addPathPatterns("/vendors", "/vendors/*");
+        registry.addInterceptor(new ConditionalGetInterceptor(catalogVersions,
+                        EnumSet.of(LOCATION, PRODUCT), revalidatePrivate))
+                .addPathPatterns("/locations", "/locations/*");
+    }
+
     /**
      * Configure resource handlers for static resources and API responses
      * This enables HTTP caching for images and other static content
@@ -36,11 +86,6 @@ public class WebConfig implements WebMvcConfigurer {
                 .setCacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic())
                 .resourceChain(true);
 
-        // Cache static files (CSS, JS) for 7 days
-        registry.addResourceHandler("/static/**")
-                .setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
-                .resourceChain(true);
-
         // Cache product images with ETag support for 30 days
         registry.addResourceHandler("/products/images/**")
                 .setCacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic())
@@ -5,12 +5,15 @@ import com.fascinito.pos.dto.PageResponse;
 import com.fascinito.pos.dto.banner.BannerRequest;
 import com.fascinito.pos.dto.banner.BannerResponse;
 import com.fascinito.pos.service.BannerService;
+import com.fascinito.pos.service.CatalogVersions;
+import com.fascinito.pos.service.PrecompressedResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,6 +29,8 @@ import java.util.List;
 public class BannerController {
 
     private final BannerService bannerService;
+    private final CatalogVersions catalogVersions;
+    private final PrecompressedResponseCache precompressedResponses;
 
     /**
      * Get all banners with pagination (Admin)
@@ -60,16 +65,21 @@ public class BannerController {
 
     /**
      * Get all active banners for carousel display (Public)
+     * Body is an ApiResponse&lt;List&lt;BannerResponse&gt;&gt;, serialized and gzipped once per banner version
      */
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<BannerResponse>>> getActiveBanners() {
-        List<BannerResponse> banners = bannerService.getActiveBanners();
-        return ResponseEntity.ok(new ApiResponse<>(
-                true,
-                "Active banners retrieved successfully",
-                banners,
-                LocalDateTime.now()
-        ));
+    public ResponseEntity<byte[]> getActiveBanners(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String version = catalogVersions.etag(CatalogVersions.BANNERS);
+        return precompressedResponses.get("banners-active", version, () -> {
+            List<BannerResponse> banners = bannerService.getActiveBanners();
+            return new ApiResponse<>(
+                    true,
+                    "Active banners retrieved successfully",
+                    banners,
+                    LocalDateTime.now()
+            );
+        }).toResponse(acceptEncoding);
     }
 
     /**
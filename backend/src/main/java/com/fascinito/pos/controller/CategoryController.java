@@ -4,13 +4,18 @@ import com.fascinito.pos.dto.ApiResponse;
 import com.fascinito.pos.dto.PageResponse;
 import com.fascinito.pos.dto.category.CategoryRequest;
 import com.fascinito.pos.dto.category.CategoryResponse;
+import com.fascinito.pos.service.CatalogVersions;
 import com.fascinito.pos.service.CategoryService;
+import com.fascinito.pos.service.PrecompressedResponseCache;
+import com.fascinito.pos.storage.BlobStore;
+import com.fascinito.pos.storage.StoredBlob;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,12 +26,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.logging.Logger;
 
 @RestController
@@ -36,6 +37,9 @@ import java.util.logging.Logger;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final BlobStore blobStore;
+    private final CatalogVersions catalogVersions;
+    private final PrecompressedResponseCache precompressedResponses;
 
     @GetMapping
     public ResponseEntity<PageResponse<CategoryResponse>> getAllCategories(
@@ -67,15 +71,22 @@ public class CategoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Body is an ApiResponse&lt;List&lt;CategoryResponse&gt;&gt;, serialized and gzipped once per catalog version
+     */
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllActiveCategories() {
-        List<CategoryResponse> categories = categoryService.getAllActiveCategories();
-        return ResponseEntity.ok(new ApiResponse<>(
-                true,
-                "Active categories retrieved successfully",
-                categories,
-                LocalDateTime.now()
-        ));
+    public ResponseEntity<byte[]> getAllActiveCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String version = catalogVersions.etag(CatalogVersions.CATEGORIES);
+        return precompressedResponses.get("categories-active", version, () -> {
+            List<CategoryResponse> categories = categoryService.getAllActiveCategories();
+            return new ApiResponse<>(
+                    true,
+                    "Active categories retrieved successfully",
+                    categories,
+                    LocalDateTime.now()
+            );
+        }).toResponse(acceptEncoding);
     }
 
     @GetMapping("/{id}")
@@ -169,28 +180,27 @@ public class CategoryController {
                 ));
             }
 
-            // Create uploads directory if it doesn't exist
-            String uploadBasePath = System.getenv("UPLOAD_BASE_PATH") != null
-                    ? System.getenv("UPLOAD_BASE_PATH")
-                    : "uploads";
-            Path uploadsDir = Paths.get(uploadBasePath, "categories");
-            Files.createDirectories(uploadsDir);
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String filename = UUID.randomUUID().toString() + extension;
+            String extension = BlobStore.imageExtension(contentType);
+            if (extension == null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>(
+                        false,
+                        "Unsupported image type",
+                        null,
+                        LocalDateTime.now()
+                ));
+            }
 
-            // Save file
-            Path filePath = uploadsDir.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Content-addressed storage: identical uploads share one blob and one immutable URL
+            StoredBlob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = blobStore.put(in, extension);
+            }
+            String url = blobStore.urlFor(blob.key());
 
             // Return file URL (relative path for frontend)
             Map<String, String> response = new HashMap<>();
-            response.put("url", "/uploads/categories/" + filename);
-            response.put("filename", filename);
+            response.put("url", url);
+            response.put("filename", blob.key());
 
             return ResponseEntity.ok(new ApiResponse<>(
                     true,
@@ -0,0 +1,78 @@
+package com.fascinito.pos.controller;
+
+import com.fascinito.pos.dto.ApiResponse;
+import com.fascinito.pos.dto.diagnostics.FlightRecordingResponse;
+import com.fascinito.pos.service.FlightRecorderService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * JDK Flight Recorder recordings of this instance (Admin only).
+ * Open downloaded files with JDK Mission Control or `jfr print --events com.fascinito.pos.* file.jfr`.
+ */
+@RestController
+@RequestMapping("/admin/diagnostics/jfr")
+@RequiredArgsConstructor
+@Slf4j
+public class FlightRecorderController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    /**
+     * Start a recording
+     * POST /api/admin/diagnostics/jfr/start?settings=profile&durationSeconds=300&thresholdMs=0
+     */
+    @PostMapping("/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FlightRecordingResponse>> start(
+            @RequestParam(defaultValue = "default") String settings,
+            @RequestParam(required = false) Long durationSeconds,
+            @RequestParam(defaultValue = "0") long thresholdMs) {
+        FlightRecordingResponse recording = flightRecorderService.start(settings, durationSeconds, thresholdMs);
+        return ResponseEntity.ok(ApiResponse.success("Recording started", recording));
+    }
+
+    /**
+     * Stop the recording (it stays available for download)
+     * POST /api/admin/diagnostics/jfr/stop
+     */
+    @PostMapping("/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FlightRecordingResponse>> stop() {
+        return ResponseEntity.ok(ApiResponse.success("Recording stopped", flightRecorderService.stop()));
+    }
+
+    /**
+     * Current recording state
+     * GET /api/admin/diagnostics/jfr
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<FlightRecordingResponse>> status() {
+        return ResponseEntity.ok(ApiResponse.success(flightRecorderService.status()));
+    }
+
+    /**
+     * Download the recording so far as a .jfr file
+     * GET /api/admin/diagnostics/jfr/download
+     */
+    @GetMapping("/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void download(HttpServletResponse response) throws IOException {
+        String fileName = flightRecorderService.fileName();
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+        flightRecorderService.download(response.getOutputStream());
+        log.info("Downloaded JFR recording {}", fileName);
+    }
+}
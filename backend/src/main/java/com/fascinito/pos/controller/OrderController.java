@@ -6,7 +6,9 @@ import com.fascinito.pos.dto.order.*;
 import com.fascinito.pos.entity.Order;
 import com.fascinito.pos.entity.User;
 import com.fascinito.pos.repository.UserRepository;
+import com.fascinito.pos.service.IdempotencyService;
 import com.fascinito.pos.service.OrderService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -18,6 +20,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/orders")
 @RequiredArgsConstructor
@@ -25,21 +29,28 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
     private final OrderService orderService;
     private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Create order from cart (Checkout)
      * POST /api/orders/checkout
      * Body: {shippingAddress, billingAddress, notes, discount, paymentMethod}
+     * Header (optional): Idempotency-Key - retries with the same key replay the first response
      */
     @PostMapping("/checkout")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<OrderResponse>> checkout(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody CheckoutRequest checkoutRequest) {
         Long userId = getCurrentUserId();
         log.info("User {} initiating checkout", userId);
-        OrderResponse order = orderService.createOrderFromCart(userId, checkoutRequest);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(order));
+        return idempotencyService.execute("checkout", userId, idempotencyKey, checkoutRequest,
+                new TypeReference<ApiResponse<OrderResponse>>() { },
+                () -> {
+                    OrderResponse order = orderService.createOrderFromCart(userId, checkoutRequest);
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(ApiResponse.success(order));
+                });
     }
 
     /**
@@ -181,17 +192,23 @@ public class OrderController {
      * Initiate refund for cancelled order (Admin only)
      * POST /api/orders/{orderId}/refund
      * Body: {refundType, refundAmount}
+     * Header (optional): Idempotency-Key - retries with the same key replay the first response
      */
     @PostMapping("/{orderId}/refund")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<RefundResponse>> initiateRefund(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @PathVariable Long orderId,
             @RequestBody InitiateRefundRequest request) {
         Long adminId = getCurrentUserId();
         log.info("Admin {} initiating refund for order {}", adminId, orderId);
-        RefundResponse refund = orderService.initiateRefund(orderId, adminId, request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(refund));
+        return idempotencyService.execute("refund", adminId, idempotencyKey, List.of(orderId, request),
+                new TypeReference<ApiResponse<RefundResponse>>() { },
+                () -> {
+                    RefundResponse refund = orderService.initiateRefund(orderId, adminId, request);
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(ApiResponse.success(refund));
+                });
     }
 
     /**
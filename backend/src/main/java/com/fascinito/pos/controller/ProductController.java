@@ -5,7 +5,10 @@ import com.fascinito.pos.dto.PageResponse;
 import com.fascinito.pos.dto.product.ProductRequest;
 import com.fascinito.pos.dto.product.ProductResponse;
 import com.fascinito.pos.exception.ResourceNotFoundException;
+import com.fascinito.pos.service.ImageRenditionService;
 import com.fascinito.pos.service.ProductService;
+import com.fascinito.pos.storage.BlobStore;
+import com.fascinito.pos.storage.StoredBlob;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,15 +22,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.logging.Logger;
 
 @RestController
@@ -37,6 +37,8 @@ import java.util.logging.Logger;
 public class ProductController {
 
     private final ProductService productService;
+    private final BlobStore blobStore;
+    private final ImageRenditionService imageRenditionService;
 
     @GetMapping
     public ResponseEntity<PageResponse<ProductResponse>> getAllProducts(
@@ -49,7 +51,10 @@ public class ProductController {
             @RequestParam(required = false) Long vendorId,
             @RequestParam(required = false) Long locationId,
             @RequestParam(required = false) Boolean visibleToCustomers,
-            @RequestParam(required = false) Boolean active
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice
     ) {
         Sort sort = sortDir.equalsIgnoreCase("asc") 
                 ? Sort.by(sortBy).ascending() 
@@ -58,7 +63,8 @@ public class ProductController {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         Page<ProductResponse> products = productService.getAllProducts(
-                pageable, search, categoryId, vendorId, locationId, visibleToCustomers, active);
+                pageable, search, categoryId, vendorId, locationId, visibleToCustomers, active,
+                inStock, minPrice, maxPrice);
         
         PageResponse<ProductResponse> response = PageResponse.<ProductResponse>builder()
                 .content(products.getContent())
@@ -202,29 +208,30 @@ public class ProductController {
                 ));
             }
 
-            // Create uploads directory if it doesn't exist
-            // Use absolute path to ensure it works in Docker and local environments
-            String uploadBasePath = System.getenv("UPLOAD_BASE_PATH") != null
-                    ? System.getenv("UPLOAD_BASE_PATH")
-                    : "uploads";
-            Path uploadsDir = Paths.get(uploadBasePath, "products");
-            Files.createDirectories(uploadsDir);
+            String extension = BlobStore.imageExtension(contentType);
+            if (extension == null) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>(
+                        false,
+                        "Unsupported image type",
+                        null,
+                        LocalDateTime.now()
+                ));
+            }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String filename = UUID.randomUUID().toString() + extension;
+            // Content-addressed storage: identical uploads share one blob and one immutable URL
+            StoredBlob blob;
+            try (InputStream in = file.getInputStream()) {
+                blob = blobStore.put(in, extension);
+            }
+            String url = blobStore.urlFor(blob.key());
 
-            // Save file with StandardCopyOption
-            Path filePath = uploadsDir.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Thumb/card/detail renditions are generated in the background
+            imageRenditionService.submit(blob.key());
 
             // Return file URL (relative path for frontend)
             Map<String, String> response = new HashMap<>();
-            response.put("url", "/uploads/products/" + filename);
-            response.put("filename", filename);
+            response.put("url", url);
+            response.put("filename", blob.key());
 
             return ResponseEntity.ok(new ApiResponse<>(
                     true,
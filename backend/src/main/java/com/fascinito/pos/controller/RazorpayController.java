@@ -6,7 +6,9 @@ import com.fascinito.pos.dto.payment.PaymentVerificationResponse;
 import com.fascinito.pos.dto.payment.RazorpayOrderResponse;
 import com.fascinito.pos.entity.User;
 import com.fascinito.pos.repository.UserRepository;
+import com.fascinito.pos.service.IdempotencyService;
 import com.fascinito.pos.service.RazorpayService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.razorpay.RazorpayException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +17,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/payment/razorpay")
 @RequiredArgsConstructor
@@ -23,23 +27,35 @@ public class RazorpayController {
 
     private final RazorpayService razorpayService;
     private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Create Razorpay order for payment
+     * Header (optional): Idempotency-Key - retries with the same key replay the first response
      */
     @PostMapping("/create-order/{orderId}")
     public ResponseEntity<ApiResponse<RazorpayOrderResponse>> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @PathVariable Long orderId) {
         
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<User> user = userRepository.findByEmail(username);
+        if (user.isEmpty()) {
+            log.error("Unexpected error creating Razorpay order: user {} not found", username);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("An unexpected error occurred"));
+        }
+        
+        // Key conflicts and reuse surface as 409/400 through the exception handler
+        Long userId = user.get().getId();
+        return idempotencyService.execute("razorpay-order", userId, idempotencyKey, orderId,
+                new TypeReference<ApiResponse<RazorpayOrderResponse>>() { },
+                () -> createRazorpayOrder(userId, orderId));
+    }
+
+    private ResponseEntity<ApiResponse<RazorpayOrderResponse>> createRazorpayOrder(Long userId, Long orderId) {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            RazorpayOrderResponse response = razorpayService.createRazorpayOrder(
-                    user.getId(), 
-                    orderId
-            );
+            RazorpayOrderResponse response = razorpayService.createRazorpayOrder(userId, orderId);
             
             return ResponseEntity.ok(
                     ApiResponse.success("Razorpay order created successfully", response)
@@ -0,0 +1,41 @@
+package com.fascinito.pos.controller;
+
+import com.fascinito.pos.dto.ApiResponse;
+import com.fascinito.pos.service.RazorpayWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Razorpay webhook receiver (called by Razorpay, not by clients)
+ */
+@RestController
+@RequestMapping("/payment/razorpay/webhook")
+@RequiredArgsConstructor
+@Slf4j
+public class RazorpayWebhookController {
+
+    private final RazorpayWebhookService webhookService;
+
+    /**
+     * Receive a webhook delivery
+     * POST /api/payment/razorpay/webhook
+     * Answers 200 once the event is stored (or was already stored); processing is asynchronous
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<Void>> receive(
+            @RequestHeader(value = RazorpayWebhookService.SIGNATURE_HEADER, required = false) String signature,
+            @RequestHeader(value = RazorpayWebhookService.EVENT_ID_HEADER, required = false) String eventId,
+            @RequestBody byte[] body) {
+        try {
+            boolean stored = webhookService.receive(body, signature, eventId);
+            return ResponseEntity.ok(ApiResponse.success(stored ? "Event received" : "Duplicate event", null));
+        } catch (SecurityException e) {
+            log.warn("Rejected Razorpay webhook {}: {}", eventId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Invalid signature"));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.fascinito.pos.controller;
+
+import com.fascinito.pos.dto.ApiResponse;
+import com.fascinito.pos.dto.diagnostics.SlowQueryReportResponse;
+import com.fascinito.pos.service.SlowQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Statements slower than sql.inspection.slow-query.threshold-ms on this instance (Admin only),
+ * with sampled EXPLAIN plans
+ */
+@RestController
+@RequestMapping("/admin/diagnostics/slow-queries")
+@RequiredArgsConstructor
+@Slf4j
+public class SlowQueryController {
+
+    private final SlowQueryService slowQueryService;
+
+    /**
+     * Recent slow statements and the same grouped by query shape
+     * GET /api/admin/diagnostics/slow-queries?limit=50
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<SlowQueryReportResponse>> report(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(slowQueryService.report(limit)));
+    }
+
+    /**
+     * Empty the buffer and forget captured plans
+     * DELETE /api/admin/diagnostics/slow-queries
+     */
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> clear() {
+        slowQueryService.clear();
+        log.info("Slow query buffer cleared");
+        return ResponseEntity.ok(ApiResponse.success("Slow query buffer cleared", null));
+    }
+}
@@ -0,0 +1,49 @@
+package com.fascinito.pos.controller;
+
+import com.fascinito.pos.dto.ApiResponse;
+import com.fascinito.pos.dto.storefront.HomePageResponse;
+import com.fascinito.pos.service.PrecompressedResponseCache;
+import com.fascinito.pos.service.StorefrontService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/storefront")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class StorefrontController {
+
+    private final StorefrontService storefrontService;
+    private final PrecompressedResponseCache precompressedResponses;
+
+    /**
+     * Home page aggregate: banners, featured products, top categories and new arrivals
+     * GET /api/storefront/home
+     * Body is an ApiResponse&lt;HomePageResponse&gt;, serialized and gzipped once per snapshot
+     */
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHomePage(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        HomePageResponse home = storefrontService.getHomePage();
+        // Keyed on the snapshot actually served: after a failed rebuild that is the previous one
+        ResponseEntity<byte[]> body = precompressedResponses.get("storefront-home", Long.toString(home.getVersion()),
+                () -> new ApiResponse<>(
+                        true,
+                        "Home page retrieved successfully",
+                        home,
+                        LocalDateTime.now()
+                )).toResponse(acceptEncoding);
+        if (home.getVersion() != storefrontService.getCurrentVersion()) {
+            // The entity tag already set is the current version's; clients must not keep this body under it
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fascinito.pos.dto.diagnostics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightRecordingResponse {
+    private Long id;
+    private String name;
+    private String state;  // NEW, RUNNING, STOPPED, CLOSED
+    private String settings;  // "default" (~1% overhead) or "profile" (~2%, more sampling)
+    private Instant startTime;
+    private Instant stopTime;
+    private Long maxDurationSeconds;
+    private Long sizeBytes;
+}
@@ -0,0 +1,19 @@
+package com.fascinito.pos.dto.diagnostics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowQueryReportResponse {
+    private Long thresholdMs;
+    private Long captured;  // Since startup or the last clear, including entries evicted from the buffer
+    private List<SlowQueryResponse> queries;
+    private List<SlowQueryShapeResponse> shapes;
+}
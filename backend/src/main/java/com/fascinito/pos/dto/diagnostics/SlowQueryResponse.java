@@ -0,0 +1,25 @@
+package com.fascinito.pos.dto.diagnostics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowQueryResponse {
+    private String shape;  // SQL with literals and IN-lists collapsed
+    private List<String> parameterTypes;  // Bind parameter setter types, values are not kept
+    private Long durationMs;
+    private String caller;  // Class.method:line that issued the statement
+    private String thread;
+    private Boolean batch;
+    private Instant capturedAt;
+    private String plan;  // Latest EXPLAIN for the shape, null until one was sampled
+    private Instant planCapturedAt;
+}
@@ -0,0 +1,25 @@
+package com.fascinito.pos.dto.diagnostics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowQueryShapeResponse {
+    private String shape;
+    private Long count;  // Slow executions still in the buffer
+    private Long totalMs;
+    private Long maxMs;
+    private Long avgMs;
+    private List<String> callers;
+    private Instant lastSeen;
+    private String plan;
+    private Instant planCapturedAt;
+}
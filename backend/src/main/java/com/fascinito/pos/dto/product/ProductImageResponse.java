@@ -13,4 +13,7 @@ public class ProductImageResponse {
     private String url;
     private String altText;
     private Integer displayOrder;
+    private String thumbnailUrl;  // Renditions; null while processing or for external URLs
+    private String cardUrl;
+    private String detailUrl;
 }
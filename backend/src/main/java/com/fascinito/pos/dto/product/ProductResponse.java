@@ -44,6 +44,8 @@ public class ProductResponse {
     private Integer stockQuantity;
     private Integer lowStockThreshold;
     private Boolean inStock;  // Calculated field: true if product is in stock
+    private BigDecimal minPrice;  // Lowest sellable price (combination or effective product price)
+    private BigDecimal maxPrice;  // Highest sellable price
     
     private Boolean active;
     private Boolean featured;
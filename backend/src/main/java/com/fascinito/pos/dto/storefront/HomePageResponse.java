@@ -0,0 +1,31 @@
+package com.fascinito.pos.dto.storefront;
+
+import com.fascinito.pos.dto.banner.BannerResponse;
+import com.fascinito.pos.dto.category.CategoryResponse;
+import com.fascinito.pos.dto.product.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the storefront home page needs in one payload.
+ * Instances are immutable snapshots once published by StorefrontService.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HomePageResponse {
+
+    private Long version;  // Snapshot version; changes whenever banners, products, stock or categories change
+    private LocalDateTime generatedAt;
+
+    private List<BannerResponse> banners;
+    private List<ProductResponse> featuredProducts;
+    private List<CategoryResponse> topCategories;
+    private List<ProductResponse> newArrivals;
+}
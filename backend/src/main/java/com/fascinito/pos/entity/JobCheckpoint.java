@@ -0,0 +1,30 @@
+package com.fascinito.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far an incremental job has got, so the next run resumes instead of starting over
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    // Job-defined position, e.g. epoch seconds up to which gateway data has been processed
+    @Column(name = "last_position", nullable = false)
+    private Long lastPosition;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -56,6 +56,20 @@ public class OrderRefund {
     @Column(name = "settlement_expected_date")
     private LocalDateTime settlementExpectedDate;
 
+    // Status polling backoff (RefundService.checkRefundStatus)
+    @Column(name = "status_check_attempts")
+    private Integer statusCheckAttempts;
+
+    @Column(name = "next_status_check_at")
+    private LocalDateTime nextStatusCheckAt;
+
+    // Job lease (JobRunner); written only by the runner's SQL, never by entity updates
+    @Column(name = "lease_owner", length = 100, insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private LocalDateTime leaseUntil;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
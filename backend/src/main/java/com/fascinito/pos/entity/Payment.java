@@ -89,6 +89,8 @@ public class Payment {
         COMPLETED,
         FAILED,
         REFUNDED,
-        CANCELLED
+        CANCELLED,
+        // Captured, but not for the expected amount or for an order no longer awaiting payment
+        NEEDS_REVIEW
     }
 }
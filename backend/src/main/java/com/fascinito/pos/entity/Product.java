@@ -15,12 +15,39 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+// Fetch profiles applied through ProductRepository entity graphs.
+// "card": listing rows - to-one references joined in the same select, no collections
+// (the first image is loaded separately for the whole page).
+// "detail": product page - to-one references plus images; variations, combinations and
+// specifications follow through @BatchSize lazy loading (only one bag can be join-fetched).
+@NamedEntityGraph(
+        name = Product.CARD_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("subCategory"),
+                @NamedAttributeNode("vendor"),
+                @NamedAttributeNode("location")
+        }
+)
+@NamedEntityGraph(
+        name = Product.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("subCategory"),
+                @NamedAttributeNode("vendor"),
+                @NamedAttributeNode("location"),
+                @NamedAttributeNode("images")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 public class Product {
 
+    public static final String CARD_GRAPH = "Product.card";
+    public static final String DETAIL_GRAPH = "Product.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -92,6 +119,21 @@ public class Product {
     @Column(nullable = false)
     private Boolean featured = false;
 
+    // Denormalized availability/price summary, maintained by ProductAvailabilityService on every
+    // write that touches variations, options, combinations or stock. Listings read these instead
+    // of walking the variation graph.
+    @Column(name = "in_stock")
+    private Boolean inStock;
+
+    @Column(name = "total_available_stock")
+    private Integer totalAvailableStock;
+
+    @Column(name = "min_price", precision = 10, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price", precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @org.hibernate.annotations.BatchSize(size = 10)
     private List<ProductImage> images = new ArrayList<>();
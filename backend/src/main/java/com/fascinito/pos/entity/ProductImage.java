@@ -28,6 +28,17 @@ public class ProductImage {
     @Column(nullable = false, length = 500)
     private String imageUrl;
 
+    // Resized, metadata-free JPEG renditions generated by ImageRenditionService.
+    // Null until the background job for imageUrl has finished (clients fall back to imageUrl).
+    @Column(length = 500)
+    private String thumbnailUrl;
+
+    @Column(length = 500)
+    private String cardUrl;
+
+    @Column(length = 500)
+    private String detailUrl;
+
     @Column(length = 200)
     private String altText;
 
@@ -37,7 +37,8 @@ public class ProductVariation {
     @Column(nullable = false)
     private Boolean active = true;
 
-    @OneToMany(mappedBy = "variation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "variation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @org.hibernate.annotations.BatchSize(size = 10)
     private List<VariationOption> options = new ArrayList<>();
 
     @CreatedDate
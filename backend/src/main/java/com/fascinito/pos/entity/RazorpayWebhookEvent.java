@@ -0,0 +1,74 @@
+package com.fascinito.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbox row for a verified Razorpay webhook delivery.
+ * Razorpay retries deliveries, so the event id is unique; events sharing an ordering key
+ * (the Razorpay payment they concern) are applied in arrival order.
+ */
+@Entity
+@Table(
+        name = "razorpay_webhook_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_razorpay_webhook_event_id", columnNames = "event_id"),
+        indexes = @Index(name = "idx_razorpay_webhook_status_id", columnList = "status, id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RazorpayWebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, length = 100)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "ordering_key", nullable = false, length = 100)
+    private String orderingKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Two instances draining the inbox cannot both apply the same event
+    @Version
+    private Long version;
+
+    public enum Status {
+        RECEIVED,
+        PROCESSED,
+        IGNORED,
+        FAILED
+    }
+}
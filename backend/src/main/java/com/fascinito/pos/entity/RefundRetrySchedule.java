@@ -41,6 +41,13 @@ public class RefundRetrySchedule {
     @Column(columnDefinition = "TEXT", name = "last_error")
     private String lastError;
 
+    // Job lease (JobRunner); written only by the runner's SQL, never by entity updates
+    @Column(name = "lease_owner", length = 100, insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private LocalDateTime leaseUntil;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -39,7 +39,9 @@ public class User {
     @Column(nullable = false, unique = true, length = 20)
     private String phone;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // LAZY: authentication loads roles through UserRepository.findWithRoles* entity graphs
+    @ManyToMany(fetch = FetchType.LAZY)
+    @org.hibernate.annotations.BatchSize(size = 10)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,21 @@
+package com.fascinito.pos.event;
+
+/**
+ * Published by write paths that change storefront catalog data (products, stock,
+ * categories, banners, vendors, locations). Listeners use it to invalidate in-memory snapshots;
+ * they should react after commit so readers never cache uncommitted state.
+ *
+ * @param type     what kind of catalog data changed
+ * @param entityId id of the changed entity, or null for bulk changes
+ */
+public record CatalogChangedEvent(Type type, Long entityId) {
+
+    public enum Type {
+        PRODUCT,
+        STOCK,
+        CATEGORY,
+        BANNER,
+        VENDOR,
+        LOCATION
+    }
+}
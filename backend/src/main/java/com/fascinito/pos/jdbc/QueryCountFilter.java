@@ -0,0 +1,91 @@
+package com.fascinito.pos.jdbc;
+
+import com.fascinito.pos.config.MetricsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of each HTTP request.
+ *
+ * Requests running more than sql.inspection.warn-statements statements, or repeating one query
+ * shape at least sql.inspection.repeat-threshold times (N+1), are logged with their handler and
+ * the repeated shapes. Counts are also exported as sql.statements.per.request{handler} and
+ * sql.n_plus_one{handler}.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.inspection.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String SCOPE_ATTRIBUTE = QueryCountFilter.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sql.inspection.warn-statements:50}")
+    private int warnStatements;
+
+    @Value("${sql.inspection.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope =
+                     SqlStatementCounter.open(request.getMethod() + " " + request.getRequestURI())) {
+            request.setAttribute(SCOPE_ATTRIBUTE, scope);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                report(request, scope);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        String handler = MetricsConfig.handlerName(request);
+        DistributionSummary.builder("sql.statements.per.request")
+                .description("SQL statements executed per HTTP request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(scope.getCount());
+
+        Map<String, Integer> repeated = scope.getRepeated(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("sql.n_plus_one")
+                    .description("Requests repeating one query shape beyond the threshold")
+                    .tag("handler", handler)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Possible N+1 in {} ({}): {} statements, repeated shapes {}",
+                    scope.getName(), handler, scope.getCount(), repeated);
+        } else if (scope.getCount() > warnStatements) {
+            log.warn("{} ({}) executed {} SQL statements", scope.getName(), handler, scope.getCount());
+        } else {
+            log.debug("{} ({}) executed {} SQL statements", scope.getName(), handler, scope.getCount());
+        }
+    }
+}
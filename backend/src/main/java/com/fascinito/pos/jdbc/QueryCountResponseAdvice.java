@@ -0,0 +1,55 @@
+package com.fascinito.pos.jdbc;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Map;
+
+/**
+ * Development aid: adds the request's SQL statement count so far (X-Sql-Statements) and the
+ * number of query shapes repeated beyond the N+1 threshold (X-Sql-Repeated-Shapes) to response
+ * headers. Statements run while the body is serialized (lazy loading) are not included; the
+ * QueryCountFilter log line has the final count.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "sql.inspection.response-headers", havingValue = "true")
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String REPEATED_HEADER = "X-Sql-Repeated-Shapes";
+
+    @Value("${sql.inspection.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(QueryCountFilter.SCOPE_ATTRIBUTE)
+                        instanceof SqlStatementCounter.Scope scope) {
+            Map<String, Integer> repeated = scope.getRepeated(repeatThreshold);
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(scope.getCount()));
+            response.getHeaders().set(REPEATED_HEADER, String.valueOf(repeated.size()));
+        }
+        return body;
+    }
+}
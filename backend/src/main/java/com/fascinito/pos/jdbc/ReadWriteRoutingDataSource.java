@@ -0,0 +1,275 @@
+package com.fascinito.pos.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ *
+ * The route is decided when a connection is first used (this DataSource sits behind a
+ * LazyConnectionDataSourceProxy), so @Transactional(readOnly = true) is already visible.
+ * A read-only transaction still goes to the primary when:
+ * - the client committed a read-write transaction within the sticky window, so they read
+ *   their own writes,
+ * - no replica is within the allowed replication lag (checked in the background), or
+ *   none has answered its last lag check.
+ * Healthy replicas are used round robin.
+ *
+ * The sticky window travels with the client, not the node: a signed-in user's write sets a
+ * short-lived cookie holding the time until which their reads go to the primary, so the
+ * next request honours it on whichever instance it lands. The deadline is the writing
+ * node's wall clock; skew between instances only shifts the window by the skew.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+    public static final String STICKY_COOKIE = "pos_primary_until";
+    // Deadline set by a write earlier in the same request, before the client holds the cookie
+    private static final String STICKY_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".stickyUntil";
+    // Tolerated clock difference between the instance that set a sticky cookie and the one reading it
+    private static final long STICKY_CLOCK_SKEW_MILLIS = 1000;
+
+    // Lag in ms; 0 when the replica has replayed everything it received (or is not a standby)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+            END""";
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long stickyMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+    private final Counter writeRoutes;
+    private final Counter stickyRoutes;
+    private final Counter fallbackRoutes;
+
+    /**
+     * @param replicas Replica pools by name, e.g. replica-1; their names tag the routing metrics
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                      Duration lagCheckInterval, Duration stickyAfterWrite, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue(), meterRegistry))
+                .toList();
+        this.maxLagMillis = maxLag.toMillis();
+        this.stickyMillis = stickyAfterWrite.toMillis();
+        this.writeRoutes = routes(meterRegistry, PRIMARY, "read-write");
+        this.stickyRoutes = routes(meterRegistry, PRIMARY, "sticky");
+        this.fallbackRoutes = routes(meterRegistry, PRIMARY, "replica-unavailable");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeRoutes.increment();
+            return PRIMARY;
+        }
+        if (isSticky()) {
+            stickyRoutes.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                replica.routes.increment();
+                return replica.name;
+            }
+        }
+        fallbackRoutes.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Route the current client's read-only transactions to the primary for the sticky window:
+     * for the rest of this request and, through the sticky cookie, for their next requests.
+     * Called after a read-write transaction commits; only signed-in users' writes count, so
+     * anonymous (and cacheable) catalog responses never carry the cookie.
+     */
+    public void recordWrite() {
+        if (stickyMillis <= 0 || currentUser() == null
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        boolean cookieSet = request.getAttribute(STICKY_ATTRIBUTE) != null;
+        long until = System.currentTimeMillis() + stickyMillis;
+        request.setAttribute(STICKY_ATTRIBUTE, until);
+
+        // One cookie per request: later writes in it extend the window by milliseconds at most
+        HttpServletResponse response = attributes.getResponse();
+        if (cookieSet || response == null || response.isCommitted()) {
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(STICKY_COOKIE, Long.toString(until))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path(request.getContextPath().isEmpty() ? "/" : request.getContextPath())
+                .maxAge(Duration.ofMillis(stickyMillis).toSeconds() + 1)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private boolean isSticky() {
+        if (stickyMillis <= 0
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        long now = System.currentTimeMillis();
+        if (request.getAttribute(STICKY_ATTRIBUTE) instanceof Long until && until > now) {
+            return true;
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (STICKY_COOKIE.equals(cookie.getName())) {
+                try {
+                    long until = Long.parseLong(cookie.getValue());
+                    // A deadline further out than one window was not set by a write: ignore it
+                    return until > now && until - now <= stickyMillis + STICKY_CLOCK_SKEW_MILLIS;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+                try (ResultSet rows = statement.executeQuery(LAG_QUERY)) {
+                    rows.next();
+                    double lag = rows.getDouble(1);
+                    // NULL: a standby behind the primary that has not replayed a transaction yet
+                    replica.lagMillis = rows.wasNull() ? Double.NaN : lag;
+                    replica.available = !rows.wasNull() && lag <= maxLagMillis;
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagMillis = Double.NaN;
+                replica.available = false;
+                if (wasAvailable) {
+                    log.warn("Read replica {} failed its lag check: {}", replica.name, e.getMessage());
+                }
+            }
+            if (wasAvailable && !replica.available && !Double.isNaN(replica.lagMillis)) {
+                log.warn("Read replica {} is {} ms behind (max {} ms); reads fall back", replica.name,
+                        Math.round(replica.lagMillis), maxLagMillis);
+            } else if (!wasAvailable && replica.available) {
+                log.info("Read replica {} is available ({} ms behind)", replica.name, Math.round(replica.lagMillis));
+            }
+        }
+    }
+
+    /**
+     * Stops the lag checks and closes the primary and replica pools
+     */
+    @Override
+    public void close() throws Exception {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Counter routes(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter routes;
+        // Unavailable until the first lag check passes
+        private volatile boolean available;
+        private volatile double lagMillis = Double.NaN;
+
+        private Replica(String name, DataSource dataSource, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.routes = ReadWriteRoutingDataSource.routes(meterRegistry, name, "read-only");
+            Gauge.builder("db.replica.lag", this, replica -> replica.lagMillis)
+                    .description("Replication lag of the read replica in ms, NaN when unknown")
+                    .baseUnit("milliseconds")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.available", this, replica -> replica.available ? 1 : 0)
+                    .description("1 while the read replica receives read-only transactions")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.fascinito.pos.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures statements slower than a threshold, as timed by StatementCountingDataSource.
+ *
+ * Each slow execution is kept in a bounded ring buffer with its query shape, bind parameter
+ * types, duration and the application method that issued it. Bind values are never stored;
+ * they are only held long enough to EXPLAIN a sampled subset of slow statements, at most once
+ * per shape per interval, on a single background thread against the unwrapped pool, so the
+ * plan capture cannot itself show up as a slow query or block the request that triggered it.
+ */
+@Slf4j
+public class SlowQueryMonitor implements AutoCloseable {
+
+    // Plans kept for this many distinct shapes, least recently explained dropped first
+    private static final int MAX_PLANS = 200;
+    private static final int EXPLAIN_QUEUE = 20;
+    private static final int EXPLAIN_TIMEOUT_SECONDS = 5;
+    private static final String APPLICATION_PACKAGE = "com.fascinito.pos.";
+    private static final String JDBC_PACKAGE = "com.fascinito.pos.jdbc.";
+
+    private final DataSource explainDataSource;
+    private final long thresholdNanos;
+    private final double explainSampleRate;
+    private final long explainIntervalMillis;
+    private final SlowQuery[] buffer;
+    private int next;
+    private long captured;
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final Map<String, Plan> plans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+            return size() > MAX_PLANS;
+        }
+    };
+    private final ThreadPoolExecutor explainExecutor;
+
+    /**
+     * @param explainDataSource Pool to run EXPLAIN on; must not be the timed wrapper
+     */
+    public SlowQueryMonitor(DataSource explainDataSource, Duration threshold, int bufferSize,
+                            double explainSampleRate, Duration explainInterval) {
+        this.explainDataSource = explainDataSource;
+        this.thresholdNanos = threshold.toNanos();
+        this.buffer = new SlowQuery[Math.max(1, bufferSize)];
+        this.explainSampleRate = explainSampleRate;
+        this.explainIntervalMillis = explainInterval.toMillis();
+        // One thread and a short queue: plans are best effort and dropped when the queue is full
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * Called after every timed execute call; cheap unless the statement was slow
+     * @param sql Prepared or executed SQL, null for a batch of plain statements
+     * @param parameters Bind parameters of a prepared statement, or null
+     */
+    void executed(String sql, BindParameters parameters, long elapsedNanos, boolean batch) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        String shape = SqlStatementCounter.shape(sql);
+        List<String> types = parameters != null ? parameters.types() : List.of();
+        String caller = caller();
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        SlowQuery query = new SlowQuery(shape, types, durationMs, caller, Thread.currentThread().getName(),
+                batch, Instant.now());
+        synchronized (buffer) {
+            buffer[next] = query;
+            next = (next + 1) % buffer.length;
+            captured++;
+        }
+        log.warn("Slow SQL ({} ms) from {}: {}", durationMs, caller, shape);
+
+        if (!batch && sql != null && shouldExplain(shape, sql)) {
+            Object[] values = parameters != null ? parameters.values() : new Object[0];
+            explainExecutor.execute(() -> explain(shape, sql, values));
+        }
+    }
+
+    /**
+     * Slow statements still in the buffer, newest first
+     */
+    public List<SlowQuery> recent() {
+        List<SlowQuery> recent = new ArrayList<>(buffer.length);
+        synchronized (buffer) {
+            for (int i = 1; i <= buffer.length; i++) {
+                SlowQuery query = buffer[(next - i + buffer.length) % buffer.length];
+                if (query == null) {
+                    break;
+                }
+                recent.add(query);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * Slow statements captured since startup or the last clear, including those evicted from the buffer
+     */
+    public long getCaptured() {
+        synchronized (buffer) {
+            return captured;
+        }
+    }
+
+    /**
+     * Latest captured plan for a query shape
+     */
+    public Optional<Plan> plan(String shape) {
+        synchronized (plans) {
+            return Optional.ofNullable(plans.get(shape));
+        }
+    }
+
+    public void clear() {
+        synchronized (buffer) {
+            Arrays.fill(buffer, null);
+            next = 0;
+            captured = 0;
+        }
+        synchronized (plans) {
+            plans.clear();
+        }
+        lastExplained.clear();
+    }
+
+    @Override
+    public void close() {
+        explainExecutor.shutdownNow();
+    }
+
+    private boolean shouldExplain(String shape, String sql) {
+        if (explainSampleRate <= 0 || !explainable(shape) || sql.indexOf(';') >= 0) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= explainSampleRate) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (lastExplained.size() > MAX_PLANS * 5) {
+            lastExplained.clear();
+        }
+        // At most one plan per shape per interval, however often the shape is slow
+        Long previous = lastExplained.get(shape);
+        if (previous != null && now - previous < explainIntervalMillis) {
+            return false;
+        }
+        return previous == null
+                ? lastExplained.putIfAbsent(shape, now) == null
+                : lastExplained.replace(shape, previous, now);
+    }
+
+    private static boolean explainable(String shape) {
+        String keyword = shape.split(" ", 2)[0].toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "with", "insert", "update", "delete" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Plan the statement without running it; bind values are re-bound so the planner sees the
+     * same selectivity as the slow execution did
+     */
+    private void explain(String shape, String sql, Object[] values) {
+        try (Connection connection = explainDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE off) " + sql)) {
+            statement.setQueryTimeout(EXPLAIN_TIMEOUT_SECONDS);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null || !rebindable(value)) {
+                    statement.setNull(i + 1, Types.OTHER);
+                } else {
+                    statement.setObject(i + 1, value);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    if (plan.length() > 0) {
+                        plan.append('\n');
+                    }
+                    plan.append(rows.getString(1));
+                }
+            }
+            synchronized (plans) {
+                plans.put(shape, new Plan(plan.toString(), Instant.now()));
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Could not EXPLAIN slow query {}: {}", shape, e.getMessage());
+        }
+    }
+
+    // Streams, readers and LOBs are consumed by the original execution
+    private static boolean rebindable(Object value) {
+        return value instanceof Number || value instanceof CharSequence || value instanceof Boolean
+                || value instanceof java.util.Date || value instanceof Temporal || value instanceof UUID
+                || value instanceof Character || value instanceof byte[];
+    }
+
+    /**
+     * Innermost application frame below the JDBC layer, normally the service or job method
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(JDBC_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1)
+                            + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                })
+                .orElse("unknown"));
+    }
+
+    /**
+     * One slow execution
+     * @param parameterTypes Setter type per bind parameter, e.g. Long, String, null
+     */
+    public record SlowQuery(String shape, List<String> parameterTypes, long durationMs, String caller,
+                            String thread, boolean batch, Instant capturedAt) {
+    }
+
+    public record Plan(String text, Instant capturedAt) {
+    }
+
+    /**
+     * Bind parameters of one prepared statement, as set through its proxy
+     */
+    static final class BindParameters {
+
+        private Object[] values = new Object[8];
+        private String[] types = new String[8];
+        private int count;
+
+        void set(int index, String setter, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > values.length) {
+                int length = Math.max(index, values.length * 2);
+                values = Arrays.copyOf(values, length);
+                types = Arrays.copyOf(types, length);
+            }
+            boolean isNull = setter.equals("setNull");
+            values[index - 1] = isNull ? null : value;
+            types[index - 1] = isNull ? "null"
+                    : setter.equals("setObject") && value != null ? value.getClass().getSimpleName()
+                    : setter.substring(3);
+            count = Math.max(count, index);
+        }
+
+        void clear() {
+            Arrays.fill(values, 0, count, null);
+            Arrays.fill(types, 0, count, null);
+            count = 0;
+        }
+
+        List<String> types() {
+            return count == 0 ? List.of() : Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(types, count)));
+        }
+
+        Object[] values() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+}
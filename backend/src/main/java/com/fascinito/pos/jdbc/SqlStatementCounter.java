@@ -0,0 +1,163 @@
+package com.fascinito.pos.jdbc;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Per-thread SQL statement counting.
+ *
+ * Scopes are opened around an HTTP request (QueryCountFilter), around each physical transaction
+ * (SqlInspectionConfig) or explicitly in tests; every statement executed through the
+ * StatementCountingDataSource is counted in all scopes open on the current thread, both in total
+ * and by query shape (the SQL with literals and IN-lists collapsed). A shape executed many times
+ * in one scope is the signature of an N+1 query.
+ *
+ * Budgets can be locked down in tests:
+ * <pre>
+ * try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("categories")) {
+ *     categoryService.getAllCategories();
+ *     scope.assertQueryCount(3);
+ * }
+ * </pre>
+ */
+public final class SqlStatementCounter {
+
+    // Distinct shapes tracked per scope; further shapes still count towards the total
+    private static final int MAX_SHAPES = 500;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Start counting on the current thread until the scope is closed
+     */
+    public static Scope open(String name) {
+        Scope scope = new Scope(name);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * Innermost open scope on the current thread, or null
+     */
+    public static Scope current() {
+        return SCOPES.get().peek();
+    }
+
+    /**
+     * Assert on the innermost open scope
+     * @throws AssertionError if more than max statements were executed in it
+     */
+    public static void assertQueryCount(int max) {
+        Scope scope = current();
+        if (scope == null) {
+            throw new IllegalStateException("No SQL counting scope is open on this thread");
+        }
+        scope.assertQueryCount(max);
+    }
+
+    static void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        String shape = shape(sql);
+        for (Scope scope : scopes) {
+            scope.record(shape);
+        }
+    }
+
+    static String shape(String sql) {
+        if (sql == null) {
+            return "<batch>";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private int count;
+        private boolean closed;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String shape) {
+            count++;
+            if (shapes.size() < MAX_SHAPES || shapes.containsKey(shape)) {
+                shapes.merge(shape, 1, Integer::sum);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Statements executed in this scope so far
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Query shapes executed at least threshold times, most repeated first
+         */
+        public Map<String, Integer> getRepeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+            return repeated;
+        }
+
+        /**
+         * @throws AssertionError if more than max statements were executed, listing the shapes
+         */
+        public void assertQueryCount(int max) {
+            if (count > max) {
+                StringBuilder message = new StringBuilder()
+                        .append(name).append(": expected at most ").append(max)
+                        .append(" SQL statements but ").append(count).append(" were executed");
+                getRepeated(1).forEach((shape, times) ->
+                        message.append("\n  ").append(times).append(" x ").append(shape));
+                throw new AssertionError(message.toString());
+            }
+        }
+
+        /**
+         * Stop counting; scopes are closed innermost first
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Deque<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.fascinito.pos.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource wrapper that reports every executed statement to SqlStatementCounter.
+ *
+ * Connections and statements are thin JDK proxies: prepared statements remember their SQL and
+ * record it on each execute call, plain statements record the SQL passed to execute. Hibernate
+ * and JdbcTemplate traffic is counted alike. Everything else, including unwrap(), goes straight
+ * to the pooled objects, so Hikari metrics and the pool itself are unaffected.
+ *
+ * With a SlowQueryMonitor attached, execute calls are also timed and prepared statements keep
+ * their bind parameters (as set through setLong, setString, ...) so slow executions can be
+ * captured with their parameter types and explained.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final SlowQueryMonitor slowQueryMonitor;
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        this(targetDataSource, null);
+    }
+
+    /**
+     * @param slowQueryMonitor Receives every timed execution, or null to count only
+     */
+    public StatementCountingDataSource(DataSource targetDataSource, SlowQueryMonitor slowQueryMonitor) {
+        super(targetDataSource);
+        this.slowQueryMonitor = slowQueryMonitor;
+    }
+
+    /**
+     * @return The attached monitor, or null if slow statements are not captured
+     */
+    public SlowQueryMonitor getSlowQueryMonitor() {
+        return slowQueryMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(proxy, connection, method, args);
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return statement(result, PreparedStatement.class, (String) args[0]);
+                        case "prepareCall":
+                            return statement(result, CallableStatement.class, (String) args[0]);
+                        case "createStatement":
+                            return statement(result, Statement.class, null);
+                        default:
+                            return result;
+                    }
+                });
+    }
+
+    private Object statement(Object statement, Class<?> type, String preparedSql) {
+        SlowQueryMonitor monitor = slowQueryMonitor;
+        SlowQueryMonitor.BindParameters parameters =
+                monitor != null && preparedSql != null ? new SlowQueryMonitor.BindParameters() : null;
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                // Plain statements carry their SQL as the first argument
+                String sql = preparedSql != null || args == null || args.length == 0 || !(args[0] instanceof String)
+                        ? preparedSql
+                        : (String) args[0];
+                SqlStatementCounter.record(sql);
+                if (monitor == null) {
+                    return invoke(proxy, statement, method, args);
+                }
+                long start = System.nanoTime();
+                try {
+                    return invoke(proxy, statement, method, args);
+                } finally {
+                    monitor.executed(sql, parameters, System.nanoTime() - start, name.endsWith("Batch"));
+                }
+            }
+            if (parameters != null) {
+                // Parameter setters take a 1-based index first; setFetchSize and friends take one argument
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.set(index, name, args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+            }
+            return invoke(proxy, statement, method, args);
+        };
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Identity semantics for the proxy itself (Hibernate keeps statements in hash maps)
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fascinito.pos.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Opens a SqlStatementCounter scope for every physical transaction (@Transactional,
+ * TransactionTemplate, REQUIRES_NEW), so statement counts are also available per transaction
+ * boundary. Participating transactions share the outer scope.
+ *
+ * Outside HTTP requests (scheduled jobs) the transaction is the outermost scope, and N+1
+ * shapes are reported here; inside a request QueryCountFilter reports them once.
+ */
+@Slf4j
+public class TransactionQueryCountListener implements TransactionExecutionListener {
+
+    private static final ThreadLocal<Deque<SqlStatementCounter.Scope>> OPEN = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final int repeatThreshold;
+
+    public TransactionQueryCountListener(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transaction) {
+        String name = transaction.getTransactionName();
+        OPEN.get().push(SqlStatementCounter.open("transaction " + (name != null && !name.isEmpty() ? name : "(unnamed)")));
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null) {
+            close();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        close();
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        close();
+    }
+
+    private void close() {
+        Deque<SqlStatementCounter.Scope> open = OPEN.get();
+        SqlStatementCounter.Scope scope = open.poll();
+        if (open.isEmpty()) {
+            OPEN.remove();
+        }
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+
+        if (SqlStatementCounter.current() == null) {
+            Map<String, Integer> repeated = scope.getRepeated(repeatThreshold);
+            if (!repeated.isEmpty()) {
+                log.warn("Possible N+1 in {}: {} statements, repeated shapes {}",
+                        scope.getName(), scope.getCount(), repeated);
+                return;
+            }
+        }
+        log.trace("{} executed {} SQL statements", scope.getName(), scope.getCount());
+    }
+}
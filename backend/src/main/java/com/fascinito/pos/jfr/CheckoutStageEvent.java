@@ -0,0 +1,57 @@
+package com.fascinito.pos.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One stage of OrderService.createOrderFromCart (stock validation, stock deduction, order
+ * save, status history, payment record, cart clear, response mapping)
+ */
+@Name("com.fascinito.pos.CheckoutStage")
+@Label("Checkout Stage")
+@Category({"Fascinito POS", "Checkout"})
+@Description("Time spent in one stage of creating an order from the cart")
+@StackTrace(false)
+public class CheckoutStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("User Id")
+    long userId;
+
+    @Label("Order Id")
+    @Description("0 for stages that run before the order is saved")
+    long orderId;
+
+    @Label("Items")
+    @Description("Cart lines in the checkout")
+    int itemCount;
+
+    /**
+     * Start timing a stage. When no recording enables the event nothing is set and
+     * finish() does nothing, so an idle instance pays for one allocation the JIT removes.
+     */
+    public static CheckoutStageEvent start(String stage, Long userId, int itemCount) {
+        CheckoutStageEvent event = new CheckoutStageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage;
+            event.userId = userId != null ? userId : 0;
+            event.itemCount = itemCount;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(Long orderId) {
+        end();
+        if (shouldCommit()) {
+            this.orderId = orderId != null ? orderId : 0;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fascinito.pos.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One MailService send: template rendering plus the SMTP conversation
+ */
+@Name("com.fascinito.pos.MailSend")
+@Label("Mail Send")
+@Category({"Fascinito POS", "Mail"})
+@Description("Time spent rendering and sending one email")
+@StackTrace(false)
+public class MailSendEvent extends Event {
+
+    @Label("Template")
+    String template;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Outcome")
+    @Description("sent, skipped or failed")
+    String outcome;
+
+    @Label("Body Length")
+    @Description("Characters in the rendered body")
+    int bodyLength;
+
+    /**
+     * Start timing a send; a no-op unless a recording enables the event
+     */
+    public static MailSendEvent start(String template, Long orderId) {
+        MailSendEvent event = new MailSendEvent();
+        if (event.isEnabled()) {
+            event.template = template;
+            event.orderId = orderId != null ? orderId : 0;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(String outcome, int bodyLength) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.bodyLength = bodyLength;
+            commit();
+        }
+    }
+}
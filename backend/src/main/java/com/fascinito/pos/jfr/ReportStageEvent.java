@@ -0,0 +1,56 @@
+package com.fascinito.pos.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One stage of a ReportService report or DashboardService call: "load" for the queries,
+ * "aggregate" for the in-memory work (which includes lazy loads of order items and products)
+ */
+@Name("com.fascinito.pos.ReportStage")
+@Label("Report Stage")
+@Category({"Fascinito POS", "Reports"})
+@Description("Time spent loading or aggregating the rows of a report or dashboard widget")
+@StackTrace(false)
+public class ReportStageEvent extends Event {
+
+    @Label("Source")
+    @Description("ReportService or DashboardService")
+    String source;
+
+    @Label("Report")
+    String report;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Rows")
+    @Description("Rows loaded (load stage) or produced (aggregate stage)")
+    long rows;
+
+    /**
+     * Start timing a stage; a no-op unless a recording enables the event
+     */
+    public static ReportStageEvent start(String source, String report, String stage) {
+        ReportStageEvent event = new ReportStageEvent();
+        if (event.isEnabled()) {
+            event.source = source;
+            event.report = report;
+            event.stage = stage;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(long rows) {
+        end();
+        if (shouldCommit()) {
+            this.rows = rows;
+            commit();
+        }
+    }
+}
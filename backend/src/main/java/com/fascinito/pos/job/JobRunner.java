@@ -0,0 +1,282 @@
+package com.fascinito.pos.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-safe execution for scheduled work.
+ *
+ * Every instance runs the same @Scheduled methods; they coordinate through the database:
+ * - runLeased: due rows are claimed in a short transaction with FOR UPDATE SKIP LOCKED and
+ *   leased to this node (lease_owner / lease_until), so nodes take disjoint batches. A
+ *   heartbeat renews the lease while the batch is processed; if the node dies the lease
+ *   expires and another node picks the rows up. A batch that fails stays leased for a retry
+ *   delay and ends the run, so it is not claimed again straight away.
+ * - runExclusive: the same lease on a job_leases row, for jobs that must run on one node.
+ * - forEachInTransaction: per-item transactions, so one failing item never rolls back the rest.
+ *
+ * Lease times are set and compared on the database clock, so clock skew between nodes
+ * cannot make a live lease look expired.
+ */
+@Component
+@Slf4j
+public class JobRunner {
+
+    // Lease end on the database clock; clock_timestamp() rather than now(), which is frozen at
+    // the start of the surrounding transaction
+    private static final String LEASE_UNTIL = "clock_timestamp() + :leaseSeconds * INTERVAL '1 second'";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    // Own thread: heartbeats must not queue behind the jobs they keep alive
+    private final ThreadPoolTaskScheduler heartbeatScheduler;
+    private final String owner;
+
+    @Value("${jobs.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${jobs.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${jobs.failed-batch-retry-seconds:60}")
+    private long failedBatchRetrySeconds;
+
+    public JobRunner(NamedParameterJdbcTemplate jdbc,
+                     PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.heartbeatScheduler = new ThreadPoolTaskScheduler();
+        this.heartbeatScheduler.setPoolSize(1);
+        this.heartbeatScheduler.setThreadNamePrefix("job-heartbeat-");
+        this.heartbeatScheduler.initialize();
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("Job runner lease owner: {}", owner);
+    }
+
+    /**
+     * Lease owner of this instance, as recorded in lease_owner columns and job_leases
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Claim and process due rows in batches until none are left (or the per-run cap is hit)
+     * @return Number of rows processed by this node
+     */
+    public int runLeased(LeasedJob job) {
+        int processed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = claim(job);
+            if (ids.isEmpty()) {
+                break;
+            }
+            log.debug("Job {} claimed {} rows", job.getName(), ids.size());
+            ScheduledFuture<?> heartbeat = startHeartbeat(() -> renew(job.getTable(), ids));
+            boolean failed = false;
+            try {
+                job.getProcessor().accept(ids);
+            } catch (RuntimeException e) {
+                log.error("Job {} failed processing a batch of {}, retrying in {} s: {}", job.getName(), ids.size(),
+                        failedBatchRetrySeconds, e.getMessage(), e);
+                failed = true;
+            } finally {
+                heartbeat.cancel(false);
+            }
+            if (failed) {
+                // Still due: released now, the next claim would take the same rows again
+                holdForRetry(job.getTable(), ids);
+                break;
+            }
+            release(job.getTable(), ids);
+            processed += ids.size();
+            if (ids.size() < job.getBatchSize()) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Run the task if no other node holds the named job's lease
+     * @return false if another node is running it
+     */
+    public boolean runExclusive(String name, Runnable task) {
+        if (!acquire(name)) {
+            log.debug("Job {} is running on another node", name);
+            return false;
+        }
+        ScheduledFuture<?> heartbeat = startHeartbeat(() -> renewExclusive(name));
+        try {
+            task.run();
+        } finally {
+            heartbeat.cancel(false);
+            releaseExclusive(name);
+        }
+        return true;
+    }
+
+    /**
+     * Run the action for each id in its own transaction
+     * @param onFailure Called (in a new transaction) when the action throws for an id
+     */
+    public void forEachInTransaction(String jobName,
+                                     List<Long> ids,
+                                     Consumer<Long> action,
+                                     BiConsumer<Long, RuntimeException> onFailure) {
+        for (Long id : ids) {
+            try {
+                transaction.executeWithoutResult(status -> action.accept(id));
+            } catch (RuntimeException e) {
+                log.error("Job {} failed for item {}: {}", jobName, id, e.getMessage(), e);
+                try {
+                    transaction.executeWithoutResult(status -> onFailure.accept(id, e));
+                } catch (RuntimeException recordError) {
+                    log.error("Job {} could not record failure for item {}: {}", jobName, id, recordError.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<Long> claim(LeasedJob job) {
+        // Due conditions compare times the application wrote, so :now is the application clock;
+        // the lease columns are only ever set and compared on the database clock
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource(job.getParameters().apply(now))
+                .addValue("now", now)
+                .addValue("limit", job.getBatchSize())
+                .addValue("owner", owner)
+                .addValue("leaseSeconds", leaseSeconds);
+
+        return transaction.execute(status -> {
+            List<Long> ids = jdbc.queryForList(
+                    "SELECT id FROM " + job.getTable()
+                            + " WHERE (" + job.getDueCondition() + ")"
+                            + " AND (lease_until IS NULL OR lease_until < clock_timestamp())"
+                            + " ORDER BY " + job.getOrderBy()
+                            + " LIMIT :limit FOR UPDATE SKIP LOCKED",
+                    params, Long.class);
+            if (!ids.isEmpty()) {
+                jdbc.update("UPDATE " + job.getTable()
+                                + " SET lease_owner = :owner, lease_until = " + LEASE_UNTIL + " WHERE id IN (:ids)",
+                        params.addValue("ids", ids));
+            }
+            return ids;
+        });
+    }
+
+    private void renew(String table, Collection<Long> ids) {
+        jdbc.update("UPDATE " + table + " SET lease_until = " + LEASE_UNTIL + " WHERE id IN (:ids) AND lease_owner = :owner",
+                new MapSqlParameterSource()
+                        .addValue("leaseSeconds", leaseSeconds)
+                        .addValue("ids", ids)
+                        .addValue("owner", owner));
+    }
+
+    private void holdForRetry(String table, Collection<Long> ids) {
+        try {
+            jdbc.update("UPDATE " + table + " SET lease_until = " + LEASE_UNTIL + " WHERE id IN (:ids) AND lease_owner = :owner",
+                    new MapSqlParameterSource()
+                            .addValue("leaseSeconds", failedBatchRetrySeconds)
+                            .addValue("ids", ids)
+                            .addValue("owner", owner));
+        } catch (RuntimeException e) {
+            // The processing lease runs out instead
+            log.warn("Failed to defer {} rows on {}: {}", ids.size(), table, e.getMessage());
+        }
+    }
+
+    private void release(String table, Collection<Long> ids) {
+        try {
+            jdbc.update("UPDATE " + table + " SET lease_owner = NULL, lease_until = NULL"
+                            + " WHERE id IN (:ids) AND lease_owner = :owner",
+                    new MapSqlParameterSource().addValue("ids", ids).addValue("owner", owner));
+        } catch (RuntimeException e) {
+            // The lease simply runs out
+            log.warn("Failed to release {} leases on {}: {}", ids.size(), table, e.getMessage());
+        }
+    }
+
+    private boolean acquire(String name) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("owner", owner)
+                .addValue("leaseSeconds", leaseSeconds);
+
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            jdbc.update("INSERT INTO job_leases (name) VALUES (:name) ON CONFLICT (name) DO NOTHING", params);
+            List<String> free = jdbc.queryForList(
+                    "SELECT name FROM job_leases WHERE name = :name"
+                            + " AND (lease_until IS NULL OR lease_until < clock_timestamp() OR lease_owner = :owner)"
+                            + " FOR UPDATE SKIP LOCKED",
+                    params, String.class);
+            if (free.isEmpty()) {
+                return false;
+            }
+            jdbc.update("UPDATE job_leases SET lease_owner = :owner, lease_until = " + LEASE_UNTIL + " WHERE name = :name", params);
+            return true;
+        }));
+    }
+
+    private void renewExclusive(String name) {
+        jdbc.update("UPDATE job_leases SET lease_until = " + LEASE_UNTIL + " WHERE name = :name AND lease_owner = :owner",
+                new MapSqlParameterSource()
+                        .addValue("leaseSeconds", leaseSeconds)
+                        .addValue("name", name)
+                        .addValue("owner", owner));
+    }
+
+    private void releaseExclusive(String name) {
+        try {
+            jdbc.update("UPDATE job_leases SET lease_owner = NULL, lease_until = NULL WHERE name = :name AND lease_owner = :owner",
+                    new MapSqlParameterSource().addValue("name", name).addValue("owner", owner));
+        } catch (RuntimeException e) {
+            log.warn("Failed to release job lease {}: {}", name, e.getMessage());
+        }
+    }
+
+    private ScheduledFuture<?> startHeartbeat(Runnable renewal) {
+        Duration interval = Duration.ofSeconds(Math.max(1, leaseSeconds / 3));
+        return heartbeatScheduler.scheduleAtFixedRate(() -> {
+            try {
+                renewal.run();
+            } catch (RuntimeException e) {
+                log.warn("Lease heartbeat failed: {}", e.getMessage());
+            }
+        }, Instant.now().plus(interval), interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdown();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
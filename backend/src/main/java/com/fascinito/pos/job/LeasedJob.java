@@ -0,0 +1,41 @@
+package com.fascinito.pos.job;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A scheduled job whose work items are rows of one table.
+ *
+ * The table needs an id column plus nullable lease_owner / lease_until columns. Due rows are
+ * claimed with SELECT ... FOR UPDATE SKIP LOCKED and leased to the claiming node, so several
+ * instances split the work instead of repeating it; see {@link JobRunner#runLeased}.
+ */
+@Value
+@Builder
+public class LeasedJob {
+
+    // Used in logs
+    String name;
+
+    String table;
+
+    // SQL condition selecting due rows; may use :now and the named parameters below
+    String dueCondition;
+
+    @Builder.Default
+    Function<LocalDateTime, Map<String, Object>> parameters = now -> Map.of();
+
+    // SQL ORDER BY expression for claiming
+    String orderBy;
+
+    int batchSize;
+
+    // Processes one claimed batch; the lease is kept alive while it runs
+    Consumer<List<Long>> processor;
+}
@@ -1,7 +1,10 @@
 package com.fascinito.pos.repository;
 
 import com.fascinito.pos.entity.CancellationReason;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +13,9 @@ import java.util.Optional;
 @Repository
 public interface CancellationReasonRepository extends JpaRepository<CancellationReason, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<CancellationReason> findByReasonKey(String reasonKey);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<CancellationReason> findByActiveTrueOrderByDisplayOrder();
 }
@@ -0,0 +1,37 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByScopeAndUserIdAndIdempotencyKey(String scope, Long userId, String idempotencyKey);
+
+    /**
+     * Store the response of a claim, provided it still holds the key (same row, same lease)
+     * @return 0 if the lease expired and the key was released or taken over
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :completed, " +
+           "r.responseStatus = :responseStatus, r.responseBody = :responseBody, r.expiresAt = :expiresAt " +
+           "WHERE r.id = :id AND r.status = :inProgress AND r.expiresAt = :leaseUntil")
+    int complete(@Param("id") Long id,
+                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("inProgress") IdempotencyRecord.Status inProgress,
+                 @Param("completed") IdempotencyRecord.Status completed);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
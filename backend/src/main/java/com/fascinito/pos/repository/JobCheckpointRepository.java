@@ -0,0 +1,9 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -2,10 +2,14 @@ package com.fascinito.pos.repository;
 
 import com.fascinito.pos.entity.OrderRefund;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +22,25 @@ public interface OrderRefundRepository extends JpaRepository<OrderRefund, Long>
 
     List<OrderRefund> findByRefundStatus(OrderRefund.RefundStatus refundStatus);
 
+    @Query("SELECT r.id AS id, r.razorpayRefundId AS razorpayRefundId, r.statusCheckAttempts AS statusCheckAttempts " +
+           "FROM OrderRefund r WHERE r.id IN :ids")
+    List<StatusCheck> findStatusChecks(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderRefund r SET r.statusCheckAttempts = :attempts, r.nextStatusCheckAt = :nextCheckAt WHERE r.id = :id")
+    int scheduleStatusCheck(@Param("id") Long id,
+                            @Param("attempts") int attempts,
+                            @Param("nextCheckAt") LocalDateTime nextCheckAt);
+
+    interface StatusCheck {
+        Long getId();
+
+        String getRazorpayRefundId();
+
+        Integer getStatusCheckAttempts();
+    }
+
     Optional<OrderRefund> findByRazorpayRefundId(String razorpayRefundId);
 
     @Query("SELECT r FROM OrderRefund r WHERE r.refundStatus = 'PROCESSING' ORDER BY r.createdAt ASC")
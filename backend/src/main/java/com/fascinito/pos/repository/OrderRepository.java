@@ -16,6 +16,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,17 +26,23 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.user WHERE o.orderNumber = :orderNumber")
     Optional<Order> findByOrderNumber(@Param("orderNumber") String orderNumber);
 
-    // OPTIMIZED: With batch loading for related entities
-    // Items and their products will be batch-fetched using @BatchSize
+    // Order pages join the user and the payment (the inverse one-to-one would otherwise be
+    // selected once per order); items come from findItemsByOrderIds for the whole page
+    @EntityGraph(attributePaths = {"user", "payment"})
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     Page<Order> findByUser(@Param("userId") Long userId, Pageable pageable);
 
     // Alternative method for User entity instead of User object
     Page<Order> findByUser(User user, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "payment"})
     @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt DESC")
     Page<Order> findByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
 
+    @Override
+    @EntityGraph(attributePaths = {"user", "payment"})
+    Page<Order> findAll(Pageable pageable);
+
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 
     // OPTIMIZED: Fetch order items with product details and images
@@ -45,6 +52,21 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
            "WHERE oi.order.id = :orderId")
     List<OrderItem> findItemsByOrderId(@Param("orderId") Long orderId);
 
+    /**
+     * Items of a page of orders in one query, with the product, its references and images
+     */
+    @Query("SELECT DISTINCT oi FROM OrderItem oi " +
+           "JOIN FETCH oi.product p " +
+           "LEFT JOIN FETCH p.category " +
+           "LEFT JOIN FETCH p.subCategory " +
+           "LEFT JOIN FETCH p.vendor " +
+           "LEFT JOIN FETCH p.location " +
+           "LEFT JOIN FETCH p.images " +
+           "LEFT JOIN FETCH oi.variationOption " +
+           "LEFT JOIN FETCH oi.variantCombination " +
+           "WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     @Query("SELECT DISTINCT o FROM Order o WHERE o.id = :orderId")
     Optional<Order> findByIdWithoutRelations(@Param("orderId") Long orderId);
 
@@ -2,8 +2,13 @@ package com.fascinito.pos.repository;
 
 import com.fascinito.pos.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,26 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByTransactionId(String transactionId);
     
     Optional<Payment> findByOrderId(Long orderId);
+
+    Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
+
+    /**
+     * Razorpay order of a captured payment (transactionId holds the Razorpay payment id)
+     */
+    @Query("SELECT p.razorpayOrderId FROM Payment p WHERE p.transactionId = :razorpayPaymentId")
+    Optional<String> findRazorpayOrderIdByRazorpayPaymentId(@Param("razorpayPaymentId") String razorpayPaymentId);
+
+    /**
+     * Payments that a captured gateway payment could still complete
+     */
+    @Query("SELECT p.id AS id, p.razorpayOrderId AS razorpayOrderId FROM Payment p " +
+           "WHERE p.status IN :statuses AND p.razorpayOrderId IS NOT NULL AND p.createdAt >= :createdAfter")
+    List<ReconcilablePayment> findReconcilable(@Param("statuses") Collection<Payment.PaymentStatus> statuses,
+                                               @Param("createdAfter") LocalDateTime createdAfter);
+
+    interface ReconcilablePayment {
+        Long getId();
+
+        String getRazorpayOrderId();
+    }
 }
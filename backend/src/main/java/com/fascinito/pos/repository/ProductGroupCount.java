@@ -0,0 +1,14 @@
+package com.fascinito.pos.repository;
+
+/**
+ * Projection for grouped product aggregates (per category, vendor or location).
+ * Numeric getters are {@link Number} because JPQL COUNT/SUM return Long.
+ */
+public interface ProductGroupCount {
+
+    Long getGroupId();
+
+    Number getProductCount();
+
+    Number getTotalStock();
+}
@@ -0,0 +1,45 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.entity.ProductImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+
+    /**
+     * First image (lowest display order) for each of the given products, in one query.
+     * Used by product card listings instead of initializing the full images collection.
+     * Ties on display order may return more than one row per product.
+     */
+    @Query("""
+        SELECT i FROM ProductImage i
+        WHERE i.product.id IN :productIds
+        AND i.displayOrder = (
+            SELECT MIN(i2.displayOrder) FROM ProductImage i2 WHERE i2.product.id = i.product.id
+        )
+    """)
+    List<ProductImage> findFirstImagesByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    List<ProductImage> findByProductIdAndThumbnailUrlIsNull(Long productId);
+
+    /**
+     * Record rendition URLs on every image row that references the given original
+     */
+    @Modifying
+    @Query("""
+        UPDATE ProductImage i
+        SET i.thumbnailUrl = :thumbnailUrl, i.cardUrl = :cardUrl, i.detailUrl = :detailUrl
+        WHERE i.imageUrl = :imageUrl
+    """)
+    int updateRenditionUrls(@Param("imageUrl") String imageUrl,
+                            @Param("thumbnailUrl") String thumbnailUrl,
+                            @Param("cardUrl") String cardUrl,
+                            @Param("detailUrl") String detailUrl);
+}
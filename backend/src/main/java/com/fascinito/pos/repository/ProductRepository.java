@@ -3,46 +3,65 @@ package com.fascinito.pos.repository;
 import com.fascinito.pos.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
-    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.images WHERE p.slug = :slug")
+    // Fetch profiles: see Product.CARD_GRAPH / Product.DETAIL_GRAPH
+    @EntityGraph(Product.DETAIL_GRAPH)
+    @Query("SELECT p FROM Product p WHERE p.slug = :slug")
     Optional<Product> findBySlug(@Param("slug") String slug);
 
     Boolean existsBySlug(String slug);
 
     Boolean existsBySku(String sku);
 
-    // OPTIMIZED: With lazy-loading for relationship collections
-    // Images will be batch-fetched using @BatchSize(size=10) annotation
+    // Admin listing / filtered search: join to-one references instead of per-row selects
+    @Override
+    @EntityGraph(Product.CARD_GRAPH)
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    // OPTIMIZED: Card profile - to-one references joined, collections untouched
+    // The first image per product is loaded for the whole page via ProductImageRepository
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.visibleToCustomers = true ORDER BY p.id")
     Page<Product> findByVisibleToCustomersTrue(Pageable pageable);
 
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.visibleToCustomers = true AND p.active = true ORDER BY p.id")
     Page<Product> findByVisibleToCustomersTrueAndActiveTrue(Pageable pageable);
 
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.visibleToCustomers = true AND p.active = true ORDER BY p.id")
     Page<Product> findByCategoryIdAndVisibleToCustomersTrueAndActiveTrue(
             @Param("categoryId") Long categoryId,
             Pageable pageable);
 
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.vendor.id = :vendorId AND p.visibleToCustomers = true AND p.active = true ORDER BY p.id")
     Page<Product> findByVendorIdAndVisibleToCustomersTrueAndActiveTrue(
             @Param("vendorId") Long vendorId,
             Pageable pageable);
 
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.featured = true AND p.visibleToCustomers = true AND p.active = true ORDER BY p.id DESC")
     Page<Product> findByFeaturedTrueAndVisibleToCustomersTrueAndActiveTrue(Pageable pageable);
 
+    @EntityGraph(Product.CARD_GRAPH)
+    @Query("SELECT p FROM Product p WHERE p.visibleToCustomers = true AND p.active = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findNewArrivals(Pageable pageable);
+
     Long countByCategoryId(Long categoryId);
 
     Long countByVendorId(Long vendorId);
@@ -52,14 +71,48 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT COALESCE(SUM(p.stockQuantity), 0) FROM Product p WHERE p.category.id = :categoryId AND p.visibleToCustomers = true AND p.active = true")
     Integer getTotalStockByCategoryId(@Param("categoryId") Long categoryId);
 
+    // Grouped aggregates for listings - one query per page instead of one (or two) per row.
+    // productCount counts all products; totalStock only sums visible, active products.
+    @Query("""
+        SELECT p.category.id AS groupId,
+               COUNT(p) AS productCount,
+               COALESCE(SUM(CASE WHEN p.visibleToCustomers = true AND p.active = true THEN p.stockQuantity ELSE 0 END), 0) AS totalStock
+        FROM Product p
+        WHERE p.category.id IN :categoryIds
+        GROUP BY p.category.id
+        """)
+    List<ProductGroupCount> countByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+
+    @Query("""
+        SELECT p.vendor.id AS groupId,
+               COUNT(p) AS productCount,
+               COALESCE(SUM(p.stockQuantity), 0) AS totalStock
+        FROM Product p
+        WHERE p.vendor.id IN :vendorIds
+        GROUP BY p.vendor.id
+        """)
+    List<ProductGroupCount> countByVendorIds(@Param("vendorIds") Collection<Long> vendorIds);
+
+    @Query("""
+        SELECT p.location.id AS groupId,
+               COUNT(p) AS productCount,
+               COALESCE(SUM(p.stockQuantity), 0) AS totalStock
+        FROM Product p
+        WHERE p.location.id IN :locationIds
+        GROUP BY p.location.id
+        """)
+    List<ProductGroupCount> countByLocationIds(@Param("locationIds") Collection<Long> locationIds);
+
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.images WHERE p.id IN :productIds ORDER BY p.id")
     List<Product> findByIdsWithImages(@Param("productIds") List<Long> productIds);
 
     // Additional optimized queries for common use cases
+    @EntityGraph(Product.DETAIL_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.id = :id")
     Optional<Product> findByIdWithDetails(@Param("id") Long id);
 
     // Related products - same category, excluding current product
+    @EntityGraph(Product.CARD_GRAPH)
     @Query("""
         SELECT p FROM Product p
         WHERE p.category.id = :categoryId
@@ -0,0 +1,33 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.entity.RazorpayWebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RazorpayWebhookEventRepository extends JpaRepository<RazorpayWebhookEvent, Long> {
+
+    boolean existsByEventId(String eventId);
+
+    /**
+     * Pending events that are due, oldest first. An event is left out while an earlier pending
+     * event with the same ordering key is still backing off, so rows waiting on a retry never
+     * fill the page ahead of newer, unrelated events.
+     */
+    @Query("SELECT e FROM RazorpayWebhookEvent e " +
+           "WHERE e.status = :status " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+           "AND NOT EXISTS (SELECT 1 FROM RazorpayWebhookEvent earlier " +
+           "WHERE earlier.orderingKey = e.orderingKey AND earlier.status = :status " +
+           "AND earlier.id < e.id AND earlier.nextAttemptAt > :now) " +
+           "ORDER BY e.id ASC")
+    List<RazorpayWebhookEvent> findDue(@Param("status") RazorpayWebhookEvent.Status status,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+}
@@ -2,6 +2,7 @@ package com.fascinito.pos.repository;
 
 import com.fascinito.pos.entity.Role;
 import com.fascinito.pos.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
@@ -14,6 +15,13 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Optional<User> findByEmailAndDeletedFalse(String email);
     
     Optional<User> findByPhoneAndDeletedFalse(String phone);
+
+    // Authentication lookups - roles are needed for authorities, fetch them in the same select
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByEmailAndDeletedFalse(String email);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByPhoneAndDeletedFalse(String phone);
     
     Optional<User> findByEmail(String email);
     
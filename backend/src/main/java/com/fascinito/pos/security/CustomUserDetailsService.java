@@ -22,8 +22,8 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String emailOrPhone) throws UsernameNotFoundException {
         // Try to find user by email or phone (excluding deleted users)
-        User user = userRepository.findByEmailAndDeletedFalse(emailOrPhone)
-                .or(() -> userRepository.findByPhoneAndDeletedFalse(emailOrPhone))
+        User user = userRepository.findWithRolesByEmailAndDeletedFalse(emailOrPhone)
+                .or(() -> userRepository.findWithRolesByPhoneAndDeletedFalse(emailOrPhone))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email or phone: " + emailOrPhone));
 
         // Use phone as username if email is not available
@@ -3,10 +3,12 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.dto.banner.BannerRequest;
 import com.fascinito.pos.dto.banner.BannerResponse;
 import com.fascinito.pos.entity.Banner;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.BannerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,7 @@ import java.util.List;
 public class BannerService {
 
     private final BannerRepository bannerRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all banners with pagination
@@ -59,6 +62,7 @@ public class BannerService {
         mapRequestToEntity(request, banner);
 
         Banner savedBanner = bannerRepository.save(banner);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.BANNER, savedBanner.getId()));
         log.info("Banner created: {}", savedBanner.getId());
         return mapToResponse(savedBanner);
     }
@@ -74,6 +78,7 @@ public class BannerService {
         mapRequestToEntity(request, banner);
 
         Banner savedBanner = bannerRepository.save(banner);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.BANNER, savedBanner.getId()));
         log.info("Banner updated: {}", savedBanner.getId());
         return mapToResponse(savedBanner);
     }
@@ -87,6 +92,7 @@ public class BannerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Banner not found with id: " + id));
 
         bannerRepository.delete(banner);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.BANNER, id));
         log.info("Banner deleted: {}", id);
     }
 
@@ -100,6 +106,7 @@ public class BannerService {
 
         banner.setDisplayOrder(displayOrder);
         bannerRepository.save(banner);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.BANNER, id));
         log.info("Banner display order updated: {} -> {}", id, displayOrder);
     }
 
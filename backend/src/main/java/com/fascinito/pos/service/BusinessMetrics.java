@@ -0,0 +1,59 @@
+package com.fascinito.pos.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters exported next to the technical meters (GET /actuator/prometheus on the management port):
+ * - pos.checkouts{outcome}: checkouts by outcome (created, empty_cart, insufficient_stock)
+ * - pos.stock.conflicts: checkouts rejected because an item no longer had enough stock
+ * - pos.emails{outcome}: order status emails sent, failed, or skipped (mail not configured)
+ */
+@Component
+public class BusinessMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter checkoutsCreated;
+    private final Counter stockConflicts;
+
+    public BusinessMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.checkoutsCreated = checkouts("created");
+        this.stockConflicts = Counter.builder("pos.stock.conflicts")
+                .description("Checkouts rejected for insufficient stock")
+                .register(meterRegistry);
+    }
+
+    public void checkoutCreated() {
+        checkoutsCreated.increment();
+    }
+
+    public void checkoutRejected(String outcome) {
+        checkouts(outcome).increment();
+    }
+
+    public void stockConflict() {
+        stockConflicts.increment();
+        checkoutRejected("insufficient_stock");
+    }
+
+    /**
+     * @param outcome sent, failed or skipped
+     */
+    public void email(String template, String outcome) {
+        Counter.builder("pos.emails")
+                .description("Order status emails by outcome")
+                .tag("template", template)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter checkouts(String outcome) {
+        return Counter.builder("pos.checkouts")
+                .description("Checkouts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.event.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-type version counters and last-modified times for catalog data, used to answer
+ * conditional GETs and to key in-memory snapshots without querying the catalog itself.
+ *
+ * The versions live in the catalog_versions table, shared by every instance: a write bumps
+ * its type's row in the writing transaction, and each node re-reads the rows every
+ * refresh interval (and right after its own writes). A change made on one node therefore
+ * reaches the validators and snapshots of every node within the refresh interval.
+ *
+ * Stock changes with every order, so STOCK is not bumped per write: a change only marks it
+ * dirty and the refresh publishes it at most once per stock interval.
+ */
+@Component
+@Slf4j
+public class CatalogVersions {
+
+    // Catalog types rendered by each family of responses
+    public static final Set<CatalogChangedEvent.Type> BANNERS =
+            Collections.unmodifiableSet(EnumSet.of(CatalogChangedEvent.Type.BANNER));
+    // Category rows include product counts and stock totals
+    public static final Set<CatalogChangedEvent.Type> CATEGORIES = Collections.unmodifiableSet(EnumSet.of(
+            CatalogChangedEvent.Type.CATEGORY, CatalogChangedEvent.Type.PRODUCT, CatalogChangedEvent.Type.STOCK));
+    // Product responses carry category, sub-category, vendor and location names
+    public static final Set<CatalogChangedEvent.Type> PRODUCTS = Collections.unmodifiableSet(EnumSet.of(
+            CatalogChangedEvent.Type.PRODUCT, CatalogChangedEvent.Type.STOCK, CatalogChangedEvent.Type.CATEGORY,
+            CatalogChangedEvent.Type.VENDOR, CatalogChangedEvent.Type.LOCATION));
+    public static final Set<CatalogChangedEvent.Type> ALL =
+            Collections.unmodifiableSet(EnumSet.allOf(CatalogChangedEvent.Type.class));
+
+    // HTTP dates have second precision, and Last-Modified must never be in the future: writes
+    // within one second share updated_at and are told apart by the version (the entity tag)
+    private static final String BUMP_SQL = """
+            UPDATE catalog_versions
+            SET version = version + 1,
+                updated_at = GREATEST(date_trunc('second', clock_timestamp()), updated_at)
+            WHERE type = ?""";
+    private static final String SELECT_SQL = "SELECT type, version, updated_at FROM catalog_versions";
+
+    private record Version(long version, long lastModified) {
+    }
+
+    private static final Version UNKNOWN = new Version(0, 0);
+
+    private final JdbcTemplate jdbc;
+    private final long stockIntervalNanos;
+    private final AtomicBoolean stockChanged = new AtomicBoolean();
+    private volatile long stockBumpedAt = System.nanoTime();
+    private volatile Map<CatalogChangedEvent.Type, Version> current;
+
+    public CatalogVersions(JdbcTemplate jdbc,
+                           @Value("${catalog.versions.stock-interval-ms:5000}") long stockIntervalMs) {
+        this.jdbc = jdbc;
+        this.stockIntervalNanos = stockIntervalMs * 1_000_000;
+    }
+
+    /**
+     * Bumps the shared version inside the writing transaction, so it commits or rolls back
+     * with the change itself
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.STOCK) {
+            stockChanged.set(true);
+            return;
+        }
+        jdbc.update(BUMP_SQL, event.type().name());
+    }
+
+    /**
+     * Picks up this node's own change at once, ahead of the listeners that rebuild from it
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() != CatalogChangedEvent.Type.STOCK) {
+            refresh();
+        }
+    }
+
+    /**
+     * Publishes pending stock changes (at most once per stock interval) and re-reads the
+     * shared versions. On failure the last known versions stay in use.
+     */
+    @Scheduled(fixedDelayString = "${catalog.versions.refresh-interval-ms:2000}")
+    public synchronized void refresh() {
+        try {
+            long now = System.nanoTime();
+            if (now - stockBumpedAt >= stockIntervalNanos && stockChanged.getAndSet(false)) {
+                stockBumpedAt = now;
+                jdbc.update(BUMP_SQL, CatalogChangedEvent.Type.STOCK.name());
+            }
+            Map<CatalogChangedEvent.Type, Version> loaded = new EnumMap<>(CatalogChangedEvent.Type.class);
+            jdbc.query(SELECT_SQL, rows -> {
+                loaded.put(CatalogChangedEvent.Type.valueOf(rows.getString("type")),
+                        new Version(rows.getLong("version"), rows.getTimestamp("updated_at").getTime()));
+            });
+            current = loaded;
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh catalog versions, keeping the last known ones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Weak entity tag for a response built from the given types.
+     * Weak because the body carries a per-response timestamp.
+     */
+    public String etag(Collection<CatalogChangedEvent.Type> types) {
+        Map<CatalogChangedEvent.Type, Version> versions = versions();
+        StringBuilder tag = new StringBuilder("W/\"");
+        for (CatalogChangedEvent.Type type : CatalogChangedEvent.Type.values()) {
+            if (types.contains(type)) {
+                if (tag.length() > 3) {
+                    tag.append('-');
+                }
+                tag.append(Long.toString(versions.getOrDefault(type, UNKNOWN).version(), 36));
+            }
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Combined version of the given types, for keying snapshots: the sum of their versions,
+     * which only grows and moves with any of them
+     */
+    public long version(Collection<CatalogChangedEvent.Type> types) {
+        Map<CatalogChangedEvent.Type, Version> versions = versions();
+        long sum = 0;
+        for (CatalogChangedEvent.Type type : types) {
+            sum += versions.getOrDefault(type, UNKNOWN).version();
+        }
+        return sum;
+    }
+
+    /**
+     * Latest change time (epoch millis, second precision) across the given types
+     */
+    public long lastModified(Collection<CatalogChangedEvent.Type> types) {
+        Map<CatalogChangedEvent.Type, Version> versions = versions();
+        long latest = 0;
+        for (CatalogChangedEvent.Type type : types) {
+            latest = Math.max(latest, versions.getOrDefault(type, UNKNOWN).lastModified());
+        }
+        return latest;
+    }
+
+    private Map<CatalogChangedEvent.Type, Version> versions() {
+        Map<CatalogChangedEvent.Type, Version> versions = current;
+        if (versions == null) {
+            refresh();
+            versions = current;
+        }
+        return versions != null ? versions : Map.of();
+    }
+}
@@ -3,29 +3,52 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.dto.category.CategoryRequest;
 import com.fascinito.pos.dto.category.CategoryResponse;
 import com.fascinito.pos.entity.Category;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.BadRequestException;
 import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.CategoryRepository;
+import com.fascinito.pos.repository.ProductGroupCount;
 import com.fascinito.pos.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final CategoryTreeSnapshot categoryTreeSnapshot;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CategoryService(CategoryRepository categoryRepository,
+                           ProductRepository productRepository,
+                           CategoryTreeSnapshot categoryTreeSnapshot,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryTreeSnapshot = categoryTreeSnapshot;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Transactional(readOnly = true)
     public Page<CategoryResponse> getAllCategories(Pageable pageable, String search, Boolean active) {
@@ -47,13 +70,26 @@ public class CategoryService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return categoryRepository.findAll(spec, pageable).map(this::mapToResponse);
+        Page<Category> categories = categoryRepository.findAll(spec, pageable);
+        Map<Long, ProductGroupCount> counts = findProductCounts(categories.getContent());
+        return categories.map(category -> mapToResponse(category, counts.get(category.getId())));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Active categories with counts, served from the in-memory snapshot.
+     * Not @Transactional on purpose: the common case must not touch the DB at all;
+     * a rebuild opens its own read-only transaction.
+     */
     public List<CategoryResponse> getAllActiveCategories() {
-        return categoryRepository.findByActiveTrue().stream()
-                .map(this::mapToResponse)
+        return categoryTreeSnapshot.getActiveCategories(
+                () -> readOnlyTransaction.execute(status -> loadActiveCategories()));
+    }
+
+    private List<CategoryResponse> loadActiveCategories() {
+        List<Category> categories = categoryRepository.findByActiveTrue();
+        Map<Long, ProductGroupCount> counts = findProductCounts(categories);
+        return categories.stream()
+                .map(category -> mapToResponse(category, counts.get(category.getId())))
                 .toList();
     }
 
@@ -74,6 +110,7 @@ public class CategoryService {
         mapRequestToEntity(request, category);
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, savedCategory.getId()));
         log.info("Category created: {}", savedCategory.getId());
         return mapToResponse(savedCategory);
     }
@@ -91,6 +128,7 @@ public class CategoryService {
         mapRequestToEntity(request, category);
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, savedCategory.getId()));
         log.info("Category updated: {}", savedCategory.getId());
         return mapToResponse(savedCategory);
     }
@@ -101,6 +139,7 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, id));
         log.info("Category deleted: {}", id);
     }
 
@@ -112,7 +151,23 @@ public class CategoryService {
         category.setActive(request.getActive());
     }
 
+    /**
+     * Product counts and stock totals for the given categories in one grouped query
+     */
+    private Map<Long, ProductGroupCount> findProductCounts(Collection<Category> categories) {
+        if (categories.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> categoryIds = categories.stream().map(Category::getId).toList();
+        return productRepository.countByCategoryIds(categoryIds).stream()
+                .collect(Collectors.toMap(ProductGroupCount::getGroupId, Function.identity()));
+    }
+
     private CategoryResponse mapToResponse(Category category) {
+        return mapToResponse(category, findProductCounts(List.of(category)).get(category.getId()));
+    }
+
+    private CategoryResponse mapToResponse(Category category, ProductGroupCount counts) {
         CategoryResponse response = new CategoryResponse();
         response.setId(category.getId());
         response.setName(category.getName());
@@ -120,10 +175,9 @@ public class CategoryService {
         response.setDescription(category.getDescription());
         response.setImageUrl(category.getImageUrl());
         response.setActive(category.getActive());
-        // Count products in this category
-        response.setProductCount(productRepository.countByCategoryId(category.getId()).intValue());
-        // Get total stock quantity for all products in this category
-        response.setTotalStockCount(productRepository.getTotalStockByCategoryId(category.getId()));
+        // Product count and total stock of visible/active products (absent row = no products)
+        response.setProductCount(counts != null ? counts.getProductCount().intValue() : 0);
+        response.setTotalStockCount(counts != null ? counts.getTotalStock().intValue() : 0);
         response.setCreatedAt(category.getCreatedAt());
         response.setUpdatedAt(category.getUpdatedAt());
         return response;
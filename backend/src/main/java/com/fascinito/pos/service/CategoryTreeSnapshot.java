@@ -0,0 +1,50 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.category.CategoryResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * In-memory snapshot of the active category list with product counts and stock totals.
+ *
+ * Reads are a volatile pointer read plus a version check; the snapshot carries the shared
+ * catalog version (CatalogVersions.CATEGORIES) it was built at and is rebuilt lazily by the
+ * first reader that sees a newer one. The version is shared by all instances, so every node
+ * converges after a write on any of them, and stock moves are coalesced there rather than
+ * costing a rebuild per checkout. The version is read before loading, so a result loaded
+ * across a change is kept under the older version and replaced by the next reader.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeSnapshot {
+
+    private record Entry(long version, List<CategoryResponse> categories) {
+    }
+
+    private final CatalogVersions catalogVersions;
+    private final AtomicReference<Entry> activeCategories = new AtomicReference<>();
+
+    /**
+     * Return the current snapshot, building it with the given loader if absent or outdated
+     */
+    public List<CategoryResponse> getActiveCategories(Supplier<List<CategoryResponse>> loader) {
+        long currentVersion = catalogVersions.version(CatalogVersions.CATEGORIES);
+        Entry current = activeCategories.get();
+        if (current != null && current.version() == currentVersion) {
+            return current.categories();
+        }
+
+        List<CategoryResponse> built = List.copyOf(loader.get());
+        // A slower reader that loaded at an older version must not replace a newer snapshot
+        activeCategories.accumulateAndGet(new Entry(currentVersion, built),
+                (previous, next) -> previous != null && previous.version() > next.version() ? previous : next);
+        log.debug("Category snapshot rebuilt with {} categories (version {})", built.size(), currentVersion);
+        return built;
+    }
+}
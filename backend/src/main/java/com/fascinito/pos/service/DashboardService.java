@@ -5,6 +5,7 @@ import com.fascinito.pos.entity.Order;
 import com.fascinito.pos.entity.OrderItem;
 import com.fascinito.pos.entity.Product;
 import com.fascinito.pos.entity.Role;
+import com.fascinito.pos.jfr.ReportStageEvent;
 import com.fascinito.pos.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +23,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DashboardService {
 
+    private static final String STAGE_SOURCE = "DashboardService";
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final VendorRepository vendorRepository;
@@ -36,6 +39,7 @@ public class DashboardService {
         DashboardStatsResponse stats = new DashboardStatsResponse();
         
         // Count basic entities
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "stats", "load");
         stats.setTotalProducts(productRepository.count());
         stats.setTotalCategories(categoryRepository.count());
         stats.setTotalVendors(vendorRepository.count());
@@ -43,11 +47,7 @@ public class DashboardService {
         stats.setTotalOrders(orderRepository.count());
         
         // Count customers (users with ROLE_CUSTOMER)
-        long customerCount = userRepository.findAll().stream()
-                .filter(user -> user.getRoles().stream()
-                        .anyMatch(role -> role.getName() == Role.RoleType.ROLE_CUSTOMER))
-                .count();
-        stats.setTotalCustomers(customerCount);
+        stats.setTotalCustomers(userRepository.countByRoles_Name(Role.RoleType.ROLE_CUSTOMER));
         
         /**
          * REVENUE & PROFIT CALCULATION:
@@ -65,6 +65,9 @@ public class DashboardService {
          *    - Calculated from product costs in order items
          */
         var orders = orderRepository.findAll();
+        stage.finish(orders.size());
+
+        stage = ReportStageEvent.start(STAGE_SOURCE, "stats", "aggregate");
         double totalRevenue = orders.stream()
                 .mapToDouble(order -> order.getTotalAmount().doubleValue())
                 .sum();
@@ -93,6 +96,7 @@ public class DashboardService {
         stats.setTotalRevenue(totalRevenue);
         stats.setTotalProfit(totalProfit);
         stats.setTotalSpending(totalSpending);
+        stage.finish(1);
         
         log.debug("Dashboard stats: {}", stats);
         return stats;
@@ -103,8 +107,11 @@ public class DashboardService {
         log.debug("Fetching location analytics");
         
         List<LocationAnalyticsDTO> locationAnalytics = new ArrayList<>();
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "location_analytics", "load");
         List<Product> allProducts = productRepository.findAll();
+        stage.finish(allProducts.size());
         
+        stage = ReportStageEvent.start(STAGE_SOURCE, "location_analytics", "aggregate");
         // Group products by location
         Map<String, List<Product>> productsByLocation = allProducts.stream()
                 .filter(product -> product.getLocation() != null)
@@ -168,6 +175,7 @@ public class DashboardService {
         
         // Sort by revenue descending
         locationAnalytics.sort((a, b) -> Double.compare(b.getRevenue(), a.getRevenue()));
+        stage.finish(locationAnalytics.size());
         
         log.debug("Location analytics: {}", locationAnalytics);
         return locationAnalytics;
@@ -178,8 +186,11 @@ public class DashboardService {
         log.debug("Fetching category distribution");
         
         List<CategoryDistributionDTO> distribution = new ArrayList<>();
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "category_distribution", "load");
         List<Product> allProducts = productRepository.findAll();
+        stage.finish(allProducts.size());
         
+        stage = ReportStageEvent.start(STAGE_SOURCE, "category_distribution", "aggregate");
         // Group products by category
         Map<String, Long> productsByCategory = allProducts.stream()
                 .filter(product -> product.getCategory() != null)
@@ -215,6 +226,7 @@ public class DashboardService {
             
             distribution = top5;
         }
+        stage.finish(distribution.size());
         
         log.debug("Category distribution: {}", distribution);
         return distribution;
@@ -225,7 +237,9 @@ public class DashboardService {
         log.debug("Fetching monthly trend");
         
         List<MonthlyTrendDTO> trends = new ArrayList<>();
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "monthly_trend", "load");
         List<Order> allOrders = orderRepository.findAll();
+        stage.finish(allOrders.size());
         
         /**
          * MONTHLY TREND CALCULATION:
@@ -247,6 +261,7 @@ public class DashboardService {
         LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6);
         
         // Calculate trends for last 6 months
+        stage = ReportStageEvent.start(STAGE_SOURCE, "monthly_trend", "aggregate");
         LocalDateTime currentMonth = LocalDateTime.now();
         for (int i = 5; i >= 0; i--) {
             LocalDateTime month = currentMonth.minusMonths(i);
@@ -290,6 +305,7 @@ public class DashboardService {
             
             trends.add(dto);
         }
+        stage.finish(trends.size());
         
         log.debug("Monthly trends: {}", trends);
         return trends;
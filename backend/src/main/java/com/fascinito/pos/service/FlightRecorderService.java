@@ -0,0 +1,188 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.diagnostics.FlightRecordingResponse;
+import com.fascinito.pos.exception.BadRequestException;
+import com.fascinito.pos.exception.ConflictException;
+import com.fascinito.pos.exception.ResourceNotFoundException;
+import com.fascinito.pos.jfr.CheckoutStageEvent;
+import com.fascinito.pos.jfr.MailSendEvent;
+import com.fascinito.pos.jfr.ReportStageEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * On-demand JDK Flight Recorder recordings on a running instance.
+ *
+ * At most one recording is managed at a time. It includes the JDK's own events (per the
+ * chosen settings) and the application's checkout, report and mail events; those cost
+ * almost nothing while no recording is running. Recordings stop on their own after the
+ * requested duration, and are kept after stopping until downloaded or replaced.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Dumping writes a file; a lock rather than synchronized keeps virtual threads unpinned
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+    private String recordingSettings;
+
+    @Value("${diagnostics.jfr.max-duration-minutes:30}")
+    private long maxDurationMinutes;
+
+    @Value("${diagnostics.jfr.max-size-mb:250}")
+    private long maxSizeMb;
+
+    /**
+     * Start a recording
+     * @param settings JDK settings name: "default" or "profile"
+     * @param durationSeconds Stop automatically after this long (capped by diagnostics.jfr.max-duration-minutes)
+     * @param thresholdMs Only record application events at least this long; 0 records every one
+     */
+    public FlightRecordingResponse start(String settings, Long durationSeconds, long thresholdMs) {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new BadRequestException("Unknown JFR settings '" + settings + "', use 'default' or 'profile'");
+        }
+        if (thresholdMs < 0) {
+            throw new BadRequestException("thresholdMs must be 0 or greater");
+        }
+        Duration maxDuration = Duration.ofMinutes(maxDurationMinutes);
+        Duration duration = durationSeconds != null && durationSeconds > 0
+                ? Duration.ofSeconds(Math.min(durationSeconds, maxDuration.toSeconds()))
+                : maxDuration;
+
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new ConflictException("A recording is already running; stop it first");
+            }
+            if (recording != null) {
+                recording.close();
+            }
+            Recording started = new Recording(configuration);
+            started.setName("fascinito-" + LocalDateTime.now().format(NAME_FORMAT));
+            started.setToDisk(true);
+            started.setDuration(duration);
+            started.setMaxSize(maxSizeMb * 1024 * 1024);
+            Duration threshold = Duration.ofMillis(thresholdMs);
+            started.enable(CheckoutStageEvent.class).withThreshold(threshold);
+            started.enable(ReportStageEvent.class).withThreshold(threshold);
+            started.enable(MailSendEvent.class).withThreshold(threshold);
+            started.start();
+            recording = started;
+            recordingSettings = settings;
+            log.info("Started JFR recording {} ({} settings, up to {})", started.getName(), settings, duration);
+            return toResponse(started, recordingSettings);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public FlightRecordingResponse stop() {
+        lock.lock();
+        try {
+            Recording current = current();
+            if (current.getState() == RecordingState.RUNNING) {
+                current.stop();
+                log.info("Stopped JFR recording {}", current.getName());
+            }
+            return toResponse(current, recordingSettings);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public FlightRecordingResponse status() {
+        lock.lock();
+        try {
+            return toResponse(current(), recordingSettings);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the recording so far (running or stopped) as a .jfr file
+     */
+    public void download(OutputStream out) throws IOException {
+        Path file;
+        lock.lock();
+        try {
+            Recording current = current();
+            file = Files.createTempFile(current.getName(), ".jfr");
+            current.dump(file);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Files.copy(file, out);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * File name of the current recording, for the download response headers
+     */
+    public String fileName() {
+        lock.lock();
+        try {
+            return current().getName() + ".jfr";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Recording current() {
+        if (recording == null) {
+            throw new ResourceNotFoundException("No JFR recording has been started");
+        }
+        return recording;
+    }
+
+    private static FlightRecordingResponse toResponse(Recording recording, String settings) {
+        Duration duration = recording.getDuration();
+        return FlightRecordingResponse.builder()
+                .id(recording.getId())
+                .name(recording.getName())
+                .state(recording.getState().name())
+                .settings(settings)
+                .startTime(recording.getStartTime())
+                .stopTime(recording.getStopTime())
+                .maxDurationSeconds(duration != null ? duration.toSeconds() : null)
+                .sizeBytes(recording.getSize())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
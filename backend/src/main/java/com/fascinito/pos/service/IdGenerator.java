@@ -0,0 +1,224 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.job.JobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 63-bit ids (Snowflake layout): 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and a 12-bit per-millisecond sequence.
+ *
+ * Lock-free: the last (timestamp, sequence) pair lives in one AtomicLong and is advanced
+ * with CAS. When the sequence overflows, or the clock steps backwards, the generator keeps
+ * counting forward on its own logical clock instead of waiting or failing, so ids stay
+ * strictly increasing per node. Ids from different nodes never collide as long as every
+ * instance has a distinct node id.
+ *
+ * The node id is ids.node-id when set. Otherwise each instance leases a free one from
+ * job_leases (rows ids.node.0 .. ids.node.1023) at startup and renews it by heartbeat. Ids
+ * are only handed out while the lease is known to be held: if renewals fail for two thirds
+ * of the lease, nextId fails rather than risk a node id another instance may take over, and
+ * a lease found taken is replaced by a new one.
+ */
+@Component
+@Slf4j
+public class IdGenerator implements SmartInitializingSingleton, AutoCloseable {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    // Crockford base32: no I, L, O or U, so numbers read back unambiguously
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    // ceil(63 / 5): fixed width keeps string order equal to numeric order
+    private static final int BASE32_LENGTH = 13;
+
+    static final String NODE_LEASE_PREFIX = "ids.node.";
+
+    // Lowest node id whose lease is free (never taken, released or expired)
+    private static final String FREE_NODE_SQL = """
+            SELECT n FROM generate_series(0, :maxNodeId) AS n
+            WHERE NOT EXISTS (
+                SELECT 1 FROM job_leases l
+                WHERE l.name = :prefix || n AND l.lease_until >= clock_timestamp() AND l.lease_owner <> :owner)
+            ORDER BY n LIMIT 1""";
+    // Takes the lease unless another instance took it first
+    private static final String TAKE_SQL = """
+            INSERT INTO job_leases (name, lease_owner, lease_until)
+            VALUES (:name, :owner, clock_timestamp() + :leaseSeconds * INTERVAL '1 second')
+            ON CONFLICT (name) DO UPDATE
+            SET lease_owner = EXCLUDED.lease_owner, lease_until = EXCLUDED.lease_until
+            WHERE job_leases.lease_until IS NULL OR job_leases.lease_until < clock_timestamp()
+               OR job_leases.lease_owner = EXCLUDED.lease_owner""";
+    private static final String RENEW_SQL = """
+            UPDATE job_leases SET lease_until = clock_timestamp() + :leaseSeconds * INTERVAL '1 second'
+            WHERE name = :name AND lease_owner = :owner""";
+    private static final String RELEASE_SQL =
+            "UPDATE job_leases SET lease_owner = NULL, lease_until = NULL WHERE name = :name AND lease_owner = :owner";
+    private static final int TAKE_ATTEMPTS = 5;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final JobRunner jobRunner;
+    private final long leaseSeconds;
+    private final boolean leased;
+    private final ScheduledExecutorService leaseRenewal;
+    private volatile long nodeId;
+    // System.nanoTime() until which the current lease is known to be held
+    private volatile long leaseValidUntil;
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(@Value("${ids.node-id:-1}") long configuredNodeId,
+                       @Value("${ids.node-lease-seconds:60}") long leaseSeconds,
+                       NamedParameterJdbcTemplate jdbc,
+                       JobRunner jobRunner) {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("ids.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.jdbc = jdbc;
+        this.jobRunner = jobRunner;
+        this.leaseSeconds = leaseSeconds;
+        this.leased = configuredNodeId < 0;
+        this.nodeId = configuredNodeId;
+        if (leased) {
+            leaseRenewal = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "node-id-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            leaseRenewal = null;
+            log.info("Using configured node id {}", nodeId);
+        }
+    }
+
+    /**
+     * Leases a node id once the schema is migrated, before the application takes requests.
+     * Startup fails if none is free.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!leased) {
+            return;
+        }
+        takeLease();
+        long interval = Math.max(1, leaseSeconds * 1000 / 3);
+        leaseRenewal.scheduleWithFixedDelay(this::renewLease, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public long nextId() {
+        if (leased && leaseValidUntil - System.nanoTime() <= 0) {
+            throw new IllegalStateException("Node id lease could not be renewed; not issuing ids");
+        }
+        long nodeId = this.nodeId;
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long previous = lastState.get();
+            // New millisecond: restart the sequence. Same millisecond or clock behind: increment,
+            // letting a sequence overflow carry into the timestamp (borrowing the next millisecond)
+            long next = now > (previous >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : previous + 1;
+            if (lastState.compareAndSet(previous, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    private void takeLease() {
+        for (int attempt = 0; attempt < TAKE_ATTEMPTS; attempt++) {
+            long start = System.nanoTime();
+            List<Long> free = jdbc.queryForList(FREE_NODE_SQL, new MapSqlParameterSource()
+                    .addValue("maxNodeId", MAX_NODE_ID)
+                    .addValue("prefix", NODE_LEASE_PREFIX)
+                    .addValue("owner", jobRunner.getOwner()), Long.class);
+            if (free.isEmpty()) {
+                throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " node ids are leased; set ids.node-id");
+            }
+            long candidate = free.get(0);
+            // Another instance may take the same id between the two statements: try the next free one
+            if (jdbc.update(TAKE_SQL, leaseParameters(candidate)) == 1) {
+                nodeId = candidate;
+                leaseValidUntil = start + validNanos();
+                log.info("Leased node id {} as {}", candidate, jobRunner.getOwner());
+                return;
+            }
+        }
+        throw new IllegalStateException("Could not lease a node id after " + TAKE_ATTEMPTS + " attempts");
+    }
+
+    private void renewLease() {
+        long start = System.nanoTime();
+        try {
+            if (jdbc.update(RENEW_SQL, leaseParameters(nodeId)) == 1) {
+                leaseValidUntil = start + validNanos();
+                return;
+            }
+            log.error("Lease on node id {} was taken over; leasing a new one", nodeId);
+            leaseValidUntil = start;
+            takeLease();
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the lease on node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private MapSqlParameterSource leaseParameters(long node) {
+        return new MapSqlParameterSource()
+                .addValue("name", NODE_LEASE_PREFIX + node)
+                .addValue("owner", jobRunner.getOwner())
+                .addValue("leaseSeconds", leaseSeconds);
+    }
+
+    // Two thirds of the lease: one missed renewal is tolerated, and ids stop well before the
+    // lease can expire and be taken by another instance
+    private long validNanos() {
+        return TimeUnit.SECONDS.toNanos(leaseSeconds) * 2 / 3;
+    }
+
+    /**
+     * Stops renewing and frees the leased node id for the next instance
+     */
+    @Override
+    public void close() {
+        if (!leased) {
+            return;
+        }
+        leaseRenewal.shutdownNow();
+        leaseValidUntil = System.nanoTime();
+        try {
+            jdbc.update(RELEASE_SQL, leaseParameters(nodeId));
+        } catch (RuntimeException e) {
+            // The lease simply runs out
+            log.warn("Failed to release node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Next id as a fixed-width, 13-character Crockford base32 string
+     */
+    public String nextBase32() {
+        return toBase32(nextId());
+    }
+
+    static String toBase32(long id) {
+        char[] chars = new char[BASE32_LENGTH];
+        long value = id;
+        for (int i = BASE32_LENGTH - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
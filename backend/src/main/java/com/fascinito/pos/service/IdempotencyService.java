@@ -0,0 +1,281 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.IdempotencyRecord;
+import com.fascinito.pos.exception.BadRequestException;
+import com.fascinito.pos.exception.ConflictException;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for non-idempotent endpoints (checkout, payment order creation,
+ * refund initiation).
+ *
+ * The first request with a key claims it (committed IN_PROGRESS row), then runs the action
+ * and stores its response in the same transaction as the action's own writes, so a stored
+ * response always means the work was committed and vice versa. Retries with the same key
+ * replay the stored response without running the action; completed responses are also kept
+ * in an in-memory front cache so a retry storm costs a map lookup. Only successful (2xx)
+ * responses are stored: a failed attempt releases the key so the client can retry.
+ *
+ * An IN_PROGRESS claim only holds the key for a short lease (expires_at, bounded by the
+ * action's transaction timeout); a claim left behind by a node that died is taken over by
+ * the next retry once the lease has passed. The completion is fenced on the claim, so an
+ * action that outlived its lease rolls back instead of completing a second time. Completed
+ * responses are kept for the full TTL.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record CachedResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate actionTransaction;
+    private final JobRunner jobRunner;
+    private final Map<String, CachedResponse> completed = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    private final Duration inProgressLease;
+
+    @Value("${idempotency.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              JobRunner jobRunner,
+                              @Value("${idempotency.in-progress-lease-seconds:60}") int inProgressLeaseSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.jobRunner = jobRunner;
+        this.inProgressLease = Duration.ofSeconds(inProgressLeaseSeconds);
+        // The purge below uses the plain template; the action must finish within its lease
+        this.actionTransaction = new TransactionTemplate(transactionManager);
+        this.actionTransaction.setTimeout(inProgressLeaseSeconds);
+    }
+
+    /**
+     * Run the action at most once per (scope, user, key)
+     * @param scope Operation name, e.g. "checkout"
+     * @param userId Caller; keys are only unique per user
+     * @param key Idempotency-Key header value; null runs the action without deduplication
+     * @param request Request body and path parameters, used to detect a key reused for another request
+     * @param responseType Type of the response body, for replay
+     * @param action The operation
+     */
+    public <T> ResponseEntity<T> execute(String scope,
+                                         Long userId,
+                                         String key,
+                                         Object request,
+                                         TypeReference<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+
+        CachedResponse cached = completed.get(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        IdempotencyRecord claimed = claim(scope, userId, key, requestHash);
+        if (claimed.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            CachedResponse stored = toCached(claimed);
+            remember(cacheKey, stored);
+            return replay(stored, requestHash, responseType);
+        }
+
+        // Our claim: run the action and record its response atomically with its writes
+        Long recordId = claimed.getId();
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofHours(ttlHours));
+        ResponseEntity<T> response;
+        try {
+            response = actionTransaction.execute(status -> {
+                ResponseEntity<T> result = action.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    // Error paths keep their response but none of their writes; the key is released below
+                    status.setRollbackOnly();
+                    return result;
+                }
+                int completed = idempotencyRecordRepository.complete(recordId, claimed.getExpiresAt(),
+                        result.getStatusCode().value(), serialize(result.getBody()), expiresAt,
+                        IdempotencyRecord.Status.IN_PROGRESS, IdempotencyRecord.Status.COMPLETED);
+                if (completed == 0) {
+                    // Lease expired and the key was taken over: roll our writes back
+                    throw new ConflictException("A request with this " + HEADER + " is still being processed");
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            release(recordId);
+            throw e;
+        }
+
+        if (response == null || !response.getStatusCode().is2xxSuccessful()) {
+            release(recordId);
+            return response;
+        }
+        remember(cacheKey, new CachedResponse(requestHash, response.getStatusCode().value(),
+                serialize(response.getBody()), expiresAt));
+        return response;
+    }
+
+    /**
+     * Insert an IN_PROGRESS row for the key, or return the existing row for it.
+     * An expired row (a completed one past its TTL, or a claim past its lease) is deleted
+     * and the key claimed afresh.
+     */
+    private IdempotencyRecord claim(String scope, Long userId, String key, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            // Millisecond precision: the lease end is compared with the stored value on completion
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            try {
+                return newTransaction.execute(status -> idempotencyRecordRepository.saveAndFlush(
+                        IdempotencyRecord.builder()
+                                .scope(scope)
+                                .userId(userId)
+                                .idempotencyKey(key)
+                                .requestHash(requestHash)
+                                .status(IdempotencyRecord.Status.IN_PROGRESS)
+                                .createdAt(now)
+                                .expiresAt(now.plus(inProgressLease))
+                                .build()));
+            } catch (DataIntegrityViolationException e) {
+                IdempotencyRecord existing = newTransaction.execute(status ->
+                        idempotencyRecordRepository.findByScopeAndUserIdAndIdempotencyKey(scope, userId, key)
+                                .orElse(null));
+                if (existing == null) {
+                    // Released between our insert and read; claim again
+                    continue;
+                }
+                if (existing.getExpiresAt().isBefore(now)) {
+                    release(existing.getId());
+                    continue;
+                }
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    throw new BadRequestException(HEADER + " was already used for a different request");
+                }
+                if (existing.getStatus() == IdempotencyRecord.Status.IN_PROGRESS) {
+                    throw new ConflictException("A request with this " + HEADER + " is still being processed");
+                }
+                return existing;
+            }
+        }
+        throw new ConflictException("A request with this " + HEADER + " is still being processed");
+    }
+
+    private void release(Long recordId) {
+        try {
+            newTransaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(recordId));
+        } catch (RuntimeException e) {
+            // Left IN_PROGRESS until its lease expires; retries get 409 meanwhile
+            log.warn("Failed to release idempotency record {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(CachedResponse cached, String requestHash, TypeReference<T> responseType) {
+        if (!cached.requestHash().equals(requestHash)) {
+            throw new BadRequestException(HEADER + " was already used for a different request");
+        }
+        try {
+            T body = cached.body() != null ? objectMapper.readValue(cached.body(), responseType) : null;
+            return ResponseEntity.status(HttpStatusCode.valueOf(cached.status()))
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private CachedResponse toCached(IdempotencyRecord record) {
+        return new CachedResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getResponseBody(), record.getExpiresAt());
+    }
+
+    private void remember(String cacheKey, CachedResponse response) {
+        if (completed.size() >= cacheMaxEntries) {
+            LocalDateTime now = LocalDateTime.now();
+            completed.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+            if (completed.size() >= cacheMaxEntries) {
+                // Still full of live entries: the table remains the source of truth
+                return;
+            }
+        }
+        completed.put(cacheKey, response);
+    }
+
+    /**
+     * Drop expired keys from the front cache (every node) and the table (one node at a time)
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        completed.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        jobRunner.runExclusive("idempotency-purge", () -> {
+            Integer deleted = transaction.execute(status -> idempotencyRecordRepository.deleteExpired(now));
+            if (deleted != null && deleted > 0) {
+                log.info("Purged {} expired idempotency keys", deleted);
+            }
+        });
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] bytes = request != null ? objectMapper.writeValueAsBytes(request) : new byte[0];
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.ProductImage;
+import com.fascinito.pos.event.CatalogChangedEvent;
+import com.fascinito.pos.repository.ProductImageRepository;
+import com.fascinito.pos.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates fixed-width JPEG renditions (thumb / card / detail) for uploaded product images.
+ *
+ * Uploads are decoded once on a small background pool and turned upright according to their
+ * EXIF orientation (phone photos are stored sideways with an Orientation tag); each rendition
+ * is scaled down from the next larger one and re-encoded without metadata. Renditions are stored as blobs
+ * derived from the original's key (width and quality are part of the key, so the URL stays
+ * immutable) and recorded on every {@link ProductImage} that references the original, either
+ * when the job finishes or when the product is saved afterwards.
+ */
+@Service
+@Slf4j
+public class ImageRenditionService {
+
+    public record Renditions(String thumbnailUrl, String cardUrl, String detailUrl) {
+    }
+
+    private record Decoded(BufferedImage image, int orientation) {
+    }
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int APP1_MARKER = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private final ProductImageRepository productImageRepository;
+    private final BlobStore blobStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Executor imageRenditionExecutor;
+    private final TransactionTemplate transaction;
+
+    @Value("${images.renditions.thumb-width:160}")
+    private int thumbWidth;
+
+    @Value("${images.renditions.card-width:480}")
+    private int cardWidth;
+
+    @Value("${images.renditions.detail-width:1200}")
+    private int detailWidth;
+
+    @Value("${images.renditions.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Refuse to decode anything larger (a 5 MB upload can still declare a huge canvas)
+    @Value("${images.renditions.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    public ImageRenditionService(ProductImageRepository productImageRepository,
+                                 BlobStore blobStore,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Qualifier("imageRenditionExecutor") Executor imageRenditionExecutor,
+                                 PlatformTransactionManager transactionManager) {
+        this.productImageRepository = productImageRepository;
+        this.blobStore = blobStore;
+        this.eventPublisher = eventPublisher;
+        this.imageRenditionExecutor = imageRenditionExecutor;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue rendition generation for an uploaded image blob
+     * @param blobKey Key of the stored original
+     */
+    public void submit(String blobKey) {
+        imageRenditionExecutor.execute(() -> {
+            try {
+                Renditions renditions = generate(blobKey);
+                if (renditions != null) {
+                    record(blobStore.urlFor(blobKey), renditions);
+                }
+            } catch (Exception e) {
+                log.error("Failed to generate renditions for {}: {}", blobKey, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Renditions for an original URL, if they have been generated
+     */
+    public Optional<Renditions> findReady(String originalUrl) {
+        // The detail rendition is written last
+        return blobStore.keyFromUrl(originalUrl)
+                .filter(key -> blobStore.exists(detailKey(key)))
+                .map(this::renditionUrls);
+    }
+
+    /**
+     * Images saved after their renditions finished did not exist when the job recorded its
+     * URLs; fill them in once the product write has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() != CatalogChangedEvent.Type.PRODUCT || event.entityId() == null) {
+            return;
+        }
+        imageRenditionExecutor.execute(() -> {
+            try {
+                fillMissing(event.entityId());
+            } catch (Exception e) {
+                log.error("Failed to record renditions for product {}: {}", event.entityId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private void fillMissing(Long productId) {
+        Boolean updated = transaction.execute(status -> {
+            boolean changed = false;
+            List<ProductImage> images = productImageRepository.findByProductIdAndThumbnailUrlIsNull(productId);
+            for (ProductImage image : images) {
+                Optional<Renditions> ready = findReady(image.getImageUrl());
+                if (ready.isPresent()) {
+                    image.setThumbnailUrl(ready.get().thumbnailUrl());
+                    image.setCardUrl(ready.get().cardUrl());
+                    image.setDetailUrl(ready.get().detailUrl());
+                    changed = true;
+                }
+            }
+            if (changed) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, productId));
+            }
+            return changed;
+        });
+        if (Boolean.TRUE.equals(updated)) {
+            log.debug("Recorded renditions for product {}", productId);
+        }
+    }
+
+    private void record(String originalUrl, Renditions renditions) {
+        Integer updated = transaction.execute(status -> {
+            int rows = productImageRepository.updateRenditionUrls(
+                    originalUrl, renditions.thumbnailUrl(), renditions.cardUrl(), renditions.detailUrl());
+            if (rows > 0) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, null));
+            }
+            return rows;
+        });
+        log.debug("Recorded renditions for {} on {} image rows", originalUrl, updated);
+    }
+
+    private Renditions generate(String blobKey) throws IOException {
+        // Identical uploads share a key, so their renditions may already exist
+        if (blobStore.exists(detailKey(blobKey))) {
+            return renditionUrls(blobKey);
+        }
+
+        long start = System.currentTimeMillis();
+        Decoded decoded = decode(blobKey);
+        if (decoded == null) {
+            return null;
+        }
+        BufferedImage source = orient(toRgb(decoded.image()), decoded.orientation());
+
+        // Largest first, each one scaled from the previous to keep the work proportional to output size
+        BufferedImage detail = resize(source, detailWidth);
+        BufferedImage card = resize(detail, cardWidth);
+        BufferedImage thumb = resize(card, thumbWidth);
+
+        writeJpeg(thumb, thumbKey(blobKey));
+        writeJpeg(card, cardKey(blobKey));
+        writeJpeg(detail, detailKey(blobKey));
+
+        log.info("Generated renditions for {} ({}x{}) in {} ms",
+                blobKey, source.getWidth(), source.getHeight(), System.currentTimeMillis() - start);
+        return renditionUrls(blobKey);
+    }
+
+    private Decoded decode(String blobKey) throws IOException {
+        try (InputStream content = blobStore.openStream(blobKey);
+             ImageInputStream in = new MemoryCacheImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                log.warn("No image decoder for {}, renditions skipped", blobKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                // Metadata is read for the orientation only; renditions are written without it
+                reader.setInput(in, true, false);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    log.warn("Image {} is {} pixels (max {}), renditions skipped",
+                            blobKey, pixels, maxSourcePixels);
+                    return null;
+                }
+                return new Decoded(reader.read(0), orientation(reader.getImageMetadata(0)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * EXIF Orientation (1-8) from a JPEG's APP1 segment; 1 (upright) when there is none
+     */
+    private static int orientation(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = ((IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT))
+                .getElementsByTagName("markerSequence").item(0);
+        for (Node marker = markers != null ? markers.getFirstChild() : null; marker != null;
+             marker = marker.getNextSibling()) {
+            if ("unknown".equals(marker.getNodeName())
+                    && String.valueOf(APP1_MARKER).equals(((IIOMetadataNode) marker).getAttribute("MarkerTag"))
+                    && ((IIOMetadataNode) marker).getUserObject() instanceof byte[] data) {
+                int orientation = exifOrientation(data);
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Orientation tag of IFD0 in an APP1 payload ("Exif\0\0" and a TIFF header), or 0
+     */
+    private static int exifOrientation(byte[] app1) {
+        byte[] header = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        if (app1.length < header.length + 8) {
+            return 0;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (app1[i] != header[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, header.length, app1.length - header.length).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        long ifd = Integer.toUnsignedLong(tiff.getInt(4));
+        if (tiff.getShort(2) != 42 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort((int) ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Rotate / flip a decoded image so it displays upright; orientations 5-8 swap width and height
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // Maps stored pixel (x, y) to its upright position
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swapped = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swapped ? h : w, swapped ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = upright.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return upright;
+    }
+
+    /**
+     * Opaque RGB copy; transparent areas (PNG/GIF) become white
+     */
+    private BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, source.getWidth(), source.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Scale to the target width (never up), halving in steps so bilinear sampling stays sharp
+     */
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        while (current.getWidth() > targetWidth) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(1, (int) Math.round((double) current.getHeight() * width / current.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = scaled;
+        }
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, String key) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        // Renditions are small; encode in memory and let the store place the file atomically
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        blobStore.putDerived(key, new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private Renditions renditionUrls(String blobKey) {
+        return new Renditions(
+                blobStore.urlFor(thumbKey(blobKey)),
+                blobStore.urlFor(cardKey(blobKey)),
+                blobStore.urlFor(detailKey(blobKey)));
+    }
+
+    private String thumbKey(String blobKey) {
+        return renditionKey(blobKey, thumbWidth);
+    }
+
+    private String cardKey(String blobKey) {
+        return renditionKey(blobKey, cardWidth);
+    }
+
+    private String detailKey(String blobKey) {
+        return renditionKey(blobKey, detailWidth);
+    }
+
+    /**
+     * {sha256}-w480q82o.jpg: everything the rendition bytes depend on is in the key
+     * ("o": EXIF orientation applied, so renditions made before that are not reused)
+     */
+    private String renditionKey(String blobKey, int width) {
+        return BlobStore.derivedKey(blobKey, "w" + width + "q" + Math.round(jpegQuality * 100) + "o", "jpg");
+    }
+}
@@ -3,11 +3,14 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.dto.location.LocationRequest;
 import com.fascinito.pos.dto.location.LocationResponse;
 import com.fascinito.pos.entity.Location;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.LocationRepository;
+import com.fascinito.pos.repository.ProductGroupCount;
 import com.fascinito.pos.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -16,7 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +32,7 @@ public class LocationService {
 
     private final LocationRepository locationRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Page<LocationResponse> getAllLocations(Pageable pageable, String search, Boolean active) {
@@ -47,13 +55,17 @@ public class LocationService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return locationRepository.findAll(spec, pageable).map(this::mapToResponse);
+        Page<Location> locations = locationRepository.findAll(spec, pageable);
+        Map<Long, ProductGroupCount> counts = findProductCounts(locations.getContent());
+        return locations.map(location -> mapToResponse(location, counts.get(location.getId())));
     }
 
     @Transactional(readOnly = true)
     public List<LocationResponse> getAllActiveLocations() {
-        return locationRepository.findByActiveTrue().stream()
-                .map(this::mapToResponse)
+        List<Location> locations = locationRepository.findByActiveTrue();
+        Map<Long, ProductGroupCount> counts = findProductCounts(locations);
+        return locations.stream()
+                .map(location -> mapToResponse(location, counts.get(location.getId())))
                 .toList();
     }
 
@@ -70,6 +82,7 @@ public class LocationService {
         mapRequestToEntity(request, location);
 
         Location savedLocation = locationRepository.save(location);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.LOCATION, savedLocation.getId()));
         log.info("Location created: {}", savedLocation.getId());
         return mapToResponse(savedLocation);
     }
@@ -82,6 +95,7 @@ public class LocationService {
         mapRequestToEntity(request, location);
 
         Location savedLocation = locationRepository.save(location);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.LOCATION, savedLocation.getId()));
         log.info("Location updated: {}", savedLocation.getId());
         return mapToResponse(savedLocation);
     }
@@ -92,6 +106,7 @@ public class LocationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found with id: " + id));
         
         locationRepository.delete(location);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.LOCATION, id));
         log.info("Location deleted: {}", id);
     }
 
@@ -106,7 +121,23 @@ public class LocationService {
         location.setActive(request.getActive());
     }
 
+    /**
+     * Product counts for the given locations in one grouped query
+     */
+    private Map<Long, ProductGroupCount> findProductCounts(Collection<Location> locations) {
+        if (locations.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> locationIds = locations.stream().map(Location::getId).toList();
+        return productRepository.countByLocationIds(locationIds).stream()
+                .collect(Collectors.toMap(ProductGroupCount::getGroupId, Function.identity()));
+    }
+
     private LocationResponse mapToResponse(Location location) {
+        return mapToResponse(location, findProductCounts(List.of(location)).get(location.getId()));
+    }
+
+    private LocationResponse mapToResponse(Location location, ProductGroupCount counts) {
         LocationResponse response = new LocationResponse();
         response.setId(location.getId());
         response.setName(location.getName());
@@ -118,7 +149,7 @@ public class LocationService {
         response.setPhone(location.getPhone());
         response.setActive(location.getActive());
         // Count products at this location
-        response.setProductCount(productRepository.countByLocationId(location.getId()).intValue());
+        response.setProductCount(counts != null ? counts.getProductCount().intValue() : 0);
         response.setCreatedAt(location.getCreatedAt());
         response.setUpdatedAt(location.getUpdatedAt());
         return response;
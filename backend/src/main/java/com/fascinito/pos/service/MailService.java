@@ -2,6 +2,7 @@ package com.fascinito.pos.service;
 
 import com.fascinito.pos.entity.EmailTemplate;
 import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.jfr.MailSendEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,14 +20,18 @@ import java.util.Optional;
 public class MailService {
     private final Optional<JavaMailSender> javaMailSender;
     private final EmailTemplateService emailTemplateService;
+    private final BusinessMetrics businessMetrics;
 
     @Value("${spring.mail.from:noreply@fascinito.com}")
     private String fromEmail;
 
     @Autowired
-    public MailService(Optional<JavaMailSender> javaMailSender, EmailTemplateService emailTemplateService) {
+    public MailService(Optional<JavaMailSender> javaMailSender,
+                       EmailTemplateService emailTemplateService,
+                       BusinessMetrics businessMetrics) {
         this.javaMailSender = javaMailSender;
         this.emailTemplateService = emailTemplateService;
+        this.businessMetrics = businessMetrics;
         log.info("MailService initialized with JavaMailSender. Mail configured: {}", javaMailSender.isPresent());
     }
 
@@ -34,14 +39,19 @@ public class MailService {
      * Send email based on template and order status change
      */
     public void sendOrderStatusEmail(Order order, EmailTemplate template) {
+        MailSendEvent event = MailSendEvent.start(template.getTemplateKey(), order.getId());
         if (javaMailSender.isEmpty()) {
             log.warn("Mail service not configured. Skipping email for order {}", order.getOrderNumber());
+            businessMetrics.email(template.getTemplateKey(), "skipped");
+            event.finish("skipped", 0);
             return;
         }
 
+        int bodyLength = 0;
         try {
             String processedSubject = emailTemplateService.processTemplate(template.getSubject(), order);
             String processedBody = emailTemplateService.processTemplate(template.getBodyHtml(), order);
+            bodyLength = processedBody.length();
 
             sendHtmlEmail(
                     order.getUser().getEmail(),
@@ -51,8 +61,12 @@ public class MailService {
 
             log.info("Email sent to {} for order {} with template {}",
                     order.getUser().getEmail(), order.getOrderNumber(), template.getTemplateKey());
+            businessMetrics.email(template.getTemplateKey(), "sent");
+            event.finish("sent", bodyLength);
         } catch (Exception e) {
             log.error("Failed to send email for order {}: {}", order.getOrderNumber(), e.getMessage(), e);
+            businessMetrics.email(template.getTemplateKey(), "failed");
+            event.finish("failed", bodyLength);
         }
     }
 
@@ -3,7 +3,9 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.dto.order.CheckoutRequest;
 import com.fascinito.pos.dto.order.OrderResponse;
 import com.fascinito.pos.entity.*;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.ResourceNotFoundException;
+import com.fascinito.pos.jfr.CheckoutStageEvent;
 import com.fascinito.pos.repository.OrderRepository;
 import com.fascinito.pos.repository.OrderItemRepository;
 import com.fascinito.pos.repository.CartItemRepository;
@@ -24,6 +26,7 @@ import com.fascinito.pos.dto.order.RefundRequestResponse;
 import com.fascinito.pos.repository.RefundRequestRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
@@ -35,7 +38,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -56,8 +59,12 @@ public class OrderService {
     private final OrderRefundRepository orderRefundRepository;
     private final RefundRequestRepository refundRequestRepository;
     private final RefundService refundService;
+    private final IdGenerator idGenerator;
     private final EmailTemplateService emailTemplateService;
     private final MailService mailService;
+    private final ProductAvailabilityService productAvailabilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusinessMetrics businessMetrics;
 
     /**
      * Create order from cart with stock deduction
@@ -71,12 +78,16 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         // Get user's cart
+        CheckoutStageEvent stage = CheckoutStageEvent.start("load_cart", userId, 0);
         List<CartItem> cartItems = cartItemRepository.findByUser(user);
+        stage.finish(null);
+        int itemCount = cartItems.size();
         
         // Check if test mode is enabled - allow empty cart in test mode
         boolean isTestMode = Boolean.TRUE.equals(checkoutRequest.getTestMode());
         
         if (cartItems.isEmpty() && !isTestMode) {
+            businessMetrics.checkoutRejected("empty_cart");
             throw new IllegalArgumentException("Cart is empty");
         }
 
@@ -87,7 +98,14 @@ public class OrderService {
         }
 
         // Validate stock for all items before proceeding
-        validateStockAvailability(cartItems);
+        stage = CheckoutStageEvent.start("validate_stock", userId, itemCount);
+        try {
+            validateStockAvailability(cartItems);
+        } catch (IllegalArgumentException e) {
+            businessMetrics.stockConflict();
+            throw e;
+        }
+        stage.finish(null);
 
         // Create order
         String orderNumber = generateOrderNumber();
@@ -105,6 +123,7 @@ public class OrderService {
         BigDecimal subtotal = BigDecimal.ZERO;
 
         // Create order items and DEDUCT STOCK
+        stage = CheckoutStageEvent.start("deduct_stock", userId, itemCount);
         for (CartItem cartItem : cartItems) {
             Product product = cartItem.getProduct();
             ProductVariantCombination variantCombination = cartItem.getVariantCombination();
@@ -146,6 +165,7 @@ public class OrderService {
                     variantCombination != null ? variantCombination.getId() : "null",
                     variationOption != null ? variationOption.getId() : "null");
         }
+        stage.finish(null);
 
         // Use pre-calculated values from cart instead of recalculating
         BigDecimal taxAmount = checkoutRequest.getTax() != null ? checkoutRequest.getTax() : BigDecimal.ZERO;
@@ -159,10 +179,13 @@ public class OrderService {
         order.setTotalAmount(totalAmount);
 
         // Save order
+        stage = CheckoutStageEvent.start("save_order", userId, itemCount);
         Order savedOrder = orderRepository.save(order);
+        stage.finish(savedOrder.getId());
         log.info("Order {} created successfully with total {}", orderNumber, totalAmount);
 
         // Create initial status history
+        stage = CheckoutStageEvent.start("status_history", userId, itemCount);
         OrderStatusHistory initialHistory = OrderStatusHistory.builder()
                 .order(savedOrder)
                 .status(Order.OrderStatus.PENDING)
@@ -170,8 +193,10 @@ public class OrderService {
                 .notes("Order created")
                 .build();
         statusHistoryRepository.save(initialHistory);
+        stage.finish(savedOrder.getId());
 
         // Create payment record
+        stage = CheckoutStageEvent.start("payment_record", userId, itemCount);
         Payment payment = Payment.builder()
                 .order(savedOrder)
                 .paymentMethod(Payment.PaymentMethod.valueOf(checkoutRequest.getPaymentMethod().toUpperCase()))
@@ -180,12 +205,19 @@ public class OrderService {
                 .currency("USD")
                 .build();
         paymentRepository.save(payment);
+        stage.finish(savedOrder.getId());
 
         // CLEAR CART after successful order creation
+        stage = CheckoutStageEvent.start("clear_cart", userId, itemCount);
         cartItemRepository.deleteByUser(user);
+        stage.finish(savedOrder.getId());
         log.info("Cart cleared for user {}", userId);
 
-        return mapToResponse(savedOrder);
+        businessMetrics.checkoutCreated();
+        stage = CheckoutStageEvent.start("map_response", userId, itemCount);
+        OrderResponse response = mapToResponse(savedOrder);
+        stage.finish(savedOrder.getId());
+        return response;
     }
 
     /**
@@ -272,6 +304,11 @@ public class OrderService {
             log.info("Deducted {} units from product {} stock. New stock: {}",
                     quantity, product.getId(), product.getStockQuantity());
         }
+
+        // Keep denormalized availability columns in sync with the new stock levels
+        productAvailabilityService.refresh(product);
+        productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.STOCK, product.getId()));
     }
 
     /**
@@ -370,9 +407,7 @@ public class OrderService {
             throw new ResourceNotFoundException("User not found");
         }
 
-        // Use optimized query method that avoids N+1
-        return orderRepository.findByUser(userId, pageable)
-                .map(this::mapToResponse);
+        return mapToResponsePage(orderRepository.findByUser(userId, pageable));
     }
 
     /**
@@ -380,8 +415,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByStatus(Order.OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable)
-                .map(this::mapToResponse);
+        return mapToResponsePage(orderRepository.findByStatus(status, pageable));
     }
 
     /**
@@ -391,8 +425,7 @@ public class OrderService {
     @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
         log.debug("Fetching all orders with pagination");
-        return orderRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return mapToResponsePage(orderRepository.findAll(pageable));
     }
 
     /**
@@ -589,6 +622,11 @@ public class OrderService {
             log.info("Restored {} units to product {} stock. New stock: {}",
                     quantity, product.getId(), product.getStockQuantity());
         }
+
+        // Keep denormalized availability columns in sync with the new stock levels
+        productAvailabilityService.refresh(product);
+        productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.STOCK, product.getId()));
     }
 
     /**
@@ -604,7 +642,10 @@ public class OrderService {
             throw new IllegalArgumentException("Only cancelled orders can be refunded");
         }
 
-        if (order.getPayment() == null || order.getPayment().getStatus() != Payment.PaymentStatus.COMPLETED) {
+        // NEEDS_REVIEW: captured after the order was cancelled (RazorpayService.applyPaymentCaptured)
+        if (order.getPayment() == null
+                || (order.getPayment().getStatus() != Payment.PaymentStatus.COMPLETED
+                    && order.getPayment().getStatus() != Payment.PaymentStatus.NEEDS_REVIEW)) {
             throw new IllegalArgumentException("Order was not paid");
         }
 
@@ -696,6 +737,11 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Refund not found"));
 
         OrderRefund.RefundStatus newStatus = OrderRefund.RefundStatus.valueOf(status.toUpperCase());
+        if (newStatus == OrderRefund.RefundStatus.SUCCESS && refund.getRefundStatus() == OrderRefund.RefundStatus.SUCCESS) {
+            // Webhook and status poll can both report the same refund: restore inventory only once
+            log.info("Refund {} already marked SUCCESS", refundId);
+            return;
+        }
         refund.setRefundStatus(newStatus);
         refund.setRazorpayRefundId(razorpayRefundId);
         refund.setFailureReason(failureReason);
@@ -748,10 +794,10 @@ public class OrderService {
     }
 
     /**
-     * Generate unique order number
+     * Generate unique order number: ORD- plus a time-ordered base32 id (e.g. ORD-0A8WW62Y00PQN)
      */
     private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return "ORD-" + idGenerator.nextBase32();
     }
 
     /**
@@ -768,6 +814,18 @@ public class OrderService {
         return mapToResponse(order, items);
     }
 
+    /**
+     * Map a page of orders, loading the items of all of them in one query
+     */
+    private Page<OrderResponse> mapToResponsePage(Page<Order> orders) {
+        List<Long> orderIds = orders.getContent().stream().map(Order::getId).toList();
+        Map<Long, List<OrderItem>> itemsByOrder = orderIds.isEmpty()
+                ? Map.of()
+                : orderRepository.findItemsByOrderIds(orderIds).stream()
+                        .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        return orders.map(order -> mapToResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of())));
+    }
+
     /**
      * Map Order entity to OrderResponse DTO with pre-loaded items
      */
@@ -0,0 +1,179 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.JobCheckpoint;
+import com.fascinito.pos.entity.Payment;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.JobCheckpointRepository;
+import com.fascinito.pos.repository.PaymentRepository;
+import com.razorpay.RazorpayException;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds payments that were captured on Razorpay but never completed locally (the client died
+ * before verifyPayment and no webhook was applied).
+ *
+ * Instead of asking the gateway about each pending payment, the job pages through all gateway
+ * payments in time windows, matches captured ones in memory against a hash index of local
+ * pending payments (by Razorpay order id) and applies each match in its own transaction.
+ * A match that cannot be applied is set to NEEDS_REVIEW and does not hold the job back:
+ * the end of each scanned window is checkpointed, so every run only reads new payments.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationService {
+
+    private static final String JOB_NAME = "payment-reconciliation";
+    private static final int PAGE_SIZE = 100;
+
+    private final RazorpayApiClient razorpayApiClient;
+    private final RazorpayService razorpayService;
+    private final PaymentRepository paymentRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final JobRunner jobRunner;
+
+    @Value("${razorpay.reconciliation.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${razorpay.reconciliation.initial-lookback-hours:48}")
+    private long initialLookbackHours;
+
+    // Payments can appear in listings slightly after their created_at
+    @Value("${razorpay.reconciliation.overlap-minutes:5}")
+    private long overlapMinutes;
+
+    @Value("${razorpay.reconciliation.settle-lag-minutes:2}")
+    private long settleLagMinutes;
+
+    @Value("${razorpay.reconciliation.max-payment-age-days:7}")
+    private long maxPaymentAgeDays;
+
+    public PaymentReconciliationService(RazorpayApiClient razorpayApiClient,
+                                        RazorpayService razorpayService,
+                                        PaymentRepository paymentRepository,
+                                        JobCheckpointRepository jobCheckpointRepository,
+                                        JobRunner jobRunner) {
+        this.razorpayApiClient = razorpayApiClient;
+        this.razorpayService = razorpayService;
+        this.paymentRepository = paymentRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.jobRunner = jobRunner;
+    }
+
+    @Scheduled(fixedDelayString = "${razorpay.reconciliation.interval-ms:900000}",
+               initialDelayString = "${razorpay.reconciliation.initial-delay-ms:60000}")
+    public void reconcilePayments() {
+        try {
+            jobRunner.runExclusive(JOB_NAME, this::reconcile);
+        } catch (Exception e) {
+            log.error("Error in payment reconciliation: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reconcile() {
+        long end = Instant.now().minusSeconds(settleLagMinutes * 60).getEpochSecond();
+        long start = jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> checkpoint.getLastPosition() - overlapMinutes * 60)
+                .orElse(end - initialLookbackHours * 3600);
+        if (start >= end) {
+            return;
+        }
+
+        Map<String, Long> pendingByRazorpayOrderId = new HashMap<>();
+        for (PaymentRepository.ReconcilablePayment payment : paymentRepository.findReconcilable(
+                EnumSet.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.FAILED),
+                LocalDateTime.now().minusDays(maxPaymentAgeDays))) {
+            pendingByRazorpayOrderId.put(payment.getRazorpayOrderId(), payment.getId());
+        }
+        log.info("Reconciling gateway payments from {} to {} against {} local pending payments",
+                Instant.ofEpochSecond(start), Instant.ofEpochSecond(end), pendingByRazorpayOrderId.size());
+
+        int scanned = 0;
+        int completed = 0;
+        long windowSeconds = windowMinutes * 60;
+        for (long windowStart = start; windowStart < end; windowStart += windowSeconds) {
+            long windowEnd = Math.min(windowStart + windowSeconds, end);
+            Map<Long, JSONObject> matches = new LinkedHashMap<>();
+            try {
+                scanned += scanWindow(windowStart, windowEnd, pendingByRazorpayOrderId, matches);
+            } catch (RazorpayException | CircuitBreaker.OpenException e) {
+                // The checkpoint stays at the last complete window; the next run resumes there
+                log.warn("Payment reconciliation stopped at {}: {}", Instant.ofEpochSecond(windowStart), e.getMessage());
+                break;
+            }
+            completed += apply(matches);
+            saveCheckpoint(windowEnd);
+        }
+
+        log.info("Payment reconciliation scanned {} gateway payments, completed {} local payments", scanned, completed);
+    }
+
+    /**
+     * Page through one window, collecting captured payments that match a local pending payment
+     * @return Number of gateway payments read
+     */
+    private int scanWindow(long from, long to, Map<String, Long> pendingByRazorpayOrderId, Map<Long, JSONObject> matches)
+            throws RazorpayException {
+        int scanned = 0;
+        for (int skip = 0; ; skip += PAGE_SIZE) {
+            JSONArray items = razorpayApiClient.listPayments(from, to, PAGE_SIZE, skip).optJSONArray("items");
+            if (items == null || items.length() == 0) {
+                break;
+            }
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject payment = items.getJSONObject(i);
+                if (!"captured".equals(payment.optString("status"))) {
+                    continue;
+                }
+                Long localPaymentId = pendingByRazorpayOrderId.remove(payment.optString("order_id"));
+                if (localPaymentId != null) {
+                    matches.put(localPaymentId, payment);
+                }
+            }
+            scanned += items.length();
+            if (items.length() < PAGE_SIZE) {
+                break;
+            }
+        }
+        return scanned;
+    }
+
+    /**
+     * Complete matched payments, one transaction each; a payment that fails is set to
+     * NEEDS_REVIEW so it is neither retried forever nor holds back the checkpoint
+     * @param matches Gateway payments by local payment id
+     */
+    private int apply(Map<Long, JSONObject> matches) {
+        AtomicInteger completed = new AtomicInteger();
+        jobRunner.forEachInTransaction(JOB_NAME, new ArrayList<>(matches.keySet()),
+                id -> {
+                    if (razorpayService.applyPaymentCaptured(matches.get(id))) {
+                        completed.incrementAndGet();
+                    }
+                },
+                (id, error) -> paymentRepository.findById(id).ifPresent(payment -> {
+                    payment.setStatus(Payment.PaymentStatus.NEEDS_REVIEW);
+                    payment.setFailureReason("Captured as " + matches.get(id).optString("id")
+                            + " but could not be completed: " + error.getMessage());
+                    paymentRepository.save(payment);
+                }));
+        return completed.get();
+    }
+
+    private void saveCheckpoint(long position) {
+        jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME, position, LocalDateTime.now()));
+    }
+}
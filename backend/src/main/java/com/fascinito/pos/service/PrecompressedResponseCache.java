@@ -0,0 +1,130 @@
+package com.fascinito.pos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON bodies for cacheable, parameterless catalog responses, stored both
+ * plain and gzip-compressed.
+ *
+ * A body is serialized and compressed once per version and then served as-is; the
+ * variant is chosen from Accept-Encoding, and because Content-Encoding is already set
+ * the servlet container does not compress it again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrecompressedResponseCache {
+
+    public record Body(byte[] identity, byte[] gzip) {
+
+        /**
+         * Response with the variant the client accepts
+         */
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip != null && acceptsGzip(acceptEncoding)) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(identity);
+        }
+    }
+
+    private record Entry(String version, Body body) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Body for the named response at the given version, serializing it if not cached yet
+     * @param name Response name (one entry per name, so only for parameterless endpoints)
+     * @param version Version of the data the body is built from
+     * @param payload Builds the object to serialize
+     */
+    public Body get(String name, String version, Supplier<Object> payload) {
+        Entry current = entries.get(name);
+        if (current != null && current.version().equals(version)) {
+            return current.body();
+        }
+
+        Body body = serialize(payload.get());
+        entries.put(name, new Entry(version, body));
+        log.debug("Precompressed {} at version {}: {} -> {} bytes",
+                name, version, body.identity().length, body.gzip() != null ? body.gzip().length : body.identity().length);
+        return body;
+    }
+
+    private Body serialize(Object payload) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(payload);
+            byte[] gzip = gzip(identity);
+            // Tiny bodies can grow when compressed
+            return new Body(identity, gzip.length < identity.length ? gzip : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * True if Accept-Encoding accepts gzip: listed (or matched by *) without q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().toLowerCase(Locale.ROOT).split(";");
+            String coding = params[0].trim();
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return !hasZeroQuality(params);
+            }
+            if (coding.equals("*")) {
+                wildcard = !hasZeroQuality(params);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static boolean hasZeroQuality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
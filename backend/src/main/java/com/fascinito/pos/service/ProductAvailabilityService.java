@@ -0,0 +1,93 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductVariantCombination;
+import com.fascinito.pos.entity.VariationOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the denormalized availability and price-range columns on {@link Product}
+ * (in_stock, total_available_stock, min_price, max_price).
+ *
+ * Must be called by every write path that changes variations, options, combinations
+ * or stock so that listings can read the columns without loading the variation graph.
+ */
+@Service
+@Slf4j
+public class ProductAvailabilityService {
+
+    /**
+     * Recalculate the summary columns from the product's current in-memory state.
+     * The caller is responsible for persisting the product (dirty checking is enough
+     * inside a transaction).
+     */
+    public void refresh(Product product) {
+        boolean hasVariations = product.getVariations() != null && !product.getVariations().isEmpty();
+
+        List<VariationOption> activeOptions = hasVariations
+                ? product.getVariations().stream()
+                        .filter(v -> Boolean.TRUE.equals(v.getActive()))
+                        .flatMap(v -> v.getOptions().stream())
+                        .filter(o -> Boolean.TRUE.equals(o.getActive()))
+                        .collect(Collectors.toList())
+                : List.of();
+
+        // Display stock: bottleneck option stock for products with variations, otherwise product stock
+        int availableStock;
+        if (hasVariations) {
+            availableStock = activeOptions.stream()
+                    .mapToInt(o -> o.getStockQuantity() != null ? o.getStockQuantity() : 0)
+                    .min()
+                    .orElse(0);
+        } else {
+            availableStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        }
+
+        // inStock rules:
+        // 1. If inventory tracking is disabled, always true
+        // 2. If product has variations, at least one active option must have stock > 0
+        // 3. Otherwise use product stock
+        boolean inStock;
+        if (!Boolean.TRUE.equals(product.getTrackInventory())) {
+            inStock = true;
+        } else if (hasVariations) {
+            inStock = activeOptions.stream()
+                    .anyMatch(o -> o.getStockQuantity() != null && o.getStockQuantity() > 0);
+        } else {
+            inStock = product.getStockQuantity() != null && product.getStockQuantity() > 0;
+        }
+
+        // Price range: active combination prices, falling back to the effective product price
+        List<BigDecimal> combinationPrices = product.getVariantCombinations() == null
+                ? List.of()
+                : product.getVariantCombinations().stream()
+                        .filter(c -> Boolean.TRUE.equals(c.getActive()))
+                        .map(ProductVariantCombination::getPrice)
+                        .filter(p -> p != null)
+                        .collect(Collectors.toList());
+
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
+        if (!combinationPrices.isEmpty()) {
+            minPrice = combinationPrices.stream().min(BigDecimal::compareTo).orElse(null);
+            maxPrice = combinationPrices.stream().max(BigDecimal::compareTo).orElse(null);
+        } else {
+            BigDecimal effectivePrice = product.getSalePrice() != null ? product.getSalePrice() : product.getRegularPrice();
+            minPrice = effectivePrice;
+            maxPrice = effectivePrice;
+        }
+
+        product.setInStock(inStock);
+        product.setTotalAvailableStock(availableStock);
+        product.setMinPrice(minPrice);
+        product.setMaxPrice(maxPrice);
+
+        log.debug("Refreshed availability for product {}: inStock={}, stock={}, price=[{}, {}]",
+                product.getId(), inStock, availableStock, minPrice, maxPrice);
+    }
+}
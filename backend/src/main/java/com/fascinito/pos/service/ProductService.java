@@ -2,12 +2,14 @@ package com.fascinito.pos.service;
 
 import com.fascinito.pos.dto.product.*;
 import com.fascinito.pos.entity.*;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.BadRequestException;
 import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.*;
 import lombok.RequiredArgsConstructor;
 import java.util.Collections;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +41,9 @@ public class ProductService {
     private final LocationRepository locationRepository;
     private final ProductVariantCombinationRepository variantCombinationRepository;
     private final ProductVariantCombinationOptionRepository variantCombinationOptionRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductAvailabilityService productAvailabilityService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -51,22 +56,25 @@ public class ProductService {
             Long vendorId,
             Long locationId,
             Boolean visibleToCustomers,
-            Boolean active
+            Boolean active,
+            Boolean inStock,
+            BigDecimal minPrice,
+            BigDecimal maxPrice
     ) {
         // Use optimized repository methods for common queries to avoid N+1
-        if (search == null && vendorId == null && locationId == null) {
+        // Storefront listings map to card responses, which read the denormalized
+        // availability columns and never touch variations/combinations
+        if (search == null && vendorId == null && locationId == null
+                && inStock == null && minPrice == null && maxPrice == null) {
             // Use optimized repository method for visible/active products
             if (Boolean.TRUE.equals(visibleToCustomers) && Boolean.TRUE.equals(active)) {
                 if (categoryId != null) {
-                    return productRepository.findByCategoryIdAndVisibleToCustomersTrueAndActiveTrue(categoryId, pageable)
-                            .map(this::mapToResponse);
+                    return mapToCardPage(productRepository.findByCategoryIdAndVisibleToCustomersTrueAndActiveTrue(categoryId, pageable));
                 } else {
-                    return productRepository.findByVisibleToCustomersTrueAndActiveTrue(pageable)
-                            .map(this::mapToResponse);
+                    return mapToCardPage(productRepository.findByVisibleToCustomersTrueAndActiveTrue(pageable));
                 }
             } else if (Boolean.TRUE.equals(visibleToCustomers)) {
-                return productRepository.findByVisibleToCustomersTrue(pageable)
-                        .map(this::mapToResponse);
+                return mapToCardPage(productRepository.findByVisibleToCustomersTrue(pageable));
             }
         }
 
@@ -103,6 +111,20 @@ public class ProductService {
                 predicates.add(cb.equal(root.get("active"), active));
             }
 
+            // Availability and price-range filters use the denormalized columns
+            if (inStock != null) {
+                predicates.add(cb.equal(root.get("inStock"), inStock));
+            }
+
+            // Overlap semantics: a product matches if any of its prices falls inside the range
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("maxPrice"), minPrice));
+            }
+
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("minPrice"), maxPrice));
+            }
+
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
@@ -111,7 +133,7 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         return mapToResponse(product);
     }
@@ -139,8 +161,15 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Page<ProductResponse> getFeaturedProducts(Pageable pageable) {
-        return productRepository.findByFeaturedTrueAndVisibleToCustomersTrueAndActiveTrue(pageable)
-                .map(this::mapToResponse);
+        return mapToCardPage(productRepository.findByFeaturedTrueAndVisibleToCustomersTrueAndActiveTrue(pageable));
+    }
+
+    /**
+     * Most recently created visible/active products (card profile)
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getNewArrivals(int limit) {
+        return mapToCardList(productRepository.findNewArrivals(PageRequest.of(0, limit)));
     }
 
     @Transactional
@@ -159,6 +188,7 @@ public class ProductService {
         mapRequestToEntity(request, product);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, savedProduct.getId()));
         log.info("Product created: {}", savedProduct.getId());
         return mapToResponse(savedProduct);
     }
@@ -190,6 +220,7 @@ public class ProductService {
         entityManager.flush();
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, savedProduct.getId()));
         log.info("Product updated: {}", savedProduct.getId());
         return mapToResponse(savedProduct);
     }
@@ -200,6 +231,7 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         
         productRepository.delete(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.PRODUCT, id));
         log.info("Product deleted: {}", id);
     }
 
@@ -375,6 +407,8 @@ public class ProductService {
             // This preserves referential integrity with order_items that reference these combinations
             variantCombinationRepository.deactivateByProductId(product.getId());
             entityManager.flush();
+            // Bulk update bypasses the persistence context; mirror it so availability sees the new state
+            product.getVariantCombinations().forEach(comb -> comb.setActive(false));
             log.info("Deactivated old variant combinations for product {}", product.getId());
         }
         generateVariantCombinations(product);
@@ -395,6 +429,9 @@ public class ProductService {
                 product.getSpecifications().add(spec);
             }
         }
+
+        // Keep denormalized availability/price columns in sync with the new variation state
+        productAvailabilityService.refresh(product);
     }
 
     /**
@@ -509,99 +546,72 @@ public class ProductService {
         return result;
     }
 
-    private ProductResponse mapToResponse(Product product) {
-        ProductResponse response = new ProductResponse();
-        response.setId(product.getId());
-        response.setTitle(product.getTitle());
-        response.setSlug(product.getSlug());
-        response.setDescription(product.getDescription());
-        response.setDetailedDescription(product.getDetailedDescription());
-        response.setSku(product.getSku());
-        response.setUpc(product.getUpc());
-        response.setRegularPrice(product.getRegularPrice());
-        response.setSalePrice(product.getSalePrice());
-        response.setCostPerItem(product.getCostPerItem());
-        response.setTaxRate(product.getTaxRate());
-        response.setTaxExempt(product.getTaxExempt());
-        response.setVisibleToCustomers(product.getVisibleToCustomers());
-        response.setTrackInventory(product.getTrackInventory());
-        response.setStockQuantity(product.getStockQuantity());
-        response.setLowStockThreshold(product.getLowStockThreshold());
-
-        // Calculate inStock:
-        // 1. If inventory tracking is disabled, always true
-        // 2. If product has variations, prioritize variation stock (must have at least one variation with stock > 0)
-        // 3. If product has no variations, use product stock
-        boolean inStock;
-        if (!product.getTrackInventory()) {
-            inStock = true;
-        } else if (product.getVariations() != null && !product.getVariations().isEmpty()) {
-            // Check if ANY variation option has stock > 0
-            inStock = product.getVariations().stream()
-                    .filter(v -> v.getActive() != null && v.getActive())
-                    .flatMap(v -> v.getOptions().stream())
-                    .filter(o -> o.getActive() != null && o.getActive())
-                    .anyMatch(o -> o.getStockQuantity() != null && o.getStockQuantity() > 0);
-        } else {
-            // No variations, check product stock
-            inStock = product.getStockQuantity() != null && product.getStockQuantity() > 0;
-        }
-        response.setInStock(inStock);
-
-        // Set display stock quantity: prioritize variation stock if variations exist
-        if (product.getVariations() != null && !product.getVariations().isEmpty()) {
-            // For variations: find minimum stock from all active options (bottleneck stock)
-            Integer minVariationStock = product.getVariations().stream()
-                    .filter(v -> v.getActive() != null && v.getActive())
-                    .flatMap(v -> v.getOptions().stream())
-                    .filter(o -> o.getActive() != null && o.getActive())
-                    .mapToInt(o -> o.getStockQuantity() != null ? o.getStockQuantity() : 0)
-                    .min()
-                    .orElse(0);
-            response.setStockQuantity(minVariationStock);
-        }
-        // If no variations, stockQuantity is already set to product stock above
+    /**
+     * Map a page of products using the card profile, loading the first image
+     * of every product on the page in a single query
+     */
+    private Page<ProductResponse> mapToCardPage(Page<Product> products) {
+        Map<Long, ProductImage> firstImages = findFirstImages(products.getContent());
+        return products.map(product -> mapToCardResponse(product, firstImages.get(product.getId())));
+    }
 
-        response.setActive(product.getActive());
-        response.setFeatured(product.getFeatured());
-        response.setCreatedAt(product.getCreatedAt());
-        response.setUpdatedAt(product.getUpdatedAt());
+    private List<ProductResponse> mapToCardList(List<Product> products) {
+        Map<Long, ProductImage> firstImages = findFirstImages(products);
+        return products.stream()
+                .map(product -> mapToCardResponse(product, firstImages.get(product.getId())))
+                .collect(Collectors.toList());
+    }
 
-        if (product.getCategory() != null) {
-            response.setCategoryId(product.getCategory().getId());
-            response.setCategoryName(product.getCategory().getName());
-        }
+    private Map<Long, ProductImage> findFirstImages(List<Product> products) {
+        if (products.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        // Ties on display order resolve to the lowest image id
+        return productImageRepository.findFirstImagesByProductIds(productIds).stream()
+                .collect(Collectors.toMap(
+                        img -> img.getProduct().getId(),
+                        img -> img,
+                        (a, b) -> a.getId() <= b.getId() ? a : b));
+    }
 
-        if (product.getSubCategory() != null) {
-            response.setSubCategoryId(product.getSubCategory().getId());
-            response.setSubCategoryName(product.getSubCategory().getName());
-        }
+    /**
+     * Listing (card) mapping: core columns, denormalized availability and the first image only.
+     * Does not initialize images, variations, combinations or specifications.
+     */
+    private ProductResponse mapToCardResponse(Product product, ProductImage firstImage) {
+        ProductResponse response = mapCoreFields(product);
+        response.setImages(firstImage != null
+                ? List.of(mapImageToResponse(firstImage))
+                : Collections.emptyList());
+        return response;
+    }
 
-        if (product.getVendor() != null) {
-            response.setVendorId(product.getVendor().getId());
-            response.setVendorName(product.getVendor().getName());
-        }
+    private ProductImageResponse mapImageToResponse(ProductImage img) {
+        // If image URL is relative (starts with /uploads), keep it as-is
+        // Frontend will handle prepending the API base URL
+        // If it's an external URL (http/https), use as-is
+        return new ProductImageResponse(
+                img.getId(),
+                img.getImageUrl(),
+                img.getAltText(),
+                img.getDisplayOrder(),
+                img.getThumbnailUrl(),
+                img.getCardUrl(),
+                img.getDetailUrl()
+        );
+    }
 
-        if (product.getLocation() != null) {
-            response.setLocationId(product.getLocation().getId());
-            response.setLocationName(product.getLocation().getName());
-        }
+    /**
+     * Detail mapping: core columns plus images, variations, combinations and specifications
+     */
+    private ProductResponse mapToResponse(Product product) {
+        ProductResponse response = mapCoreFields(product);
 
         // Map images - convert relative paths to absolute API URLs
         if (product.getImages() != null) {
             response.setImages(product.getImages().stream()
-                    .map(img -> {
-                        String imageUrl = img.getImageUrl();
-                        // If image URL is relative (starts with /uploads), keep it as-is
-                        // Frontend will handle prepending the API base URL
-                        // If it's an external URL (http/https), use as-is
-                        return new ProductImageResponse(
-                                img.getId(),
-                                imageUrl,
-                                img.getAltText(),
-                                img.getDisplayOrder()
-                        );
-                    })
+                    .map(this::mapImageToResponse)
                     .collect(Collectors.toList()));
         }
 
@@ -679,6 +689,65 @@ public class ProductService {
         return response;
     }
 
+    /**
+     * Scalar columns, to-one references and denormalized availability shared by all profiles
+     */
+    private ProductResponse mapCoreFields(Product product) {
+        ProductResponse response = new ProductResponse();
+        response.setId(product.getId());
+        response.setTitle(product.getTitle());
+        response.setSlug(product.getSlug());
+        response.setDescription(product.getDescription());
+        response.setDetailedDescription(product.getDetailedDescription());
+        response.setSku(product.getSku());
+        response.setUpc(product.getUpc());
+        response.setRegularPrice(product.getRegularPrice());
+        response.setSalePrice(product.getSalePrice());
+        response.setCostPerItem(product.getCostPerItem());
+        response.setTaxRate(product.getTaxRate());
+        response.setTaxExempt(product.getTaxExempt());
+        response.setVisibleToCustomers(product.getVisibleToCustomers());
+        response.setTrackInventory(product.getTrackInventory());
+        response.setLowStockThreshold(product.getLowStockThreshold());
+
+        // Availability comes from the denormalized columns; rows written before the
+        // columns existed are computed on the fly (not persisted in read-only transactions)
+        if (product.getInStock() == null || product.getTotalAvailableStock() == null) {
+            productAvailabilityService.refresh(product);
+        }
+        response.setInStock(product.getInStock());
+        response.setStockQuantity(product.getTotalAvailableStock());
+        response.setMinPrice(product.getMinPrice());
+        response.setMaxPrice(product.getMaxPrice());
+
+        response.setActive(product.getActive());
+        response.setFeatured(product.getFeatured());
+        response.setCreatedAt(product.getCreatedAt());
+        response.setUpdatedAt(product.getUpdatedAt());
+
+        if (product.getCategory() != null) {
+            response.setCategoryId(product.getCategory().getId());
+            response.setCategoryName(product.getCategory().getName());
+        }
+
+        if (product.getSubCategory() != null) {
+            response.setSubCategoryId(product.getSubCategory().getId());
+            response.setSubCategoryName(product.getSubCategory().getName());
+        }
+
+        if (product.getVendor() != null) {
+            response.setVendorId(product.getVendor().getId());
+            response.setVendorName(product.getVendor().getName());
+        }
+
+        if (product.getLocation() != null) {
+            response.setLocationId(product.getLocation().getId());
+            response.setLocationName(product.getLocation().getName());
+        }
+
+        return response;
+    }
+
     @Transactional(readOnly = true)
     public List<ProductResponse> getRelatedProducts(Long productId, int limit) {
         Product product = productRepository.findById(productId)
@@ -696,8 +765,6 @@ public class ProductService {
                 productId,
                 pageable);
 
-        return relatedProducts.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToCardList(relatedProducts);
     }
 }
@@ -0,0 +1,156 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.tracing.Spans;
+import com.razorpay.RazorpayException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Direct Razorpay REST calls for background jobs.
+ *
+ * The Razorpay SDK uses a shared HTTP client with fixed timeouts and a fixed host, so
+ * pollers go through this client instead: explicit connect/request timeouts, a circuit
+ * breaker that stops hammering the gateway during an outage, a timer per call
+ * (razorpay.api.requests, tagged by operation and outcome) and a configurable base URL
+ * that can point at a local stub. Each call is also a client span in the current trace.
+ */
+@Component
+@Slf4j
+public class RazorpayApiClient {
+
+    private static final String METRIC = "razorpay.api.requests";
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String authorization;
+    private final Duration requestTimeout;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Spans spans;
+
+    public RazorpayApiClient(@Value("${razorpay.api.base-url:https://api.razorpay.com/v1}") String baseUrl,
+                             @Value("${razorpay.key-id}") String keyId,
+                             @Value("${razorpay.key-secret}") String keySecret,
+                             @Value("${razorpay.api.connect-timeout-ms:2000}") long connectTimeoutMs,
+                             @Value("${razorpay.api.request-timeout-ms:5000}") long requestTimeoutMs,
+                             @Value("${razorpay.api.circuit.failure-threshold:5}") int failureThreshold,
+                             @Value("${razorpay.api.circuit.open-seconds:60}") long openSeconds,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             Spans spans) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.circuitBreaker = new CircuitBreaker("razorpay", failureThreshold, Duration.ofSeconds(openSeconds));
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.spans = spans;
+
+        Gauge.builder("razorpay.api.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to Razorpay are being rejected by the circuit breaker")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * Fetch a refund (GET /refunds/{id})
+     * @throws CircuitBreaker.OpenException if the gateway is considered down
+     */
+    public JSONObject fetchRefund(String razorpayRefundId) throws RazorpayException {
+        return get("fetch_refund", "/refunds/" + URLEncoder.encode(razorpayRefundId, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One page of payments created in [from, to] (GET /payments), newest first
+     * @param from Window start, epoch seconds
+     * @param to Window end, epoch seconds
+     * @param count Page size (Razorpay allows at most 100)
+     * @param skip Number of payments to skip
+     * @throws CircuitBreaker.OpenException if the gateway is considered down
+     */
+    public JSONObject listPayments(long from, long to, int count, int skip) throws RazorpayException {
+        return get("list_payments", "/payments?from=" + from + "&to=" + to + "&count=" + count + "&skip=" + skip);
+    }
+
+    private JSONObject get(String operation, String path) throws RazorpayException {
+        return spans.client("razorpay " + operation, "razorpay", () -> call(operation, path));
+    }
+
+    private JSONObject call(String operation, String path) throws RazorpayException {
+        try {
+            circuitBreaker.acquire();
+        } catch (CircuitBreaker.OpenException e) {
+            meterRegistry.counter(METRIC + ".rejected", "operation", operation).increment();
+            throw e;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status >= 500 || status == 429) {
+                circuitBreaker.onFailure();
+                outcome = "server_error";
+                throw new RazorpayException("Razorpay " + operation + " failed with HTTP " + status);
+            }
+            // A 4xx is an answer about this request, not a sign the gateway is unhealthy
+            circuitBreaker.onSuccess();
+            if (status >= 400) {
+                outcome = "client_error";
+                throw new RazorpayException("Razorpay " + operation + " failed with HTTP " + status + ": " + response.body());
+            }
+            JSONObject body = new JSONObject(response.body());
+            outcome = "success";
+            return body;
+        } catch (HttpTimeoutException e) {
+            circuitBreaker.onFailure();
+            outcome = "timeout";
+            throw new RazorpayException("Razorpay " + operation + " timed out", e);
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            outcome = "io_error";
+            throw new RazorpayException("Razorpay " + operation + " failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onFailure();
+            throw new RazorpayException("Razorpay " + operation + " interrupted", e);
+        } catch (JSONException e) {
+            throw new RazorpayException("Razorpay " + operation + " returned an unreadable body", e);
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Razorpay REST calls made by background jobs")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
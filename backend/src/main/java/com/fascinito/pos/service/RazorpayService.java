@@ -11,6 +11,7 @@ import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.OrderRepository;
 import com.fascinito.pos.repository.PaymentRepository;
 import com.fascinito.pos.repository.UserRepository;
+import com.fascinito.pos.tracing.Spans;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,7 @@ public class RazorpayService {
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final Spans spans;
 
     @Value("${razorpay.key-id}")
     private String keyId;
@@ -81,7 +83,8 @@ public class RazorpayService {
         orderRequest.put("notes", notes);
 
         // Create order via Razorpay API
-        com.razorpay.Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+        com.razorpay.Order razorpayOrder = spans.client("razorpay orders.create", "razorpay",
+                () -> razorpayClient.orders.create(orderRequest));
         String razorpayOrderId = razorpayOrder.get("id");
 
         log.info("Razorpay order created: {}", razorpayOrderId);
@@ -97,6 +100,9 @@ public class RazorpayService {
                         .build());
 
         payment.setRazorpayOrderId(razorpayOrderId);
+        // What Razorpay was asked to collect; captures are checked against it
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency(currency);
         paymentRepository.save(payment);
 
         // Build response
@@ -207,6 +213,109 @@ public class RazorpayService {
         return result;
     }
 
+    /**
+     * Apply a payment.captured / order.paid webhook (or a capture found by reconciliation):
+     * completes the payment even if the client never called back to verify it.
+     * A capture that does not match the payment's amount and currency, or that arrives for an
+     * order no longer awaiting payment (e.g. cancelled meanwhile), is not completed: the
+     * payment is set to NEEDS_REVIEW, and a cancelled order is flagged for refund.
+     * @param paymentEntity The "payment.entity" object of the webhook payload
+     * @return false if the payment does not belong to one of our orders
+     */
+    @Transactional
+    public boolean applyPaymentCaptured(JSONObject paymentEntity) {
+        Payment payment = findWebhookPayment(paymentEntity);
+        if (payment == null) {
+            return false;
+        }
+        if (payment.getStatus() == Payment.PaymentStatus.COMPLETED
+                || payment.getStatus() == Payment.PaymentStatus.REFUNDED
+                || payment.getStatus() == Payment.PaymentStatus.NEEDS_REVIEW) {
+            return true;
+        }
+
+        String razorpayPaymentId = paymentEntity.getString("id");
+        payment.setRazorpayPaymentId(razorpayPaymentId);
+        payment.setTransactionId(razorpayPaymentId);
+        Order order = payment.getOrder();
+
+        String mismatch = captureMismatch(payment, order, paymentEntity);
+        if (mismatch != null) {
+            payment.setStatus(Payment.PaymentStatus.NEEDS_REVIEW);
+            payment.setFailureReason(mismatch);
+            paymentRepository.save(payment);
+            if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                order.setRefundStatus("PENDING");
+                orderRepository.save(order);
+            }
+            log.error("Payment {} captured for order {} needs review: {}", razorpayPaymentId, order.getId(), mismatch);
+            return true;
+        }
+
+        payment.setFailureReason(null);
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        paymentRepository.save(payment);
+
+        if (order.getStatus() == Order.OrderStatus.PENDING) {
+            order.setStatus(Order.OrderStatus.CONFIRMED);
+            orderRepository.save(order);
+        }
+
+        log.info("Payment {} captured for order {} (webhook)", razorpayPaymentId, order.getId());
+        return true;
+    }
+
+    /**
+     * Why a capture cannot complete the payment, or null if it can
+     */
+    private static String captureMismatch(Payment payment, Order order, JSONObject paymentEntity) {
+        long expectedAmount = payment.getAmount().multiply(new BigDecimal("100")).longValue();
+        long capturedAmount = paymentEntity.optLong("amount", -1);
+        String capturedCurrency = paymentEntity.optString("currency", null);
+        if (capturedAmount != expectedAmount || capturedCurrency == null
+                || !capturedCurrency.equalsIgnoreCase(payment.getCurrency())) {
+            return "Captured " + capturedAmount + " " + capturedCurrency + ", expected "
+                    + expectedAmount + " " + payment.getCurrency();
+        }
+        if (order.getStatus() != Order.OrderStatus.PENDING && order.getStatus() != Order.OrderStatus.CONFIRMED) {
+            return "Captured for an order in status " + order.getStatus();
+        }
+        return null;
+    }
+
+    /**
+     * Apply a payment.failed webhook. A failed attempt never overrides a completed payment
+     * (the customer may have retried successfully).
+     * @param paymentEntity The "payment.entity" object of the webhook payload
+     * @return false if the payment does not belong to one of our orders
+     */
+    @Transactional
+    public boolean applyPaymentFailed(JSONObject paymentEntity) {
+        Payment payment = findWebhookPayment(paymentEntity);
+        if (payment == null) {
+            return false;
+        }
+        if (payment.getStatus() != Payment.PaymentStatus.PENDING
+                && payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
+            return true;
+        }
+
+        payment.setStatus(Payment.PaymentStatus.FAILED);
+        payment.setFailureReason(paymentEntity.optString("error_description", "Payment failed"));
+        paymentRepository.save(payment);
+
+        log.info("Payment {} failed for order {} (webhook)", paymentEntity.optString("id"), payment.getOrder().getId());
+        return true;
+    }
+
+    private Payment findWebhookPayment(JSONObject paymentEntity) {
+        String razorpayOrderId = paymentEntity.optString("order_id", null);
+        if (razorpayOrderId == null) {
+            return null;
+        }
+        return paymentRepository.findByRazorpayOrderId(razorpayOrderId).orElse(null);
+    }
+
     /**
      * Handle payment failure
      */
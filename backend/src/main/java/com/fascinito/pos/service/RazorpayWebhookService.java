@@ -0,0 +1,292 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.RazorpayWebhookEvent;
+import com.fascinito.pos.exception.BadRequestException;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.PaymentRepository;
+import com.fascinito.pos.repository.RazorpayWebhookEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Razorpay webhook ingestion.
+ *
+ * Deliveries are verified (HMAC-SHA256 of the raw body with the webhook secret), deduplicated
+ * by event id and stored in an inbox table; the HTTP call returns as soon as the row is
+ * committed. A scheduled drain then applies events to Payment / OrderRefund state, in arrival
+ * order per Razorpay order: an event that fails is retried with backoff and holds back later
+ * events for the same order until it succeeds or gives up.
+ */
+@Service
+@Slf4j
+public class RazorpayWebhookService {
+
+    public static final String SIGNATURE_HEADER = "X-Razorpay-Signature";
+    public static final String EVENT_ID_HEADER = "X-Razorpay-Event-Id";
+
+    private static final int DRAIN_BATCH_SIZE = 100;
+
+    private final RazorpayWebhookEventRepository webhookEventRepository;
+    private final PaymentRepository paymentRepository;
+    private final RazorpayService razorpayService;
+    private final RefundService refundService;
+    private final TransactionTemplate transaction;
+    private final JobRunner jobRunner;
+
+    @Value("${razorpay.webhook.secret:}")
+    private String webhookSecret;
+
+    @Value("${razorpay.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${razorpay.webhook.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    public RazorpayWebhookService(RazorpayWebhookEventRepository webhookEventRepository,
+                                  PaymentRepository paymentRepository,
+                                  RazorpayService razorpayService,
+                                  RefundService refundService,
+                                  PlatformTransactionManager transactionManager,
+                                  JobRunner jobRunner) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.paymentRepository = paymentRepository;
+        this.razorpayService = razorpayService;
+        this.refundService = refundService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.jobRunner = jobRunner;
+    }
+
+    /**
+     * Verify a delivery and store it in the inbox
+     * @param body Raw request body, exactly as signed by Razorpay
+     * @param signature X-Razorpay-Signature header
+     * @param eventId X-Razorpay-Event-Id header (falls back to a hash of the body)
+     * @return false if the event was already received (a redelivery)
+     * @throws SecurityException if the signature does not match
+     */
+    public boolean receive(byte[] body, String signature, String eventId) {
+        if (!isSignatureValid(body, signature)) {
+            throw new SecurityException("Invalid webhook signature");
+        }
+
+        String payload = new String(body, StandardCharsets.UTF_8);
+        JSONObject json;
+        try {
+            json = new JSONObject(payload);
+        } catch (JSONException e) {
+            throw new BadRequestException("Webhook body is not valid JSON");
+        }
+        String id = eventId != null && !eventId.isBlank() ? eventId : "sha256:" + sha256(body);
+        if (webhookEventRepository.existsByEventId(id)) {
+            log.debug("Duplicate Razorpay webhook {}", id);
+            return false;
+        }
+
+        String eventType = json.optString("event", "unknown");
+        try {
+            webhookEventRepository.saveAndFlush(RazorpayWebhookEvent.builder()
+                    .eventId(id)
+                    .eventType(eventType)
+                    .orderingKey(orderingKey(json, id))
+                    .payload(payload)
+                    .status(RazorpayWebhookEvent.Status.RECEIVED)
+                    .receivedAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Concurrent redelivery won the insert
+            log.debug("Duplicate Razorpay webhook {}", id);
+            return false;
+        }
+        log.info("Received Razorpay webhook {} ({})", id, eventType);
+        return true;
+    }
+
+    /**
+     * Apply received events, oldest first. Runs on one instance at a time (JobRunner lease),
+     * which is what keeps events for the same order in order across the cluster.
+     */
+    @Scheduled(fixedDelayString = "${razorpay.webhook.poll-interval-ms:1000}")
+    public void processInbox() {
+        jobRunner.runExclusive("razorpay-webhook-inbox", this::drainInbox);
+    }
+
+    private void drainInbox() {
+        List<RazorpayWebhookEvent> batch = webhookEventRepository.findDue(
+                RazorpayWebhookEvent.Status.RECEIVED, LocalDateTime.now(), PageRequest.of(0, DRAIN_BATCH_SIZE));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Keys whose event failed in this run: their later events wait for the retry
+        Set<String> blocked = new HashSet<>();
+        for (RazorpayWebhookEvent event : batch) {
+            if (blocked.contains(event.getOrderingKey())) {
+                continue;
+            }
+            if (!process(event.getId())) {
+                blocked.add(event.getOrderingKey());
+            }
+        }
+    }
+
+    /**
+     * Apply one event in its own transaction
+     * @return false if it failed and will be retried
+     */
+    private boolean process(Long id) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                RazorpayWebhookEvent event = webhookEventRepository.findById(id).orElse(null);
+                if (event == null || event.getStatus() != RazorpayWebhookEvent.Status.RECEIVED) {
+                    return;
+                }
+                boolean applied = apply(event.getEventType(), new JSONObject(event.getPayload()));
+                event.setStatus(applied ? RazorpayWebhookEvent.Status.PROCESSED : RazorpayWebhookEvent.Status.IGNORED);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(null);
+                event.setProcessedAt(LocalDateTime.now());
+                webhookEventRepository.save(event);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            return recordFailure(id, e);
+        }
+    }
+
+    private boolean apply(String eventType, JSONObject json) {
+        JSONObject payload = json.optJSONObject("payload");
+        JSONObject payment = entity(payload, "payment");
+        JSONObject refund = entity(payload, "refund");
+
+        switch (eventType) {
+            case "payment.captured":
+            case "order.paid":
+                return payment != null && razorpayService.applyPaymentCaptured(payment);
+            case "payment.failed":
+                return payment != null && razorpayService.applyPaymentFailed(payment);
+            case "refund.processed":
+                if (refund == null) {
+                    return false;
+                }
+                refundService.applyRefundWebhook(refund, true);
+                return true;
+            case "refund.failed":
+                if (refund == null) {
+                    return false;
+                }
+                refundService.applyRefundWebhook(refund, false);
+                return true;
+            default:
+                log.debug("Ignoring Razorpay webhook event type {}", eventType);
+                return false;
+        }
+    }
+
+    private boolean recordFailure(Long id, RuntimeException error) {
+        try {
+            return Boolean.TRUE.equals(transaction.execute(status -> {
+                RazorpayWebhookEvent event = webhookEventRepository.findById(id).orElse(null);
+                if (event == null || event.getStatus() != RazorpayWebhookEvent.Status.RECEIVED) {
+                    // Applied concurrently by another instance
+                    return true;
+                }
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(error.getMessage());
+                if (attempts >= maxAttempts) {
+                    log.error("Giving up on Razorpay webhook {} after {} attempts: {}",
+                            event.getEventId(), attempts, error.getMessage());
+                    event.setStatus(RazorpayWebhookEvent.Status.FAILED);
+                    webhookEventRepository.save(event);
+                    return true;
+                }
+                long delaySeconds = retryBaseSeconds << Math.min(attempts - 1, 7);
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+                webhookEventRepository.save(event);
+                log.warn("Razorpay webhook {} failed (attempt {}), retrying in {}s: {}",
+                        event.getEventId(), attempts, delaySeconds, error.getMessage());
+                return false;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to record webhook failure for event {}: {}", id, e.getMessage());
+            return false;
+        }
+    }
+
+    private static JSONObject entity(JSONObject payload, String name) {
+        JSONObject wrapper = payload != null ? payload.optJSONObject(name) : null;
+        return wrapper != null ? wrapper.optJSONObject("entity") : null;
+    }
+
+    /**
+     * Events are ordered per Razorpay order, which all payment attempts and refunds of one of
+     * our orders share: payment events carry it as order_id, order events as id, and refund
+     * events are resolved to it through the payment they reference
+     */
+    private String orderingKey(JSONObject json, String eventId) {
+        JSONObject payload = json.optJSONObject("payload");
+        JSONObject payment = entity(payload, "payment");
+        if (payment != null && payment.has("order_id") && !payment.isNull("order_id")) {
+            return payment.getString("order_id");
+        }
+        JSONObject order = entity(payload, "order");
+        if (order != null && order.has("id")) {
+            return order.getString("id");
+        }
+        JSONObject refund = entity(payload, "refund");
+        if (refund != null && refund.has("payment_id")) {
+            String paymentId = refund.getString("payment_id");
+            return paymentRepository.findRazorpayOrderIdByRazorpayPaymentId(paymentId).orElse(paymentId);
+        }
+        if (payment != null && payment.has("id")) {
+            return payment.getString("id");
+        }
+        return eventId;
+    }
+
+    private boolean isSignatureValid(byte[] body, String signature) {
+        if (webhookSecret == null || webhookSecret.isBlank()) {
+            log.warn("Rejecting Razorpay webhook: razorpay.webhook.secret is not configured");
+            return false;
+        }
+        if (signature == null) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = HexFormat.of().formatHex(mac.doFinal(body)).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -1,15 +1,15 @@
 package com.fascinito.pos.service;
 
 import com.fascinito.pos.entity.RefundRetrySchedule;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.job.LeasedJob;
 import com.fascinito.pos.repository.RefundRetryScheduleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Service for handling automatic refund retry scheduling
@@ -20,62 +20,80 @@ import java.util.List;
 @Slf4j
 public class RefundRetryScheduler {
 
+    private static final String JOB_NAME = "refund-retry";
+    private static final int MAX_RETRIES = 5;
+
     private final RefundRetryScheduleRepository refundRetryScheduleRepository;
     private final RefundService refundService;
+    private final JobRunner jobRunner;
 
     /**
      * Scheduled job to retry pending refunds after settlement completes
-     * Runs every hour to check for pending retries
+     * Runs every hour; due retries are claimed in leased batches (safe with several instances)
+     * and each one is retried in its own transaction
      */
     @Scheduled(fixedDelay = 3600000) // 1 hour
-    @Transactional
     public void retryPendingRefunds() {
         log.info("Starting scheduled refund retry check");
 
         try {
-            // Find all pending retries that are due (retryAt <= now)
-            List<RefundRetrySchedule> pendingRetries = refundRetryScheduleRepository
-                    .findByStatusAndRetryAtBefore("PENDING", LocalDateTime.now());
-
-            if (pendingRetries.isEmpty()) {
+            int retried = jobRunner.runLeased(LeasedJob.builder()
+                    .name(JOB_NAME)
+                    .table("refund_retry_schedule")
+                    .dueCondition("status = 'PENDING' AND retry_at <= :now")
+                    .orderBy("retry_at, id")
+                    .batchSize(50)
+                    .processor(ids -> jobRunner.forEachInTransaction(JOB_NAME, ids, this::retry, this::recordFailure))
+                    .build());
+
+            if (retried == 0) {
                 log.debug("No pending refunds to retry");
-                return;
+            } else {
+                log.info("Processed {} refund retries (settlement should be complete)", retried);
             }
 
-            log.info("Found {} refunds ready for retry (settlement should be complete)", pendingRetries.size());
+        } catch (Exception e) {
+            log.error("Error in scheduled refund retry check: {}", e.getMessage(), e);
+        }
+    }
 
-            for (RefundRetrySchedule schedule : pendingRetries) {
-                try {
-                    log.info("Retrying refund {} (settlement should be complete)", schedule.getRefundId());
+    private void retry(Long scheduleId) {
+        RefundRetrySchedule schedule = refundRetryScheduleRepository.findById(scheduleId).orElse(null);
+        if (schedule == null || !"PENDING".equals(schedule.getStatus())) {
+            return;
+        }
 
-                    // Try to process the refund again
-                    refundService.processRefundOnRazorpay(schedule.getRefundId());
+        log.info("Retrying refund {} (settlement should be complete)", schedule.getRefundId());
 
-                    // Mark as completed
-                    schedule.setStatus("COMPLETED");
-                    refundRetryScheduleRepository.save(schedule);
+        // Try to process the refund again
+        refundService.processRefundOnRazorpay(schedule.getRefundId());
 
-                    log.info("Successfully retried refund {}", schedule.getRefundId());
+        // Mark as completed
+        schedule.setStatus("COMPLETED");
+        refundRetryScheduleRepository.save(schedule);
 
-                } catch (Exception e) {
-                    log.error("Retry failed for refund {}: {}", schedule.getRefundId(), e.getMessage(), e);
+        log.info("Successfully retried refund {}", schedule.getRefundId());
+    }
 
-                    // Update retry count and last error
-                    schedule.setRetryCount(schedule.getRetryCount() + 1);
-                    schedule.setLastError(e.getMessage());
+    private void recordFailure(Long scheduleId, RuntimeException error) {
+        RefundRetrySchedule schedule = refundRetryScheduleRepository.findById(scheduleId).orElse(null);
+        if (schedule == null) {
+            return;
+        }
 
-                    // Give up after 5 retries
-                    if (schedule.getRetryCount() >= 5) {
-                        log.warn("Refund {} has failed 5 retries. Marking as FAILED.", schedule.getRefundId());
-                        schedule.setStatus("FAILED");
-                    }
+        log.error("Retry failed for refund {}: {}", schedule.getRefundId(), error.getMessage());
 
-                    refundRetryScheduleRepository.save(schedule);
-                }
-            }
+        // Update retry count and last error; try again on a later run
+        schedule.setRetryCount(schedule.getRetryCount() + 1);
+        schedule.setLastError(error.getMessage());
+        schedule.setRetryAt(LocalDateTime.now().plusHours(1));
 
-        } catch (Exception e) {
-            log.error("Error in scheduled refund retry check: {}", e.getMessage(), e);
+        // Give up after 5 retries
+        if (schedule.getRetryCount() >= MAX_RETRIES) {
+            log.warn("Refund {} has failed {} retries. Marking as FAILED.", schedule.getRefundId(), MAX_RETRIES);
+            schedule.setStatus("FAILED");
         }
+
+        refundRetryScheduleRepository.save(schedule);
     }
 }
@@ -3,14 +3,17 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.entity.OrderRefund;
 import com.fascinito.pos.entity.RefundRetrySchedule;
 import com.fascinito.pos.exception.ResourceNotFoundException;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.job.LeasedJob;
 import com.fascinito.pos.repository.OrderRefundRepository;
 import com.fascinito.pos.repository.RefundRetryScheduleRepository;
+import com.fascinito.pos.tracing.Spans;
 import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -20,19 +23,28 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Service for handling Razorpay refund operations and periodic status tracking
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RefundService {
 
     private final RazorpayClient razorpayClient;
+    private final RazorpayApiClient razorpayApiClient;
     private final OrderRefundRepository orderRefundRepository;
     private final RefundRetryScheduleRepository refundRetryScheduleRepository;
+    private final Executor refundStatusExecutor;
+    private final JobRunner jobRunner;
+    private final Spans spans;
 
     @Autowired
     @Lazy
@@ -44,6 +56,34 @@ public class RefundService {
     @Value("${razorpay.key-secret}")
     private String keySecret;
 
+    @Value("${razorpay.refunds.reconcile-grace-minutes:30}")
+    private long reconcileGraceMinutes;
+
+    @Value("${razorpay.refunds.poll-batch-size:200}")
+    private int pollBatchSize;
+
+    @Value("${razorpay.refunds.poll-backoff-base-minutes:5}")
+    private long pollBackoffBaseMinutes;
+
+    @Value("${razorpay.refunds.poll-backoff-max-minutes:360}")
+    private long pollBackoffMaxMinutes;
+
+    public RefundService(RazorpayClient razorpayClient,
+                         RazorpayApiClient razorpayApiClient,
+                         OrderRefundRepository orderRefundRepository,
+                         RefundRetryScheduleRepository refundRetryScheduleRepository,
+                         @Qualifier("refundStatusExecutor") Executor refundStatusExecutor,
+                         JobRunner jobRunner,
+                         Spans spans) {
+        this.razorpayClient = razorpayClient;
+        this.razorpayApiClient = razorpayApiClient;
+        this.orderRefundRepository = orderRefundRepository;
+        this.refundRetryScheduleRepository = refundRetryScheduleRepository;
+        this.refundStatusExecutor = refundStatusExecutor;
+        this.jobRunner = jobRunner;
+        this.spans = spans;
+    }
+
     /**
      * Create refund on Razorpay
      * This should be called after OrderRefund is created in OrderService
@@ -95,7 +135,8 @@ public class RefundService {
             log.debug("Refund request payload being sent to Razorpay: {}", refundRequest.toString());
             log.info("DEBUG: Calling refund with paymentId={}, request={}", razorpayPaymentId, refundRequest);
 
-            razorpayRefund = razorpayClient.payments.refund(razorpayPaymentId, refundRequest);
+            razorpayRefund = spans.client("razorpay payments.refund", "razorpay",
+                    () -> razorpayClient.payments.refund(razorpayPaymentId, refundRequest));
             log.info("DEBUG: Refund API call succeeded");
             String razorpayRefundId = razorpayRefund.get("id");
 
@@ -143,51 +184,125 @@ public class RefundService {
     }
 
     /**
-     * Scheduled job to check refund status from Razorpay
-     * Runs every 5 minutes to check pending refunds
+     * Apply a refund.processed / refund.failed webhook
+     * @param refundEntity The "refund.entity" object of the webhook payload
+     * @param processed True for refund.processed, false for refund.failed
+     * @throws IllegalStateException if the refund is not known yet (the webhook can arrive before
+     *         processRefundOnRazorpay has stored the Razorpay refund id); the inbox retries it
      */
-    @Scheduled(fixedDelay = 300000) // 5 minutes
     @Transactional
+    public void applyRefundWebhook(JSONObject refundEntity, boolean processed) {
+        String razorpayRefundId = refundEntity.getString("id");
+        OrderRefund refund = orderRefundRepository.findByRazorpayRefundId(razorpayRefundId)
+                .orElseThrow(() -> new IllegalStateException("Refund " + razorpayRefundId + " not found"));
+
+        if (refund.getRefundStatus() == OrderRefund.RefundStatus.SUCCESS
+                || refund.getRefundStatus() == OrderRefund.RefundStatus.FAILED) {
+            log.debug("Refund {} already {}, ignoring webhook", refund.getId(), refund.getRefundStatus());
+            return;
+        }
+
+        if (processed) {
+            orderService.updateRefundStatus(refund.getId(), "SUCCESS", razorpayRefundId, null);
+        } else {
+            orderService.updateRefundStatus(refund.getId(), "FAILED", razorpayRefundId, "Refund failed on Razorpay");
+        }
+        log.info("Updated refund {} status from webhook (processed: {})", refund.getId(), processed);
+    }
+
+    /**
+     * Scheduled fallback for refunds whose webhook never arrived: polls refunds that have
+     * been PROCESSING for longer than the grace period (webhooks normally settle them first).
+     * Refunds are claimed in leased batches (JobRunner), so instances split the work.
+     * Gateway calls fan out over the bounded refundStatusExecutor; each refund that is still
+     * pending backs off exponentially (next_status_check_at), and while the Razorpay circuit
+     * is open the remaining checks are deferred without counting against the refund.
+     */
+    @Scheduled(fixedDelayString = "${razorpay.refunds.reconcile-interval-ms:300000}")
     public void checkRefundStatus() {
         log.info("Starting scheduled refund status check");
 
         try {
-            List<OrderRefund> pendingRefunds = orderRefundRepository.findByRefundStatus(OrderRefund.RefundStatus.PROCESSING);
-
-            if (pendingRefunds.isEmpty()) {
+            int checked = jobRunner.runLeased(LeasedJob.builder()
+                    .name("refund-status-check")
+                    .table("order_refunds")
+                    .dueCondition("refund_status = 'PROCESSING' AND updated_at < :updatedBefore"
+                            + " AND (next_status_check_at IS NULL OR next_status_check_at <= :now)")
+                    .parameters(now -> Map.of("updatedBefore", now.minusMinutes(reconcileGraceMinutes)))
+                    .orderBy("next_status_check_at NULLS FIRST, id")
+                    .batchSize(pollBatchSize)
+                    .processor(this::checkRefundStatuses)
+                    .build());
+
+            if (checked == 0) {
                 log.debug("No pending refunds to check");
-                return;
             }
-
-            log.info("Checking status for {} pending refunds", pendingRefunds.size());
-
-            for (OrderRefund refund : pendingRefunds) {
-                try {
-                    checkSingleRefundStatus(refund);
-                } catch (Exception e) {
-                    log.error("Error checking refund status for refund ID {}: {}", refund.getId(), e.getMessage(), e);
-                }
-            }
-
         } catch (Exception e) {
             log.error("Error in scheduled refund status check: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Check status of a single refund on Razorpay
+     * Check one claimed batch of refunds
      */
-    private void checkSingleRefundStatus(OrderRefund refund) throws RazorpayException {
-        String razorpayRefundId = refund.getRazorpayRefundId();
+    private void checkRefundStatuses(List<Long> refundIds) {
+        List<OrderRefundRepository.StatusCheck> dueRefunds = orderRefundRepository.findStatusChecks(refundIds);
+        log.info("Checking status for {} pending refunds", dueRefunds.size());
+
+        List<CompletableFuture<JSONObject>> fetches = new ArrayList<>(dueRefunds.size());
+        for (OrderRefundRepository.StatusCheck refund : dueRefunds) {
+            String razorpayRefundId = refund.getRazorpayRefundId();
+            fetches.add(razorpayRefundId == null
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.supplyAsync(() -> fetchRefund(razorpayRefundId), refundStatusExecutor));
+        }
 
-        if (razorpayRefundId == null) {
-            log.warn("Refund ID {} has no Razorpay refund ID", refund.getId());
-            return;
+        int deferred = 0;
+        for (int i = 0; i < dueRefunds.size(); i++) {
+            OrderRefundRepository.StatusCheck refund = dueRefunds.get(i);
+            try {
+                JSONObject razorpayRefund = fetches.get(i).join();
+                if (razorpayRefund == null) {
+                    log.warn("Refund ID {} has no Razorpay refund ID", refund.getId());
+                    scheduleNextStatusCheck(refund);
+                } else if (!applyRefundStatus(refund.getId(), razorpayRefund)) {
+                    scheduleNextStatusCheck(refund);
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof CircuitBreaker.OpenException) {
+                    deferred++;
+                    deferStatusCheck(refund);
+                    continue;
+                }
+                log.error("Error checking refund status for refund ID {}: {}", refund.getId(),
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                scheduleNextStatusCheck(refund);
+            } catch (Exception e) {
+                log.error("Error checking refund status for refund ID {}: {}", refund.getId(), e.getMessage(), e);
+                scheduleNextStatusCheck(refund);
+            }
         }
 
-        // Fetch refund status from Razorpay
-        com.razorpay.Refund razorpayRefund = razorpayClient.refunds.fetch(razorpayRefundId);
-        String status = razorpayRefund.get("status");
+        if (deferred > 0) {
+            log.warn("Razorpay circuit open: deferred {} refund status checks", deferred);
+        }
+    }
+
+    private JSONObject fetchRefund(String razorpayRefundId) {
+        try {
+            return razorpayApiClient.fetchRefund(razorpayRefundId);
+        } catch (RazorpayException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Apply a fetched Razorpay refund to our refund
+     * @return false if the refund is still pending on Razorpay
+     */
+    private boolean applyRefundStatus(Long refundId, JSONObject razorpayRefund) {
+        String razorpayRefundId = razorpayRefund.optString("id");
+        String status = razorpayRefund.optString("status");
 
         log.info("Razorpay refund {} status: {}", razorpayRefundId, status);
 
@@ -195,28 +310,39 @@ public class RefundService {
         String newStatus;
         String failureReason = null;
 
-        switch (status.toLowerCase()) {
+        switch (status.toLowerCase(Locale.ROOT)) {
             case "processed":
                 newStatus = "SUCCESS";
                 break;
             case "failed":
                 newStatus = "FAILED";
-                failureReason = razorpayRefund.has("failure_reason") ?
-                        razorpayRefund.get("failure_reason").toString() : "Refund failed";
+                failureReason = razorpayRefund.optString("failure_reason", "Refund failed");
                 break;
             case "pending":
                 // Still processing, keep as PROCESSING
                 log.debug("Refund {} still processing on Razorpay", razorpayRefundId);
-                return;
+                return false;
             default:
                 log.warn("Unknown refund status from Razorpay: {}", status);
-                return;
+                return false;
         }
 
         // Update refund status
-        orderService.updateRefundStatus(refund.getId(), newStatus, razorpayRefundId, failureReason);
+        orderService.updateRefundStatus(refundId, newStatus, razorpayRefundId, failureReason);
+
+        log.info("Updated refund {} status to {}", refundId, newStatus);
+        return true;
+    }
+
+    private void deferStatusCheck(OrderRefundRepository.StatusCheck refund) {
+        int attempts = refund.getStatusCheckAttempts() != null ? refund.getStatusCheckAttempts() : 0;
+        orderRefundRepository.scheduleStatusCheck(refund.getId(), attempts, LocalDateTime.now().plusMinutes(1));
+    }
 
-        log.info("Updated refund {} status to {}", refund.getId(), newStatus);
+    private void scheduleNextStatusCheck(OrderRefundRepository.StatusCheck refund) {
+        int attempts = (refund.getStatusCheckAttempts() != null ? refund.getStatusCheckAttempts() : 0) + 1;
+        long delayMinutes = Math.min(pollBackoffBaseMinutes << Math.min(attempts - 1, 16), pollBackoffMaxMinutes);
+        orderRefundRepository.scheduleStatusCheck(refund.getId(), attempts, LocalDateTime.now().plusMinutes(delayMinutes));
     }
 
     /**
@@ -233,7 +359,8 @@ public class RefundService {
      */
     @Transactional(readOnly = true)
     public String getRefundStatusFromRazorpay(String razorpayRefundId) throws RazorpayException {
-        com.razorpay.Refund razorpayRefund = razorpayClient.refunds.fetch(razorpayRefundId);
+        com.razorpay.Refund razorpayRefund = spans.client("razorpay refunds.fetch", "razorpay",
+                () -> razorpayClient.refunds.fetch(razorpayRefundId));
         return razorpayRefund.get("status").toString();
     }
 
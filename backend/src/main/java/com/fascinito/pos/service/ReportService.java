@@ -4,6 +4,7 @@ import com.fascinito.pos.dto.report.*;
 import com.fascinito.pos.entity.Order;
 import com.fascinito.pos.entity.OrderItem;
 import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.jfr.ReportStageEvent;
 import com.fascinito.pos.repository.OrderRepository;
 import com.fascinito.pos.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReportService {
 
+    private static final String STAGE_SOURCE = "ReportService";
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
 
@@ -27,8 +30,11 @@ public class ReportService {
     public ReportSummaryDTO getReportSummary(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating report summary from {} to {}", startDate, endDate);
         
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "summary", "load");
         List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
+        stage.finish(orders.size());
         
+        stage = ReportStageEvent.start(STAGE_SOURCE, "summary", "aggregate");
         double totalRevenue = 0.0;
         double totalCost = 0.0;
         long totalItems = 0;
@@ -58,6 +64,7 @@ public class ReportService {
         double totalProfit = totalRevenue - totalCost;
         double avgOrderValue = orders.isEmpty() ? 0.0 : totalRevenue / orders.size();
         double profitMargin = (totalRevenue > 0) ? (totalProfit / totalRevenue) * 100 : 0.0;
+        stage.finish(1);
         
         return ReportSummaryDTO.builder()
                 .totalRevenue(totalRevenue)
@@ -73,7 +80,11 @@ public class ReportService {
     public List<SalesReportDTO> getSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating sales report from {} to {}", startDate, endDate);
         
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "sales", "load");
         List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
+        stage.finish(orders.size());
+
+        stage = ReportStageEvent.start(STAGE_SOURCE, "sales", "aggregate");
         List<SalesReportDTO> salesReports = new ArrayList<>();
         
         for (Order order : orders) {
@@ -112,6 +123,7 @@ public class ReportService {
         
         // Sort by date descending
         salesReports.sort((a, b) -> b.getDate().compareTo(a.getDate()));
+        stage.finish(salesReports.size());
         
         return salesReports;
     }
@@ -120,7 +132,11 @@ public class ReportService {
     public List<InventoryReportDTO> getInventoryReport() {
         log.info("Generating inventory report");
         
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "inventory", "load");
         List<Product> products = productRepository.findAll();
+        stage.finish(products.size());
+
+        stage = ReportStageEvent.start(STAGE_SOURCE, "inventory", "aggregate");
         List<InventoryReportDTO> inventoryReports = new ArrayList<>();
         
         for (Product product : products) {
@@ -153,6 +169,7 @@ public class ReportService {
         
         // Sort by stock quantity ascending (show critical items first)
         inventoryReports.sort(Comparator.comparingInt(InventoryReportDTO::getStockQuantity));
+        stage.finish(inventoryReports.size());
         
         return inventoryReports;
     }
@@ -161,9 +178,12 @@ public class ReportService {
     public List<CategoryPerformanceDTO> getCategoryPerformance(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating category performance report from {} to {}", startDate, endDate);
         
+        ReportStageEvent stage = ReportStageEvent.start(STAGE_SOURCE, "category_performance", "load");
         List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
+        stage.finish(orders.size());
         
         // Group by category
+        stage = ReportStageEvent.start(STAGE_SOURCE, "category_performance", "aggregate");
         Map<String, CategoryPerformanceData> categoryMap = new HashMap<>();
         
         for (Order order : orders) {
@@ -215,6 +235,7 @@ public class ReportService {
                 })
                 .sorted((a, b) -> Double.compare(b.getRevenue(), a.getRevenue()))
                 .collect(Collectors.toList());
+        stage.finish(result.size());
         
         return result;
     }
@@ -0,0 +1,105 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.diagnostics.SlowQueryReportResponse;
+import com.fascinito.pos.dto.diagnostics.SlowQueryResponse;
+import com.fascinito.pos.dto.diagnostics.SlowQueryShapeResponse;
+import com.fascinito.pos.jdbc.SlowQueryMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read side of the slow query capture (see SlowQueryMonitor): recent slow statements with their
+ * plans, and the same statements grouped by query shape, costliest first.
+ */
+@Service
+@RequiredArgsConstructor
+public class SlowQueryService {
+
+    // Absent when sql.inspection or sql.inspection.slow-query is disabled
+    private final ObjectProvider<SlowQueryMonitor> slowQueryMonitor;
+
+    /**
+     * @param limit Most recent statements to list; shapes always cover the whole buffer
+     */
+    public SlowQueryReportResponse report(int limit) {
+        SlowQueryMonitor monitor = monitor();
+        List<SlowQueryMonitor.SlowQuery> recent = monitor.recent();
+
+        List<SlowQueryResponse> queries = recent.stream()
+                .limit(Math.max(0, limit))
+                .map(query -> toResponse(query, monitor.plan(query.shape())))
+                .toList();
+
+        Map<String, List<SlowQueryMonitor.SlowQuery>> byShape = new LinkedHashMap<>();
+        for (SlowQueryMonitor.SlowQuery query : recent) {
+            byShape.computeIfAbsent(query.shape(), shape -> new ArrayList<>()).add(query);
+        }
+        List<SlowQueryShapeResponse> shapes = byShape.entrySet().stream()
+                .map(entry -> toShapeResponse(entry.getKey(), entry.getValue(), monitor.plan(entry.getKey())))
+                .sorted(Comparator.comparing(SlowQueryShapeResponse::getTotalMs).reversed())
+                .toList();
+
+        return SlowQueryReportResponse.builder()
+                .thresholdMs(monitor.getThreshold().toMillis())
+                .captured(monitor.getCaptured())
+                .queries(queries)
+                .shapes(shapes)
+                .build();
+    }
+
+    public void clear() {
+        monitor().clear();
+    }
+
+    private SlowQueryMonitor monitor() {
+        SlowQueryMonitor monitor = slowQueryMonitor.getIfAvailable();
+        if (monitor == null) {
+            throw new IllegalStateException("Slow query capture is disabled (sql.inspection.slow-query.enabled)");
+        }
+        return monitor;
+    }
+
+    private SlowQueryResponse toResponse(SlowQueryMonitor.SlowQuery query, Optional<SlowQueryMonitor.Plan> plan) {
+        return SlowQueryResponse.builder()
+                .shape(query.shape())
+                .parameterTypes(query.parameterTypes())
+                .durationMs(query.durationMs())
+                .caller(query.caller())
+                .thread(query.thread())
+                .batch(query.batch())
+                .capturedAt(query.capturedAt())
+                .plan(plan.map(SlowQueryMonitor.Plan::text).orElse(null))
+                .planCapturedAt(plan.map(SlowQueryMonitor.Plan::capturedAt).orElse(null))
+                .build();
+    }
+
+    // Queries arrive newest first, so the first one is the last seen
+    private SlowQueryShapeResponse toShapeResponse(String shape, List<SlowQueryMonitor.SlowQuery> queries,
+                                                   Optional<SlowQueryMonitor.Plan> plan) {
+        long total = queries.stream().mapToLong(SlowQueryMonitor.SlowQuery::durationMs).sum();
+        long max = queries.stream().mapToLong(SlowQueryMonitor.SlowQuery::durationMs).max().orElse(0);
+        Set<String> callers = new LinkedHashSet<>();
+        queries.forEach(query -> callers.add(query.caller()));
+        return SlowQueryShapeResponse.builder()
+                .shape(shape)
+                .count((long) queries.size())
+                .totalMs(total)
+                .maxMs(max)
+                .avgMs(total / queries.size())
+                .callers(new ArrayList<>(callers))
+                .lastSeen(queries.get(0).capturedAt())
+                .plan(plan.map(SlowQueryMonitor.Plan::text).orElse(null))
+                .planCapturedAt(plan.map(SlowQueryMonitor.Plan::capturedAt).orElse(null))
+                .build();
+    }
+}
@@ -0,0 +1,230 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.banner.BannerResponse;
+import com.fascinito.pos.dto.category.CategoryResponse;
+import com.fascinito.pos.dto.product.ProductResponse;
+import com.fascinito.pos.dto.storefront.HomePageResponse;
+import com.fascinito.pos.event.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Storefront home page assembly.
+ *
+ * The home page is served from an immutable, versioned snapshot: the common case is a
+ * volatile read plus serialization. The snapshot carries the shared catalog version
+ * (CatalogVersions.ALL) it was built at; once that moves, after a write on this or any other
+ * instance, the snapshot is rebuilt in the background. The four sections are loaded
+ * concurrently, each in its own read-only transaction.
+ */
+@Service
+@Slf4j
+public class StorefrontService {
+
+    private final BannerService bannerService;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
+    private final Executor storefrontExecutor;
+    private final Executor storefrontWarmExecutor;
+
+    @Value("${storefront.home.featured-limit:8}")
+    private int featuredLimit;
+
+    @Value("${storefront.home.category-limit:6}")
+    private int categoryLimit;
+
+    @Value("${storefront.home.new-arrivals-limit:12}")
+    private int newArrivalsLimit;
+
+    @Value("${storefront.home.build-timeout-seconds:10}")
+    private long buildTimeoutSeconds;
+
+    // A lock rather than synchronized: the rebuild blocks on its section loads, which would
+    // pin the carrier thread of a virtual request thread inside a monitor
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean warmScheduled = new AtomicBoolean();
+    private volatile HomePageResponse snapshot;
+
+    public StorefrontService(BannerService bannerService,
+                             ProductService productService,
+                             CategoryService categoryService,
+                             CatalogVersions catalogVersions,
+                             @Qualifier("storefrontExecutor") Executor storefrontExecutor,
+                             @Qualifier("storefrontWarmExecutor") Executor storefrontWarmExecutor) {
+        this.bannerService = bannerService;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.catalogVersions = catalogVersions;
+        this.storefrontExecutor = storefrontExecutor;
+        this.storefrontWarmExecutor = storefrontWarmExecutor;
+    }
+
+    /**
+     * Current home page snapshot, rebuilding it if a write invalidated it
+     */
+    public HomePageResponse getHomePage() {
+        HomePageResponse current = snapshot;
+        if (current != null && current.getVersion() == getCurrentVersion()) {
+            return current;
+        }
+
+        // Single rebuild at a time; concurrent readers wait for it instead of stampeding the DB
+        rebuildLock.lock();
+        try {
+            long targetVersion = getCurrentVersion();
+            current = snapshot;
+            if (current != null && current.getVersion() == targetVersion) {
+                return current;
+            }
+
+            try {
+                HomePageResponse rebuilt = build(targetVersion);
+                snapshot = rebuilt;
+                return rebuilt;
+            } catch (RuntimeException e) {
+                if (current != null) {
+                    log.warn("Storefront home rebuild failed, serving previous snapshot {}: {}",
+                            current.getVersion(), e.getMessage());
+                    return current;
+                }
+                throw e;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Current snapshot version without triggering a rebuild
+     */
+    public long getCurrentVersion() {
+        // Every catalog type is rendered somewhere on the home page (vendor/location names on cards)
+        return catalogVersions.version(CatalogVersions.ALL);
+    }
+
+    /**
+     * Warms after this node's own writes; stock is left to warmIfStale, as its shared version
+     * only moves once per stock interval
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() != CatalogChangedEvent.Type.STOCK) {
+            scheduleWarm();
+        }
+    }
+
+    /**
+     * Warms after writes on other instances and coalesced stock changes, once a snapshot has
+     * been requested on this node
+     */
+    @Scheduled(fixedDelayString = "${catalog.versions.refresh-interval-ms:2000}")
+    public void warmIfStale() {
+        HomePageResponse current = snapshot;
+        if (current != null && current.getVersion() != getCurrentVersion()) {
+            scheduleWarm();
+        }
+    }
+
+    private void scheduleWarm() {
+        // Warm the new snapshot off the request path, on its own executor so it never holds a
+        // thread its sections need. At most one warm task is queued or running: the flag is only
+        // cleared once the rebuild is done, so a burst of writes costs a single rebuild (a write
+        // that lands during it is picked up by warmIfStale).
+        if (warmScheduled.compareAndSet(false, true)) {
+            try {
+                storefrontWarmExecutor.execute(() -> {
+                    try {
+                        getHomePage();
+                    } catch (Exception e) {
+                        log.warn("Background storefront home rebuild failed: {}", e.getMessage());
+                    } finally {
+                        warmScheduled.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                warmScheduled.set(false);
+                log.warn("Could not schedule storefront home rebuild: {}", e.getMessage());
+            }
+        }
+    }
+
+    private HomePageResponse build(long targetVersion) {
+        long start = System.currentTimeMillis();
+
+        CompletableFuture<List<BannerResponse>> banners = fork(bannerService::getActiveBanners);
+        CompletableFuture<List<ProductResponse>> featured = fork(() ->
+                productService.getFeaturedProducts(PageRequest.of(0, featuredLimit)).getContent());
+        CompletableFuture<List<CategoryResponse>> categories = fork(categoryService::getAllActiveCategories);
+        CompletableFuture<List<ProductResponse>> newArrivals = fork(() ->
+                productService.getNewArrivals(newArrivalsLimit));
+
+        List<CompletableFuture<?>> tasks = List.of(banners, featured, categories, newArrivals);
+        joinAll(tasks);
+
+        List<CategoryResponse> topCategories = categories.join().stream()
+                .sorted(Comparator.comparing(CategoryResponse::getProductCount,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(categoryLimit)
+                .toList();
+
+        HomePageResponse response = HomePageResponse.builder()
+                .version(targetVersion)
+                .generatedAt(LocalDateTime.now())
+                .banners(List.copyOf(banners.join()))
+                .featuredProducts(List.copyOf(featured.join()))
+                .topCategories(topCategories)
+                .newArrivals(List.copyOf(newArrivals.join()))
+                .build();
+
+        log.info("Storefront home snapshot {} built in {} ms", targetVersion, System.currentTimeMillis() - start);
+        return response;
+    }
+
+    private <T> CompletableFuture<T> fork(Supplier<T> section) {
+        return CompletableFuture.supplyAsync(section, storefrontExecutor);
+    }
+
+    /**
+     * Wait for all sections, failing fast: the first failure (or the timeout)
+     * cancels the remaining sections instead of waiting for them
+     */
+    private void joinAll(List<CompletableFuture<?>> tasks) {
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        tasks.forEach(task -> task.whenComplete((result, ex) -> {
+            if (ex != null) {
+                firstFailure.completeExceptionally(ex);
+            }
+        }));
+        CompletableFuture<Void> all = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]));
+
+        try {
+            CompletableFuture.anyOf(all, firstFailure).get(buildTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tasks.forEach(task -> task.cancel(true));
+            throw new RuntimeException("Interrupted while building storefront home page", e);
+        } catch (ExecutionException | TimeoutException e) {
+            tasks.forEach(task -> task.cancel(true));
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Failed to build storefront home page: " + cause.getMessage(), cause);
+        }
+    }
+}
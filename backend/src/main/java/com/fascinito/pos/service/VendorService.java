@@ -3,11 +3,14 @@ package com.fascinito.pos.service;
 import com.fascinito.pos.dto.vendor.VendorRequest;
 import com.fascinito.pos.dto.vendor.VendorResponse;
 import com.fascinito.pos.entity.Vendor;
+import com.fascinito.pos.event.CatalogChangedEvent;
 import com.fascinito.pos.exception.ResourceNotFoundException;
 import com.fascinito.pos.repository.VendorRepository;
+import com.fascinito.pos.repository.ProductGroupCount;
 import com.fascinito.pos.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -16,7 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +32,7 @@ public class VendorService {
 
     private final VendorRepository vendorRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Page<VendorResponse> getAllVendors(Pageable pageable, String search, Boolean active) {
@@ -47,13 +55,17 @@ public class VendorService {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        return vendorRepository.findAll(spec, pageable).map(this::mapToResponse);
+        Page<Vendor> vendors = vendorRepository.findAll(spec, pageable);
+        Map<Long, ProductGroupCount> counts = findProductCounts(vendors.getContent());
+        return vendors.map(vendor -> mapToResponse(vendor, counts.get(vendor.getId())));
     }
 
     @Transactional(readOnly = true)
     public List<VendorResponse> getAllActiveVendors() {
-        return vendorRepository.findByActiveTrue().stream()
-                .map(this::mapToResponse)
+        List<Vendor> vendors = vendorRepository.findByActiveTrue();
+        Map<Long, ProductGroupCount> counts = findProductCounts(vendors);
+        return vendors.stream()
+                .map(vendor -> mapToResponse(vendor, counts.get(vendor.getId())))
                 .toList();
     }
 
@@ -70,6 +82,7 @@ public class VendorService {
         mapRequestToEntity(request, vendor);
 
         Vendor savedVendor = vendorRepository.save(vendor);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.VENDOR, savedVendor.getId()));
         log.info("Vendor created: {}", savedVendor.getId());
         return mapToResponse(savedVendor);
     }
@@ -82,6 +95,7 @@ public class VendorService {
         mapRequestToEntity(request, vendor);
 
         Vendor savedVendor = vendorRepository.save(vendor);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.VENDOR, savedVendor.getId()));
         log.info("Vendor updated: {}", savedVendor.getId());
         return mapToResponse(savedVendor);
     }
@@ -92,6 +106,7 @@ public class VendorService {
                 .orElseThrow(() -> new ResourceNotFoundException("Vendor not found with id: " + id));
         
         vendorRepository.delete(vendor);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.VENDOR, id));
         log.info("Vendor deleted: {}", id);
     }
 
@@ -104,7 +119,23 @@ public class VendorService {
         vendor.setActive(request.getActive());
     }
 
+    /**
+     * Product counts for the given vendors in one grouped query
+     */
+    private Map<Long, ProductGroupCount> findProductCounts(Collection<Vendor> vendors) {
+        if (vendors.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> vendorIds = vendors.stream().map(Vendor::getId).toList();
+        return productRepository.countByVendorIds(vendorIds).stream()
+                .collect(Collectors.toMap(ProductGroupCount::getGroupId, Function.identity()));
+    }
+
     private VendorResponse mapToResponse(Vendor vendor) {
+        return mapToResponse(vendor, findProductCounts(List.of(vendor)).get(vendor.getId()));
+    }
+
+    private VendorResponse mapToResponse(Vendor vendor, ProductGroupCount counts) {
         VendorResponse response = new VendorResponse();
         response.setId(vendor.getId());
         response.setName(vendor.getName());
@@ -115,7 +146,7 @@ public class VendorService {
         response.setWebsite(null); // Not in entity yet
         response.setActive(vendor.getActive());
         // Count products from this vendor
-        response.setProductCount(productRepository.countByVendorId(vendor.getId()).intValue());
+        response.setProductCount(counts != null ? counts.getProductCount().intValue() : 0);
         response.setCreatedAt(vendor.getCreatedAt());
         response.setUpdatedAt(vendor.getUpdatedAt());
         return response;
@@ -0,0 +1,48 @@
+package com.fascinito.pos.storage;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Key format helpers shared by blob store implementations
+ */
+final class BlobKeys {
+
+    // {64 hex}[-variant].{ext}; nothing else can reach the filesystem
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}(-[a-z0-9]{1,32})?\\.[a-z0-9]{1,8}");
+
+    // Accepted upload types; BlobController serves a blob with the type of its extension
+    private static final Map<String, String> IMAGE_EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp");
+
+    private BlobKeys() {
+    }
+
+    static boolean isValid(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    static void requireValid(String key) {
+        if (!isValid(key)) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+    }
+
+    static String hashOf(String key) {
+        requireValid(key);
+        return key.substring(0, 64);
+    }
+
+    static String imageExtension(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String type = parameters < 0 ? contentType : contentType.substring(0, parameters);
+        return IMAGE_EXTENSIONS.get(type.trim().toLowerCase(Locale.ROOT));
+    }
+}
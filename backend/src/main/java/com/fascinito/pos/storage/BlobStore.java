@@ -0,0 +1,79 @@
+package com.fascinito.pos.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for uploaded files.
+ *
+ * A blob's key is the lowercase hex SHA-256 of its content plus an extension
+ * ("{sha256}.jpg"), so identical uploads share one stored copy and a key never
+ * changes meaning. Derived blobs (e.g. image renditions) use "{sha256}-{variant}.{ext}",
+ * where the variant encodes everything the derived content depends on.
+ */
+public interface BlobStore {
+
+    /**
+     * Store content, hashing it while it is streamed to storage
+     * @param content Content stream (not closed)
+     * @param extension File extension without the dot
+     * @return The stored blob; {@code deduplicated} is true if the content was already present
+     */
+    StoredBlob put(InputStream content, String extension) throws IOException;
+
+    /**
+     * Store content derived from another blob under a caller-chosen key
+     * @param key Derived key, see {@link #derivedKey(String, String, String)}
+     */
+    StoredBlob putDerived(String key, InputStream content) throws IOException;
+
+    Optional<StoredBlob> find(String key);
+
+    boolean exists(String key);
+
+    InputStream openStream(String key) throws IOException;
+
+    /**
+     * Channel for zero-copy serving ({@link FileChannel#transferTo})
+     */
+    FileChannel openChannel(String key) throws IOException;
+
+    /**
+     * Local file backing the blob, when the store is filesystem based (used for sendfile)
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * Public URL under which the blob is served
+     */
+    default String urlFor(String key) {
+        return "/blobs/" + key;
+    }
+
+    /**
+     * Blob key from a URL produced by {@link #urlFor(String)}, if it is one
+     */
+    default Optional<String> keyFromUrl(String url) {
+        if (url == null || !url.startsWith("/blobs/")) {
+            return Optional.empty();
+        }
+        String key = url.substring("/blobs/".length());
+        return BlobKeys.isValid(key) ? Optional.of(key) : Optional.empty();
+    }
+
+    /**
+     * Extension to store an uploaded image under, from its content type
+     * @param contentType Content type of the upload, e.g. image/png
+     * @return jpg, png, gif or webp, or null if the type is not an accepted image type
+     */
+    static String imageExtension(String contentType) {
+        return BlobKeys.imageExtension(contentType);
+    }
+
+    static String derivedKey(String sourceKey, String variant, String extension) {
+        return BlobKeys.hashOf(sourceKey) + "-" + variant + "." + extension;
+    }
+}
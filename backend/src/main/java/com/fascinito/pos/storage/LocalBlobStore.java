@@ -0,0 +1,154 @@
+package com.fascinito.pos.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * {@link BlobStore} on the local filesystem.
+ *
+ * Blobs are sharded by the first two bytes of their hash ({base}/ab/cd/{key}) to keep
+ * directories small. Content is streamed to a temp file while being hashed and then
+ * renamed into place, so a blob path only ever holds complete content.
+ */
+@Component
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private final Path basePath;
+    private final Path tempPath;
+
+    public LocalBlobStore(@Value("${storage.blobs.base-path:${UPLOAD_BASE_PATH:uploads}/blobs}") String basePath) {
+        this.basePath = Paths.get(basePath).toAbsolutePath().normalize();
+        this.tempPath = this.basePath.resolve(".tmp");
+    }
+
+    @Override
+    public StoredBlob put(InputStream content, String extension) throws IOException {
+        String ext = normalizeExtension(extension);
+        Files.createDirectories(tempPath);
+        Path temp = Files.createTempFile(tempPath, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            // Not closed here: the caller owns the stream
+            DigestInputStream hashing = new DigestInputStream(content, digest);
+            long size;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                size = hashing.transferTo(out);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest()) + "." + ext;
+            Path target = pathFor(key);
+            if (Files.exists(target)) {
+                log.debug("Blob {} already stored, upload deduplicated", key);
+                return new StoredBlob(key, size, true);
+            }
+            moveIntoPlace(temp, target);
+            log.debug("Stored blob {} ({} bytes)", key, size);
+            return new StoredBlob(key, size, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredBlob putDerived(String key, InputStream content) throws IOException {
+        Path target = pathFor(key);
+        if (Files.exists(target)) {
+            return new StoredBlob(key, Files.size(target), true);
+        }
+        Files.createDirectories(tempPath);
+        Path temp = Files.createTempFile(tempPath, "derived-", ".tmp");
+        try {
+            long size;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                size = content.transferTo(out);
+            }
+            moveIntoPlace(temp, target);
+            return new StoredBlob(key, size, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<StoredBlob> find(String key) {
+        if (!BlobKeys.isValid(key)) {
+            return Optional.empty();
+        }
+        Path path = pathFor(key);
+        try {
+            return Optional.of(new StoredBlob(key, Files.size(path), false));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return BlobKeys.isValid(key) && Files.exists(pathFor(key));
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return Files.newInputStream(pathFor(key));
+    }
+
+    @Override
+    public FileChannel openChannel(String key) throws IOException {
+        return FileChannel.open(pathFor(key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return exists(key) ? Optional.of(pathFor(key)) : Optional.empty();
+    }
+
+    private Path pathFor(String key) {
+        BlobKeys.requireValid(key);
+        return basePath.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    /**
+     * Same-filesystem rename; a concurrent writer of the same key wrote identical bytes
+     */
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String normalizeExtension(String extension) {
+        String ext = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        if (ext.startsWith(".")) {
+            ext = ext.substring(1);
+        }
+        if (!ext.matches("[a-z0-9]{1,8}")) {
+            throw new IllegalArgumentException("Invalid file extension: " + extension);
+        }
+        return ext;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.fascinito.pos.storage;
+
+/**
+ * A blob in a {@link BlobStore}
+ * @param key Content-addressed key ("{sha256}.{ext}")
+ * @param size Size in bytes
+ * @param deduplicated True when a put found the content already stored
+ */
+public record StoredBlob(String key, long size, boolean deduplicated) {
+}
@@ -0,0 +1,54 @@
+package com.fascinito.pos.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a call inside a child span of the current trace (or a new trace when there is none).
+ *
+ * Used by TracingAspect for controller, service, repository and mail spans, and directly around
+ * Razorpay SDK calls, which cannot be intercepted. Spans of unsampled traces are not recorded,
+ * so the cost outside the sample is a context switch per call. The span is the current one
+ * while the call runs, so log lines inside it carry its traceId / spanId in the MDC.
+ */
+@Component
+@RequiredArgsConstructor
+public class Spans {
+
+    private final Tracer tracer;
+
+    /**
+     * @param component controller, service, repository, ... (the span's component tag)
+     */
+    public <T, E extends Throwable> T inSpan(String name, String component, SpanCall<T, E> call) throws E {
+        return run(tracer.spanBuilder().name(name).tag("component", component), call);
+    }
+
+    /**
+     * A client span for a call to another system
+     * @param peerService Remote system, e.g. razorpay or smtp
+     */
+    public <T, E extends Throwable> T client(String name, String peerService, SpanCall<T, E> call) throws E {
+        return run(tracer.spanBuilder().name(name).kind(Span.Kind.CLIENT)
+                .tag("component", "client").remoteServiceName(peerService), call);
+    }
+
+    private <T, E extends Throwable> T run(Span.Builder builder, SpanCall<T, E> call) throws E {
+        Span span = builder.start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return call.call();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    @FunctionalInterface
+    public interface SpanCall<T, E extends Throwable> {
+        T call() throws E;
+    }
+}
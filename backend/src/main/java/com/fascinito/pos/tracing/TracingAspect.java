@@ -0,0 +1,73 @@
+package com.fascinito.pos.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spans around controller handlers, @Service methods, Spring Data repository methods and
+ * outgoing mail, named after the declaring bean (OrderController.initiateRefund,
+ * RefundService.initiateRefund, OrderRefundRepository.save, smtp send). Together with the
+ * HTTP server span Spring Boot creates per request, a trace shows where a slow call spent its time.
+ *
+ * Only calls through Spring proxies are seen: a service calling its own methods stays one span.
+ * Switched off with tracing.method-spans.enabled=false (HTTP and client spans remain).
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "tracing.method-spans.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private static final String APPLICATION_PACKAGE = "com.fascinito.pos.";
+
+    private final Spans spans;
+    // Repository proxy class -> application repository interface name
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return spans.inSpan(name(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint),
+                "controller", joinPoint::proceed);
+    }
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return spans.inSpan(name(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint),
+                "service", joinPoint::proceed);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return spans.inSpan(name(repositoryName(joinPoint.getThis()), joinPoint), "repository", joinPoint::proceed);
+    }
+
+    @Around("execution(* org.springframework.mail.MailSender+.send(..))")
+    public Object mail(ProceedingJoinPoint joinPoint) throws Throwable {
+        return spans.client("smtp send", "smtp", joinPoint::proceed);
+    }
+
+    private static String name(String type, ProceedingJoinPoint joinPoint) {
+        return type + "." + joinPoint.getSignature().getName();
+    }
+
+    /**
+     * findById and friends are declared on CrudRepository; name them after the application interface
+     */
+    private String repositoryName(Object repository) {
+        return repositoryNames.computeIfAbsent(repository.getClass(), type -> {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith(APPLICATION_PACKAGE)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
@@ -0,0 +1,481 @@
+-- Baseline schema: the entity model as Hibernate's ddl-auto created it before Flyway took over,
+-- i.e. before V1 (same column order and constraint names, so a fresh database and an upgraded
+-- one look the same). Only runs on an empty database: existing databases are baselined at
+-- version 0 (spring.flyway.baseline-on-migrate) and start at V1. Everything added since is in
+-- V1 onwards; from here on the schema changes through migrations only and Hibernate just
+-- validates it (SchemaMigrationTest runs both paths).
+
+-- ============================================================================
+-- TABLES
+-- ============================================================================
+
+CREATE TABLE banners (
+    display_order INTEGER,
+    is_active BOOLEAN,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6),
+    background_color VARCHAR(255),
+    cta_url VARCHAR(255),
+    image_url VARCHAR(255) NOT NULL,
+    subtitle TEXT,
+    text_color VARCHAR(255),
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE cancellation_reasons (
+    active BOOLEAN NOT NULL,
+    display_order INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    reason_key VARCHAR(50) NOT NULL,
+    reason_text VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_mspdhc1hyxykeax1ci851h3ae UNIQUE (reason_key)
+);
+
+CREATE TABLE cart_items (
+    quantity INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    variant_combination_id BIGINT,
+    variation_option_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE categories (
+    active BOOLEAN NOT NULL,
+    display_order INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    image_url VARCHAR(500),
+    description TEXT,
+    slug VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_oul14ho7bctbefv8jywp5v3i2 UNIQUE (slug)
+);
+
+CREATE TABLE email_templates (
+    is_active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    template_key VARCHAR(50) NOT NULL,
+    template_name VARCHAR(100) NOT NULL,
+    body_html TEXT NOT NULL,
+    subject TEXT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_61i0otj4u7pb9tcamb71b7lco UNIQUE (template_key)
+);
+
+CREATE TABLE locations (
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    phone VARCHAR(20),
+    zip_code VARCHAR(20),
+    city VARCHAR(100),
+    country VARCHAR(100),
+    state VARCHAR(100),
+    name VARCHAR(200) NOT NULL,
+    address VARCHAR(500),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_cancellations (
+    cancellation_reason_id BIGINT,
+    cancelled_at TIMESTAMP(6) NOT NULL,
+    cancelled_by BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    custom_message TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_items (
+    quantity INTEGER NOT NULL,
+    subtotal NUMERIC(10,2) NOT NULL,
+    tax_amount NUMERIC(10,2) NOT NULL,
+    total_price NUMERIC(10,2) NOT NULL,
+    unit_price NUMERIC(10,2) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    variant_combination_id BIGINT,
+    variation_option_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_refunds (
+    refund_amount NUMERIC(10,2) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    initiated_by BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    processed_at TIMESTAMP(6),
+    settlement_expected_date TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL,
+    refund_status VARCHAR(20) NOT NULL CHECK (refund_status IN ('PENDING','PROCESSING','SUCCESS','FAILED','PENDING_SETTLEMENT')),
+    refund_type VARCHAR(20) NOT NULL CHECK (refund_type IN ('FULL','PARTIAL')),
+    razorpay_refund_id VARCHAR(100),
+    failure_reason TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_status_history (
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING','CONFIRMED','PROCESSING','SHIPPED','DELIVERED','RETURN_REQUEST','CANCELLED','REFUNDED')),
+    updated_by VARCHAR(100),
+    notes TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    discount NUMERIC(10,2) NOT NULL,
+    refund_amount NUMERIC(10,2),
+    shipping_cost NUMERIC(10,2) NOT NULL,
+    subtotal NUMERIC(10,2) NOT NULL,
+    tax_amount NUMERIC(10,2) NOT NULL,
+    total_amount NUMERIC(10,2) NOT NULL,
+    cancelled_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    refund_status VARCHAR(20),
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING','CONFIRMED','PROCESSING','SHIPPED','DELIVERED','RETURN_REQUEST','CANCELLED','REFUNDED')),
+    order_number VARCHAR(100) NOT NULL,
+    billing_address TEXT,
+    cancellation_message TEXT,
+    cancellation_reason VARCHAR(255),
+    notes TEXT,
+    shipping_address TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_nthkiu7pgmnqnu86i2jyoe2v7 UNIQUE (order_number)
+);
+
+CREATE TABLE otp_verification (
+    verified BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expiry_time TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    otp VARCHAR(255) NOT NULL,
+    phone VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE payments (
+    amount NUMERIC(10,2) NOT NULL,
+    currency VARCHAR(3),
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    payment_method VARCHAR(20) NOT NULL CHECK (payment_method IN ('CREDIT_CARD','DEBIT_CARD','PAYPAL','STRIPE','RAZORPAY','UPI','NET_BANKING','WALLET','CASH','OTHER')),
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING','PROCESSING','COMPLETED','FAILED','REFUNDED','CANCELLED')),
+    razorpay_order_id VARCHAR(100),
+    razorpay_payment_id VARCHAR(100),
+    razorpay_signature VARCHAR(100),
+    transaction_id VARCHAR(100),
+    failure_reason TEXT,
+    payment_details TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_8vo36cen604as7etdfwmyjsxt UNIQUE (order_id),
+    CONSTRAINT uk_lryndveuwa4k5qthti0pkmtlx UNIQUE (transaction_id)
+);
+
+CREATE TABLE product_images (
+    display_order INTEGER NOT NULL,
+    is_primary BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    alt_text VARCHAR(200),
+    image_url VARCHAR(500) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_reviews (
+    rating INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    user_id BIGINT NOT NULL,
+    comment TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_specifications (
+    display_order INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    attribute_name VARCHAR(100) NOT NULL,
+    attribute_value TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_variant_combination (
+    active BOOLEAN NOT NULL,
+    price NUMERIC(10,2) NOT NULL,
+    stock INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_variant_combination_options (
+    combination_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    variation_option_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_variations (
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    type VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    active BOOLEAN NOT NULL,
+    cost_per_item NUMERIC(10,2),
+    featured BOOLEAN NOT NULL,
+    low_stock_threshold INTEGER NOT NULL,
+    regular_price NUMERIC(10,2) NOT NULL,
+    sale_price NUMERIC(10,2),
+    stock_quantity INTEGER NOT NULL,
+    tax_exempt BOOLEAN NOT NULL,
+    tax_rate NUMERIC(5,2),
+    track_inventory BOOLEAN NOT NULL,
+    visible_to_customers BOOLEAN NOT NULL,
+    category_id BIGINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    location_id BIGINT,
+    sub_category_id BIGINT,
+    updated_at TIMESTAMP(6) NOT NULL,
+    vendor_id BIGINT,
+    sku VARCHAR(100),
+    upc VARCHAR(100),
+    title VARCHAR(300) NOT NULL,
+    slug VARCHAR(400) NOT NULL,
+    description TEXT,
+    detailed_description TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_fhmd06dsmj6k0n90swsh8ie9g UNIQUE (sku),
+    CONSTRAINT uk_ostq1ec3toafnjok09y9l7dox UNIQUE (slug)
+);
+
+CREATE TABLE refresh_tokens (
+    revoked BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expiry_date TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    token VARCHAR(500) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ghpmfn23vmxfu3spu3lfg4r2d UNIQUE (token)
+);
+
+CREATE TABLE refund_requests (
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    order_id BIGINT NOT NULL,
+    requested_by BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    comment TEXT,
+    reason TEXT,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('PENDING','APPROVED','REJECTED','PROCESSING','COMPLETED')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE refund_retry_schedule (
+    retry_count INTEGER,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    refund_id BIGINT NOT NULL,
+    retry_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    last_error TEXT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE roles (
+    id BIGSERIAL NOT NULL,
+    name VARCHAR(20) NOT NULL CHECK (name IN ('ROLE_CUSTOMER','ROLE_ADMIN','ROLE_STAFF','ROLE_VENDOR')),
+    description VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ofx66keruapi6vyqpv6f2or37 UNIQUE (name)
+);
+
+CREATE TABLE sub_categories (
+    active BOOLEAN NOT NULL,
+    display_order INTEGER NOT NULL,
+    category_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    description TEXT,
+    slug VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_n683x888bxcnnnxlgvqp2geav UNIQUE (slug)
+);
+
+CREATE TABLE user_roles (
+    role_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, user_id)
+);
+
+CREATE TABLE users (
+    active BOOLEAN NOT NULL,
+    deleted BOOLEAN NOT NULL,
+    email_verified BOOLEAN NOT NULL,
+    reset_code VARCHAR(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    deleted_at TIMESTAMP(6),
+    id BIGSERIAL NOT NULL,
+    reset_code_expiry TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL,
+    phone VARCHAR(20) NOT NULL,
+    email VARCHAR(100),
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_du5v5sr43g5bfnji4vb8hg5s3 UNIQUE (phone),
+    CONSTRAINT uk_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE variation_options (
+    active BOOLEAN NOT NULL,
+    price_adjustment NUMERIC(10,2),
+    stock_quantity INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    variation_id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    sku VARCHAR(100),
+    image_url VARCHAR(500),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_5m18l91gsgkefkupvbtsx48q2 UNIQUE (sku)
+);
+
+CREATE TABLE vendors (
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    phone VARCHAR(20),
+    email VARCHAR(100),
+    name VARCHAR(200) NOT NULL,
+    logo_url VARCHAR(500),
+    address TEXT,
+    description TEXT,
+    slug VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_8xmc0rpdougqaftbgr1s2tolo UNIQUE (email),
+    CONSTRAINT uk_326w4yy3sqwkmpnd4gaqqfb13 UNIQUE (slug)
+);
+
+CREATE TABLE wishlists (
+    added_at TIMESTAMP(6) NOT NULL,
+    id BIGSERIAL NOT NULL,
+    product_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- ============================================================================
+-- INDEXES declared on entities
+-- ============================================================================
+
+CREATE INDEX idx_user_id ON wishlists(user_id);
+CREATE INDEX idx_product_id ON wishlists(product_id);
+
+-- ============================================================================
+-- FOREIGN KEYS
+-- ============================================================================
+
+ALTER TABLE cart_items ADD CONSTRAINT fk1re40cjegsfvw58xrkdp6bac6 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE cart_items ADD CONSTRAINT fk709eickf3kc0dujx3ub9i7btf FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE cart_items ADD CONSTRAINT fk93n8odaw6riqaab51gdoefo4 FOREIGN KEY (variant_combination_id) REFERENCES product_variant_combination;
+ALTER TABLE cart_items ADD CONSTRAINT fkpyy952xbxjhfoxsvy9ga4b8k0 FOREIGN KEY (variation_option_id) REFERENCES variation_options;
+ALTER TABLE order_cancellations ADD CONSTRAINT fkie6vqkdlqge20fq4lyfgrbpf FOREIGN KEY (cancellation_reason_id) REFERENCES cancellation_reasons;
+ALTER TABLE order_cancellations ADD CONSTRAINT fkl1mql9bydq12wc7ahffeqv151 FOREIGN KEY (cancelled_by) REFERENCES users;
+ALTER TABLE order_cancellations ADD CONSTRAINT fkdsicbgin7uhldala77vy2es0g FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_items ADD CONSTRAINT fkbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_items ADD CONSTRAINT fkocimc7dtr037rh4ls4l95nlfi FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE order_items ADD CONSTRAINT fkhnc1viqchuem8jikyvd206dyy FOREIGN KEY (variant_combination_id) REFERENCES product_variant_combination;
+ALTER TABLE order_items ADD CONSTRAINT fkna5flgtuv3i8ka8mj9agxhtvh FOREIGN KEY (variation_option_id) REFERENCES variation_options;
+ALTER TABLE order_refunds ADD CONSTRAINT fkmtp8rq1i5pe0f6o8k200bhixs FOREIGN KEY (initiated_by) REFERENCES users;
+ALTER TABLE order_refunds ADD CONSTRAINT fkmc53i8eq1lukxtbdulobibrek FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_status_history ADD CONSTRAINT fknmcbg3mmbt8wfva97ra40nmp3 FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE orders ADD CONSTRAINT fk32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE payments ADD CONSTRAINT fk81gagumt0r8y3rmudcgpbk42l FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE product_images ADD CONSTRAINT fkqnq71xsohugpqwf3c9gxmsuy FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_reviews ADD CONSTRAINT fk35kxxqe2g9r4mww80w9e3tnw9 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_reviews ADD CONSTRAINT fk58i39bhws2hss3tbcvdmrm60f FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE product_specifications ADD CONSTRAINT fkbets5sov4bn9d2wy8vqathw6d FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_variant_combination ADD CONSTRAINT fkbaqjrxuxfqth2eyus0lu3q6vi FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_variant_combination_options ADD CONSTRAINT fkm7axq03lhk31oxdkhhi8ghx8f FOREIGN KEY (combination_id) REFERENCES product_variant_combination;
+ALTER TABLE product_variant_combination_options ADD CONSTRAINT fk7pkl1daihap6jw5eroe5wl8fe FOREIGN KEY (variation_option_id) REFERENCES variation_options;
+ALTER TABLE product_variations ADD CONSTRAINT fktopipc5x691v9hjrughkfn6ff FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE products ADD CONSTRAINT fkog2rp4qthbtt2lfyhfo32lsw9 FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE products ADD CONSTRAINT fk8vdhgjbggd0gni2whsekx2d1o FOREIGN KEY (location_id) REFERENCES locations;
+ALTER TABLE products ADD CONSTRAINT fkno5p9kcr384tg56cbk8l9l6h2 FOREIGN KEY (sub_category_id) REFERENCES sub_categories;
+ALTER TABLE products ADD CONSTRAINT fks6kdu75k7ub4s95ydsr52p59s FOREIGN KEY (vendor_id) REFERENCES vendors;
+ALTER TABLE refresh_tokens ADD CONSTRAINT fk1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE refund_requests ADD CONSTRAINT fk452xm7hwgngbanwkdgs3601b1 FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE refund_requests ADD CONSTRAINT fkvqqjrp6lluxf3vku9rpkj3qk FOREIGN KEY (requested_by) REFERENCES users;
+ALTER TABLE sub_categories ADD CONSTRAINT fkjwy7imy3rf6r99x48ydq45otw FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE user_roles ADD CONSTRAINT fkh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles;
+ALTER TABLE user_roles ADD CONSTRAINT fkhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE variation_options ADD CONSTRAINT fkb2r66m3w97mvtmoipgfjyrfvl FOREIGN KEY (variation_id) REFERENCES product_variations;
+ALTER TABLE wishlists ADD CONSTRAINT fkl7ao98u2bm8nijc1rv4jobcrx FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE wishlists ADD CONSTRAINT fk330pyw2el06fn5g28ypyljt16 FOREIGN KEY (user_id) REFERENCES users;
+
+-- ============================================================================
+-- REFERENCE DATA (looked up by name / key at runtime)
+-- ============================================================================
+
+INSERT INTO roles (name, description) VALUES
+    ('ROLE_ADMIN', 'Administrator role with full access'),
+    ('ROLE_STAFF', 'Staff role for store operations'),
+    ('ROLE_VENDOR', 'Vendor role for managing their products'),
+    ('ROLE_CUSTOMER', 'Customer role for browsing and purchasing');
+
+INSERT INTO cancellation_reasons (reason_key, reason_text, display_order, active, created_at) VALUES
+    ('ORDERED_BY_MISTAKE', 'Ordered by mistake', 1, TRUE, CURRENT_TIMESTAMP),
+    ('BETTER_PRICE', 'Found a better price elsewhere', 2, TRUE, CURRENT_TIMESTAMP),
+    ('DELIVERY_SLOW', 'Delivery is taking too long', 3, TRUE, CURRENT_TIMESTAMP),
+    ('NO_LONGER_NEEDED', 'Product no longer needed', 4, TRUE, CURRENT_TIMESTAMP),
+    ('PAYMENT_ISSUE', 'Payment issue', 5, TRUE, CURRENT_TIMESTAMP),
+    ('OTHER', 'Other (please specify)', 6, TRUE, CURRENT_TIMESTAMP);
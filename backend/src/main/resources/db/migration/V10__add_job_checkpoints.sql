@@ -0,0 +1,10 @@
+-- Progress of incremental jobs (e.g. PaymentReconciliationService: epoch seconds up to which
+-- gateway payments have been reconciled)
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    name VARCHAR(100) PRIMARY KEY,
+    last_position BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_payments_status_created_at ON payments(status, created_at);
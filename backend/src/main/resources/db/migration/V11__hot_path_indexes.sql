@@ -0,0 +1,151 @@
+-- Index set for the hot query paths, derived from the repository queries, plus removal of
+-- V1 indexes that a unique constraint or one of these already covers (each one costs every write).
+-- Built CONCURRENTLY so a live database keeps taking writes; Flyway runs this script outside a
+-- transaction because every statement in it is non-transactional. Keep it that way: one
+-- transactional statement here would make the whole migration fail.
+
+-- ============================================================================
+-- PRODUCTS: storefront listings only ever read visible, active products
+-- ============================================================================
+
+-- findByVisibleToCustomersTrueAndActiveTrue, ProductService specification page (ORDER BY id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_listed_id
+ON products(id) WHERE active AND visible_to_customers;
+
+-- findByCategoryIdAndVisibleToCustomersTrueAndActiveTrue, findRelatedProducts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_listed_category_id
+ON products(category_id, id) WHERE active AND visible_to_customers;
+
+-- findByVendorIdAndVisibleToCustomersTrueAndActiveTrue
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_listed_vendor_id
+ON products(vendor_id, id) WHERE active AND visible_to_customers;
+
+-- findByFeaturedTrueAndVisibleToCustomersTrueAndActiveTrue (ORDER BY id DESC, scanned backwards)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_listed_featured_id
+ON products(id) WHERE featured AND active AND visible_to_customers;
+
+-- findNewArrivals
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_listed_created_at
+ON products(created_at DESC, id DESC) WHERE active AND visible_to_customers;
+
+-- ============================================================================
+-- PRODUCT DETAIL: images, variants, reviews
+-- ============================================================================
+
+-- findFirstImagesByProductIds (MIN(display_order) per product), image collection fetches
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_product_id_display_order
+ON product_images(product_id, display_order);
+
+-- updateRenditionUrls
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_image_url
+ON product_images(image_url);
+
+-- findByProductId / findByProductIdAndActiveTrue / deleteByProductId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_variant_combination_product_id
+ON product_variant_combination(product_id);
+
+-- findByCombinationId / deleteByCombinationId, combination option collection fetches
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pvc_options_combination_id
+ON product_variant_combination_options(combination_id);
+
+-- findByProductIdAndVariationOptions (variation_option_id IN ... GROUP BY combination_id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pvc_options_variation_option_id
+ON product_variant_combination_options(variation_option_id, combination_id);
+
+-- findByProductId(Pageable), findByProductIdOrderByCreatedAtDesc, rating aggregates
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_reviews_product_id_created_at
+ON product_reviews(product_id, created_at DESC);
+
+-- ============================================================================
+-- CART AND CHECKOUT
+-- ============================================================================
+
+-- findByUser / deleteByUser and the findByUserAndProduct... lookups on add to cart
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cart_items_user_id_product_id
+ON cart_items(user_id, product_id);
+
+-- ============================================================================
+-- ORDERS (orders(user_id, created_at DESC), orders(status, created_at DESC) and
+-- order_items(order_id) come from V1)
+-- ============================================================================
+
+-- findByOrderIdOrderByCreatedAtAsc, findStatusHistoryByOrderId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_status_history_order_id_created_at
+ON order_status_history(order_id, created_at);
+
+-- OrderCancellationRepository.findByOrderId...
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_cancellations_order_id
+ON order_cancellations(order_id);
+
+-- OrderRefundRepository.findByOrderId..., findRefundsByOrderId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_refunds_order_id
+ON order_refunds(order_id);
+
+-- findByRazorpayRefundId (refund webhooks)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_refunds_razorpay_refund_id
+ON order_refunds(razorpay_refund_id);
+
+-- findByRefundId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refund_retry_schedule_refund_id
+ON refund_retry_schedule(refund_id);
+
+-- ============================================================================
+-- AUTH
+-- ============================================================================
+
+-- Roles loaded with every user (login, JWT filter); the primary key is (role_id, user_id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_user_id
+ON user_roles(user_id);
+
+-- deleteByUser on logout / login
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_user_id
+ON refresh_tokens(user_id);
+
+-- deleteByExpiryDateBefore (token cleanup)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_expiry_date
+ON refresh_tokens(expiry_date);
+
+-- findTopByPhoneAndVerifiedFalseOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_otp_verification_phone_created_at
+ON otp_verification(phone, created_at DESC);
+
+-- ============================================================================
+-- CATALOG ADMIN
+-- ============================================================================
+
+-- findByCategoryIdAndActiveTrueOrderByDisplayOrderAsc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sub_categories_category_id
+ON sub_categories(category_id);
+
+-- ============================================================================
+-- REDUNDANT V1 INDEXES
+-- ============================================================================
+
+-- Leading column of idx_order_status_created
+DROP INDEX CONCURRENTLY IF EXISTS idx_order_status;
+
+-- Two low-selectivity booleans; replaced by the partial listing indexes above
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_active_visible;
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_featured;
+
+-- Duplicates of the unique constraints on products.slug and products.sku
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_slug;
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_sku;
+
+-- Product search matches lower(column) LIKE '%term%', which neither index can serve
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_title_search;
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_description_search;
+
+-- Prefixes of the composite indexes above
+DROP INDEX CONCURRENTLY IF EXISTS idx_cart_item_user_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_review_product_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_product_image_product_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_order_status_history_order_id;
+
+-- payments.order_id is unique; payments(status, created_at) comes from V10
+DROP INDEX CONCURRENTLY IF EXISTS idx_payment_order_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_payment_status;
+
+-- Duplicates of idx_user_id / idx_product_id declared on the Wishlist entity
+DROP INDEX CONCURRENTLY IF EXISTS idx_wishlist_user_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_wishlist_product_id;
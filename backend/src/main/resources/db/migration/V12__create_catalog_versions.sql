@@ -0,0 +1,17 @@
+-- Catalog change versions shared by all instances (CatalogVersions). Each write bumps its
+-- type's row in the writing transaction (stock changes are coalesced); instances derive
+-- ETag / Last-Modified and their in-memory snapshots from these rows, so a change on one
+-- node is seen by every node within the refresh interval.
+
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    type VARCHAR(20) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Versions start at the creation time in millis, so entity tags handed out against an
+-- earlier database never match again
+INSERT INTO catalog_versions (type, version, updated_at)
+SELECT t.type, (EXTRACT(EPOCH FROM now()) * 1000)::BIGINT, date_trunc('second', now())
+FROM (VALUES ('PRODUCT'), ('STOCK'), ('CATEGORY'), ('BANNER'), ('VENDOR'), ('LOCATION')) AS t(type)
+ON CONFLICT (type) DO NOTHING;
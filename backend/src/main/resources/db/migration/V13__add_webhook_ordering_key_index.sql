@@ -0,0 +1,5 @@
+-- Webhook drain (RazorpayWebhookEventRepository.findDue): pending events behind an earlier
+-- pending event with the same ordering key are skipped, looked up per key in id order.
+
+CREATE INDEX IF NOT EXISTS idx_razorpay_webhook_pending_ordering_key
+ON razorpay_webhook_events(ordering_key, id) WHERE status = 'RECEIVED';
@@ -0,0 +1,6 @@
+-- Payments captured for the wrong amount or currency, or for an order that is no longer
+-- awaiting payment, are held as NEEDS_REVIEW instead of COMPLETED (RazorpayService).
+
+ALTER TABLE payments DROP CONSTRAINT IF EXISTS payments_status_check;
+ALTER TABLE payments ADD CONSTRAINT payments_status_check
+    CHECK (status IN ('PENDING','PROCESSING','COMPLETED','FAILED','REFUNDED','CANCELLED','NEEDS_REVIEW'));
@@ -82,7 +82,7 @@ CREATE INDEX IF NOT EXISTS idx_product_variation_product_id
 ON product_variations(product_id);
 
 CREATE INDEX IF NOT EXISTS idx_product_variation_option_variation_id
-ON variation_options(product_variation_id);
+ON variation_options(variation_id);
 
 -- ============================================================================
 -- WISHLIST TABLE INDEXES (Medium Priority)
@@ -90,10 +90,10 @@ ON variation_options(product_variation_id);
 -- These indexes support wishlist queries
 
 CREATE INDEX IF NOT EXISTS idx_wishlist_user_id
-ON wishlist(user_id);
+ON wishlists(user_id);
 
 CREATE INDEX IF NOT EXISTS idx_wishlist_product_id
-ON wishlist(product_id);
+ON wishlists(product_id);
 
 -- ============================================================================
 -- PRODUCT REVIEWS TABLE INDEXES (Medium Priority)
@@ -117,10 +117,10 @@ ON order_status_history(order_id);
 -- These indexes support refund request queries
 
 CREATE INDEX IF NOT EXISTS idx_refund_request_status
-ON refund_request(status);
+ON refund_requests(status);
 
 CREATE INDEX IF NOT EXISTS idx_refund_request_order_id
-ON refund_request(order_id);
+ON refund_requests(order_id);
 
 -- ============================================================================
 -- PAYMENT TABLE INDEXES (Medium Priority)
@@ -128,10 +128,10 @@ ON refund_request(order_id);
 -- These indexes support payment queries
 
 CREATE INDEX IF NOT EXISTS idx_payment_order_id
-ON payment(order_id);
+ON payments(order_id);
 
 CREATE INDEX IF NOT EXISTS idx_payment_status
-ON payment(status);
+ON payments(status);
 
 -- ============================================================================
 -- SEARCH OPTIMIZATION INDEXES (Medium Priority)
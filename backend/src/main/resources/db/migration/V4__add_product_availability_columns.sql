@@ -0,0 +1,63 @@
+-- Denormalized availability and price-range columns on products
+-- Maintained on write by ProductAvailabilityService (product create/update, stock deduction/restoration)
+-- so listings can filter/sort in SQL without loading variations and options.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS in_stock BOOLEAN;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS total_available_stock INTEGER;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS min_price NUMERIC(10, 2);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS max_price NUMERIC(10, 2);
+
+-- ============================================================================
+-- BACKFILL (mirrors ProductAvailabilityService.refresh)
+-- ============================================================================
+
+-- Display stock: bottleneck active option stock for products with variations, otherwise product stock
+UPDATE products p
+SET total_available_stock = CASE
+    WHEN EXISTS (SELECT 1 FROM product_variations pv WHERE pv.product_id = p.id) THEN
+        COALESCE((
+            SELECT MIN(vo.stock_quantity)
+            FROM product_variations pv
+            JOIN variation_options vo ON vo.variation_id = pv.id
+            WHERE pv.product_id = p.id AND pv.active = true AND vo.active = true
+        ), 0)
+    ELSE COALESCE(p.stock_quantity, 0)
+END;
+
+UPDATE products p
+SET in_stock = CASE
+    WHEN p.track_inventory = false THEN true
+    WHEN EXISTS (SELECT 1 FROM product_variations pv WHERE pv.product_id = p.id) THEN
+        EXISTS (
+            SELECT 1
+            FROM product_variations pv
+            JOIN variation_options vo ON vo.variation_id = pv.id
+            WHERE pv.product_id = p.id AND pv.active = true AND vo.active = true AND vo.stock_quantity > 0
+        )
+    ELSE COALESCE(p.stock_quantity, 0) > 0
+END;
+
+-- Price range: active combination prices, falling back to sale price or regular price
+UPDATE products p
+SET min_price = COALESCE(
+        (SELECT MIN(c.price) FROM product_variant_combination c WHERE c.product_id = p.id AND c.active = true),
+        COALESCE(p.sale_price, p.regular_price)),
+    max_price = COALESCE(
+        (SELECT MAX(c.price) FROM product_variant_combination c WHERE c.product_id = p.id AND c.active = true),
+        COALESCE(p.sale_price, p.regular_price));
+
+-- ============================================================================
+-- INDEXES for storefront filtering/sorting
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_product_storefront_in_stock
+ON products(in_stock, id)
+WHERE active = true AND visible_to_customers = true;
+
+CREATE INDEX IF NOT EXISTS idx_product_storefront_min_price
+ON products(min_price)
+WHERE active = true AND visible_to_customers = true;
+
+CREATE INDEX IF NOT EXISTS idx_product_storefront_max_price
+ON products(max_price)
+WHERE active = true AND visible_to_customers = true;
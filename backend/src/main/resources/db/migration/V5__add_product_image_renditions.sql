@@ -0,0 +1,6 @@
+-- Resized JPEG renditions of product images, recorded by ImageRenditionService
+-- after an upload has been processed. NULL means "not generated": clients use image_url.
+
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(500);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS card_url VARCHAR(500);
+ALTER TABLE product_images ADD COLUMN IF NOT EXISTS detail_url VARCHAR(500);
@@ -0,0 +1,21 @@
+-- Inbox of verified Razorpay webhook deliveries (RazorpayWebhookService).
+-- event_id is unique so redeliveries are dropped; the drain reads RECEIVED rows in id order.
+
+CREATE TABLE IF NOT EXISTS razorpay_webhook_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    ordering_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP,
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP,
+    version BIGINT,
+    CONSTRAINT uk_razorpay_webhook_event_id UNIQUE (event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_razorpay_webhook_status_id ON razorpay_webhook_events(status, id);
+CREATE INDEX IF NOT EXISTS idx_payments_razorpay_order_id ON payments(razorpay_order_id);
@@ -0,0 +1,7 @@
+-- Per-refund backoff for the Razorpay refund status poller (RefundService.checkRefundStatus).
+-- NULL next_status_check_at means "check as soon as the grace period has passed".
+
+ALTER TABLE order_refunds ADD COLUMN IF NOT EXISTS status_check_attempts INTEGER;
+ALTER TABLE order_refunds ADD COLUMN IF NOT EXISTS next_status_check_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_order_refunds_status_next_check ON order_refunds(refund_status, next_status_check_at);
@@ -0,0 +1,16 @@
+-- Job leases (JobRunner). Due rows are claimed with FOR UPDATE SKIP LOCKED and leased to
+-- one node until lease_until; an expired lease means the owner died and the rows are free.
+
+ALTER TABLE refund_retry_schedule ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100);
+ALTER TABLE refund_retry_schedule ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_refund_retry_schedule_status_retry_at ON refund_retry_schedule(status, retry_at);
+
+ALTER TABLE order_refunds ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(100);
+ALTER TABLE order_refunds ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
+
+-- Single-node jobs (JobRunner.runExclusive)
+CREATE TABLE IF NOT EXISTS job_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    lease_owner VARCHAR(100),
+    lease_until TIMESTAMP
+);
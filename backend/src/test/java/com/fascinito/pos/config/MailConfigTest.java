@@ -0,0 +1,53 @@
+package com.fascinito.pos.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SMTP settings: implicit TLS unless spring.mail.ssl.enabled is false (plain relays and local
+ * stubs), and authentication only when a username is configured
+ */
+class MailConfigTest {
+
+    @Test
+    void implicitTlsWithAuthenticationByDefault() {
+        Properties props = properties(config("smtp.hostinger.com", "465", "support@fascinito.in", true));
+
+        assertThat(props.getProperty("mail.smtp.auth")).isEqualTo("true");
+        assertThat(props.getProperty("mail.smtp.socketFactory.class")).isEqualTo("javax.net.ssl.SSLSocketFactory");
+        assertThat(props.get("mail.smtp.socketFactory.port")).isEqualTo(465);
+    }
+
+    @Test
+    void plainRelayWithoutCredentials() {
+        Properties props = properties(config("localhost", "2525", "", false));
+
+        assertThat(props.getProperty("mail.smtp.auth")).isEqualTo("false");
+        assertThat(props).doesNotContainKeys("mail.smtp.socketFactory.class", "mail.smtp.socketFactory.port");
+    }
+
+    @Test
+    void noSenderWithoutAHostOrWithAnInvalidPort() {
+        assertThat(config("", "465", "", true).javaMailSender()).isNull();
+        assertThat(config("localhost", "smtp", "", true).javaMailSender()).isNull();
+    }
+
+    private static MailConfig config(String host, String port, String username, boolean ssl) {
+        MailConfig config = new MailConfig();
+        ReflectionTestUtils.setField(config, "host", host);
+        ReflectionTestUtils.setField(config, "portStr", port);
+        ReflectionTestUtils.setField(config, "username", username);
+        ReflectionTestUtils.setField(config, "password", "");
+        ReflectionTestUtils.setField(config, "ssl", ssl);
+        return config;
+    }
+
+    private static Properties properties(MailConfig config) {
+        return ((JavaMailSenderImpl) config.javaMailSender()).getJavaMailProperties();
+    }
+}
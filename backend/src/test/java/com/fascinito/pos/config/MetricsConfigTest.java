@@ -0,0 +1,59 @@
+package com.fascinito.pos.config;
+
+import io.micrometer.common.KeyValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The handler tag on http.server.requests: the controller method that handled the request, or
+ * "none" for requests no controller handled (static resources, 404s)
+ */
+class MetricsConfigTest {
+
+    @Test
+    void requestIsTaggedWithTheHandlingControllerMethod() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new OrderController(), OrderController.class.getMethod("getOrder")));
+
+        assertThat(handlerTag(request)).isEqualTo(KeyValue.of("handler", "OrderController.getOrder"));
+    }
+
+    @Test
+    void requestWithoutAControllerIsTaggedNone() {
+        assertThat(handlerTag(new MockHttpServletRequest("GET", "/favicon.ico")))
+                .isEqualTo(KeyValue.of("handler", "none"));
+        assertThat(MetricsConfig.handlerName(null)).isEqualTo("none");
+    }
+
+    @Test
+    void defaultTagsAreKept() {
+        ServerRequestObservationContext context = new ServerRequestObservationContext(
+                new MockHttpServletRequest("GET", "/api/orders/1"), new MockHttpServletResponse());
+
+        assertThat(new MetricsConfig().handlerTaggingObservationConvention().getLowCardinalityKeyValues(context))
+                .extracting(KeyValue::getKey)
+                .contains("method", "uri", "status", "outcome", "exception", "handler");
+    }
+
+    private static KeyValue handlerTag(MockHttpServletRequest request) {
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+        return new MetricsConfig().handlerTaggingObservationConvention().getLowCardinalityKeyValues(context).stream()
+                .filter(keyValue -> keyValue.getKey().equals("handler"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static class OrderController {
+
+        public String getOrder() {
+            return "order";
+        }
+    }
+}
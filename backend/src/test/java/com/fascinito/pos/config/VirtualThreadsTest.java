@@ -0,0 +1,80 @@
+package com.fascinito.pos.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The virtual-thread switch for the application's own executors: only taken on a Java 21+
+ * runtime, and still bounded by the configured concurrency
+ */
+class VirtualThreadsTest {
+
+    private static final boolean JAVA_21 = Runtime.version().feature() >= 21;
+
+    @Test
+    void enabledOnlyWhenConfiguredOnJava21() {
+        assertThat(VirtualThreads.isEnabled(false)).isFalse();
+        assertThat(VirtualThreads.isEnabled(true)).isEqualTo(JAVA_21);
+    }
+
+    @Test
+    void executorsKeepTheirPlatformPoolsBelowJava21() {
+        assumeTrue(!JAVA_21, "platform-thread fallback only applies below Java 21");
+
+        AsyncTaskExecutor executor = new RazorpayConfig().refundStatusExecutor(8, true);
+
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        assertThat(((ThreadPoolTaskExecutor) executor).getMaxPoolSize()).isEqualTo(8);
+    }
+
+    @Test
+    void virtualThreadExecutorIsBoundedByTheConcurrencyLimit() throws Exception {
+        assumeTrue(JAVA_21, "virtual threads need Java 21");
+        AsyncTaskExecutor executor = VirtualThreads.boundedExecutor("test-", 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Boolean> virtual = new ArrayList<>();
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tasks.add(executor.submit(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                synchronized (virtual) {
+                    virtual.add(isVirtual(Thread.currentThread()));
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        assertThat(peak.get()).isBetween(1, 3);
+        assertThat(virtual).hasSize(12).containsOnly(true);
+    }
+
+    // Thread.isVirtual() is not in the Java 17 API the tests compile against
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
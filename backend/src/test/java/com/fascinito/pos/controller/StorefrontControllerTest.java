@@ -0,0 +1,75 @@
+package com.fascinito.pos.controller;
+
+import com.fascinito.pos.dto.storefront.HomePageResponse;
+import com.fascinito.pos.service.PrecompressedResponseCache;
+import com.fascinito.pos.service.StorefrontService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The precompressed home page body follows the snapshot that was served, so the previous
+ * snapshot returned after a failed rebuild is never pinned under the current version
+ */
+class StorefrontControllerTest {
+
+    private final StorefrontService storefrontService = mock(StorefrontService.class);
+    private StorefrontController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new StorefrontController(storefrontService,
+                new PrecompressedResponseCache(Jackson2ObjectMapperBuilder.json().build()));
+    }
+
+    @Test
+    void previousSnapshotAfterAFailedRebuildIsNotCachedForTheCurrentVersion() {
+        when(storefrontService.getCurrentVersion()).thenReturn(2L);
+        when(storefrontService.getHomePage()).thenReturn(snapshot(1));
+
+        MockHttpServletResponse fallback = new MockHttpServletResponse();
+        assertThat(body(fallback)).contains("\"version\":1");
+        assertThat(fallback.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+
+        // The next request's rebuild succeeds
+        when(storefrontService.getHomePage()).thenReturn(snapshot(2));
+        MockHttpServletResponse rebuilt = new MockHttpServletResponse();
+        assertThat(body(rebuilt)).contains("\"version\":2");
+        assertThat(rebuilt.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+    }
+
+    @Test
+    void currentSnapshotIsSerializedOnce() {
+        when(storefrontService.getCurrentVersion()).thenReturn(2L);
+        when(storefrontService.getHomePage()).thenReturn(snapshot(2));
+
+        byte[] first = controller.getHomePage(null, new MockHttpServletResponse()).getBody();
+        byte[] second = controller.getHomePage(null, new MockHttpServletResponse()).getBody();
+        assertThat(second).isSameAs(first);
+    }
+
+    private String body(MockHttpServletResponse response) {
+        return new String(controller.getHomePage(null, response).getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static HomePageResponse snapshot(long version) {
+        return HomePageResponse.builder()
+                .version(version)
+                .generatedAt(LocalDateTime.now())
+                .banners(List.of())
+                .featuredProducts(List.of())
+                .topCategories(List.of())
+                .newArrivals(List.of())
+                .build();
+    }
+}
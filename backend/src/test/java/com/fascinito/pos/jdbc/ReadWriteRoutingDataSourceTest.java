@@ -0,0 +1,121 @@
+package com.fascinito.pos.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Read-your-writes routing: the sticky window set by a write must hold on any instance,
+ * so it is carried by the client rather than kept by the node that served the write.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Duration STICKY = Duration.ofSeconds(5);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadWriteRoutingDataSource writingNode;
+    private ReadWriteRoutingDataSource readingNode;
+
+    @BeforeEach
+    void setUp() {
+        writingNode = router();
+        readingNode = router();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("customer@example.com", null, List.of()));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        writingNode.close();
+        readingNode.close();
+    }
+
+    @Test
+    void writeOnOneNodeSendsTheClientsReadsToThePrimaryOnAnother() {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        bindRequest(new MockHttpServletRequest(), writeResponse);
+        writingNode.recordWrite();
+
+        String setCookie = writeResponse.getHeader(HttpHeaders.SET_COOKIE);
+        assertThat(setCookie).startsWith(ReadWriteRoutingDataSource.STICKY_COOKIE + "=").contains("HttpOnly");
+        String until = setCookie.substring(setCookie.indexOf('=') + 1, setCookie.indexOf(';'));
+
+        MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setCookies(new Cookie(ReadWriteRoutingDataSource.STICKY_COOKIE, until));
+        bindRequest(nextRequest, new MockHttpServletResponse());
+
+        assertThat(readingNode.determineCurrentLookupKey()).isEqualTo(ReadWriteRoutingDataSource.PRIMARY);
+        assertThat(stickyRoutes()).isEqualTo(1);
+    }
+
+    @Test
+    void writeSendsLaterReadsOfTheSameRequestToThePrimary() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bindRequest(new MockHttpServletRequest(), response);
+        writingNode.recordWrite();
+        writingNode.recordWrite();
+
+        writingNode.determineCurrentLookupKey();
+        assertThat(stickyRoutes()).isEqualTo(1);
+        assertThat(response.getHeaders(HttpHeaders.SET_COOKIE)).hasSize(1);
+    }
+
+    @Test
+    void expiredOrForgedDeadlinesAreIgnored() {
+        long now = System.currentTimeMillis();
+        for (long until : new long[]{now - 1, now + Duration.ofHours(1).toMillis()}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setCookies(new Cookie(ReadWriteRoutingDataSource.STICKY_COOKIE, Long.toString(until)));
+            bindRequest(request, new MockHttpServletResponse());
+            readingNode.determineCurrentLookupKey();
+        }
+        assertThat(stickyRoutes()).isZero();
+    }
+
+    @Test
+    void anonymousWritesSetNoCookie() {
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bindRequest(new MockHttpServletRequest(), response);
+        writingNode.recordWrite();
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    private ReadWriteRoutingDataSource router() {
+        // The replica never passes a lag check, which does not matter for sticky routing
+        return new ReadWriteRoutingDataSource(mock(DataSource.class), Map.of("replica-1", mock(DataSource.class)),
+                Duration.ofSeconds(5), Duration.ofHours(1), STICKY, meterRegistry);
+    }
+
+    private static void bindRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    private double stickyRoutes() {
+        return meterRegistry.get("db.routing.connections").tag("reason", "sticky").counter().count();
+    }
+}
@@ -0,0 +1,141 @@
+package com.fascinito.pos.jdbc;
+
+import com.fascinito.pos.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slow statement capture through StatementCountingDataSource: shapes and bind parameter types
+ * (never values) in a bounded buffer, and a sampled EXPLAIN plan per shape on PostgreSQL
+ */
+class SlowQueryMonitorTest {
+
+    private final List<SlowQueryMonitor> monitors = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        monitors.forEach(SlowQueryMonitor::close);
+    }
+
+    @Test
+    void statementsBelowTheThresholdAreNotCaptured() throws SQLException {
+        DataSource h2 = h2("fast");
+        SlowQueryMonitor monitor = monitor(h2, Duration.ofMinutes(1), 10, 0);
+
+        query(new StatementCountingDataSource(h2, monitor), 1L);
+
+        assertThat(monitor.recent()).isEmpty();
+        assertThat(monitor.getCaptured()).isZero();
+    }
+
+    @Test
+    void slowStatementIsCapturedWithItsShapeAndParameterTypes() throws SQLException {
+        DataSource h2 = h2("shapes");
+        SlowQueryMonitor monitor = monitor(h2, Duration.ZERO, 10, 0);
+
+        try (Connection connection = new StatementCountingDataSource(h2, monitor).getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT id FROM items WHERE id = ? AND name = ? AND name <> ? AND price > 10")) {
+            statement.setLong(1, 1L);
+            statement.setObject(2, "Kurta");
+            statement.setNull(3, Types.VARCHAR);
+            statement.executeQuery().close();
+        }
+
+        SlowQueryMonitor.SlowQuery query = monitor.recent().get(0);
+        assertThat(query.shape()).isEqualTo("select id from items where id = ? and name = ? and name <> ? and price > ?");
+        assertThat(query.parameterTypes()).containsExactly("Long", "String", "null");
+        assertThat(query.batch()).isFalse();
+        assertThat(query.thread()).isEqualTo(Thread.currentThread().getName());
+        assertThat(query.toString()).doesNotContain("Kurta");
+    }
+
+    @Test
+    void bufferKeepsTheNewestAndCountsEverything() throws SQLException {
+        DataSource h2 = h2("buffer");
+        SlowQueryMonitor monitor = monitor(h2, Duration.ZERO, 3, 0);
+        JdbcTemplate jdbc = new JdbcTemplate(new StatementCountingDataSource(h2, monitor));
+
+        for (int i = 1; i <= 5; i++) {
+            jdbc.queryForList("SELECT id FROM items WHERE id = " + i + " OR name = 'q" + i + "'");
+        }
+        jdbc.batchUpdate("UPDATE items SET price = price + 1", "UPDATE items SET price = price - 1");
+
+        assertThat(monitor.getCaptured()).isEqualTo(6);
+        List<SlowQueryMonitor.SlowQuery> recent = monitor.recent();
+        assertThat(recent).hasSize(3);
+        assertThat(recent.get(0).batch()).isTrue();
+        assertThat(recent.get(1).shape()).isEqualTo("select id from items where id = ? or name = ?");
+
+        monitor.clear();
+        assertThat(monitor.recent()).isEmpty();
+        assertThat(monitor.getCaptured()).isZero();
+    }
+
+    @Test
+    void slowStatementIsExplainedOncePerInterval() throws Exception {
+        DataSource postgres = PostgresTestDatabase.create("slow_query_monitor");
+        new JdbcTemplate(postgres).execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(100), price NUMERIC)");
+        SlowQueryMonitor monitor = monitor(postgres, Duration.ZERO, 10, 1.0);
+        DataSource timed = new StatementCountingDataSource(postgres, monitor);
+        String shape = "select id from items where id = ?";
+
+        query(timed, 7L);
+        SlowQueryMonitor.Plan plan = awaitPlan(monitor, shape);
+        assertThat(plan.text()).contains("items");
+
+        // Slow again within the interval: the plan is not captured again
+        query(timed, 8L);
+        Thread.sleep(300);
+        assertThat(monitor.plan(shape)).contains(plan);
+        assertThat(monitor.getCaptured()).isEqualTo(2);
+    }
+
+    private SlowQueryMonitor monitor(DataSource explainDataSource, Duration threshold, int bufferSize,
+                                     double explainSampleRate) {
+        SlowQueryMonitor monitor = new SlowQueryMonitor(explainDataSource, threshold, bufferSize,
+                explainSampleRate, Duration.ofHours(1));
+        monitors.add(monitor);
+        return monitor;
+    }
+
+    private static void query(DataSource dataSource, long id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM items WHERE id = ?")) {
+            statement.setLong(1, id);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static SlowQueryMonitor.Plan awaitPlan(SlowQueryMonitor monitor, String shape) throws InterruptedException {
+        Instant deadline = Instant.now().plusSeconds(10);
+        Optional<SlowQueryMonitor.Plan> plan = monitor.plan(shape);
+        while (plan.isEmpty() && Instant.now().isBefore(deadline)) {
+            Thread.sleep(20);
+            plan = monitor.plan(shape);
+        }
+        assertThat(plan).as("EXPLAIN plan for %s", shape).isPresent();
+        return plan.get();
+    }
+
+    private static DataSource h2(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE IF NOT EXISTS items (id BIGINT PRIMARY KEY, name VARCHAR(100), price NUMERIC)");
+        return dataSource;
+    }
+}
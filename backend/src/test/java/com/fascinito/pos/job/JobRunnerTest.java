@@ -0,0 +1,195 @@
+package com.fascinito.pos.job;
+
+import com.fascinito.pos.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leases on PostgreSQL (FOR UPDATE SKIP LOCKED, job_leases): nodes claim disjoint batches, a
+ * failed batch is held back for the retry delay, a dead node's lease is taken over, and an
+ * exclusive job runs on one node at a time
+ */
+class JobRunnerTest {
+
+    private static final int ROWS = 10;
+    private static final int BATCH_SIZE = 4;
+
+    private static JdbcTemplate jdbc;
+    private static NamedParameterJdbcTemplate namedJdbc;
+    private static PlatformTransactionManager transactionManager;
+
+    private final List<JobRunner> runners = new ArrayList<>();
+
+    @BeforeAll
+    static void migrate() {
+        DataSource dataSource = PostgresTestDatabase.createMigrated("job_runner");
+        jdbc = new JdbcTemplate(dataSource);
+        namedJdbc = new NamedParameterJdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        // Work items as LeasedJob expects them: an id plus the two lease columns
+        jdbc.execute("CREATE TABLE work_items (id BIGSERIAL PRIMARY KEY, done BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "lease_owner VARCHAR(100), lease_until TIMESTAMP)");
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbc.execute("TRUNCATE work_items RESTART IDENTITY");
+        jdbc.execute("DELETE FROM job_leases");
+        for (int i = 0; i < ROWS; i++) {
+            jdbc.update("INSERT INTO work_items DEFAULT VALUES");
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        runners.forEach(JobRunner::shutdown);
+    }
+
+    @Test
+    void nodesClaimDisjointBatches() {
+        JobRunner first = runner();
+        JobRunner second = runner();
+        List<Long> processedByFirst = new ArrayList<>();
+        List<Long> processedBySecond = new ArrayList<>();
+        AtomicBoolean secondRan = new AtomicBoolean();
+
+        first.runLeased(job(ids -> {
+            // While the first node holds its batch, the second node runs the same job
+            if (secondRan.compareAndSet(false, true)) {
+                second.runLeased(job(secondIds -> {
+                    processedBySecond.addAll(secondIds);
+                    markDone(secondIds);
+                }));
+            }
+            processedByFirst.addAll(ids);
+            markDone(ids);
+        }));
+
+        assertThat(processedByFirst).doesNotContainAnyElementsOf(processedBySecond);
+        assertThat(processedBySecond).hasSize(ROWS - BATCH_SIZE);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM work_items WHERE done", Integer.class)).isEqualTo(ROWS);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM work_items WHERE lease_owner IS NOT NULL", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void failedBatchIsHeldForTheRetryDelay() {
+        JobRunner runner = runner();
+        List<Long> failed = new ArrayList<>();
+
+        int processed = runner.runLeased(job(ids -> {
+            failed.addAll(ids);
+            throw new IllegalStateException("gateway down");
+        }));
+
+        assertThat(processed).isZero();
+        assertThat(failed).hasSize(BATCH_SIZE);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM work_items WHERE lease_until > clock_timestamp() "
+                + "+ INTERVAL '30 seconds' AND lease_owner = ?", Integer.class, runner.getOwner())).isEqualTo(BATCH_SIZE);
+
+        // The next run skips the held rows and takes the others
+        List<Long> retried = new ArrayList<>();
+        runner.runLeased(job(ids -> {
+            retried.addAll(ids);
+            markDone(ids);
+        }));
+        assertThat(retried).hasSize(ROWS - BATCH_SIZE).doesNotContainAnyElementsOf(failed);
+    }
+
+    @Test
+    void deadNodesLeaseIsTakenOverOnceExpired() {
+        jdbc.update("UPDATE work_items SET lease_owner = 'dead-node', lease_until = clock_timestamp() + INTERVAL '1 minute' "
+                + "WHERE id <= 2");
+        jdbc.update("UPDATE work_items SET lease_owner = 'dead-node', lease_until = clock_timestamp() - INTERVAL '1 second' "
+                + "WHERE id BETWEEN 3 AND 4");
+
+        List<Long> processed = new ArrayList<>();
+        runner().runLeased(job(ids -> {
+            processed.addAll(ids);
+            markDone(ids);
+        }));
+
+        assertThat(processed).hasSize(ROWS - 2).contains(3L, 4L).doesNotContain(1L, 2L);
+    }
+
+    @Test
+    void exclusiveJobRunsOnOneNodeAtATime() {
+        JobRunner first = runner();
+        JobRunner second = runner();
+        AtomicBoolean secondRan = new AtomicBoolean();
+
+        assertThat(first.runExclusive("purge", () ->
+                assertThat(second.runExclusive("purge", () -> secondRan.set(true))).isFalse())).isTrue();
+        assertThat(secondRan).isFalse();
+
+        // Released on completion
+        assertThat(second.runExclusive("purge", () -> secondRan.set(true))).isTrue();
+        assertThat(secondRan).isTrue();
+    }
+
+    @Test
+    void exclusiveLeaseOfADeadNodeIsTakenOverOnceExpired() {
+        jdbc.update("INSERT INTO job_leases (name, lease_owner, lease_until) "
+                + "VALUES ('purge', 'dead-node', clock_timestamp() + INTERVAL '1 minute')");
+        assertThat(runner().runExclusive("purge", () -> { })).isFalse();
+
+        jdbc.update("UPDATE job_leases SET lease_until = clock_timestamp() - INTERVAL '1 second'");
+        assertThat(runner().runExclusive("purge", () -> { })).isTrue();
+    }
+
+    @Test
+    void failingItemOnlyRollsBackItself() {
+        List<Long> failures = new ArrayList<>();
+
+        runner().forEachInTransaction("mark", List.of(1L, 2L, 3L), id -> {
+            markDone(List.of(id));
+            if (id == 2L) {
+                throw new IllegalStateException("bad item");
+            }
+        }, (id, error) -> failures.add(id));
+
+        assertThat(jdbc.queryForList("SELECT id FROM work_items WHERE done ORDER BY id", Long.class))
+                .containsExactly(1L, 3L);
+        assertThat(failures).containsExactly(2L);
+    }
+
+    private JobRunner runner() {
+        JobRunner runner = new JobRunner(namedJdbc, transactionManager);
+        ReflectionTestUtils.setField(runner, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(runner, "maxBatchesPerRun", 20);
+        ReflectionTestUtils.setField(runner, "failedBatchRetrySeconds", 60L);
+        runners.add(runner);
+        return runner;
+    }
+
+    private static LeasedJob job(Consumer<List<Long>> processor) {
+        return LeasedJob.builder()
+                .name("work-items")
+                .table("work_items")
+                .dueCondition("NOT done")
+                .orderBy("id")
+                .batchSize(BATCH_SIZE)
+                .processor(processor)
+                .build();
+    }
+
+    private static void markDone(List<Long> ids) {
+        namedJdbc.update("UPDATE work_items SET done = TRUE WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+}
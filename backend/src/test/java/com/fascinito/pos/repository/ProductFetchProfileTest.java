@@ -0,0 +1,184 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.entity.Category;
+import com.fascinito.pos.entity.Location;
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductImage;
+import com.fascinito.pos.entity.ProductSpecification;
+import com.fascinito.pos.entity.ProductVariantCombination;
+import com.fascinito.pos.entity.ProductVariantCombinationOption;
+import com.fascinito.pos.entity.ProductVariation;
+import com.fascinito.pos.entity.SubCategory;
+import com.fascinito.pos.entity.Vendor;
+import com.fascinito.pos.entity.VariationOption;
+import com.fascinito.pos.jdbc.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets for the product fetch profiles (Product.CARD_GRAPH / DETAIL_GRAPH).
+ * Each test walks what the product card and product page responses read; a budget that
+ * grows with the number of products or variations is an N+1.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(SqlInspectionConfig.class)
+// The counting DataSource post-processor takes @Value settings
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+class ProductFetchProfileTest {
+
+    private static final int PRODUCTS = 12;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @BeforeEach
+    void seedCatalog() {
+        Category category = new Category();
+        category.setName("Shirts");
+        category.setSlug("shirts");
+        entityManager.persist(category);
+
+        SubCategory subCategory = new SubCategory();
+        subCategory.setName("Linen");
+        subCategory.setSlug("linen");
+        subCategory.setCategory(category);
+        entityManager.persist(subCategory);
+
+        Vendor vendor = new Vendor();
+        vendor.setName("Vendor");
+        vendor.setSlug("vendor");
+        entityManager.persist(vendor);
+
+        Location location = new Location();
+        location.setName("Warehouse");
+        entityManager.persist(location);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            entityManager.persist(product(i, category, subCategory, vendor, location));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productCardPageLoadsInFixedStatements() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("product cards")) {
+            Page<Product> page = productRepository.findByVisibleToCustomersTrueAndActiveTrue(
+                    PageRequest.of(0, PAGE_SIZE));
+            List<Long> ids = page.getContent().stream().map(Product::getId).toList();
+            Map<Long, String> firstImages = productImageRepository.findFirstImagesByProductIds(ids).stream()
+                    .collect(Collectors.toMap(image -> image.getProduct().getId(), ProductImage::getImageUrl,
+                            (first, second) -> first));
+
+            for (Product product : page.getContent()) {
+                assertThat(product.getCategory().getName()).isEqualTo("Shirts");
+                assertThat(product.getSubCategory().getName()).isEqualTo("Linen");
+                assertThat(product.getVendor().getName()).isEqualTo("Vendor");
+                assertThat(product.getLocation().getName()).isEqualTo("Warehouse");
+                assertThat(firstImages).containsKey(product.getId());
+            }
+            assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+
+            // page select, count, first images
+            scope.assertQueryCount(3);
+        }
+    }
+
+    @Test
+    void productDetailLoadsInFixedStatements() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("product detail")) {
+            Product product = productRepository.findBySlug("product-3").orElseThrow();
+
+            assertThat(product.getCategory().getName()).isEqualTo("Shirts");
+            assertThat(product.getImages()).hasSize(2);
+            for (ProductVariation variation : product.getVariations()) {
+                assertThat(variation.getOptions()).hasSize(2);
+            }
+            for (ProductVariantCombination combination : product.getVariantCombinations()) {
+                for (ProductVariantCombinationOption option : combination.getOptions()) {
+                    assertThat(option.getVariationOption().getName()).startsWith("Option");
+                }
+            }
+            assertThat(product.getSpecifications()).hasSize(2);
+
+            // product with to-ones and images, variations, options, combinations,
+            // combination options, specifications
+            scope.assertQueryCount(6);
+        }
+    }
+
+    private Product product(int index, Category category, SubCategory subCategory, Vendor vendor, Location location) {
+        Product product = new Product();
+        product.setTitle("Product " + index);
+        product.setSlug("product-" + index);
+        product.setSku("SKU-" + index);
+        product.setRegularPrice(new BigDecimal("100.00"));
+        product.setCategory(category);
+        product.setSubCategory(subCategory);
+        product.setVendor(vendor);
+        product.setLocation(location);
+
+        for (int order = 0; order < 2; order++) {
+            ProductImage image = new ProductImage();
+            image.setProduct(product);
+            image.setImageUrl("/blobs/" + index + "-" + order + ".jpg");
+            image.setDisplayOrder(order);
+            product.getImages().add(image);
+
+            ProductSpecification specification = new ProductSpecification();
+            specification.setProduct(product);
+            specification.setAttributeName("Attribute " + order);
+            specification.setAttributeValue("Value " + order);
+            specification.setDisplayOrder(order);
+            product.getSpecifications().add(specification);
+        }
+
+        ProductVariation variation = new ProductVariation();
+        variation.setProduct(product);
+        variation.setName("Size");
+        variation.setType("Size");
+        for (int option = 0; option < 2; option++) {
+            VariationOption variationOption = new VariationOption();
+            variationOption.setVariation(variation);
+            variationOption.setName("Option " + option);
+            variation.getOptions().add(variationOption);
+        }
+        product.getVariations().add(variation);
+
+        ProductVariantCombination combination = new ProductVariantCombination();
+        combination.setProduct(product);
+        combination.setPrice(new BigDecimal("100.00"));
+        combination.setStock(5);
+        ProductVariantCombinationOption combinationOption = new ProductVariantCombinationOption();
+        combinationOption.setCombination(combination);
+        combinationOption.setVariationOption(variation.getOptions().get(0));
+        combination.getOptions().add(combinationOption);
+        product.getVariantCombinations().add(combination);
+        return product;
+    }
+}
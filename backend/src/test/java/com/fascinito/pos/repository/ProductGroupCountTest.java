@@ -0,0 +1,134 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.entity.Category;
+import com.fascinito.pos.entity.Location;
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.Vendor;
+import com.fascinito.pos.jdbc.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The grouped listing aggregates (ProductGroupCount) agree with what the per-row count and
+ * stock queries they replaced returned, in one statement for all groups
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(SqlInspectionConfig.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+class ProductGroupCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category shirts;
+    private Category trousers;
+    private Category empty;
+    private Vendor vendor;
+    private Location location;
+
+    @BeforeEach
+    void seed() {
+        shirts = persist(category("Shirts", "shirts"));
+        trousers = persist(category("Trousers", "trousers"));
+        empty = persist(category("Empty", "empty"));
+        vendor = new Vendor();
+        vendor.setName("Vendor");
+        vendor.setSlug("vendor");
+        persist(vendor);
+        location = new Location();
+        location.setName("Warehouse");
+        persist(location);
+
+        persist(product("shirt-1", shirts, 5, true, true));
+        persist(product("shirt-2", shirts, 7, true, true));
+        // Counted, but their stock is not on sale
+        persist(product("shirt-hidden", shirts, 11, false, true));
+        persist(product("shirt-inactive", shirts, 13, true, false));
+        persist(product("trousers-1", trousers, 3, true, true));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void categoryCountsAllProductsAndSumsStockOnSale() {
+        Map<Long, ProductGroupCount> counts;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("category counts")) {
+            counts = byGroup(productRepository.countByCategoryIds(
+                    List.of(shirts.getId(), trousers.getId(), empty.getId())));
+            scope.assertQueryCount(1);
+        }
+
+        for (Category category : List.of(shirts, trousers)) {
+            ProductGroupCount count = counts.get(category.getId());
+            assertThat(count.getProductCount().longValue())
+                    .isEqualTo(productRepository.countByCategoryId(category.getId()));
+            assertThat(count.getTotalStock().intValue())
+                    .isEqualTo(productRepository.getTotalStockByCategoryId(category.getId()));
+        }
+        assertThat(counts.get(shirts.getId()).getProductCount().intValue()).isEqualTo(4);
+        assertThat(counts.get(shirts.getId()).getTotalStock().intValue()).isEqualTo(12);
+        // No row for a category without products: the services map that to zero
+        assertThat(counts).doesNotContainKey(empty.getId());
+    }
+
+    @Test
+    void vendorAndLocationCountsSumAllStock() {
+        ProductGroupCount byVendor = productRepository.countByVendorIds(List.of(vendor.getId())).get(0);
+        assertThat(byVendor.getGroupId()).isEqualTo(vendor.getId());
+        assertThat(byVendor.getProductCount().longValue()).isEqualTo(productRepository.countByVendorId(vendor.getId()));
+        assertThat(byVendor.getTotalStock().intValue()).isEqualTo(5 + 7 + 11 + 13 + 3);
+
+        ProductGroupCount byLocation = productRepository.countByLocationIds(List.of(location.getId())).get(0);
+        assertThat(byLocation.getProductCount().longValue()).isEqualTo(productRepository.countByLocationId(location.getId()));
+        assertThat(byLocation.getTotalStock().intValue()).isEqualTo(5 + 7 + 11 + 13 + 3);
+    }
+
+    private <T> T persist(T entity) {
+        return entityManager.persist(entity);
+    }
+
+    private static Map<Long, ProductGroupCount> byGroup(List<ProductGroupCount> counts) {
+        return counts.stream().collect(Collectors.toMap(ProductGroupCount::getGroupId, count -> count));
+    }
+
+    private static Category category(String name, String slug) {
+        Category category = new Category();
+        category.setName(name);
+        category.setSlug(slug);
+        return category;
+    }
+
+    private Product product(String slug, Category category, int stock, boolean visible, boolean active) {
+        Product product = new Product();
+        product.setTitle(slug);
+        product.setSlug(slug);
+        product.setSku(slug.toUpperCase());
+        product.setRegularPrice(new BigDecimal("100.00"));
+        product.setCategory(category);
+        product.setVendor(vendor);
+        product.setLocation(location);
+        product.setStockQuantity(stock);
+        product.setVisibleToCustomers(visible);
+        product.setActive(active);
+        return product;
+    }
+}
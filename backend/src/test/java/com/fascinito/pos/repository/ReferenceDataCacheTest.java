@@ -0,0 +1,139 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.entity.Category;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes through Hibernate keep the reference data regions (ehcache.xml) current: a committed
+ * update replaces the cached entity, a delete evicts it, and any write to categories invalidates
+ * the cached category queries. Every step commits, as the regions only change on commit.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@Import(SqlInspectionConfig.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+    private Long shirtsId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        shirtsId = tx.execute(status -> categoryRepository.save(category("Shirts", "shirts")).getId());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> categoryRepository.deleteAll());
+    }
+
+    @Test
+    void cachedLookupsAreServedFromTheRegions() {
+        load(shirtsId);
+        activeNames();
+        statistics.clear();
+
+        assertThat(load(shirtsId).getName()).isEqualTo("Shirts");
+        assertThat(activeNames()).containsExactly("Shirts");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void updateReplacesTheCachedEntityAndInvalidatesCachedQueries() {
+        load(shirtsId);
+        activeNames();
+
+        tx.executeWithoutResult(status -> categoryRepository.findById(shirtsId).orElseThrow().setName("Linen shirts"));
+        statistics.clear();
+
+        assertThat(load(shirtsId).getName()).isEqualTo("Linen shirts");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(activeNames()).containsExactly("Linen shirts");
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    void insertInvalidatesCachedQueries() {
+        assertThat(activeNames()).containsExactly("Shirts");
+
+        tx.executeWithoutResult(status -> categoryRepository.save(category("Trousers", "trousers")));
+        statistics.clear();
+
+        assertThat(activeNames()).containsExactlyInAnyOrder("Shirts", "Trousers");
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    void deleteEvictsTheEntityAndInvalidatesCachedQueries() {
+        load(shirtsId);
+        assertThat(activeNames()).containsExactly("Shirts");
+        assertThat(entityManagerFactory.getCache().contains(Category.class, shirtsId)).isTrue();
+
+        tx.executeWithoutResult(status -> categoryRepository.deleteById(shirtsId));
+        statistics.clear();
+
+        // The region keeps a lock entry for the key, which is never read as the entity
+        Optional<Category> deleted = tx.execute(status -> categoryRepository.findById(shirtsId));
+        assertThat(deleted).isEmpty();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+        assertThat(activeNames()).isEmpty();
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    private Category load(Long id) {
+        return tx.execute(status -> categoryRepository.findById(id).orElseThrow());
+    }
+
+    private List<String> activeNames() {
+        return tx.execute(status -> categoryRepository.findByActiveTrue().stream().map(Category::getName).toList());
+    }
+
+    private static Category category(String name, String slug) {
+        Category category = new Category();
+        category.setName(name);
+        category.setSlug(slug);
+        return category;
+    }
+}
@@ -0,0 +1,101 @@
+package com.fascinito.pos.repository;
+
+import com.fascinito.pos.support.PostgresTestDatabase;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Flyway migrations on PostgreSQL, with the settings from application.yml, followed by
+ * Hibernate's ddl-auto validate of the current entity model. Both ways a database reaches the
+ * current schema are covered: an existing database created by ddl-auto (baselined at version 0,
+ * then V1 onwards) and an empty one (V0 onwards).
+ */
+class SchemaMigrationTest {
+
+    private static final Properties APPLICATION = applicationYml();
+
+    @Test
+    void existingDdlAutoDatabaseIsBaselinedAndMigrated() {
+        DataSource dataSource = PostgresTestDatabase.create("migration_existing");
+        // What ddl-auto left behind before Flyway: V0 is that schema, without a schema history
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V0__baseline_schema.sql"))
+                .execute(dataSource);
+
+        Flyway flyway = flyway(dataSource);
+        flyway.migrate();
+
+        MigrationInfo[] applied = flyway.info().applied();
+        assertThat(applied[0].getType().isBaseline()).isTrue();
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo("0");
+        assertThat(Arrays.stream(applied).skip(1)).noneMatch(migration -> migration.getType().isBaseline())
+                .noneMatch(migration -> migration.getVersion().getVersion().equals("0"));
+        assertThat(flyway.info().pending()).isEmpty();
+        validateEntities(dataSource);
+    }
+
+    @Test
+    void emptyDatabaseIsMigratedFromV0() {
+        DataSource dataSource = PostgresTestDatabase.create("migration_empty");
+
+        Flyway flyway = flyway(dataSource);
+        flyway.migrate();
+
+        MigrationInfo[] applied = flyway.info().applied();
+        assertThat(applied[0].getType().isBaseline()).isFalse();
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo("0");
+        assertThat(flyway.info().pending()).isEmpty();
+        validateEntities(dataSource);
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(Boolean.parseBoolean(APPLICATION.getProperty("spring.flyway.baseline-on-migrate")))
+                .baselineVersion(APPLICATION.getProperty("spring.flyway.baseline-version"))
+                .configuration(Map.of("flyway.postgresql.transactional.lock",
+                        APPLICATION.getProperty("spring.flyway.postgresql.transactional-lock")))
+                .load();
+    }
+
+    /**
+     * Starts Hibernate on the migrated schema with spring.jpa.hibernate.ddl-auto; fails on any
+     * missing table or column, or a column of the wrong type
+     */
+    private static void validateEntities(DataSource dataSource) {
+        assertThat(APPLICATION.getProperty("spring.jpa.hibernate.ddl-auto")).isEqualTo("validate");
+        LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPackagesToScan("com.fascinito.pos.entity");
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", APPLICATION.getProperty("spring.jpa.hibernate.ddl-auto"),
+                "hibernate.dialect", APPLICATION.getProperty("spring.jpa.properties.hibernate.dialect"),
+                // Spring Boot's defaults, which map camelCase fields to snake_case columns
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName()));
+        entityManagerFactory.afterPropertiesSet();
+        entityManagerFactory.destroy();
+    }
+
+    private static Properties applicationYml() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        return yaml.getObject();
+    }
+}
@@ -0,0 +1,97 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.EmailTemplate;
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The business counters: checkouts by outcome, stock conflicts, and order status emails by
+ * template and outcome as MailService records them
+ */
+class BusinessMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final BusinessMetrics metrics = new BusinessMetrics(registry);
+
+    @Test
+    void checkoutsAreCountedByOutcome() {
+        metrics.checkoutCreated();
+        metrics.checkoutCreated();
+        metrics.checkoutRejected("empty_cart");
+        metrics.stockConflict();
+
+        assertThat(checkouts("created")).isEqualTo(2);
+        assertThat(checkouts("empty_cart")).isEqualTo(1);
+        assertThat(checkouts("insufficient_stock")).isEqualTo(1);
+        assertThat(registry.get("pos.stock.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void emailIsSkippedWithoutAMailSender() {
+        MailService mailService = new MailService(Optional.empty(), mock(EmailTemplateService.class), metrics);
+
+        mailService.sendOrderStatusEmail(order(), template());
+
+        assertThat(emails("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    void emailsAreCountedAsSentOrFailed() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(call -> new MimeMessage((Session) null));
+        EmailTemplateService templates = mock(EmailTemplateService.class);
+        when(templates.processTemplate(anyString(), any())).thenReturn("Your order has shipped");
+        MailService mailService = new MailService(Optional.of(mailSender), templates, metrics);
+        ReflectionTestUtils.setField(mailService, "fromEmail", "noreply@fascinito.com");
+
+        mailService.sendOrderStatusEmail(order(), template());
+        doThrow(new MailSendException("SMTP down")).when(mailSender).send(any(MimeMessage.class));
+        mailService.sendOrderStatusEmail(order(), template());
+
+        assertThat(emails("sent")).isEqualTo(1);
+        assertThat(emails("failed")).isEqualTo(1);
+    }
+
+    private double checkouts(String outcome) {
+        return registry.get("pos.checkouts").tag("outcome", outcome).counter().count();
+    }
+
+    private double emails(String outcome) {
+        return registry.get("pos.emails").tag("template", "ORDER_SHIPPED").tag("outcome", outcome).counter().count();
+    }
+
+    private static Order order() {
+        User user = new User();
+        user.setEmail("customer@example.com");
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-1");
+        order.setUser(user);
+        return order;
+    }
+
+    private static EmailTemplate template() {
+        EmailTemplate template = new EmailTemplate();
+        template.setTemplateKey("ORDER_SHIPPED");
+        template.setSubject("Order {{orderNumber}} shipped");
+        template.setBodyHtml("<p>Shipped</p>");
+        return template;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.event.CatalogChangedEvent;
+import com.fascinito.pos.support.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Validators derived from the shared catalog_versions rows (V12), on PostgreSQL
+ */
+class CatalogVersionsTest {
+
+    private static final int WRITES = 5;
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void createTable() {
+        DataSource dataSource = PostgresTestDatabase.create("catalog_versions");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V12__create_catalog_versions.sql"))
+                .execute(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void everyWriteChangesTheEntityTag() {
+        CatalogVersions versions = new CatalogVersions(jdbc, 5000);
+        Set<String> tags = new HashSet<>();
+        tags.add(versions.etag(CatalogVersions.BANNERS));
+        for (int i = 0; i < WRITES; i++) {
+            versions.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Type.BANNER, null));
+            versions.refresh();
+            tags.add(versions.etag(CatalogVersions.BANNERS));
+        }
+        assertThat(tags).hasSize(WRITES + 1);
+    }
+
+    @Test
+    void writesWithinOneSecondDoNotMoveLastModifiedIntoTheFuture() {
+        CatalogVersions versions = new CatalogVersions(jdbc, 5000);
+        for (int i = 0; i < WRITES; i++) {
+            versions.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Type.CATEGORY, null));
+        }
+        versions.refresh();
+
+        long lastModified = versions.lastModified(Set.of(CatalogChangedEvent.Type.CATEGORY));
+        assertThat(lastModified % 1000).isZero();
+        assertThat(lastModified).isLessThanOrEqualTo(System.currentTimeMillis());
+    }
+}
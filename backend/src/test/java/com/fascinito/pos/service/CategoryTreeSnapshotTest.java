@@ -0,0 +1,68 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.category.CategoryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The category snapshot is loaded once per shared catalog version, and a load that finishes
+ * late never replaces a newer snapshot
+ */
+class CategoryTreeSnapshotTest {
+
+    private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+    private final CategoryTreeSnapshot snapshot = new CategoryTreeSnapshot(catalogVersions);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsOncePerVersion() {
+        when(catalogVersions.version(CatalogVersions.CATEGORIES)).thenReturn(1L);
+        assertThat(names(snapshot.getActiveCategories(loader("Shirts")))).containsExactly("Shirts");
+        assertThat(names(snapshot.getActiveCategories(loader("Unused")))).containsExactly("Shirts");
+        assertThat(loads).hasValue(1);
+
+        when(catalogVersions.version(CatalogVersions.CATEGORIES)).thenReturn(2L);
+        assertThat(names(snapshot.getActiveCategories(loader("Trousers")))).containsExactly("Trousers");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void slowLoadAtAnOlderVersionDoesNotReplaceANewerSnapshot() {
+        // A reader sees version 1 and starts loading; meanwhile another reader builds version 2
+        when(catalogVersions.version(CatalogVersions.CATEGORIES)).thenReturn(1L);
+        List<CategoryResponse> slow = snapshot.getActiveCategories(() -> {
+            when(catalogVersions.version(CatalogVersions.CATEGORIES)).thenReturn(2L);
+            snapshot.getActiveCategories(loader("Current"));
+            return List.of(category("Outdated"));
+        });
+
+        // The slow reader still gets what it loaded, but the snapshot stays at version 2
+        assertThat(names(slow)).containsExactly("Outdated");
+        assertThat(names(snapshot.getActiveCategories(loader("Unused")))).containsExactly("Current");
+        assertThat(loads).hasValue(1);
+    }
+
+    private Supplier<List<CategoryResponse>> loader(String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(category(name));
+        };
+    }
+
+    private static CategoryResponse category(String name) {
+        CategoryResponse response = new CategoryResponse();
+        response.setName(name);
+        return response;
+    }
+
+    private static List<String> names(List<CategoryResponse> categories) {
+        return categories.stream().map(CategoryResponse::getName).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.diagnostics.FlightRecordingResponse;
+import com.fascinito.pos.exception.BadRequestException;
+import com.fascinito.pos.exception.ConflictException;
+import com.fascinito.pos.exception.ResourceNotFoundException;
+import com.fascinito.pos.jfr.CheckoutStageEvent;
+import com.fascinito.pos.jfr.MailSendEvent;
+import com.fascinito.pos.jfr.ReportStageEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * On-demand recordings: the application's checkout, report and mail events end up in the
+ * downloaded file, the threshold drops short events, and only one recording runs at a time
+ */
+class FlightRecorderServiceTest {
+
+    private final FlightRecorderService service = new FlightRecorderService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxDurationMinutes", 30L);
+        ReflectionTestUtils.setField(service, "maxSizeMb", 50L);
+    }
+
+    @AfterEach
+    void shutDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void applicationEventsAreInTheDownloadedRecording() throws IOException {
+        FlightRecordingResponse started = service.start("default", 60L, 0);
+        assertThat(started.getState()).isEqualTo("RUNNING");
+        assertThat(started.getMaxDurationSeconds()).isEqualTo(60);
+
+        CheckoutStageEvent.start("stock_validation", 7L, 3).finish(42L);
+        ReportStageEvent.start("dashboard", "sales", "query").finish(120);
+        MailSendEvent.start("ORDER_SHIPPED", 42L).finish("sent", 2048);
+        assertThat(service.stop().getState()).isEqualTo("STOPPED");
+
+        List<RecordedEvent> events = download();
+        RecordedEvent checkout = only(events, "com.fascinito.pos.CheckoutStage");
+        assertThat(checkout.getString("stage")).isEqualTo("stock_validation");
+        assertThat(checkout.getLong("userId")).isEqualTo(7);
+        assertThat(checkout.getLong("orderId")).isEqualTo(42);
+        assertThat(checkout.getInt("itemCount")).isEqualTo(3);
+        RecordedEvent report = only(events, "com.fascinito.pos.ReportStage");
+        assertThat(report.getString("report")).isEqualTo("sales");
+        assertThat(report.getLong("rows")).isEqualTo(120);
+        RecordedEvent mail = only(events, "com.fascinito.pos.MailSend");
+        assertThat(mail.getString("outcome")).isEqualTo("sent");
+        assertThat(mail.getInt("bodyLength")).isEqualTo(2048);
+    }
+
+    @Test
+    void eventsShorterThanTheThresholdAreDropped() throws IOException {
+        service.start("default", null, 10_000);
+
+        CheckoutStageEvent.start("stock_validation", 7L, 3).finish(null);
+        service.stop();
+
+        assertThat(download()).noneMatch(event -> event.getEventType().getName().startsWith("com.fascinito.pos."));
+    }
+
+    @Test
+    void oneRecordingAtATime() {
+        service.start("default", null, 0);
+
+        assertThatThrownBy(() -> service.start("profile", null, 0)).isInstanceOf(ConflictException.class);
+
+        // A stopped recording is replaced by the next one
+        service.stop();
+        assertThat(service.start("profile", null, 0).getSettings()).isEqualTo("profile");
+    }
+
+    @Test
+    void invalidRequestsAreRejected() {
+        assertThatThrownBy(service::status).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.start("verbose", null, 0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.start("default", null, -1)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void durationIsCappedByTheConfiguredMaximum() {
+        assertThat(service.start("default", 24 * 3600L, 0).getMaxDurationSeconds()).isEqualTo(30 * 60);
+    }
+
+    private List<RecordedEvent> download() throws IOException {
+        Path file = Files.createTempFile("recording", ".jfr");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                service.download(out);
+            }
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+}
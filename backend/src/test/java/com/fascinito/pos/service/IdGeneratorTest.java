@@ -0,0 +1,124 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.support.PostgresTestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Node id leases in job_leases, on PostgreSQL: one node id per live instance, and the id of an
+ * instance that stopped renewing becomes free again
+ */
+class IdGeneratorTest {
+
+    private static NamedParameterJdbcTemplate jdbc;
+
+    private final List<IdGenerator> generators = new ArrayList<>();
+
+    @BeforeAll
+    static void migrate() {
+        jdbc = new NamedParameterJdbcTemplate(PostgresTestDatabase.createMigrated("id_generator"));
+    }
+
+    @BeforeEach
+    void clearLeases() {
+        jdbc.getJdbcTemplate().update("DELETE FROM job_leases");
+    }
+
+    @AfterEach
+    void close() {
+        generators.forEach(IdGenerator::close);
+    }
+
+    @Test
+    void liveLeasesAreNeverShared() {
+        IdGenerator first = start("instance-a", 60);
+        IdGenerator second = start("instance-b", 60);
+
+        assertThat(nodeId(first)).isNotEqualTo(nodeId(second));
+        assertThat(leaseOwner(nodeId(first))).isEqualTo("instance-a");
+        assertThat(leaseOwner(nodeId(second))).isEqualTo("instance-b");
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        IdGenerator crashed = start("instance-a", 60);
+        long nodeId = nodeId(crashed);
+        expire(nodeId);
+
+        IdGenerator next = start("instance-b", 60);
+
+        assertThat(nodeId(next)).isEqualTo(nodeId);
+        assertThat(leaseOwner(nodeId)).isEqualTo("instance-b");
+    }
+
+    @Test
+    void instanceWhoseLeaseWasTakenOverLeasesAnotherId() throws InterruptedException {
+        // Renews every second
+        IdGenerator paused = start("instance-a", 3);
+        long nodeId = nodeId(paused);
+        expire(nodeId);
+        start("instance-b", 60);
+
+        // The next renewal finds the lease taken; no ids are issued until a new one is held
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!holdsOtherId(paused, nodeId) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(nodeId(paused)).isNotEqualTo(nodeId);
+        assertThat(leaseOwner(nodeId(paused))).isEqualTo("instance-a");
+        assertThat(leaseOwner(nodeId)).isEqualTo("instance-b");
+    }
+
+    @Test
+    void closedInstanceReleasesItsId() {
+        IdGenerator stopped = start("instance-a", 60);
+        long nodeId = nodeId(stopped);
+        stopped.close();
+
+        assertThat(nodeId(start("instance-b", 60))).isEqualTo(nodeId);
+    }
+
+    private IdGenerator start(String owner, long leaseSeconds) {
+        JobRunner jobRunner = mock(JobRunner.class);
+        when(jobRunner.getOwner()).thenReturn(owner);
+        IdGenerator generator = new IdGenerator(-1, leaseSeconds, jdbc, jobRunner);
+        generator.afterSingletonsInstantiated();
+        generators.add(generator);
+        return generator;
+    }
+
+    private static long nodeId(IdGenerator generator) {
+        return (generator.nextId() >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE_ID;
+    }
+
+    private static boolean holdsOtherId(IdGenerator generator, long previousNodeId) {
+        try {
+            return nodeId(generator) != previousNodeId;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    // What a crashed instance leaves behind once its lease runs out
+    private static void expire(long nodeId) {
+        jdbc.getJdbcTemplate().update(
+                "UPDATE job_leases SET lease_until = clock_timestamp() - INTERVAL '1 second' WHERE name = ?",
+                IdGenerator.NODE_LEASE_PREFIX + nodeId);
+    }
+
+    private static String leaseOwner(long nodeId) {
+        return jdbc.getJdbcTemplate().queryForObject("SELECT lease_owner FROM job_leases WHERE name = ?",
+                String.class, IdGenerator.NODE_LEASE_PREFIX + nodeId);
+    }
+}
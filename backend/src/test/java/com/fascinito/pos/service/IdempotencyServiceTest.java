@@ -0,0 +1,187 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.entity.IdempotencyRecord;
+import com.fascinito.pos.exception.BadRequestException;
+import com.fascinito.pos.exception.ConflictException;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Idempotency-Key handling against the idempotency_keys table: one execution per key, replay
+ * from the front cache or from the table on another instance, a released key after a failed
+ * attempt, and a claim that outlived its lease losing to the retry that took it over. Every
+ * step commits, as the service claims keys in their own transactions.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(SqlInspectionConfig.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final TypeReference<Map<String, Object>> RESPONSE = new TypeReference<>() {
+    };
+    private static final Map<String, Object> REQUEST = Map.of("items", 2);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = instance();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() {
+        ResponseEntity<Map<String, Object>> first = checkout(service, "key-1", REQUEST, this::created);
+        ResponseEntity<Map<String, Object>> retry = checkout(service, "key-1", REQUEST, this::created);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void anotherInstanceReplaysFromTheTable() {
+        checkout(service, "key-1", REQUEST, this::created);
+
+        ResponseEntity<Map<String, Object>> retry = checkout(instance(), "key-1", REQUEST, this::created);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getBody()).containsEntry("orderNumber", "ORD-1");
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        checkout(service, "key-1", REQUEST, this::created);
+        service.execute("checkout", 2L, "key-1", REQUEST, RESPONSE, this::created);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        checkout(service, "key-1", REQUEST, this::created);
+
+        assertThatThrownBy(() -> checkout(instance(), "key-1", Map.of("items", 3), this::created))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failedAttemptReleasesTheKey() {
+        ResponseEntity<Map<String, Object>> rejected = checkout(service, "key-1", REQUEST,
+                () -> ResponseEntity.badRequest().body(Map.of("error", "out of stock")));
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertThatThrownBy(() -> checkout(service, "key-1", REQUEST, () -> {
+            throw new IllegalStateException("payment gateway down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(checkout(service, "key-1", REQUEST, this::created).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void requestWhileTheFirstIsInProgressIsAConflict() {
+        checkout(service, "key-1", REQUEST, () -> {
+            // A retry on another node, outside this request's transaction
+            assertThatThrownBy(() -> CompletableFuture.runAsync(() ->
+                    checkout(instance(), "key-1", REQUEST, this::created)).join())
+                    .hasCauseInstanceOf(ConflictException.class);
+            return created();
+        });
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void actionThatOutlivedItsLeaseDoesNotComplete() {
+        IdempotencyService other = instance();
+
+        assertThatThrownBy(() -> checkout(service, "key-1", REQUEST, () -> {
+            // This node stalls past its lease; a retry on another node takes the key over
+            CompletableFuture.runAsync(() -> {
+                expireLeases();
+                checkout(other, "key-1", REQUEST, this::created);
+            }).join();
+            return created();
+        })).isInstanceOf(ConflictException.class);
+
+        // The takeover (ORD-1) is the stored response, not the stalled action's ORD-2
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().get(0);
+        assertThat(record.getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(record.getResponseBody()).contains("ORD-1");
+        assertThat(checkout(instance(), "key-1", REQUEST, this::created).getBody())
+                .containsEntry("orderNumber", "ORD-1");
+    }
+
+    private IdempotencyService instance() {
+        IdempotencyService instance = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                transactionManager, mock(JobRunner.class), 60);
+        ReflectionTestUtils.setField(instance, "ttlHours", 24L);
+        ReflectionTestUtils.setField(instance, "cacheMaxEntries", 100);
+        return instance;
+    }
+
+    private ResponseEntity<Map<String, Object>> checkout(IdempotencyService instance, String key,
+                                                         Map<String, Object> request,
+                                                         Supplier<ResponseEntity<Map<String, Object>>> action) {
+        return instance.execute("checkout", 1L, key, request, RESPONSE, action);
+    }
+
+    private ResponseEntity<Map<String, Object>> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("orderNumber", "ORD-" + executions.incrementAndGet()));
+    }
+
+    private void expireLeases() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                idempotencyRecordRepository.findAll().forEach(record -> {
+                    record.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+                    idempotencyRecordRepository.save(record);
+                }));
+    }
+}
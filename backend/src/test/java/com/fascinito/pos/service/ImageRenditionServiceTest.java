@@ -0,0 +1,125 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.repository.ProductImageRepository;
+import com.fascinito.pos.storage.BlobStore;
+import com.fascinito.pos.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Renditions of uploads that carry an EXIF Orientation tag come out upright
+ */
+class ImageRenditionServiceTest {
+
+    // Stored landscape, left half red and right half blue
+    private static final int STORED_WIDTH = 80;
+    private static final int STORED_HEIGHT = 40;
+
+    @TempDir
+    Path blobs;
+
+    private BlobStore blobStore;
+    private ImageRenditionService service;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalBlobStore(blobs.toString());
+        // Jobs run on the calling thread
+        service = new ImageRenditionService(mock(ProductImageRepository.class), blobStore,
+                mock(ApplicationEventPublisher.class), Runnable::run, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "thumbWidth", 10);
+        ReflectionTestUtils.setField(service, "cardWidth", 20);
+        ReflectionTestUtils.setField(service, "detailWidth", 1200);
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.9f);
+        ReflectionTestUtils.setField(service, "maxSourcePixels", 1_000_000L);
+    }
+
+    @Test
+    void orientationSixIsRotatedClockwise() throws IOException {
+        BufferedImage detail = detailRendition(jpegWithOrientation(6));
+
+        // Displayed 90 degrees clockwise: portrait, with the stored left (red) half on top
+        assertThat(detail.getWidth()).isEqualTo(STORED_HEIGHT);
+        assertThat(detail.getHeight()).isEqualTo(STORED_WIDTH);
+        assertThat(isRed(detail.getRGB(STORED_HEIGHT / 2, STORED_WIDTH / 4))).isTrue();
+        assertThat(isRed(detail.getRGB(STORED_HEIGHT / 2, STORED_WIDTH * 3 / 4))).isFalse();
+    }
+
+    @Test
+    void imageWithoutOrientationIsKeptAsStored() throws IOException {
+        BufferedImage detail = detailRendition(jpeg());
+
+        assertThat(detail.getWidth()).isEqualTo(STORED_WIDTH);
+        assertThat(detail.getHeight()).isEqualTo(STORED_HEIGHT);
+        assertThat(isRed(detail.getRGB(STORED_WIDTH / 4, STORED_HEIGHT / 2))).isTrue();
+    }
+
+    private BufferedImage detailRendition(byte[] upload) throws IOException {
+        String key = blobStore.put(new ByteArrayInputStream(upload), "jpg").key();
+        service.submit(key);
+
+        String detailUrl = service.findReady(blobStore.urlFor(key)).orElseThrow().detailUrl();
+        try (InputStream in = blobStore.openStream(blobStore.keyFromUrl(detailUrl).orElseThrow())) {
+            return ImageIO.read(in);
+        }
+    }
+
+    private static byte[] jpeg() throws IOException {
+        BufferedImage image = new BufferedImage(STORED_WIDTH, STORED_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, STORED_WIDTH / 2, STORED_HEIGHT);
+        g.setColor(Color.BLUE);
+        g.fillRect(STORED_WIDTH / 2, 0, STORED_WIDTH / 2, STORED_HEIGHT);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * The JPEG with an APP1 segment (as a camera writes it) holding a big-endian TIFF header and
+     * an IFD0 with only the Orientation tag, inserted after the JFIF APP0 segment
+     */
+    private static byte[] jpegWithOrientation(int orientation) throws IOException {
+        byte[] jpeg = jpeg();
+        ByteBuffer exif = ByteBuffer.allocate(2 + 2 + 6 + 8 + 2 + 12 + 4);
+        exif.putShort((short) 0xFFE1).putShort((short) (exif.capacity() - 2));
+        exif.put("Exif".getBytes()).putShort((short) 0);
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        exif.putInt(0);
+
+        // SOI (2 bytes), then APP0: marker and its length
+        int app0End = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, app0End);
+        out.write(exif.array());
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    private static boolean isRed(int rgb) {
+        Color color = new Color(rgb);
+        return color.getRed() > 200 && color.getBlue() < 60;
+    }
+}
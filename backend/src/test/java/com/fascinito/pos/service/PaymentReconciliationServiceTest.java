@@ -0,0 +1,202 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.JobCheckpoint;
+import com.fascinito.pos.entity.Payment;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.JobCheckpointRepository;
+import com.fascinito.pos.repository.PaymentRepository;
+import com.razorpay.RazorpayException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk reconciliation: captured gateway payments are matched in memory against local pending
+ * payments, page by page and window by window, and the checkpoint only moves past windows
+ * that were read completely
+ */
+class PaymentReconciliationServiceTest {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final RazorpayApiClient razorpayApiClient = mock(RazorpayApiClient.class);
+    private final RazorpayService razorpayService = mock(RazorpayService.class);
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final JobCheckpointRepository jobCheckpointRepository = mock(JobCheckpointRepository.class);
+    private PaymentReconciliationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws RazorpayException {
+        JobRunner jobRunner = mock(JobRunner.class);
+        when(jobRunner.runExclusive(anyString(), any())).thenAnswer(call -> {
+            call.getArgument(1, Runnable.class).run();
+            return true;
+        });
+        // Per-item transactions as JobRunner runs them: a failing item goes to the failure handler
+        doAnswer(call -> {
+            Consumer<Long> action = call.getArgument(2);
+            BiConsumer<Long, RuntimeException> onFailure = call.getArgument(3);
+            for (Long id : (List<Long>) call.getArgument(1)) {
+                try {
+                    action.accept(id);
+                } catch (RuntimeException e) {
+                    onFailure.accept(id, e);
+                }
+            }
+            return null;
+        }).when(jobRunner).forEachInTransaction(anyString(), any(), any(), any());
+
+        service = new PaymentReconciliationService(razorpayApiClient, razorpayService, paymentRepository,
+                jobCheckpointRepository, jobRunner);
+        ReflectionTestUtils.setField(service, "windowMinutes", 60L);
+        ReflectionTestUtils.setField(service, "initialLookbackHours", 1L);
+        ReflectionTestUtils.setField(service, "overlapMinutes", 5L);
+        ReflectionTestUtils.setField(service, "settleLagMinutes", 2L);
+        ReflectionTestUtils.setField(service, "maxPaymentAgeDays", 7L);
+
+        when(jobCheckpointRepository.findById("payment-reconciliation")).thenReturn(Optional.empty());
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), anyInt(), anyInt())).thenReturn(page());
+        when(razorpayService.applyPaymentCaptured(any())).thenReturn(true);
+        pending(List.of(reconcilable(11L, "order_1"), reconcilable(12L, "order_2"), reconcilable(13L, "order_3")));
+    }
+
+    @Test
+    void capturedPaymentsAreMatchedAcrossPages() throws RazorpayException {
+        List<JSONObject> first = new ArrayList<>();
+        first.add(gatewayPayment("pay_1", "order_1", "captured"));
+        first.add(gatewayPayment("pay_2", "order_2", "failed"));
+        while (first.size() < PAGE_SIZE) {
+            first.add(gatewayPayment("pay_x" + first.size(), "order_elsewhere_" + first.size(), "captured"));
+        }
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), eq(PAGE_SIZE), eq(0)))
+                .thenReturn(page(first.toArray(JSONObject[]::new)));
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), eq(PAGE_SIZE), eq(PAGE_SIZE)))
+                .thenReturn(page(gatewayPayment("pay_3", "order_3", "captured")));
+
+        service.reconcilePayments();
+
+        verify(razorpayService).applyPaymentCaptured(argThat(payment -> payment.getString("id").equals("pay_1")));
+        verify(razorpayService).applyPaymentCaptured(argThat(payment -> payment.getString("id").equals("pay_3")));
+        verify(razorpayService, times(2)).applyPaymentCaptured(any());
+        assertThat(savedCheckpoints()).hasSize(1);
+    }
+
+    @Test
+    void nextRunResumesFromTheCheckpointLessTheOverlap() throws RazorpayException {
+        long checkpoint = Instant.now().minusSeconds(30 * 60).getEpochSecond();
+        when(jobCheckpointRepository.findById("payment-reconciliation"))
+                .thenReturn(Optional.of(new JobCheckpoint("payment-reconciliation", checkpoint, LocalDateTime.now())));
+
+        service.reconcilePayments();
+
+        verify(razorpayApiClient).listPayments(eq(checkpoint - 5 * 60), anyLong(), eq(PAGE_SIZE), eq(0));
+        assertThat(savedCheckpoints().get(0))
+                .isCloseTo(Instant.now().minusSeconds(2 * 60).getEpochSecond(), within(5L));
+    }
+
+    @Test
+    void gatewayFailureKeepsTheCheckpointAtTheLastCompleteWindow() throws RazorpayException {
+        ReflectionTestUtils.setField(service, "initialLookbackHours", 3L);
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(page(gatewayPayment("pay_1", "order_1", "captured")))
+                .thenThrow(new RazorpayException("Razorpay list_payments failed with HTTP 503"));
+
+        service.reconcilePayments();
+
+        // One window of three read; the match in it is still applied
+        List<Long> checkpoints = savedCheckpoints();
+        assertThat(checkpoints).hasSize(1);
+        assertThat(checkpoints.get(0))
+                .isCloseTo(Instant.now().minusSeconds(2 * 60 + 2 * 3600).getEpochSecond(), within(5L));
+        verify(razorpayService).applyPaymentCaptured(any());
+    }
+
+    @Test
+    void paymentThatCannotBeCompletedIsSetForReview() throws RazorpayException {
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(page(gatewayPayment("pay_1", "order_1", "captured")));
+        when(razorpayService.applyPaymentCaptured(any())).thenThrow(new IllegalStateException("order cancelled"));
+        Payment payment = new Payment();
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        when(paymentRepository.findById(11L)).thenReturn(Optional.of(payment));
+
+        service.reconcilePayments();
+
+        assertThat(payment.getStatus()).isEqualTo(Payment.PaymentStatus.NEEDS_REVIEW);
+        assertThat(payment.getFailureReason()).contains("pay_1").contains("order cancelled");
+        verify(paymentRepository).save(payment);
+        assertThat(savedCheckpoints()).hasSize(1);
+    }
+
+    @Test
+    void nothingIsAppliedWithoutLocalPendingPayments() throws RazorpayException {
+        pending(List.of());
+        when(razorpayApiClient.listPayments(anyLong(), anyLong(), anyInt(), anyInt()))
+                .thenReturn(page(gatewayPayment("pay_1", "order_1", "captured")));
+
+        service.reconcilePayments();
+
+        verify(razorpayService, never()).applyPaymentCaptured(any());
+        verify(razorpayApiClient, atLeastOnce()).listPayments(anyLong(), anyLong(), anyInt(), anyInt());
+    }
+
+    private List<Long> savedCheckpoints() {
+        ArgumentCaptor<JobCheckpoint> saved = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(jobCheckpointRepository, atLeastOnce()).save(saved.capture());
+        return saved.getAllValues().stream().map(JobCheckpoint::getLastPosition).toList();
+    }
+
+    private void pending(List<PaymentRepository.ReconcilablePayment> payments) {
+        when(paymentRepository.findReconcilable(any(), any())).thenReturn(payments);
+    }
+
+    private static PaymentRepository.ReconcilablePayment reconcilable(Long id, String razorpayOrderId) {
+        return new PaymentRepository.ReconcilablePayment() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getRazorpayOrderId() {
+                return razorpayOrderId;
+            }
+        };
+    }
+
+    private static JSONObject gatewayPayment(String id, String orderId, String status) {
+        return new JSONObject().put("id", id).put("order_id", orderId).put("status", status);
+    }
+
+    private static JSONObject page(JSONObject... payments) {
+        return new JSONObject().put("items", new JSONArray(payments));
+    }
+}
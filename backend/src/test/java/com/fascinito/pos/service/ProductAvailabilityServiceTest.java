@@ -0,0 +1,111 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductVariantCombination;
+import com.fascinito.pos.entity.ProductVariation;
+import com.fascinito.pos.entity.VariationOption;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The denormalized listing columns: stock and in-stock from the product or its active options,
+ * and the price range from active combinations or the effective product price
+ */
+class ProductAvailabilityServiceTest {
+
+    private final ProductAvailabilityService service = new ProductAvailabilityService();
+
+    @Test
+    void simpleProductUsesItsOwnStockAndEffectivePrice() {
+        Product product = product(true, 0);
+        product.setRegularPrice(new BigDecimal("999"));
+        product.setSalePrice(new BigDecimal("799"));
+
+        service.refresh(product);
+
+        assertThat(product.getInStock()).isFalse();
+        assertThat(product.getTotalAvailableStock()).isZero();
+        assertThat(product.getMinPrice()).isEqualByComparingTo("799");
+        assertThat(product.getMaxPrice()).isEqualByComparingTo("799");
+    }
+
+    @Test
+    void untrackedProductIsAlwaysInStock() {
+        Product product = product(false, 0);
+
+        service.refresh(product);
+
+        assertThat(product.getInStock()).isTrue();
+    }
+
+    @Test
+    void variationsUseTheirActiveOptions() {
+        Product product = product(true, 50);
+        product.setVariations(List.of(
+                variation(true, option(true, 4), option(true, 0), option(false, 1)),
+                variation(true, option(true, 9)),
+                variation(false, option(true, 1))));
+
+        service.refresh(product);
+
+        // Bottleneck of the active options; in stock while any of them has stock
+        assertThat(product.getTotalAvailableStock()).isZero();
+        assertThat(product.getInStock()).isTrue();
+    }
+
+    @Test
+    void variationsWithoutStockAreOutOfStock() {
+        Product product = product(true, 50);
+        product.setVariations(List.of(variation(true, option(true, 0), option(false, 6))));
+
+        service.refresh(product);
+
+        assertThat(product.getInStock()).isFalse();
+    }
+
+    @Test
+    void priceRangeComesFromActiveCombinations() {
+        Product product = product(true, 5);
+        product.setRegularPrice(new BigDecimal("999"));
+        product.setVariantCombinations(List.of(
+                combination(true, "1199"), combination(true, "899"), combination(false, "99"), combination(true, null)));
+
+        service.refresh(product);
+
+        assertThat(product.getMinPrice()).isEqualByComparingTo("899");
+        assertThat(product.getMaxPrice()).isEqualByComparingTo("1199");
+    }
+
+    private static Product product(boolean trackInventory, int stock) {
+        Product product = new Product();
+        product.setTrackInventory(trackInventory);
+        product.setStockQuantity(stock);
+        product.setRegularPrice(new BigDecimal("500"));
+        return product;
+    }
+
+    private static ProductVariation variation(boolean active, VariationOption... options) {
+        ProductVariation variation = new ProductVariation();
+        variation.setActive(active);
+        variation.setOptions(List.of(options));
+        return variation;
+    }
+
+    private static VariationOption option(boolean active, int stock) {
+        VariationOption option = new VariationOption();
+        option.setActive(active);
+        option.setStockQuantity(stock);
+        return option;
+    }
+
+    private static ProductVariantCombination combination(boolean active, String price) {
+        ProductVariantCombination combination = new ProductVariantCombination();
+        combination.setActive(active);
+        combination.setPrice(price != null ? new BigDecimal(price) : null);
+        return combination;
+    }
+}
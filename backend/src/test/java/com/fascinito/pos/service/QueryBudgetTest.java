@@ -0,0 +1,218 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.dto.order.OrderResponse;
+import com.fascinito.pos.dto.product.ProductResponse;
+import com.fascinito.pos.entity.Category;
+import com.fascinito.pos.entity.Order;
+import com.fascinito.pos.entity.OrderItem;
+import com.fascinito.pos.entity.OrderStatusHistory;
+import com.fascinito.pos.entity.Payment;
+import com.fascinito.pos.entity.Product;
+import com.fascinito.pos.entity.ProductImage;
+import com.fascinito.pos.entity.User;
+import com.fascinito.pos.entity.Wishlist;
+import com.fascinito.pos.jdbc.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets for the read endpoints that map lists of entities, at the service
+ * boundary the controllers call. Pages hold as many rows as one lazy-loading batch
+ * (default_batch_fetch_size), so every association costs one statement at most and a
+ * budget that grows with the number of rows is an N+1.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SqlInspectionConfig.class, ProductService.class, ProductAvailabilityService.class,
+        CategoryService.class, WishlistService.class, OrderService.class})
+// The counting DataSource post-processor takes @Value settings
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+class QueryBudgetTest {
+
+    private static final int ROWS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @MockBean
+    private CategoryTreeSnapshot categoryTreeSnapshot;
+
+    @MockBean
+    private RefundService refundService;
+
+    @MockBean
+    private IdGenerator idGenerator;
+
+    @MockBean
+    private EmailTemplateService emailTemplateService;
+
+    @MockBean
+    private MailService mailService;
+
+    @MockBean
+    private BusinessMetrics businessMetrics;
+
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        User user = new User();
+        user.setEmail("customer@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Test");
+        user.setLastName("Customer");
+        user.setPhone("9000000000");
+        entityManager.persist(user);
+        userId = user.getId();
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < ROWS; c++) {
+            Category category = new Category();
+            category.setName("Category " + c);
+            category.setSlug("category-" + c);
+            entityManager.persist(category);
+
+            Product product = new Product();
+            product.setTitle("Product " + c);
+            product.setSlug("product-" + c);
+            product.setSku("SKU-" + c);
+            product.setRegularPrice(new BigDecimal("100.00"));
+            product.setCategory(category);
+            // Availability summary as maintained by ProductAvailabilityService
+            product.setInStock(true);
+            product.setTotalAvailableStock(5);
+            product.setMinPrice(product.getRegularPrice());
+            product.setMaxPrice(product.getRegularPrice());
+            ProductImage image = new ProductImage();
+            image.setProduct(product);
+            image.setImageUrl("/blobs/" + c + ".jpg");
+            product.getImages().add(image);
+            entityManager.persist(product);
+            products.add(product);
+
+            Wishlist wishlist = new Wishlist();
+            wishlist.setUser(user);
+            wishlist.setProduct(product);
+            wishlist.setAddedAt(LocalDateTime.now());
+            entityManager.persist(wishlist);
+        }
+
+        for (int o = 0; o < ROWS; o++) {
+            entityManager.persist(order(o, user, products.get(o), products.get((o + 1) % ROWS)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void storefrontProductPage() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /products")) {
+            Page<ProductResponse> page = productService.getAllProducts(PageRequest.of(0, ROWS),
+                    null, null, null, null, true, true, null, null, null);
+            assertThat(page.getContent()).hasSize(ROWS);
+            // page select, count, first images
+            scope.assertQueryCount(3);
+        }
+    }
+
+    @Test
+    void productDetail() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /products/slug/{slug}")) {
+            assertThat(productService.getProductBySlug("product-3").getTitle()).isEqualTo("Product 3");
+            // product with images, variations, combinations, specifications
+            scope.assertQueryCount(4);
+        }
+    }
+
+    @Test
+    void adminCategoryPage() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /categories")) {
+            assertThat(categoryService.getAllCategories(PageRequest.of(0, ROWS), null, null).getContent())
+                    .hasSize(ROWS);
+            // page select, count, product counts for the page
+            scope.assertQueryCount(3);
+        }
+    }
+
+    @Test
+    void wishlist() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /wishlist")) {
+            assertThat(wishlistService.getUserWishlist(userId).getItems()).hasSize(ROWS);
+            // user, wishlist rows, their products, first images
+            scope.assertQueryCount(4);
+        }
+    }
+
+    @Test
+    void customerOrderPage() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("GET /orders")) {
+            Page<OrderResponse> page = orderService.getUserOrders(userId, PageRequest.of(0, ROWS));
+            assertThat(page.getContent()).hasSize(ROWS);
+            assertThat(page.getContent().get(0).getItems()).hasSize(2);
+            // user check, page select with payments, count, items with products and images,
+            // status history, refunds, refund requests
+            scope.assertQueryCount(7);
+        }
+    }
+
+    private Order order(int index, User user, Product first, Product second) {
+        Order order = new Order();
+        order.setOrderNumber("ORD-" + index);
+        order.setUser(user);
+        order.setSubtotal(new BigDecimal("200.00"));
+        order.setTaxAmount(BigDecimal.ZERO);
+        order.setTotalAmount(new BigDecimal("200.00"));
+        for (Product product : List.of(first, second)) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("100.00"));
+            item.setSubtotal(new BigDecimal("100.00"));
+            item.setTaxAmount(BigDecimal.ZERO);
+            item.setTotalPrice(new BigDecimal("100.00"));
+            order.getItems().add(item);
+        }
+        OrderStatusHistory history = new OrderStatusHistory();
+        history.setOrder(order);
+        history.setStatus(Order.OrderStatus.PENDING);
+        order.getStatusHistory().add(history);
+
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(new BigDecimal("200.00"));
+        payment.setPaymentMethod(Payment.PaymentMethod.RAZORPAY);
+        order.setPayment(payment);
+        return order;
+    }
+}
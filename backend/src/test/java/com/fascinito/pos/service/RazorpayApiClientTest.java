@@ -0,0 +1,160 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.tracing.Spans;
+import com.razorpay.RazorpayException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Timeouts, error classification and circuit breaking of the Razorpay REST client, against a
+ * local HTTP stub
+ */
+class RazorpayApiClientTest {
+
+    private static final long REQUEST_TIMEOUT_MS = 1000;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+    private volatile int status;
+    private volatile long delayMs;
+    private HttpServer stub;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        status = 200;
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/v1/refunds/", this::respond);
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void returnsTheParsedRefund() throws RazorpayException {
+        JSONObject refund = client(5, 60).fetchRefund("rfnd_1");
+
+        assertThat(refund.getString("id")).isEqualTo("rfnd_1");
+        assertThat(authorization.get()).isEqualTo("Basic "
+                + Base64.getEncoder().encodeToString("key:secret".getBytes(StandardCharsets.UTF_8)));
+        assertThat(calls("success")).isEqualTo(1);
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuitAndLaterCallsAreNotSent() {
+        RazorpayApiClient client = client(2, 60);
+        status = 503;
+
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(RazorpayException.class);
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(RazorpayException.class);
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(CircuitBreaker.OpenException.class);
+
+        assertThat(requests).hasValue(2);
+        assertThat(calls("server_error")).isEqualTo(2);
+        assertThat(meterRegistry.get("razorpay.api.circuit.open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        RazorpayApiClient client = client(2, 60);
+        status = 404;
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.fetchRefund("rfnd_missing"))
+                    .isInstanceOf(RazorpayException.class)
+                    .hasMessageContaining("HTTP 404");
+        }
+        assertThat(requests).hasValue(3);
+        assertThat(meterRegistry.get("razorpay.api.circuit.open").gauge().value()).isZero();
+    }
+
+    @Test
+    void slowResponseTimesOutAndCountsAsAFailure() {
+        RazorpayApiClient client = client(1, 60);
+        delayMs = REQUEST_TIMEOUT_MS * 3;
+
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1"))
+                .isInstanceOf(RazorpayException.class)
+                .hasMessageContaining("timed out");
+        assertThat(calls("timeout")).isEqualTo(1);
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(CircuitBreaker.OpenException.class);
+    }
+
+    @Test
+    void trialCallAfterTheOpenIntervalClosesTheCircuit() throws Exception {
+        RazorpayApiClient client = client(1, 1);
+        status = 500;
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(RazorpayException.class);
+        assertThatThrownBy(() -> client.fetchRefund("rfnd_1")).isInstanceOf(CircuitBreaker.OpenException.class);
+
+        status = 200;
+        Thread.sleep(1100);
+        assertThat(client.fetchRefund("rfnd_1").getString("id")).isEqualTo("rfnd_1");
+        assertThat(client.fetchRefund("rfnd_1").getString("id")).isEqualTo("rfnd_1");
+        assertThat(requests).hasValue(3);
+    }
+
+    private RazorpayApiClient client(int failureThreshold, long openSeconds) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> registry = mock(ObjectProvider.class);
+        when(registry.getIfAvailable(any())).thenReturn(meterRegistry);
+        String baseUrl = "http://" + stub.getAddress().getHostString() + ":" + stub.getAddress().getPort() + "/v1/";
+        return new RazorpayApiClient(baseUrl, "key", "secret", 1000, REQUEST_TIMEOUT_MS,
+                failureThreshold, openSeconds, registry, new Spans(Tracer.NOOP));
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get("razorpay.api.requests").tag("outcome", outcome).timer().count();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+        try {
+            if (delayMs > 0) {
+                Thread.sleep(delayMs);
+            }
+            String id = exchange.getRequestURI().getPath().substring("/v1/refunds/".length());
+            byte[] body = (status == 200 ? new JSONObject().put("id", id).put("status", "processed")
+                    : new JSONObject().put("error", "stub")).toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // the client gave up on a delayed response
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.config.SqlInspectionConfig;
+import com.fascinito.pos.entity.RazorpayWebhookEvent;
+import com.fascinito.pos.job.JobRunner;
+import com.fascinito.pos.repository.PaymentRepository;
+import com.fascinito.pos.repository.RazorpayWebhookEventRepository;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The webhook inbox on the razorpay_webhook_events table: verified, deduplicated deliveries,
+ * and a drain that applies events in order per Razorpay order, holding an order's later events
+ * back while an earlier one is retried. Every step commits, as the drain applies each event in
+ * its own transaction.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(SqlInspectionConfig.class)
+@ImportAutoConfiguration(PropertyPlaceholderAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RazorpayWebhookServiceTest {
+
+    private static final String SECRET = "webhook-secret";
+
+    @Autowired
+    private RazorpayWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RazorpayService razorpayService = mock(RazorpayService.class);
+    private final RefundService refundService = mock(RefundService.class);
+    private RazorpayWebhookService service;
+
+    @BeforeEach
+    void setUp() {
+        JobRunner jobRunner = mock(JobRunner.class);
+        when(jobRunner.runExclusive(anyString(), any())).thenAnswer(call -> {
+            call.getArgument(1, Runnable.class).run();
+            return true;
+        });
+        service = new RazorpayWebhookService(webhookEventRepository, paymentRepository, razorpayService,
+                refundService, transactionManager, jobRunner);
+        ReflectionTestUtils.setField(service, "webhookSecret", SECRET);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBaseSeconds", 30L);
+        when(razorpayService.applyPaymentCaptured(any())).thenReturn(true);
+        when(razorpayService.applyPaymentFailed(any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        webhookEventRepository.deleteAll();
+    }
+
+    @Test
+    void deliveryIsStoredOnce() {
+        byte[] body = paymentEvent("payment.captured", "pay_1", "order_A");
+
+        assertThat(service.receive(body, sign(body), "evt_1")).isTrue();
+        assertThat(service.receive(body, sign(body), "evt_1")).isFalse();
+
+        RazorpayWebhookEvent stored = webhookEventRepository.findAll().get(0);
+        assertThat(webhookEventRepository.count()).isEqualTo(1);
+        assertThat(stored.getOrderingKey()).isEqualTo("order_A");
+        assertThat(stored.getStatus()).isEqualTo(RazorpayWebhookEvent.Status.RECEIVED);
+    }
+
+    @Test
+    void deliveryWithoutEventIdIsDeduplicatedByBody() {
+        byte[] body = paymentEvent("payment.captured", "pay_1", "order_A");
+
+        assertThat(service.receive(body, sign(body), null)).isTrue();
+        assertThat(service.receive(body, sign(body), null)).isFalse();
+    }
+
+    @Test
+    void badSignatureIsRejected() {
+        byte[] body = paymentEvent("payment.captured", "pay_1", "order_A");
+        byte[] tampered = paymentEvent("payment.captured", "pay_2", "order_A");
+
+        assertThatThrownBy(() -> service.receive(tampered, sign(body), "evt_1")).isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> service.receive(body, null, "evt_1")).isInstanceOf(SecurityException.class);
+        ReflectionTestUtils.setField(service, "webhookSecret", "");
+        assertThatThrownBy(() -> service.receive(body, sign(body), "evt_1")).isInstanceOf(SecurityException.class);
+        assertThat(webhookEventRepository.count()).isZero();
+    }
+
+    @Test
+    void drainAppliesEventsAndIgnoresUnknownTypes() {
+        deliver("evt_1", paymentEvent("payment.captured", "pay_1", "order_A"));
+        deliver("evt_2", paymentEvent("payment.authorized", "pay_1", "order_A"));
+
+        service.processInbox();
+
+        verify(razorpayService).applyPaymentCaptured(argThat(payment -> payment.getString("id").equals("pay_1")));
+        assertThat(statuses()).containsEntry("evt_1", RazorpayWebhookEvent.Status.PROCESSED)
+                .containsEntry("evt_2", RazorpayWebhookEvent.Status.IGNORED);
+    }
+
+    @Test
+    void failedEventHoldsBackLaterEventsOfTheSameOrderOnly() {
+        when(razorpayService.applyPaymentCaptured(argThat(payment -> payment.getString("id").equals("pay_1"))))
+                .thenThrow(new IllegalStateException("lock timeout"));
+        deliver("evt_1", paymentEvent("payment.captured", "pay_1", "order_A"));
+        deliver("evt_2", paymentEvent("payment.failed", "pay_2", "order_A"));
+        deliver("evt_3", paymentEvent("payment.captured", "pay_3", "order_B"));
+
+        service.processInbox();
+
+        assertThat(statuses()).containsEntry("evt_1", RazorpayWebhookEvent.Status.RECEIVED)
+                .containsEntry("evt_2", RazorpayWebhookEvent.Status.RECEIVED)
+                .containsEntry("evt_3", RazorpayWebhookEvent.Status.PROCESSED);
+        RazorpayWebhookEvent failed = event("evt_1");
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("lock timeout");
+        assertThat(failed.getNextAttemptAt()).isNotNull();
+        verify(razorpayService, never()).applyPaymentFailed(any());
+
+        // Neither order_A event is due while the first one backs off
+        service.processInbox();
+        verify(razorpayService, times(1)).applyPaymentCaptured(argThat(payment -> payment.getString("id").equals("pay_1")));
+        verify(razorpayService, never()).applyPaymentFailed(any());
+    }
+
+    @Test
+    void eventIsGivenUpAfterTheLastAttemptAndReleasesItsOrder() {
+        ReflectionTestUtils.setField(service, "maxAttempts", 1);
+        when(razorpayService.applyPaymentCaptured(any())).thenThrow(new IllegalStateException("bad payload"));
+        deliver("evt_1", paymentEvent("payment.captured", "pay_1", "order_A"));
+        deliver("evt_2", paymentEvent("payment.failed", "pay_2", "order_A"));
+
+        service.processInbox();
+
+        assertThat(statuses()).containsEntry("evt_1", RazorpayWebhookEvent.Status.FAILED)
+                .containsEntry("evt_2", RazorpayWebhookEvent.Status.PROCESSED);
+    }
+
+    private void deliver(String eventId, byte[] body) {
+        assertThat(service.receive(body, sign(body), eventId)).isTrue();
+    }
+
+    private Map<String, RazorpayWebhookEvent.Status> statuses() {
+        return webhookEventRepository.findAll().stream()
+                .collect(Collectors.toMap(RazorpayWebhookEvent::getEventId, RazorpayWebhookEvent::getStatus));
+    }
+
+    private RazorpayWebhookEvent event(String eventId) {
+        return webhookEventRepository.findAll().stream()
+                .filter(event -> event.getEventId().equals(eventId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static byte[] paymentEvent(String type, String paymentId, String orderId) {
+        JSONObject payment = new JSONObject().put("id", paymentId).put("order_id", orderId)
+                .put("amount", 50000).put("currency", "INR");
+        return new JSONObject()
+                .put("event", type)
+                .put("payload", new JSONObject().put("payment", new JSONObject().put("entity", payment)))
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
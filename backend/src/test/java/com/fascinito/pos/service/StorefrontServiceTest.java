@@ -0,0 +1,147 @@
+package com.fascinito.pos.service;
+
+import com.fascinito.pos.dto.category.CategoryResponse;
+import com.fascinito.pos.dto.storefront.HomePageResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The home page snapshot: sections loaded concurrently, one build per catalog version, and the
+ * previous snapshot kept when a rebuild fails
+ */
+class StorefrontServiceTest {
+
+    private final BannerService bannerService = mock(BannerService.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private StorefrontService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StorefrontService(bannerService, productService, categoryService, catalogVersions,
+                executor, Runnable::run);
+        ReflectionTestUtils.setField(service, "featuredLimit", 8);
+        ReflectionTestUtils.setField(service, "categoryLimit", 2);
+        ReflectionTestUtils.setField(service, "newArrivalsLimit", 12);
+        ReflectionTestUtils.setField(service, "buildTimeoutSeconds", 5L);
+
+        when(bannerService.getActiveBanners()).thenReturn(List.of());
+        when(productService.getFeaturedProducts(any(Pageable.class))).thenReturn(Page.empty());
+        when(productService.getNewArrivals(anyInt())).thenReturn(List.of());
+        when(categoryService.getAllActiveCategories()).thenReturn(List.of());
+        version(1);
+    }
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void snapshotIsBuiltOncePerVersion() {
+        HomePageResponse first = service.getHomePage();
+        assertThat(service.getHomePage()).isSameAs(first);
+        assertThat(first.getVersion()).isEqualTo(1);
+        verify(bannerService, times(1)).getActiveBanners();
+
+        version(2);
+        HomePageResponse rebuilt = service.getHomePage();
+        assertThat(rebuilt.getVersion()).isEqualTo(2);
+        verify(bannerService, times(2)).getActiveBanners();
+    }
+
+    @Test
+    void sectionsAreLoadedConcurrently() {
+        // Each section only returns once all four have started
+        CountDownLatch started = new CountDownLatch(4);
+        when(bannerService.getActiveBanners()).thenAnswer(call -> awaitOthers(started, List.of()));
+        when(productService.getFeaturedProducts(any(Pageable.class)))
+                .thenAnswer(call -> awaitOthers(started, Page.empty()));
+        when(productService.getNewArrivals(anyInt())).thenAnswer(call -> awaitOthers(started, List.of()));
+        when(categoryService.getAllActiveCategories()).thenAnswer(call -> awaitOthers(started, List.of()));
+
+        assertThat(service.getHomePage().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void topCategoriesAreTheLargest() {
+        when(categoryService.getAllActiveCategories())
+                .thenReturn(List.of(category("Small", 1), category("Large", 30), category("Medium", 12)));
+
+        assertThat(service.getHomePage().getTopCategories())
+                .extracting(CategoryResponse::getName)
+                .containsExactly("Large", "Medium");
+    }
+
+    @Test
+    void failedRebuildServesThePreviousSnapshot() {
+        HomePageResponse previous = service.getHomePage();
+
+        version(2);
+        when(bannerService.getActiveBanners()).thenThrow(new IllegalStateException("database down"));
+        assertThat(service.getHomePage()).isSameAs(previous);
+    }
+
+    @Test
+    void firstBuildFailureIsThrown() {
+        when(bannerService.getActiveBanners()).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(service::getHomePage)
+                .hasMessageContaining("database down")
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void slowSectionFailsTheBuildAfterTheTimeout() {
+        ReflectionTestUtils.setField(service, "buildTimeoutSeconds", 1L);
+        CountDownLatch never = new CountDownLatch(1);
+        when(categoryService.getAllActiveCategories()).thenAnswer(call -> {
+            never.await();
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(service::getHomePage).hasMessageContaining("Failed to build storefront home page");
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+    }
+
+    private void version(long version) {
+        when(catalogVersions.version(CatalogVersions.ALL)).thenReturn(version);
+    }
+
+    private static <T> T awaitOthers(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("sections were loaded one after another");
+        }
+        return result;
+    }
+
+    private static CategoryResponse category(String name, int productCount) {
+        CategoryResponse response = new CategoryResponse();
+        response.setName(name);
+        response.setProductCount(productCount);
+        return response;
+    }
+}
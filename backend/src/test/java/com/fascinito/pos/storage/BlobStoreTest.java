@@ -0,0 +1,26 @@
+package com.fascinito.pos.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upload extensions come from the validated content type, never from the client's file name.
+ */
+class BlobStoreTest {
+
+    @Test
+    void acceptedImageTypesMapToTheirExtension() {
+        assertThat(BlobStore.imageExtension("image/jpeg")).isEqualTo("jpg");
+        assertThat(BlobStore.imageExtension("image/png")).isEqualTo("png");
+        assertThat(BlobStore.imageExtension("image/gif")).isEqualTo("gif");
+        assertThat(BlobStore.imageExtension("IMAGE/WEBP; charset=binary")).isEqualTo("webp");
+    }
+
+    @Test
+    void otherTypesAreRejected() {
+        assertThat(BlobStore.imageExtension(null)).isNull();
+        assertThat(BlobStore.imageExtension("image/svg+xml")).isNull();
+        assertThat(BlobStore.imageExtension("text/html")).isNull();
+    }
+}
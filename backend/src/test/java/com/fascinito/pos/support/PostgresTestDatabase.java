@@ -0,0 +1,66 @@
+package com.fascinito.pos.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Embedded PostgreSQL for tests of SQL that H2 does not speak (ON CONFLICT, SKIP LOCKED,
+ * clock_timestamp(), the Flyway migrations). One server per test JVM; every caller gets its
+ * own empty database. Tests using it are skipped when run as root, which initdb refuses.
+ */
+public final class PostgresTestDatabase {
+
+    private static EmbeddedPostgres server;
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * Create an empty database
+     * @param name Database name, unique per test class
+     */
+    public static synchronized DataSource create(String name) {
+        assumeFalse("root".equals(System.getProperty("user.name")), "PostgreSQL cannot run as root");
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException ignored) {
+                    // the temporary data directory is removed with the JVM's temp files
+                }
+            }));
+        }
+        new JdbcTemplate(server.getPostgresDatabase()).execute("DROP DATABASE IF EXISTS " + name);
+        new JdbcTemplate(server.getPostgresDatabase()).execute("CREATE DATABASE " + name);
+        return server.getDatabase("postgres", name);
+    }
+
+    /**
+     * Create a database with the schema of the Flyway migrations (db/migration)
+     * @param name Database name, unique per test class
+     */
+    public static DataSource createMigrated(String name) {
+        DataSource dataSource = create(name);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                // As in application.yml: CREATE INDEX CONCURRENTLY waits on a transactional lock
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        return dataSource;
+    }
+}
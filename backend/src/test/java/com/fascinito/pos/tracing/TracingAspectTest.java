@@ -0,0 +1,186 @@
+package com.fascinito.pos.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * One request through controller, service, repository, an external call and mail yields one
+ * trace of nested spans, named after the application types, as written by FileSpanExporter
+ */
+class TracingAspectTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path file;
+    private SdkTracerProvider tracerProvider;
+    private Spans spans;
+    private TracingAspect aspect;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = directory.resolve("spans.jsonl");
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "pos-backend")))
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file)))
+                .build();
+        spans = new Spans(new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> {
+        }));
+        aspect = new TracingAspect(spans);
+    }
+
+    @AfterEach
+    void shutDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void requestIsOneTraceOfNestedSpans() throws IOException {
+        OrderController controller = proxy(new OrderController(
+                proxy(new RefundService(proxy(new OrderRefundRepositoryImpl(), OrderRefundRepository.class), spans)),
+                proxy(mock(MailSender.class), MailSender.class)));
+
+        assertThat(controller.initiateRefund()).isEqualTo("rfnd_1");
+
+        List<JsonNode> exported = exported();
+        assertThat(exported).extracting(span -> span.get("name").asText()).containsExactly(
+                "OrderRefundRepository.save", "razorpay refund", "RefundService.initiateRefund", "smtp send",
+                "OrderController.initiateRefund");
+        assertThat(exported).extracting(span -> span.get("traceId").asText())
+                .containsOnly(exported.get(0).get("traceId").asText());
+
+        JsonNode controllerSpan = span(exported, "OrderController.initiateRefund");
+        JsonNode serviceSpan = span(exported, "RefundService.initiateRefund");
+        assertThat(controllerSpan.has("parentSpanId")).isFalse();
+        assertThat(controllerSpan.get("attributes").get("component").asText()).isEqualTo("controller");
+        assertThat(controllerSpan.get("service").asText()).isEqualTo("pos-backend");
+        assertThat(serviceSpan.get("parentSpanId")).isEqualTo(controllerSpan.get("spanId"));
+        assertThat(span(exported, "OrderRefundRepository.save").get("parentSpanId")).isEqualTo(serviceSpan.get("spanId"));
+
+        JsonNode razorpay = span(exported, "razorpay refund");
+        assertThat(razorpay.get("kind").asText()).isEqualTo("CLIENT");
+        assertThat(razorpay.get("parentSpanId")).isEqualTo(serviceSpan.get("spanId"));
+        assertThat(span(exported, "smtp send").get("kind").asText()).isEqualTo("CLIENT");
+    }
+
+    @Test
+    void failureIsRecordedOnTheSpanAndRethrown() throws IOException {
+        IllegalStateException failure = new IllegalStateException("gateway down");
+
+        assertThatThrownBy(() -> spans.client("razorpay refund", "razorpay", () -> {
+            throw failure;
+        })).isSameAs(failure);
+
+        JsonNode span = span(exported(), "razorpay refund");
+        assertThat(span.get("status").asText()).isEqualTo("ERROR");
+        assertThat(span.get("events").toString()).contains("exception");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target, Class<?>... interfaces) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        if (interfaces.length > 0) {
+            factory.setInterfaces(interfaces);
+        } else {
+            factory.setProxyTargetClass(true);
+        }
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+
+    private List<JsonNode> exported() throws IOException {
+        List<JsonNode> exported = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            exported.add(objectMapper.readTree(line));
+        }
+        return exported;
+    }
+
+    private static JsonNode span(List<JsonNode> exported, String name) {
+        return exported.stream().filter(span -> span.get("name").asText().equals(name)).findFirst().orElseThrow();
+    }
+
+    @RestController
+    static class OrderController {
+
+        private final RefundService refundService;
+        private final MailSender mailSender;
+
+        OrderController() {
+            this(null, null);
+        }
+
+        OrderController(RefundService refundService, MailSender mailSender) {
+            this.refundService = refundService;
+            this.mailSender = mailSender;
+        }
+
+        public String initiateRefund() {
+            String refundId = refundService.initiateRefund();
+            mailSender.send(new SimpleMailMessage());
+            return refundId;
+        }
+    }
+
+    @Service
+    static class RefundService {
+
+        private final OrderRefundRepository orderRefundRepository;
+        private final Spans spans;
+
+        RefundService() {
+            this(null, null);
+        }
+
+        RefundService(OrderRefundRepository orderRefundRepository, Spans spans) {
+            this.orderRefundRepository = orderRefundRepository;
+            this.spans = spans;
+        }
+
+        public String initiateRefund() {
+            orderRefundRepository.save("pending");
+            return spans.client("razorpay refund", "razorpay", () -> "rfnd_1");
+        }
+    }
+
+    interface OrderRefundRepository extends Repository<String, Long> {
+
+        String save(String refund);
+    }
+
+    static class OrderRefundRepositoryImpl implements OrderRefundRepository {
+
+        @Override
+        public String save(String refund) {
+            return refund;
+        }
+    }
+}
@@ -31,7 +31,7 @@ interface Product {
   salePrice?: number
   rating?: number
   reviewCount?: number
-  images?: Array<{ url: string } | string>
+  images?: Array<{ url: string; cardUrl?: string } | string>
 }
 
 const RelatedProducts: React.FC<RelatedProductsProps> = ({ productId, limit = 6 }) => {
@@ -66,13 +66,14 @@ const RelatedProducts: React.FC<RelatedProductsProps> = ({ productId, limit = 6
   }, [productId, limit])
 
   // Helper to get image URL
-  const getProductImage = (images?: Array<{ url: string } | string>): string => {
+  const getProductImage = (images?: Array<{ url: string; cardUrl?: string } | string>): string => {
     if (!images || images.length === 0) {
       return 'https://via.placeholder.com/300x300?text=No+Image'
     }
 
     const firstImage = images[0]
-    const imageUrl = typeof firstImage === 'string' ? firstImage : firstImage.url
+    // Prefer the resized card rendition when it has been generated
+    const imageUrl = typeof firstImage === 'string' ? firstImage : (firstImage.cardUrl || firstImage.url)
 
     // Format image URL with API base if needed
     if (imageUrl.startsWith('http')) {
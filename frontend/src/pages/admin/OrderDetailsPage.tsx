@@ -144,7 +144,8 @@ export default function AdminOrderDetailsPage() {
   }
 
   const canProcessRefund = () => {
-    return order && order.status === 'CANCELLED' && order.payment?.status === 'COMPLETED'
+    return order && order.status === 'CANCELLED' &&
+      (order.payment?.status === 'COMPLETED' || order.payment?.status === 'NEEDS_REVIEW')
   }
 
   const getRefundStatusColor = (status?: string) => {
@@ -121,8 +121,8 @@ export default function Home() {
           // If no imageUrl, try to get from images array
           if (!imageUrl && product.images && product.images.length > 0) {
             const firstImage = product.images[0]
-            // Handle both object with url property and string
-            imageUrl = typeof firstImage === 'string' ? firstImage : firstImage.url
+            // Handle both object with url property and string (prefer the resized card rendition)
+            imageUrl = typeof firstImage === 'string' ? firstImage : (firstImage.cardUrl || firstImage.url)
           }
 
           // Apply getImageUrl helper to convert relative paths to API URLs